@@ -8,7 +8,6 @@ import org.aspectj.lang.annotation.Aspect;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.annotation.Order;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestAttributes;
 import org.springframework.web.context.request.RequestContextHolder;
@@ -20,6 +19,7 @@ import org.xhy.community.infrastructure.util.activitylog.TargetInfo;
 import org.xhy.community.infrastructure.util.activitylog.UrlPatternParser;
 import org.xhy.community.infrastructure.config.JwtUtil;
 import org.xhy.community.infrastructure.context.UserActivityContext;
+import org.xhy.community.infrastructure.ingest.ActivityLogIngestionPipeline;
 import org.xhy.community.infrastructure.util.HttpRequestInfoExtractor;
 import org.xhy.community.application.log.assembler.BusinessActivityLogAssembler;
 import org.xhy.community.domain.log.entity.UserActivityLogEntity;
@@ -34,7 +34,7 @@ import jakarta.servlet.http.HttpServletRequest;
  * <ul>
  *   <li>自动从URL解析目标类型和ID</li>
  *   <li>提取HTTP请求上下文信息</li>
- *   <li>异步记录活动日志，不影响主业务性能</li>
+ *   <li>通过日志写入管道批量落库，不影响主业务性能</li>
  *   <li>完善的错误处理和降级机制</li>
  * </ul>
  * 
@@ -42,7 +42,7 @@ import jakarta.servlet.http.HttpServletRequest;
  * <ul>
  *   <li>极简使用：只需@ActivityLog(ActivityType.VIEW_POST)</li>
  *   <li>自动解析：无需手动指定目标类型和ID</li>  
- *   <li>高性能：异步处理，独立线程池</li>
+ *   <li>高性能：有界队列 + 后台批量写入，满载时丢弃并计数</li>
  *   <li>可扩展：支持新的URL模式配置</li>
  * </ul>
  */
@@ -54,13 +54,16 @@ public class BusinessActivityLogAspect {
     private static final Logger logger = LoggerFactory.getLogger(BusinessActivityLogAspect.class);
     
     private final UserActivityLogDomainService userActivityLogDomainService;
+    private final ActivityLogIngestionPipeline activityLogIngestionPipeline;
     private final ObjectMapper objectMapper;
     private final JwtUtil jwtUtil;
     
     public BusinessActivityLogAspect(UserActivityLogDomainService userActivityLogDomainService,
+                                     ActivityLogIngestionPipeline activityLogIngestionPipeline,
                                      ObjectMapper objectMapper,
                                      JwtUtil jwtUtil) {
         this.userActivityLogDomainService = userActivityLogDomainService;
+        this.activityLogIngestionPipeline = activityLogIngestionPipeline;
         this.objectMapper = objectMapper;
         this.jwtUtil = jwtUtil;
     }
@@ -107,22 +110,14 @@ public class BusinessActivityLogAspect {
             Object result = joinPoint.proceed();
             
             // 记录成功日志
-            if (activityLog.async()) {
-                recordActivityAsync(context, userActivityContext, startTime, null);
-            } else {
-                recordActivity(context, userActivityContext, startTime, null);
-            }
+            recordActivity(context, userActivityContext, startTime, null, activityLog.async());
             
             return result;
             
         } catch (Exception e) {
             // 记录失败日志
             String errorMessage = e.getMessage();
-            if (activityLog.async()) {
-                recordActivityAsync(context, userActivityContext, startTime, errorMessage);
-            } else {
-                recordActivity(context, userActivityContext, startTime, errorMessage);
-            }
+            recordActivity(context, userActivityContext, startTime, errorMessage, activityLog.async());
             
             // 重新抛出异常，保持原有业务逻辑
             throw e;
@@ -275,21 +270,6 @@ public class BusinessActivityLogAspect {
         }
     }
     
-    /**
-     * 异步记录活动日志
-     * 使用专用线程池确保日志记录不会影响主业务流程的性能
-     * 
-     * @param context 活动上下文
-     * @param userActivityContext 用户活动上下文（包含浏览器、设备信息）
-     * @param startTime 开始时间
-     * @param errorMessage 错误信息，成功时为null
-     */
-    @Async("businessActivityExecutor")
-    protected void recordActivityAsync(ActivityContext context, UserActivityContext userActivityContext, 
-                                     long startTime, String errorMessage) {
-        recordActivity(context, userActivityContext, startTime, errorMessage);
-    }
-    
     /**
      * 记录活动日志
      * 
@@ -297,9 +277,10 @@ public class BusinessActivityLogAspect {
      * @param userActivityContext 用户活动上下文（包含浏览器、设备信息）
      * @param startTime 开始时间
      * @param errorMessage 错误信息，成功时为null
+     * @param async 是否经日志写入管道异步批量写入；否则在当前线程直接写库
      */
     private void recordActivity(ActivityContext context, UserActivityContext userActivityContext, 
-                               long startTime, String errorMessage) {
+                               long startTime, String errorMessage, boolean async) {
         try {
             int executionTime = (int) (System.currentTimeMillis() - startTime);
             
@@ -311,8 +292,12 @@ public class BusinessActivityLogAspect {
                     errorMessage
             );
             
-            // 调用领域服务（接收实体）持久化
-            userActivityLogDomainService.recordBusinessActivity(entity);
+            if (async) {
+                activityLogIngestionPipeline.submit(entity);
+            } else {
+                // 调用领域服务（接收实体）持久化
+                userActivityLogDomainService.recordBusinessActivity(entity);
+            }
             
             // 成功记录业务活动，无需输出调试日志以免产生噪音
                         
@@ -4,12 +4,12 @@ import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.springframework.core.annotation.Order;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 import org.xhy.community.infrastructure.annotation.LogUserActivity;
 import org.xhy.community.infrastructure.context.UserActivityContext;
 import org.xhy.community.infrastructure.util.HttpRequestInfoExtractor;
-import org.xhy.community.domain.log.service.UserActivityLogDomainService;
+import org.xhy.community.domain.log.entity.UserActivityLogEntity;
+import org.xhy.community.infrastructure.ingest.ActivityLogIngestionPipeline;
 import org.xhy.community.domain.common.valueobject.ActivityType;
 import org.xhy.community.interfaces.user.request.LoginRequest;
 import org.xhy.community.interfaces.user.request.RegisterRequest;
@@ -30,10 +30,10 @@ public class UserActivityLogAspect {
     
     private static final Logger logger = LoggerFactory.getLogger(UserActivityLogAspect.class);
     
-    private final UserActivityLogDomainService userActivityLogDomainService;
+    private final ActivityLogIngestionPipeline activityLogIngestionPipeline;
     
-    public UserActivityLogAspect(UserActivityLogDomainService userActivityLogDomainService) {
-        this.userActivityLogDomainService = userActivityLogDomainService;
+    public UserActivityLogAspect(ActivityLogIngestionPipeline activityLogIngestionPipeline) {
+        this.activityLogIngestionPipeline = activityLogIngestionPipeline;
     }
     
     /**
@@ -51,7 +51,7 @@ public class UserActivityLogAspect {
             // 记录成功日志
             if (logUserActivity.logSuccess()) {
                 String userId = extractUserIdFromResult(result);
-                recordActivityAsync(
+                recordActivity(
                     userId, 
                     logUserActivity.successType(), 
                     context, 
@@ -64,7 +64,7 @@ public class UserActivityLogAspect {
         } catch (Exception e) {
             // 记录失败日志
             if (logUserActivity.logFailure()) {
-                recordActivityAsync(
+                recordActivity(
                     null, // 失败时用户ID为null
                     logUserActivity.failureType(), 
                     context, 
@@ -107,25 +107,21 @@ public class UserActivityLogAspect {
     }
     
     /**
-     * 异步记录用户活动日志
-     * 使用专用线程池确保日志记录不会影响主业务流程的性能
+     * 记录用户活动日志
+     * 仅装配实体并提交到日志写入管道，由管道后台批量写库，不占用请求线程
      */
-    @Async("userActivityLogExecutor")
-    protected void recordActivityAsync(String userId, ActivityType activityType,
-                                   UserActivityContext context, String failureReason) {
+    private void recordActivity(String userId, ActivityType activityType,
+                                UserActivityContext context, String failureReason) {
         try {
-            userActivityLogDomainService.recordActivity(
-                userId,
-                activityType,
-                context.getBrowser(),
-                context.getEquipment(),
-                context.getIp(),
-                context.getUserAgent(),
-                failureReason
-            );
-            
-            // 成功记录用户活动，无需输出调试日志以免产生噪音
-                        
+            UserActivityLogEntity activityLog = new UserActivityLogEntity();
+            activityLog.setUserId(userId);
+            activityLog.setActivityType(activityType);
+            activityLog.setBrowser(context.getBrowser());
+            activityLog.setEquipment(context.getEquipment());
+            activityLog.setIp(context.getIp());
+            activityLog.setUserAgent(context.getUserAgent());
+            activityLog.setFailureReason(failureReason);
+            activityLogIngestionPipeline.submit(activityLog);
         } catch (Exception e) {
             // 日志记录失败不应该影响主业务，只记录警告日志
             logger.error("Failed to record user activity log: userId={}, type={}, error={}", 
@@ -67,6 +67,13 @@ public class AdminSystemConfigAppService {
         return getConfigByType(type);
     }
 
+    /**
+     * 重载系统配置缓存（广播到所有节点）
+     */
+    public void reloadConfigCache() {
+        systemConfigDomainService.reloadConfigCache();
+    }
+
     /**
      * 获取带套餐名称的默认套餐配置
      */
@@ -26,6 +26,7 @@ public class ChapterAssembler {
 
         FrontChapterDetailDTO dto = new FrontChapterDetailDTO();
         BeanUtils.copyProperties(entity, dto);
+        dto.setReadingTime(entity.resolveReadingTime());
         dto.setCourseName(courseName);
         return dto;
     }
@@ -128,9 +128,7 @@ public class CourseAssembler {
 
             // 聚合总阅读时长
             int totalReadingTime = chapters.stream()
-                    .map(ChapterEntity::getReadingTime)
-                    .filter(java.util.Objects::nonNull)
-                    .mapToInt(Integer::intValue)
+                    .mapToInt(ChapterEntity::resolveReadingTime)
                     .sum();
             dto.setTotalReadingTime(totalReadingTime);
         }
@@ -148,6 +146,7 @@ public class CourseAssembler {
 
         FrontCourseDetailDTO.FrontChapterDTO dto = new FrontCourseDetailDTO.FrontChapterDTO();
         BeanUtils.copyProperties(entity, dto);
+        dto.setReadingTime(entity.resolveReadingTime());
         return dto;
     }
 
@@ -71,9 +71,7 @@ public class PublicCourseAssembler {
             dto.setChapters(chapterDTOs);
 
             int totalReadingTime = chapters.stream()
-                    .map(ChapterEntity::getReadingTime)
-                    .filter(java.util.Objects::nonNull)
-                    .mapToInt(Integer::intValue)
+                    .mapToInt(ChapterEntity::resolveReadingTime)
                     .sum();
             dto.setTotalReadingTime(totalReadingTime);
         }
@@ -96,6 +94,7 @@ public class PublicCourseAssembler {
         }
         PublicCourseDetailDTO.FrontChapterDTO dto = new PublicCourseDetailDTO.FrontChapterDTO();
         BeanUtils.copyProperties(entity, dto);
+        dto.setReadingTime(entity.resolveReadingTime());
         return dto;
     }
 }
@@ -11,6 +11,8 @@ public class ChapterDTO {
     private String authorId;
     private Integer sortOrder;
     private Integer readingTime;
+    /** 预计阅读时长（分钟，由正文估算；readingTime 未填写时前台展示该值） */
+    private Integer estimatedReadingTime;
     private LocalDateTime createTime;
     private LocalDateTime updateTime;
     private Integer likeCount;
@@ -40,6 +42,9 @@ public class ChapterDTO {
     public Integer getReadingTime() { return readingTime; }
     public void setReadingTime(Integer readingTime) { this.readingTime = readingTime; }
     
+    public Integer getEstimatedReadingTime() { return estimatedReadingTime; }
+    public void setEstimatedReadingTime(Integer estimatedReadingTime) { this.estimatedReadingTime = estimatedReadingTime; }
+    
     public LocalDateTime getCreateTime() { return createTime; }
     public void setCreateTime(LocalDateTime createTime) { this.createTime = createTime; }
     
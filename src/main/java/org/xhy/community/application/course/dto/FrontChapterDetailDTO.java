@@ -18,7 +18,7 @@ public class FrontChapterDetailDTO {
     private LocalDateTime createTime;
     private LocalDateTime updateTime;
     private Integer likeCount;
-    /** 章节内容类型：VIDEO 或 TEXT（通过 MarkdownParser 解析内容得到） */
+    /** 章节内容类型：VIDEO 或 TEXT（保存章节时由内容分析得出） */
     private ChapterContentType contentType;
     /** AI 生成的评论摘要（可为空） */
     private String aiSummary;
@@ -8,6 +8,8 @@ import org.xhy.community.domain.cdk.event.CDKActivatedEvent;
 import org.xhy.community.domain.cdk.valueobject.CDKType;
 import org.xhy.community.domain.course.service.CourseDomainService;
 import org.xhy.community.domain.user.service.UserDomainService;
+import org.xhy.community.infrastructure.cache.EffectivePermissionCache;
+import org.xhy.community.infrastructure.cache.ResourceAccessCache;
 
 @Component
 public class CourseCDKEventListener {
@@ -16,11 +18,17 @@ public class CourseCDKEventListener {
 
     private final CourseDomainService courseDomainService;
     private final UserDomainService userDomainService;
+    private final ResourceAccessCache resourceAccessCache;
+    private final EffectivePermissionCache effectivePermissionCache;
 
     public CourseCDKEventListener(CourseDomainService courseDomainService,
-                                UserDomainService userDomainService) {
+                                UserDomainService userDomainService,
+                                ResourceAccessCache resourceAccessCache,
+                                EffectivePermissionCache effectivePermissionCache) {
         this.courseDomainService = courseDomainService;
         this.userDomainService = userDomainService;
+        this.resourceAccessCache = resourceAccessCache;
+        this.effectivePermissionCache = effectivePermissionCache;
     }
 
     @EventListener
@@ -35,6 +43,8 @@ public class CourseCDKEventListener {
 
             // 2. 授予用户课程权限
             userDomainService.grantCourseToUser(event.getUserId(), event.getTargetId());
+            resourceAccessCache.evictUser(event.getUserId());
+            effectivePermissionCache.evictUser(event.getUserId());
             log.info("[CDK激活-监听] 已授予课程权限: userId={}, courseId={}", event.getUserId(), event.getTargetId());
         }
     }
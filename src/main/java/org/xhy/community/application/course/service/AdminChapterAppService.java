@@ -15,8 +15,11 @@ import org.xhy.community.domain.course.query.ChapterQuery;
 import org.xhy.community.domain.like.service.LikeDomainService;
 import org.xhy.community.domain.like.valueobject.LikeTargetType;
 import org.xhy.community.application.like.helper.LikeCountHelper;
+import org.xhy.community.infrastructure.cache.ResourceAccessCache;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,13 +28,16 @@ public class AdminChapterAppService {
     private final ChapterDomainService chapterDomainService;
     private final ResourceBindingDomainService resourceBindingDomainService;
     private final LikeDomainService likeDomainService;
+    private final ResourceAccessCache resourceAccessCache;
     
     public AdminChapterAppService(ChapterDomainService chapterDomainService,
                                   ResourceBindingDomainService resourceBindingDomainService,
-                                  LikeDomainService likeDomainService) {
+                                  LikeDomainService likeDomainService,
+                                  ResourceAccessCache resourceAccessCache) {
         this.chapterDomainService = chapterDomainService;
         this.resourceBindingDomainService = resourceBindingDomainService;
         this.likeDomainService = likeDomainService;
+        this.resourceAccessCache = resourceAccessCache;
     }
     
     public ChapterDTO createChapter(CreateChapterRequest request, String authorId) {
@@ -39,10 +45,11 @@ public class AdminChapterAppService {
         
         ChapterEntity createdChapter = chapterDomainService.createChapter(chapter);
 
-        // 同步章节中的资源绑定（Domain 解析 Markdown 并抽取业务ID）
+        // 同步章节中的资源绑定（资源ID已在保存时由内容分析得出，无需再次解析 Markdown）
         try {
-            resourceBindingDomainService.syncBindingsForChapterFromMarkdown(createdChapter.getId(), request.getContent());
+            resourceBindingDomainService.syncBindingsForChapter(createdChapter.getId(), resourceIdsOf(createdChapter));
         } catch (Exception ignore) {}
+        resourceAccessCache.evictResources();
 
         ChapterDTO dto = ChapterAssembler.toDTO(createdChapter);
         dto.setLikeCount(0);
@@ -54,10 +61,11 @@ public class AdminChapterAppService {
         
         ChapterEntity updatedChapter = chapterDomainService.updateChapter(chapter);
 
-        // 同步章节中的资源绑定（Domain 解析 Markdown 并抽取业务ID）
+        // 同步章节中的资源绑定（资源ID已在保存时由内容分析得出，无需再次解析 Markdown）
         try {
-            resourceBindingDomainService.syncBindingsForChapterFromMarkdown(updatedChapter.getId(), request.getContent());
+            resourceBindingDomainService.syncBindingsForChapter(updatedChapter.getId(), resourceIdsOf(updatedChapter));
         } catch (Exception ignore) {}
+        resourceAccessCache.evictResources();
 
         ChapterDTO dto = ChapterAssembler.toDTO(updatedChapter);
         dto.setLikeCount(LikeCountHelper.getLikeCount(updatedChapter.getId(), LikeTargetType.CHAPTER, likeDomainService));
@@ -66,6 +74,7 @@ public class AdminChapterAppService {
     
     public void deleteChapter(String chapterId) {
         chapterDomainService.deleteChapter(chapterId);
+        resourceAccessCache.evictResources();
     }
     
     public ChapterDTO getChapterById(String chapterId) {
@@ -103,5 +112,7 @@ public class AdminChapterAppService {
         chapterDomainService.batchUpdateChapterOrder(request.getChapterIds());
     }
 
-    // 资源ID解析逻辑：由 Domain 调用 Infrastructure MarkdownParser 完成
+    private Set<String> resourceIdsOf(ChapterEntity chapter) {
+        return chapter.getResourceIds() == null ? Set.of() : new HashSet<>(chapter.getResourceIds());
+    }
 }
@@ -12,6 +12,7 @@ import org.xhy.community.domain.course.valueobject.CourseStatus;
 import org.xhy.community.domain.like.service.LikeDomainService;
 import org.xhy.community.domain.like.valueobject.LikeTargetType;
 import org.xhy.community.application.like.helper.LikeCountHelper;
+import org.xhy.community.infrastructure.cache.ResourceAccessCache;
 import org.xhy.community.interfaces.course.request.CreateCourseRequest;
 import org.xhy.community.interfaces.course.request.UpdateCourseRequest;
 import org.xhy.community.interfaces.course.request.CourseQueryRequest;
@@ -23,11 +24,14 @@ public class AdminCourseAppService {
     
     private final CourseDomainService courseDomainService;
     private final LikeDomainService likeDomainService;
+    private final ResourceAccessCache resourceAccessCache;
     
     public AdminCourseAppService(CourseDomainService courseDomainService,
-                                 LikeDomainService likeDomainService) {
+                                 LikeDomainService likeDomainService,
+                                 ResourceAccessCache resourceAccessCache) {
         this.courseDomainService = courseDomainService;
         this.likeDomainService = likeDomainService;
+        this.resourceAccessCache = resourceAccessCache;
     }
     
     public CourseDTO createCourse(CreateCourseRequest request, String authorId) {
@@ -48,6 +52,8 @@ public class AdminCourseAppService {
 
     public void deleteCourse(String courseId) {
         courseDomainService.deleteCourse(courseId);
+        // 资源索引中可能仍指向已删除课程，索引与结论一并失效
+        resourceAccessCache.evictResources();
     }
     
     public CourseDTO getCourseById(String courseId) {
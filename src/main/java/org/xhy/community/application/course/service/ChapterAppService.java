@@ -9,6 +9,7 @@ import org.xhy.community.domain.course.entity.ChapterEntity;
 import org.xhy.community.domain.course.entity.CourseEntity;
 import org.xhy.community.domain.course.service.ChapterDomainService;
 import org.xhy.community.domain.course.service.CourseDomainService;
+import org.xhy.community.domain.course.valueobject.ChapterContentKind;
 import org.xhy.community.domain.like.service.LikeDomainService;
 import org.xhy.community.domain.like.valueobject.LikeTargetType;
 import org.xhy.community.application.like.helper.LikeCountHelper;
@@ -18,9 +19,6 @@ import org.xhy.community.domain.summary.service.DiscussionSummaryDomainService;
 import org.xhy.community.domain.summary.entity.DiscussionSummaryEntity;
 import org.xhy.community.domain.summary.valueobject.SummaryTargetType;
 import org.xhy.community.infrastructure.exception.CourseErrorCode;
-import org.xhy.community.infrastructure.markdown.MarkdownParser;
-import org.xhy.community.infrastructure.markdown.model.MarkdownNode;
-import org.xhy.community.infrastructure.markdown.model.NodeType;
 
 import java.util.List;
 import java.util.Map;
@@ -38,20 +36,17 @@ public class ChapterAppService {
     private final CourseDomainService courseDomainService;
     private final UserPermissionAppService userPermissionAppService;
     private final LikeDomainService likeDomainService;
-    private final MarkdownParser markdownParser;
     private final DiscussionSummaryDomainService discussionSummaryDomainService;
 
     public ChapterAppService(ChapterDomainService chapterDomainService,
                             CourseDomainService courseDomainService,
                             UserPermissionAppService userPermissionAppService,
                             LikeDomainService likeDomainService,
-                            MarkdownParser markdownParser,
                             DiscussionSummaryDomainService discussionSummaryDomainService) {
         this.chapterDomainService = chapterDomainService;
         this.courseDomainService = courseDomainService;
         this.userPermissionAppService = userPermissionAppService;
         this.likeDomainService = likeDomainService;
-        this.markdownParser = markdownParser;
         this.discussionSummaryDomainService = discussionSummaryDomainService;
     }
 
@@ -71,14 +66,12 @@ public class ChapterAppService {
         // 验证用户是否有权限访问该章节
         validateChapterAccess(chapter.getCourseId(), userId);
 
-        FrontChapterDetailDTO dto = ChapterAssembler.toFrontDetailDTO(chapter, course.getTitle());
-        // 解析 Markdown 内容，判断是否包含视频节点，返回章节内容类型
+        // 内容类型在保存章节时已预先分析；历史章节首次查看时补算一次
         try {
-            MarkdownNode root = markdownParser.parse(chapter.getContent());
-            dto.setContentType(hasVideoNode(root) ? ChapterContentType.VIDEO : ChapterContentType.TEXT);
-        } catch (Exception e) {
-            dto.setContentType(ChapterContentType.TEXT);
-        }
+            chapterDomainService.ensureContentMetadata(chapter);
+        } catch (Exception ignore) {}
+        FrontChapterDetailDTO dto = ChapterAssembler.toFrontDetailDTO(chapter, course.getTitle());
+        dto.setContentType(chapter.getContentType() == ChapterContentKind.VIDEO ? ChapterContentType.VIDEO : ChapterContentType.TEXT);
         dto.setLikeCount(LikeCountHelper.getLikeCount(chapterId, LikeTargetType.CHAPTER, likeDomainService));
         // 组装AI摘要（通用讨论摘要-章节）
         DiscussionSummaryEntity ds = discussionSummaryDomainService.getByTarget(SummaryTargetType.CHAPTER, chapterId);
@@ -86,17 +79,6 @@ public class ChapterAppService {
         return dto;
     }
 
-    private boolean hasVideoNode(MarkdownNode node) {
-        if (node == null) return false;
-        if (node.getType() == NodeType.VIDEO) return true;
-        if (node.getChildren() != null) {
-            for (MarkdownNode c : node.getChildren()) {
-                if (hasVideoNode(c)) return true;
-            }
-        }
-        return false;
-    }
-
     /**
      * 获取最新的5条课程章节
      *
@@ -127,7 +109,7 @@ public class ChapterAppService {
         dto.setCourseId(chapter.getCourseId());
         dto.setCourseName(courseTitleMap.get(chapter.getCourseId()));
         dto.setSortOrder(chapter.getSortOrder());
-        dto.setReadingTime(chapter.getReadingTime());
+        dto.setReadingTime(chapter.resolveReadingTime());
         dto.setCreateTime(chapter.getCreateTime());
 
         return dto;
@@ -239,8 +239,7 @@ public class CourseAppService {
         for (ChapterEntity ch : chapters) {
             String cid = ch.getCourseId();
             countMap.merge(cid, 1, Integer::sum);
-            Integer rt = ch.getReadingTime();
-            totalMap.merge(cid, rt == null ? 0 : rt, Integer::sum);
+            totalMap.merge(cid, ch.resolveReadingTime(), Integer::sum);
         }
 
         // 对于没有任何章节的课程，默认填 0
@@ -0,0 +1,30 @@
+package org.xhy.community.application.log.assembler;
+
+import org.springframework.beans.BeanUtils;
+import org.xhy.community.application.log.dto.UserActivityDailyStatDTO;
+import org.xhy.community.domain.log.entity.UserActivityDailyStatEntity;
+import org.xhy.community.domain.log.entity.UserActivityDailyTargetStatEntity;
+
+import java.util.List;
+
+/**
+ * 用户活动按日汇总转换器
+ */
+public class UserActivityStatAssembler {
+
+    public static List<UserActivityDailyStatDTO> toDailyStatDTOs(List<UserActivityDailyStatEntity> entities) {
+        return entities.stream().map(entity -> {
+            UserActivityDailyStatDTO dto = new UserActivityDailyStatDTO();
+            BeanUtils.copyProperties(entity, dto);
+            return dto;
+        }).toList();
+    }
+
+    public static List<UserActivityDailyStatDTO> toDailyTargetStatDTOs(List<UserActivityDailyTargetStatEntity> entities) {
+        return entities.stream().map(entity -> {
+            UserActivityDailyStatDTO dto = new UserActivityDailyStatDTO();
+            BeanUtils.copyProperties(entity, dto);
+            return dto;
+        }).toList();
+    }
+}
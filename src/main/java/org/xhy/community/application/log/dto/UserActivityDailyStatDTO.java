@@ -0,0 +1,46 @@
+package org.xhy.community.application.log.dto;
+
+import java.time.LocalDate;
+
+/**
+ * 用户活动按日统计（按活动类型；按目标统计时附带目标信息）
+ */
+public class UserActivityDailyStatDTO {
+
+    /** 统计日期 */
+    private LocalDate statDate;
+
+    /** 活动类型 */
+    private String activityType;
+
+    /** 目标类型（仅按目标统计时有值） */
+    private String targetType;
+
+    /** 目标ID（仅按目标统计时有值） */
+    private String targetId;
+
+    /** 当日事件数 */
+    private Long eventCount;
+
+    /** 当日去重用户数（不含匿名） */
+    private Long uniqueUsers;
+
+    // Getters and Setters
+    public LocalDate getStatDate() { return statDate; }
+    public void setStatDate(LocalDate statDate) { this.statDate = statDate; }
+
+    public String getActivityType() { return activityType; }
+    public void setActivityType(String activityType) { this.activityType = activityType; }
+
+    public String getTargetType() { return targetType; }
+    public void setTargetType(String targetType) { this.targetType = targetType; }
+
+    public String getTargetId() { return targetId; }
+    public void setTargetId(String targetId) { this.targetId = targetId; }
+
+    public Long getEventCount() { return eventCount; }
+    public void setEventCount(Long eventCount) { this.eventCount = eventCount; }
+
+    public Long getUniqueUsers() { return uniqueUsers; }
+    public void setUniqueUsers(Long uniqueUsers) { this.uniqueUsers = uniqueUsers; }
+}
@@ -1,6 +1,9 @@
 package org.xhy.community.application.log.service;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.xhy.community.application.user.dto.UserActivityLogDTO;
 import org.xhy.community.application.user.assembler.UserActivityLogAssembler;
@@ -11,12 +14,19 @@ import org.xhy.community.domain.course.service.CourseDomainService;
 import org.xhy.community.domain.post.service.CategoryDomainService;
 import org.xhy.community.domain.log.entity.UserActivityLogEntity;
 import org.xhy.community.domain.log.service.UserActivityLogDomainService;
+import org.xhy.community.domain.log.service.UserActivityStatDomainService;
 import org.xhy.community.domain.log.query.UserActivityLogQuery;
 import org.xhy.community.application.log.assembler.UserActivityLogQueryAssembler;
+import org.xhy.community.application.log.assembler.UserActivityStatAssembler;
+import org.xhy.community.application.log.dto.UserActivityDailyStatDTO;
 import org.xhy.community.interfaces.log.request.QueryUserActivityLogRequest;
+import org.xhy.community.interfaces.log.request.UserActivityStatsRequest;
 import org.xhy.community.infrastructure.exception.ValidationException;
 import org.xhy.community.infrastructure.config.ValidationErrorCode;
 
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.Map;
@@ -29,19 +39,28 @@ import java.util.stream.Collectors;
  */
 @Service
 public class UserActivityLogAppService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserActivityLogAppService.class);
+
+    /** 按日统计默认天数与最大跨度 */
+    private static final int DEFAULT_STAT_DAYS = 30;
+    private static final int MAX_STAT_DAYS = 366;
     
     private final UserActivityLogDomainService userActivityLogDomainService;
+    private final UserActivityStatDomainService userActivityStatDomainService;
     private final UserDomainService userDomainService;
     private final PostDomainService postDomainService;
     private final CourseDomainService courseDomainService;
     private final CategoryDomainService categoryDomainService;
     
     public UserActivityLogAppService(UserActivityLogDomainService userActivityLogDomainService,
+                                   UserActivityStatDomainService userActivityStatDomainService,
                                    UserDomainService userDomainService,
                                    PostDomainService postDomainService,
                                    CourseDomainService courseDomainService,
                                    CategoryDomainService categoryDomainService) {
         this.userActivityLogDomainService = userActivityLogDomainService;
+        this.userActivityStatDomainService = userActivityStatDomainService;
         this.userDomainService = userDomainService;
         this.postDomainService = postDomainService;
         this.courseDomainService = courseDomainService;
@@ -96,6 +115,53 @@ public class UserActivityLogAppService {
         });
     }
     
+    /**
+     * 按活动类型的每日统计（读取按日汇总表，不扫描原始日志）
+     *
+     * @param request 日期范围与可选的活动类型
+     * @return 按日期、活动类型排序的统计列表
+     */
+    public List<UserActivityDailyStatDTO> getDailyStats(UserActivityStatsRequest request) {
+        LocalDate[] range = resolveStatRange(request);
+        return UserActivityStatAssembler.toDailyStatDTOs(userActivityStatDomainService.getDailyStats(
+                range[0], range[1], activityTypeName(request)));
+    }
+
+    /**
+     * 指定目标（如文章、课程）的每日统计（读取按日汇总表）
+     *
+     * @param request 目标类型与目标ID（必填）、日期范围与可选的活动类型
+     * @return 按日期、活动类型排序的统计列表
+     */
+    public List<UserActivityDailyStatDTO> getDailyTargetStats(UserActivityStatsRequest request) {
+        if (request.getTargetType() == null || request.getTargetType().isBlank()
+                || request.getTargetId() == null || request.getTargetId().isBlank()) {
+            throw new ValidationException(ValidationErrorCode.PARAM_INVALID, "按目标统计时目标类型(targetType)和目标ID(targetId)不能为空");
+        }
+        LocalDate[] range = resolveStatRange(request);
+        return UserActivityStatAssembler.toDailyTargetStatDTOs(userActivityStatDomainService.getDailyTargetStats(
+                request.getTargetType(), request.getTargetId(), range[0], range[1], activityTypeName(request)));
+    }
+
+    /**
+     * 解析统计日期范围：结束日期默认昨天（汇总表次日生成），开始日期默认向前 30 天，跨度不超过 366 天
+     */
+    private LocalDate[] resolveStatRange(UserActivityStatsRequest request) {
+        LocalDate end = request.getEndDate() != null ? request.getEndDate() : LocalDate.now().minusDays(1);
+        LocalDate start = request.getStartDate() != null ? request.getStartDate() : end.minusDays(DEFAULT_STAT_DAYS - 1);
+        if (start.isAfter(end)) {
+            throw new ValidationException(ValidationErrorCode.PARAM_INVALID, "开始日期不能晚于结束日期");
+        }
+        if (ChronoUnit.DAYS.between(start, end) >= MAX_STAT_DAYS) {
+            throw new ValidationException(ValidationErrorCode.PARAM_INVALID, "统计日期跨度不能超过" + MAX_STAT_DAYS + "天");
+        }
+        return new LocalDate[]{start, end};
+    }
+
+    private String activityTypeName(UserActivityStatsRequest request) {
+        return request.getActivityType() != null ? request.getActivityType().name() : null;
+    }
+
     /**
      * 参数校验：确保activityType和activityCategory互斥
      */
@@ -137,6 +203,20 @@ public class UserActivityLogAppService {
         return targetNameMap;
     }
     
+    /**
+     * 从历史日志重建去重浏览人数（异步执行，耗时与日志量成正比）
+     */
+    @Async
+    public void rebuildDistinctViewerCounts() {
+        try {
+            userActivityLogDomainService.rebuildDistinctViewerCounts();
+        } catch (IllegalStateException e) {
+            log.warn("去重浏览人数重建任务正在其他节点执行，跳过: {}", e.getMessage());
+        } catch (Exception e) {
+            log.error("去重浏览人数重建任务执行失败", e);
+        }
+    }
+    
     /**
      * 根据类型批量获取名称
      */
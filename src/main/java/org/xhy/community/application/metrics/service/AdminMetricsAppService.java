@@ -5,25 +5,17 @@ import org.springframework.stereotype.Service;
 import org.xhy.community.application.metrics.assembler.MetricsAssembler;
 import org.xhy.community.application.metrics.dto.*;
 import org.xhy.community.domain.common.valueobject.TimeRange;
-import org.xhy.community.domain.course.entity.CourseEntity;
 import org.xhy.community.domain.course.entity.UserCourseProgressEntity;
 import org.xhy.community.domain.course.service.CourseDomainService;
 import org.xhy.community.domain.course.service.CourseProgressDomainService;
-import org.xhy.community.domain.log.entity.UserActivityLogEntity;
-import org.xhy.community.domain.log.service.UserActivityLogDomainService;
-import org.xhy.community.domain.order.entity.OrderEntity;
-import org.xhy.community.domain.order.service.OrderDomainService;
+import org.xhy.community.domain.metrics.service.MetricsDomainService;
+import org.xhy.community.domain.metrics.valueobject.MetricType;
 import org.xhy.community.domain.subscription.entity.SubscriptionPlanEntity;
-import org.xhy.community.domain.subscription.entity.UserSubscriptionEntity;
-import org.xhy.community.domain.subscription.service.SubscriptionDomainService;
 import org.xhy.community.domain.subscription.service.SubscriptionPlanDomainService;
-import org.xhy.community.domain.user.entity.UserEntity;
-import org.xhy.community.domain.user.service.UserDomainService;
 import org.xhy.community.infrastructure.cache.DashboardMetricsCache;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
@@ -35,30 +27,21 @@ import java.util.stream.Collectors;
 @Service
 public class AdminMetricsAppService {
 
-    private final UserDomainService userDomainService;
-    private final UserActivityLogDomainService activityLogDomainService;
-    private final OrderDomainService orderDomainService;
+    private final MetricsDomainService metricsDomainService;
     private final CourseDomainService courseDomainService;
-    private final SubscriptionDomainService subscriptionDomainService;
     private final SubscriptionPlanDomainService subscriptionPlanDomainService;
     private final CourseProgressDomainService courseProgressDomainService;
     private final DashboardMetricsCache metricsCache;
     private final ObjectMapper objectMapper;
 
-    public AdminMetricsAppService(UserDomainService userDomainService,
-                                 UserActivityLogDomainService activityLogDomainService,
-                                 OrderDomainService orderDomainService,
+    public AdminMetricsAppService(MetricsDomainService metricsDomainService,
                                  CourseDomainService courseDomainService,
-                                 SubscriptionDomainService subscriptionDomainService,
                                  SubscriptionPlanDomainService subscriptionPlanDomainService,
                                  CourseProgressDomainService courseProgressDomainService,
                                  DashboardMetricsCache metricsCache,
                                  ObjectMapper objectMapper) {
-        this.userDomainService = userDomainService;
-        this.activityLogDomainService = activityLogDomainService;
-        this.orderDomainService = orderDomainService;
+        this.metricsDomainService = metricsDomainService;
         this.courseDomainService = courseDomainService;
-        this.subscriptionDomainService = subscriptionDomainService;
         this.subscriptionPlanDomainService = subscriptionPlanDomainService;
         this.courseProgressDomainService = courseProgressDomainService;
         this.metricsCache = metricsCache;
@@ -143,20 +126,15 @@ public class AdminMetricsAppService {
      * @param days 查询天数
      */
     public ActiveUserTrendDTO getActiveUserTrend(TimeRange timeRange, int days) {
-        LocalDateTime endTime = LocalDateTime.now();
-        LocalDateTime startTime = endTime.minusDays(days);
+        LocalDate endDate = LocalDate.now();
+        LocalDate startDate = endDate.minusDays(days);
 
-        // 从log领域服务获取活动日志
-        List<UserActivityLogEntity> logs = activityLogDomainService.getActiveUserLogs(startTime, endTime);
+        // 从预聚合表读取总活跃用户趋势与按套餐分组的趋势
+        Map<LocalDate, Long> totalTrend = metricsDomainService.getActiveUserTrend(timeRange, startDate, endDate);
+        Map<String, Map<LocalDate, Long>> trendsByPlanId =
+            metricsDomainService.getActiveUserTrendByPlan(timeRange, startDate, endDate);
 
-        // 计算总活跃用户趋势
-        Map<LocalDate, Long> totalTrend = groupByDateAndCountUsers(logs, timeRange);
-
-        // 计算按套餐分组的活跃用户趋势
-        Map<String, Map<LocalDate, Long>> subscriptionTrends =
-            getActiveUserTrendBySubscription(logs, timeRange, startTime, endTime);
-
-        return MetricsAssembler.toActiveUserTrendDTO(totalTrend, subscriptionTrends);
+        return MetricsAssembler.toActiveUserTrendDTO(totalTrend, toPlanNameTrends(trendsByPlanId));
     }
 
     /**
@@ -165,17 +143,11 @@ public class AdminMetricsAppService {
      * @param days 查询天数
      */
     public OrderTrendDTO getOrderTrend(TimeRange timeRange, int days) {
-        LocalDateTime endTime = LocalDateTime.now();
-        LocalDateTime startTime = endTime.minusDays(days);
-
-        // 从order领域服务获取订单
-        List<OrderEntity> orders = orderDomainService.getOrders(startTime, endTime);
-
-        // 计算订单数量趋势
-        Map<LocalDate, Long> countTrend = groupByDateAndCountOrders(orders, timeRange);
+        LocalDate endDate = LocalDate.now();
+        LocalDate startDate = endDate.minusDays(days);
 
-        // 计算订单金额趋势
-        Map<LocalDate, BigDecimal> amountTrend = groupByDateAndSumAmount(orders, timeRange);
+        Map<LocalDate, Long> countTrend = metricsDomainService.getCountTrend(MetricType.ORDER, timeRange, startDate, endDate);
+        Map<LocalDate, BigDecimal> amountTrend = metricsDomainService.getAmountTrend(MetricType.ORDER, timeRange, startDate, endDate);
 
         return MetricsAssembler.toOrderTrendDTO(countTrend, amountTrend);
     }
@@ -186,18 +158,10 @@ public class AdminMetricsAppService {
      * @param days 查询天数
      */
     public RegistrationTrendDTO getRegistrationTrend(TimeRange timeRange, int days) {
-        LocalDateTime endTime = LocalDateTime.now();
-        LocalDateTime startTime = endTime.minusDays(days);
+        LocalDate endDate = LocalDate.now();
+        LocalDate startDate = endDate.minusDays(days);
 
-        // 从user领域服务获取用户
-        List<UserEntity> users = userDomainService.getRegisteredUsers(startTime, endTime);
-
-        // 按日期分组统计
-        Map<LocalDate, Long> trend = groupByDateAndCountEntities(
-            users,
-            timeRange,
-            UserEntity::getCreateTime
-        );
+        Map<LocalDate, Long> trend = metricsDomainService.getCountTrend(MetricType.REGISTRATION, timeRange, startDate, endDate);
 
         return MetricsAssembler.toRegistrationTrendDTO(trend);
     }
@@ -208,18 +172,10 @@ public class AdminMetricsAppService {
      * @param days 查询天数
      */
     public CourseTrendDTO getCourseTrend(TimeRange timeRange, int days) {
-        LocalDateTime endTime = LocalDateTime.now();
-        LocalDateTime startTime = endTime.minusDays(days);
+        LocalDate endDate = LocalDate.now();
+        LocalDate startDate = endDate.minusDays(days);
 
-        // 从course领域服务获取课程
-        List<CourseEntity> courses = courseDomainService.getCourses(startTime, endTime);
-
-        // 按日期分组统计
-        Map<LocalDate, Long> trend = groupByDateAndCountEntities(
-            courses,
-            timeRange,
-            CourseEntity::getCreateTime
-        );
+        Map<LocalDate, Long> trend = metricsDomainService.getCountTrend(MetricType.COURSE, timeRange, startDate, endDate);
 
         return MetricsAssembler.toCourseTrendDTO(trend);
     }
@@ -227,142 +183,26 @@ public class AdminMetricsAppService {
     // ==================== 私有辅助方法 ====================
 
     /**
-     * 按日期分组并统计活跃用户数（去重）
-     */
-    private Map<LocalDate, Long> groupByDateAndCountUsers(List<UserActivityLogEntity> logs, TimeRange timeRange) {
-        Map<LocalDate, Set<String>> dateToUsersMap = new HashMap<>();
-
-        for (UserActivityLogEntity log : logs) {
-            LocalDate date = convertToDate(log.getCreateTime(), timeRange);
-            dateToUsersMap.computeIfAbsent(date, k -> new HashSet<>()).add(log.getUserId());
-        }
-
-        return dateToUsersMap.entrySet().stream()
-            .collect(Collectors.toMap(
-                Map.Entry::getKey,
-                entry -> (long) entry.getValue().size()
-            ));
-    }
-
-    /**
-     * 按套餐分组的活跃用户统计（Application层编排多个领域）
+     * 将按套餐ID分组的趋势转换为按套餐名称分组（Application层编排多个领域）
      */
-    private Map<String, Map<LocalDate, Long>> getActiveUserTrendBySubscription(
-            List<UserActivityLogEntity> logs,
-            TimeRange timeRange,
-            LocalDateTime startTime,
-            LocalDateTime endTime) {
-
-        // 获取所有活跃用户ID
-        Set<String> activeUserIds = logs.stream()
-            .map(UserActivityLogEntity::getUserId)
-            .collect(Collectors.toSet());
-
-        if (activeUserIds.isEmpty()) {
-            return new HashMap<>();
-        }
-
-        // 从subscription领域服务获取用户订阅信息
-        List<UserSubscriptionEntity> subscriptions =
-            subscriptionDomainService.getUserSubscriptions(activeUserIds, startTime, endTime);
-
-        // 获取套餐信息
-        Set<String> planIds = subscriptions.stream()
-            .map(UserSubscriptionEntity::getSubscriptionPlanId)
+    private Map<String, Map<LocalDate, Long>> toPlanNameTrends(Map<String, Map<LocalDate, Long>> trendsByPlanId) {
+        Set<String> planIds = trendsByPlanId.keySet().stream()
+            .filter(id -> !id.isEmpty())
             .collect(Collectors.toSet());
 
-        Map<String, SubscriptionPlanEntity> planMap = new HashMap<>();
+        Map<String, String> planNameMap = new HashMap<>();
         if (!planIds.isEmpty()) {
             List<SubscriptionPlanEntity> plans = subscriptionPlanDomainService.getSubscriptionPlansByIds(planIds);
-            planMap = plans.stream().collect(Collectors.toMap(SubscriptionPlanEntity::getId, p -> p));
+            planNameMap = plans.stream()
+                .collect(Collectors.toMap(SubscriptionPlanEntity::getId, SubscriptionPlanEntity::getName));
         }
 
-        // 构建用户ID到套餐名称的映射
-        Map<String, String> userToPlanMap = new HashMap<>();
-        for (UserSubscriptionEntity sub : subscriptions) {
-            SubscriptionPlanEntity plan = planMap.get(sub.getSubscriptionPlanId());
-            if (plan != null) {
-                userToPlanMap.put(sub.getUserId(), plan.getName());
-            }
-        }
-
-        // 按套餐分组日志
-        Map<String, List<UserActivityLogEntity>> logsByPlan = new HashMap<>();
-        for (UserActivityLogEntity log : logs) {
-            String planName = userToPlanMap.getOrDefault(log.getUserId(), "无套餐");
-            logsByPlan.computeIfAbsent(planName, k -> new ArrayList<>()).add(log);
-        }
-
-        // 为每个套餐生成趋势
         Map<String, Map<LocalDate, Long>> result = new HashMap<>();
-        for (Map.Entry<String, List<UserActivityLogEntity>> entry : logsByPlan.entrySet()) {
-            result.put(entry.getKey(), groupByDateAndCountUsers(entry.getValue(), timeRange));
+        for (Map.Entry<String, Map<LocalDate, Long>> entry : trendsByPlanId.entrySet()) {
+            String planName = planNameMap.getOrDefault(entry.getKey(), "无套餐");
+            Map<LocalDate, Long> trend = result.computeIfAbsent(planName, k -> new HashMap<>());
+            entry.getValue().forEach((date, count) -> trend.merge(date, count, Long::sum));
         }
-
         return result;
     }
-
-    /**
-     * 按日期分组并统计订单数量
-     */
-    private Map<LocalDate, Long> groupByDateAndCountOrders(List<OrderEntity> orders, TimeRange timeRange) {
-        return orders.stream()
-            .collect(Collectors.groupingBy(
-                order -> convertToDate(order.getActivatedTime(), timeRange),
-                Collectors.counting()
-            ));
-    }
-
-    /**
-     * 按日期分组并统计订单金额
-     */
-    private Map<LocalDate, BigDecimal> groupByDateAndSumAmount(List<OrderEntity> orders, TimeRange timeRange) {
-        return orders.stream()
-            .collect(Collectors.groupingBy(
-                order -> convertToDate(order.getActivatedTime(), timeRange),
-                Collectors.reducing(
-                    BigDecimal.ZERO,
-                    OrderEntity::getAmount,
-                    BigDecimal::add
-                )
-            ));
-    }
-
-    /**
-     * 按日期分组并统计实体数量（通用）
-     */
-    private <T> Map<LocalDate, Long> groupByDateAndCountEntities(
-            List<T> entities,
-            TimeRange timeRange,
-            java.util.function.Function<T, LocalDateTime> timeExtractor) {
-
-        return entities.stream()
-            .collect(Collectors.groupingBy(
-                entity -> convertToDate(timeExtractor.apply(entity), timeRange),
-                Collectors.counting()
-            ));
-    }
-
-    /**
-     * 将时间转换为日期（根据TimeRange）
-     */
-    private LocalDate convertToDate(LocalDateTime dateTime, TimeRange timeRange) {
-        if (dateTime == null) {
-            return LocalDate.now();
-        }
-
-        LocalDate date = dateTime.toLocalDate();
-
-        switch (timeRange) {
-            case WEEK:
-                // 返回当周的周一
-                return date.minusDays(date.getDayOfWeek().getValue() - 1);
-            case MONTH:
-                // 返回当月第一天
-                return date.withDayOfMonth(1);
-            case DAY:
-            default:
-                return date;
-        }
-    }
 }
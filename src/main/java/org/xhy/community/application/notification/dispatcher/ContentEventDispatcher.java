@@ -9,6 +9,9 @@ import org.xhy.community.application.notification.handler.NotificationHandler;
 import org.xhy.community.application.notification.service.ContentNotificationService;
 import org.xhy.community.domain.common.event.ContentPublishedEvent;
 import org.xhy.community.domain.common.valueobject.ContentType;
+import org.xhy.community.domain.notification.context.NotificationData;
+import org.xhy.community.domain.notification.service.NotificationBroadcast;
+import org.xhy.community.domain.notification.service.NotificationDomainService;
 
 import java.util.List;
 import java.util.Map;
@@ -25,11 +28,14 @@ public class ContentEventDispatcher {
     private static final Logger log = LoggerFactory.getLogger(ContentEventDispatcher.class);
 
     private final ContentNotificationService contentNotificationService;
+    private final NotificationDomainService notificationDomainService;
     private final Map<ContentType, NotificationHandler> handlerMap;
 
     public ContentEventDispatcher(ContentNotificationService contentNotificationService,
+                                NotificationDomainService notificationDomainService,
                                 List<NotificationHandler> handlers) {
         this.contentNotificationService = contentNotificationService;
+        this.notificationDomainService = notificationDomainService;
         // 构建处理器映射，每种内容类型对应一个处理器
         this.handlerMap = handlers.stream()
                 .collect(Collectors.toMap(
@@ -55,28 +61,42 @@ public class ContentEventDispatcher {
                 return;
             }
 
-            // 委托给 Handler 获取接收者（不同类型的内容有不同的接收者逻辑）
-            List<ContentNotificationService.NotificationRecipient> recipients =
-                    handler.getRecipients(
-                            event.getContentId(),
-                            event.getAuthorId(),
-                            contentNotificationService
-                    );
-
-            log.info("[通知-分发] eventType={} contentId={} authorId={} handler={} recipients={}",
-                    event.getContentType(), event.getContentId(), event.getAuthorId(),
-                    handler.getClass().getSimpleName(), recipients.size());
+            NotificationData notification = handler.prepareNotification(event.getContentId(), event.getAuthorId());
+            if (notification == null) {
+                // 不走订阅者广播的内容（如评论）由处理器自行确定接收者
+                handler.handleNotification(event.getContentId(), event.getAuthorId(), List.of());
+                return;
+            }
 
-            // 委托给具体的处理器处理通知
-            // 注意：某些 Handler（如评论）可能返回空 recipients，但在内部自行处理接收者
-            handler.handleNotification(event.getContentId(), event.getAuthorId(), recipients);
+            // 正文每个渠道只渲染、写入一次；委托给 Handler 分批获取接收者（不同类型的内容有不同的接收者逻辑），每批只追加投递任务
+            NotificationBroadcast broadcast = notificationDomainService.openBroadcast(notification);
+            long recipients = handler.streamRecipients(
+                    event.getContentId(),
+                    event.getAuthorId(),
+                    contentNotificationService,
+                    chunk -> sendChunk(broadcast, event, chunk)
+            );
 
-            log.info("[通知-分发] 完成，eventType={} contentId={} recipients={}",
-                    event.getContentType(), event.getContentId(), recipients.size());
+            log.info("[通知-分发] 完成，eventType={} contentId={} authorId={} handler={} recipients={}",
+                    event.getContentType(), event.getContentId(), event.getAuthorId(),
+                    handler.getClass().getSimpleName(), recipients);
 
         } catch (Exception e) {
             // 记录错误但不重新抛出异常，避免影响主业务流程
             log.error("Failed to process ContentPublishedEvent: {}", event, e);
         }
     }
+
+    /**
+     * 投递一批接收者；单批失败只记录日志，不影响后续批次
+     */
+    private void sendChunk(NotificationBroadcast broadcast, ContentPublishedEvent event,
+                           List<ContentNotificationService.NotificationRecipient> chunk) {
+        try {
+            broadcast.send(chunk.stream().map(ContentNotificationService.NotificationRecipient::toRecipient).toList());
+        } catch (Exception e) {
+            log.error("[通知-分发] 批次投递失败，eventType={} contentId={} recipients={}，错误={}",
+                    event.getContentType(), event.getContentId(), chunk.size(), e.getMessage(), e);
+        }
+    }
 }
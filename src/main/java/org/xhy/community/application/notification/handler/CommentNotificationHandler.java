@@ -23,6 +23,7 @@ import org.xhy.community.domain.user.service.UserDomainService;
 import org.xhy.community.domain.follow.valueobject.FollowTargetType;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 @Component
 public class CommentNotificationHandler implements NotificationHandler {
@@ -59,17 +60,19 @@ public class CommentNotificationHandler implements NotificationHandler {
 
     /**
      * 评论通知不使用订阅者模型，而是直接通知被回复者和内容作者
-     * 覆盖默认实现，返回空列表以避免无用的订阅者查询
+     * 覆盖默认实现，以空列表调用一次处理逻辑，避免无用的订阅者查询
      * 实际的接收者在 handleNotification 中根据业务逻辑确定
      */
     @Override
-    public List<ContentNotificationService.NotificationRecipient> getRecipients(
+    public long streamRecipients(
             String contentId,
             String authorId,
-            ContentNotificationService contentNotificationService) {
+            ContentNotificationService contentNotificationService,
+            Consumer<List<ContentNotificationService.NotificationRecipient>> chunkConsumer) {
         // 评论通知有特殊逻辑（区分被回复者和内容作者，发送不同通知模板）
         // 不使用统一的订阅者列表，在 handleNotification 中自行处理
-        return List.of();
+        chunkConsumer.accept(List.of());
+        return 0;
     }
 
     @Override
@@ -14,7 +14,6 @@ import org.xhy.community.domain.notification.valueobject.NotificationType;
 import org.xhy.community.domain.user.entity.UserEntity;
 import org.xhy.community.domain.user.service.UserDomainService;
 
-import java.util.ArrayList;
 import java.util.List;
 
 @Component
@@ -39,31 +38,29 @@ public class CourseNotificationHandler implements NotificationHandler {
         return ContentType.COURSE;
     }
 
+    @Override
+    public NotificationData prepareNotification(String contentId, String authorId) {
+        CourseEntity course = courseDomainService.getCourseById(contentId);
+        UserEntity author = userDomainService.getUserById(authorId);
+        log.info("[通知-课程] 准备发送，courseId={} authorId={}", course.getId(), authorId);
+
+        return new ContentUpdateNotificationData(
+                List.of(),
+                NotificationType.CHAPTER_UPDATED,
+                ContentType.COURSE,
+                author.getName(),
+                course.getTitle(),
+                course.getId()
+        );
+    }
+
     @Override
     public void handleNotification(String contentId, String authorId,
                                    List<ContentNotificationService.NotificationRecipient> recipients) {
         try {
-            CourseEntity course = courseDomainService.getCourseById(contentId);
-            UserEntity author = userDomainService.getUserById(authorId);
-
-            log.info("[通知-课程] 准备发送，courseId={} authorId={} recipients={}", course.getId(), authorId, recipients.size());
-
-            List<NotificationData.Recipient> recipients2 = new ArrayList<>();
-            for (ContentNotificationService.NotificationRecipient recipient : recipients) {
-                recipients2.add(new NotificationData.Recipient(recipient.getUserId(), recipient.getUserEmail(), recipient.getEmailNotificationEnabled()));
-            }
-
-            ContentUpdateNotificationData notificationData = new ContentUpdateNotificationData(
-                    recipients2,
-                    NotificationType.CHAPTER_UPDATED,
-                    ContentType.COURSE,
-                    author.getName(),
-                    course.getTitle(),
-                    course.getId()
-            );
-
-            notificationDomainService.send(notificationData);
-            log.info("[通知-课程] 已发送，courseId={} recipients={}", course.getId(), recipients.size());
+            notificationDomainService.openBroadcast(prepareNotification(contentId, authorId))
+                    .send(recipients.stream().map(ContentNotificationService.NotificationRecipient::toRecipient).toList());
+            log.info("[通知-课程] 已发送，courseId={} recipients={}", contentId, recipients.size());
         } catch (Exception e) {
             log.error("[通知-课程] 发送失败，contentId={} authorId={}，错误={}", contentId, authorId, e.getMessage(), e);
         }
@@ -14,7 +14,6 @@ import org.xhy.community.domain.notification.valueobject.NotificationType;
 import org.xhy.community.domain.user.entity.UserEntity;
 import org.xhy.community.domain.user.service.UserDomainService;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -42,34 +41,31 @@ public class InterviewQuestionNotificationHandler implements NotificationHandler
         return ContentType.INTERVIEW_QUESTION;
     }
 
+    @Override
+    public NotificationData prepareNotification(String contentId, String authorId) {
+        InterviewQuestionEntity question = interviewQuestionDomainService.getById(contentId);
+        UserEntity author = userDomainService.getUserById(authorId);
+        log.info("[通知-题目] 准备发送，questionId={} authorId={}", question.getId(), authorId);
+
+        return new ContentUpdateNotificationData(
+                List.of(),
+                NotificationType.FOLLOWED_USER_POST, // 复用“关注用户发布新内容”
+                ContentType.INTERVIEW_QUESTION,
+                author.getName(),
+                question.getTitle(),
+                question.getId()
+        );
+    }
+
     @Override
     public void handleNotification(String contentId, String authorId,
                                    List<ContentNotificationService.NotificationRecipient> recipients) {
         try {
-            InterviewQuestionEntity question = interviewQuestionDomainService.getById(contentId);
-            UserEntity author = userDomainService.getUserById(authorId);
-
-            log.info("[通知-题目] 准备发送，questionId={} authorId={} recipients={}", question.getId(), authorId, recipients.size());
-
-            List<NotificationData.Recipient> receivers = new ArrayList<>();
-            for (ContentNotificationService.NotificationRecipient r : recipients) {
-                receivers.add(new NotificationData.Recipient(r.getUserId(), r.getUserEmail(), r.getEmailNotificationEnabled()));
-            }
-
-            ContentUpdateNotificationData data = new ContentUpdateNotificationData(
-                    receivers,
-                    NotificationType.FOLLOWED_USER_POST, // 复用“关注用户发布新内容”
-                    ContentType.INTERVIEW_QUESTION,
-                    author.getName(),
-                    question.getTitle(),
-                    question.getId()
-            );
-            notificationDomainService.send(data);
-
-            log.info("[通知-题目] 已发送，questionId={} recipients={}", question.getId(), recipients.size());
+            notificationDomainService.openBroadcast(prepareNotification(contentId, authorId))
+                    .send(recipients.stream().map(ContentNotificationService.NotificationRecipient::toRecipient).toList());
+            log.info("[通知-题目] 已发送，questionId={} recipients={}", contentId, recipients.size());
         } catch (Exception e) {
             log.error("[通知-题目] 发送失败，questionId={} authorId={}，错误={}", contentId, authorId, e.getMessage(), e);
         }
     }
 }
-
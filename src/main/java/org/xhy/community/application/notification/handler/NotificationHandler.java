@@ -2,8 +2,10 @@ package org.xhy.community.application.notification.handler;
 
 import org.xhy.community.application.notification.service.ContentNotificationService;
 import org.xhy.community.domain.common.valueobject.ContentType;
+import org.xhy.community.domain.notification.context.NotificationData;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * 通知处理器接口
@@ -17,27 +19,41 @@ public interface NotificationHandler {
     ContentType getSupportedContentType();
 
     /**
-     * 获取通知接收者列表
-     * 默认实现：获取内容订阅者（关注作者的用户 + 关注内容的用户）
+     * 分批推送通知接收者
+     * 默认实现：流式获取内容订阅者（关注作者的用户 + 关注内容的用户），每批交给 chunkConsumer 处理
      * 特殊场景（如评论）可以覆盖此方法实现自定义逻辑
      *
      * @param contentId                  内容ID
      * @param authorId                   作者ID
      * @param contentNotificationService 内容通知服务
-     * @return 通知接收者列表
+     * @param chunkConsumer              每批接收者的处理逻辑
+     * @return 接收者总数
      */
-    default List<ContentNotificationService.NotificationRecipient> getRecipients(
+    default long streamRecipients(
             String contentId,
             String authorId,
-            ContentNotificationService contentNotificationService) {
+            ContentNotificationService contentNotificationService,
+            Consumer<List<ContentNotificationService.NotificationRecipient>> chunkConsumer) {
         // 默认行为：获取订阅者（关注作者 + 关注内容）
-        return contentNotificationService.getContentFollowers(
+        return contentNotificationService.streamContentFollowers(
                 getSupportedContentType(),
                 contentId,
-                authorId
+                authorId,
+                chunkConsumer
         );
     }
 
+    /**
+     * 构建一次广播的通知内容（内容与作者只加载一次，接收者留空，由调度器按批追加）
+     * 返回 null 表示不走订阅者广播，由 {@link #handleNotification} 自行确定接收者并发送（如评论）
+     *
+     * @param contentId 内容ID
+     * @param authorId  作者ID
+     */
+    default NotificationData prepareNotification(String contentId, String authorId) {
+        return null;
+    }
+
     /**
      * 处理内容发布通知
      *
@@ -14,7 +14,6 @@ import org.xhy.community.domain.post.service.PostDomainService;
 import org.xhy.community.domain.user.entity.UserEntity;
 import org.xhy.community.domain.user.service.UserDomainService;
 
-import java.util.ArrayList;
 import java.util.List;
 
 @Component
@@ -39,31 +38,29 @@ public class PostNotificationHandler implements NotificationHandler {
         return ContentType.POST;
     }
 
+    @Override
+    public NotificationData prepareNotification(String contentId, String authorId) {
+        PostEntity post = postDomainService.getPostById(contentId);
+        UserEntity author = userDomainService.getUserById(authorId);
+        log.info("[通知-文章] 准备发送，postId={} authorId={}", post.getId(), authorId);
+
+        return new ContentUpdateNotificationData(
+                List.of(),
+                NotificationType.FOLLOWED_USER_POST,
+                ContentType.PUBLISH_CONTENT,
+                author.getName(),
+                post.getTitle(),
+                post.getId()
+        );
+    }
+
     @Override
     public void handleNotification(String contentId, String authorId,
                                    List<ContentNotificationService.NotificationRecipient> recipients) {
         try {
-            PostEntity post = postDomainService.getPostById(contentId);
-            UserEntity author = userDomainService.getUserById(authorId);
-
-            log.info("[通知-文章] 准备发送，postId={} authorId={} recipients={}", post.getId(), authorId, recipients.size());
-
-            List<NotificationData.Recipient> recipients2 = new ArrayList<>();
-            for (ContentNotificationService.NotificationRecipient recipient : recipients) {
-                recipients2.add(new NotificationData.Recipient(recipient.getUserId(), recipient.getUserEmail(), recipient.getEmailNotificationEnabled()));
-            }
-
-            ContentUpdateNotificationData contentUpdateNotificationData = new ContentUpdateNotificationData(
-                    recipients2,
-                    NotificationType.FOLLOWED_USER_POST,
-                    ContentType.PUBLISH_CONTENT,
-                    author.getName(),
-                    post.getTitle(),
-                    post.getId()
-            );
-            notificationDomainService.send(contentUpdateNotificationData);
-
-            log.info("[通知-文章] 已发送，postId={} recipients={}", post.getId(), recipients.size());
+            notificationDomainService.openBroadcast(prepareNotification(contentId, authorId))
+                    .send(recipients.stream().map(ContentNotificationService.NotificationRecipient::toRecipient).toList());
+            log.info("[通知-文章] 已发送，postId={} recipients={}", contentId, recipients.size());
         } catch (Exception e) {
             log.error("[通知-文章] 发送失败，contentId={} authorId={}，错误={}", contentId, authorId, e.getMessage(), e);
         }
@@ -1,110 +1,149 @@
 package org.xhy.community.application.notification.service;
 
-import com.baomidou.mybatisplus.core.metadata.IPage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.xhy.community.domain.common.valueobject.ContentType;
 import org.xhy.community.domain.follow.entity.FollowEntity;
 import org.xhy.community.domain.follow.service.FollowDomainService;
 import org.xhy.community.domain.follow.valueobject.FollowTargetType;
+import org.xhy.community.domain.notification.context.NotificationData;
 import org.xhy.community.domain.user.entity.UserEntity;
 import org.xhy.community.domain.user.service.UserDomainService;
 
 import java.util.*;
-import java.util.stream.Collectors;
-
+import java.util.function.Consumer;
+
+/**
+ * 内容订阅者解析
+ * 以流式分批方式解析“关注作者 + 关注内容”的接收者：
+ * - 关注者按主键游标分批读取，不一次性加载全部关注关系；
+ * - 先遍历作者粉丝，再遍历内容粉丝，内容粉丝中同时关注作者的用户按批查询剔除（去重所需内存与批大小成正比）；
+ * - 每批批量加载用户信息后交给调用方发送，内存占用与粉丝总数无关。
+ */
 @Service
 public class ContentNotificationService {
 
     private static final Logger log = LoggerFactory.getLogger(ContentNotificationService.class);
 
+    private static final int MAX_CHUNK_SIZE = 1000;
+
     private final FollowDomainService followDomainService;
     private final UserDomainService userDomainService;
+    private final int chunkSize;
 
     public ContentNotificationService(FollowDomainService followDomainService,
-                                      UserDomainService userDomainService) {
+                                      UserDomainService userDomainService,
+                                      @Value("${community.notification.fanout-chunk-size:500}") int chunkSize) {
         this.followDomainService = followDomainService;
         this.userDomainService = userDomainService;
+        this.chunkSize = Math.min(MAX_CHUNK_SIZE, Math.max(1, chunkSize));
     }
 
-    public List<NotificationRecipient> getContentFollowers(ContentType contentType, String contentId, String authorId) {
-        Set<String> followerIds = new HashSet<>();
-
-        IPage<FollowEntity> authorFollowers = followDomainService
-                .getFollowersPaged(authorId, FollowTargetType.USER, 1, Integer.MAX_VALUE);
-        int authorFollowerCount = authorFollowers.getRecords().size();
-        followerIds.addAll(authorFollowers.getRecords().stream()
-                .map(FollowEntity::getFollowerId)
-                .collect(Collectors.toSet()));
-
+    /**
+     * 分批推送内容订阅者（关注作者的用户 + 关注该内容的用户）
+     *
+     * @param chunkConsumer 每批接收者的处理逻辑
+     * @return 接收者总数
+     */
+    public long streamContentFollowers(ContentType contentType, String contentId, String authorId,
+                                       Consumer<List<NotificationRecipient>> chunkConsumer) {
         FollowTargetType followTargetType = mapContentTypeToFollowTargetType(contentType);
-        int contentFollowerCount = 0;
-        if (followTargetType != null) {
-            IPage<FollowEntity> contentFollowers = followDomainService
-                    .getFollowersPaged(contentId, followTargetType, 1, Integer.MAX_VALUE);
-            contentFollowerCount = contentFollowers.getRecords().size();
-            followerIds.addAll(contentFollowers.getRecords().stream()
-                    .map(FollowEntity::getFollowerId)
-                    .collect(Collectors.toSet()));
-        }
+        long total = streamFollowers(contentId, followTargetType, authorId, chunkConsumer);
 
-        followerIds.remove(authorId);
-
-        List<NotificationRecipient> recipients = followerIds.stream()
-                .map(this::buildNotificationRecipient)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
-
-        log.info("[通知关注者] type={} contentId={} authorId={} 作者粉丝数={} 内容粉丝数={} 去重后接收者数={}",
-                contentType, contentId, authorId, authorFollowerCount, contentFollowerCount, recipients.size());
-
-        return recipients;
+        log.info("[通知关注者] type={} contentId={} authorId={} 去重后接收者数={}",
+                contentType, contentId, authorId, total);
+        return total;
     }
 
-    public List<NotificationRecipient> getSpecificContentFollowers(String targetContentId, FollowTargetType targetType, String authorId) {
-        Set<String> followerIds = new HashSet<>();
+    /**
+     * 分批推送特定目标的订阅者（关注作者的用户 + 关注指定目标的用户），如章节更新通知课程关注者
+     *
+     * @param chunkConsumer 每批接收者的处理逻辑
+     * @return 接收者总数
+     */
+    public long streamSpecificContentFollowers(String targetContentId, FollowTargetType targetType, String authorId,
+                                               Consumer<List<NotificationRecipient>> chunkConsumer) {
+        long total = streamFollowers(targetContentId, targetType, authorId, chunkConsumer);
+
+        log.info("[通知关注者-特定目标] targetType={} targetContentId={} authorId={} 去重后接收者数={}",
+                targetType, targetContentId, authorId, total);
+        return total;
+    }
 
-        IPage<FollowEntity> authorFollowers = followDomainService
-                .getFollowersPaged(authorId, FollowTargetType.USER, 1, Integer.MAX_VALUE);
-        int authorFollowerCount = authorFollowers.getRecords().size();
-        followerIds.addAll(authorFollowers.getRecords().stream()
-                .map(FollowEntity::getFollowerId)
-                .collect(Collectors.toSet()));
+    private long streamFollowers(String targetId, FollowTargetType targetType, String authorId,
+                                 Consumer<List<NotificationRecipient>> chunkConsumer) {
+        long total = 0;
+
+        // 1) 作者粉丝
+        String cursor = null;
+        while (true) {
+            List<FollowEntity> page = followDomainService.listFollowersAfter(authorId, FollowTargetType.USER, cursor, chunkSize);
+            if (page.isEmpty()) {
+                break;
+            }
+            Set<String> followerIds = collectFollowerIds(page, authorId);
+            total += emit(followerIds, chunkConsumer);
+            if (page.size() < chunkSize) {
+                break;
+            }
+            cursor = page.get(page.size() - 1).getId();
+        }
 
-        IPage<FollowEntity> contentFollowers = followDomainService
-                .getFollowersPaged(targetContentId, targetType, 1, Integer.MAX_VALUE);
-        int contentFollowerCount = contentFollowers.getRecords().size();
-        followerIds.addAll(contentFollowers.getRecords().stream()
-                .map(FollowEntity::getFollowerId)
-                .collect(Collectors.toSet()));
+        // 2) 内容粉丝：剔除已作为作者粉丝收到通知的用户
+        if (targetType == null) {
+            return total;
+        }
+        cursor = null;
+        while (true) {
+            List<FollowEntity> page = followDomainService.listFollowersAfter(targetId, targetType, cursor, chunkSize);
+            if (page.isEmpty()) {
+                break;
+            }
+            Set<String> followerIds = collectFollowerIds(page, authorId);
+            followerIds.removeAll(followDomainService.filterFollowerIds(authorId, FollowTargetType.USER, followerIds));
+            total += emit(followerIds, chunkConsumer);
+            if (page.size() < chunkSize) {
+                break;
+            }
+            cursor = page.get(page.size() - 1).getId();
+        }
+        return total;
+    }
 
+    private Set<String> collectFollowerIds(List<FollowEntity> page, String authorId) {
+        Set<String> followerIds = new LinkedHashSet<>();
+        for (FollowEntity follow : page) {
+            followerIds.add(follow.getFollowerId());
+        }
         followerIds.remove(authorId);
-
-        List<NotificationRecipient> recipients = followerIds.stream()
-                .map(this::buildNotificationRecipient)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
-
-        log.info("[通知关注者-特定目标] targetType={} targetContentId={} authorId={} 作者粉丝数={} 目标粉丝数={} 去重后接收者数={}",
-                targetType, targetContentId, authorId, authorFollowerCount, contentFollowerCount, recipients.size());
-
-        return recipients;
+        return followerIds;
     }
 
-    private NotificationRecipient buildNotificationRecipient(String userId) {
-        try {
-            UserEntity user = userDomainService.getUserById(userId);
-            return new NotificationRecipient(
+    private int emit(Set<String> followerIds, Consumer<List<NotificationRecipient>> chunkConsumer) {
+        if (followerIds.isEmpty()) {
+            return 0;
+        }
+        Map<String, UserEntity> userMap = userDomainService.getUserEntityMapByIds(followerIds);
+        List<NotificationRecipient> recipients = new ArrayList<>(userMap.size());
+        for (String followerId : followerIds) {
+            UserEntity user = userMap.get(followerId);
+            if (user == null) {
+                log.debug("[通知关注者] 接收者不存在，跳过，userId={}", followerId);
+                continue;
+            }
+            recipients.add(new NotificationRecipient(
                     user.getId(),
                     user.getName(),
                     user.getEmail(),
                     user.getEmailNotificationEnabled()
-            );
-        } catch (Exception e) {
-            log.debug("[通知关注者] 构建接收者失败，userId={}，原因={}", userId, e.getMessage());
-            return null;
+            ));
+        }
+        if (!recipients.isEmpty()) {
+            chunkConsumer.accept(recipients);
         }
+        return recipients.size();
     }
 
     private FollowTargetType mapContentTypeToFollowTargetType(ContentType contentType) {
@@ -136,5 +175,9 @@ public class ContentNotificationService {
         public String getUserName() { return userName; }
         public String getUserEmail() { return userEmail; }
         public Boolean getEmailNotificationEnabled() { return emailNotificationEnabled; }
+
+        public NotificationData.Recipient toRecipient() {
+            return new NotificationData.Recipient(userId, userEmail, emailNotificationEnabled);
+        }
     }
 }
@@ -1,7 +1,10 @@
 package org.xhy.community.application.permission.service;
 
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
+import org.xhy.community.infrastructure.cache.EffectivePermissionCache;
 import org.xhy.community.infrastructure.cache.PlanPermissionCache;
+import org.xhy.community.infrastructure.cache.ResourceAccessCache;
 import org.xhy.community.domain.subscription.entity.UserSubscriptionEntity;
 import org.xhy.community.domain.user.service.UserDomainService;
 import org.xhy.community.domain.subscription.service.SubscriptionDomainService;
@@ -10,8 +13,11 @@ import org.xhy.community.domain.resourcebinding.service.ResourceBindingDomainSer
 import org.xhy.community.domain.resourcebinding.entity.ResourceBindingEntity;
 import org.xhy.community.domain.resourcebinding.valueobject.ResourceTargetType;
 import org.xhy.community.domain.course.service.ChapterDomainService;
+import org.xhy.community.infrastructure.permission.EffectivePermissions;
+import org.xhy.community.infrastructure.permission.PermissionCodeScanner;
 
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
 
 /**
@@ -27,19 +33,29 @@ public class UserPermissionAppService {
     private final PlanPermissionCache planPermissionCache;
     private final ResourceBindingDomainService resourceBindingDomainService;
     private final ChapterDomainService chapterDomainService;
+    private final ResourceAccessCache resourceAccessCache;
+    private final EffectivePermissionCache effectivePermissionCache;
+    private final PermissionCodeScanner permissionCodeScanner;
     
     public UserPermissionAppService(UserDomainService userDomainService,
                                     SubscriptionDomainService subscriptionDomainService,
                                     SubscriptionPlanDomainService subscriptionPlanDomainService,
                                     PlanPermissionCache planPermissionCache,
                                     ResourceBindingDomainService resourceBindingDomainService,
-                                    ChapterDomainService chapterDomainService) {
+                                    ChapterDomainService chapterDomainService,
+                                    ResourceAccessCache resourceAccessCache,
+                                    EffectivePermissionCache effectivePermissionCache,
+                                    // 扫描器依赖 HandlerMapping，而拦截器在 HandlerMapping 创建时注册，延迟注入以打破循环依赖
+                                    @Lazy PermissionCodeScanner permissionCodeScanner) {
         this.userDomainService = userDomainService;
         this.subscriptionDomainService = subscriptionDomainService;
         this.subscriptionPlanDomainService = subscriptionPlanDomainService;
         this.planPermissionCache = planPermissionCache;
         this.resourceBindingDomainService = resourceBindingDomainService;
         this.chapterDomainService = chapterDomainService;
+        this.resourceAccessCache = resourceAccessCache;
+        this.effectivePermissionCache = effectivePermissionCache;
+        this.permissionCodeScanner = permissionCodeScanner;
     }
     
     /**
@@ -94,9 +110,16 @@ public class UserPermissionAppService {
      * - 其他用户（等级2+、无套餐）：允许访问
      */
     public boolean hasDownloadPermissionForResource(String userId, String resourceId) {
-        // 解析资源绑定到的课程集合
-        java.util.List<ResourceBindingEntity> bindings = resourceBindingDomainService.getBindingsByResourceId(resourceId);
-        if (bindings == null || bindings.isEmpty()) {
+        // CDN 分片鉴权热路径：结论按 (userId, resourceId) 短时缓存，订阅/课程授权/绑定变更时失效
+        return resourceAccessCache.getDecision(userId, resourceId,
+                () -> computeDownloadPermission(userId, resourceId));
+    }
+
+    private boolean computeDownloadPermission(String userId, String resourceId) {
+        // 解析资源绑定到的课程集合（资源索引缓存）
+        java.util.Set<String> courseIds = resourceAccessCache.getResourceCourses(resourceId,
+                () -> resolveResourceCourseIds(resourceId));
+        if (courseIds == null) {
             // 未绑定资源：拦截套餐等级1的用户，其他用户允许访问
 
             // 1. 获取用户当前有效订阅
@@ -134,20 +157,6 @@ public class UserPermissionAppService {
             return true;
         }
 
-        java.util.Set<String> courseIds = new java.util.HashSet<>();
-        java.util.Set<String> chapterIds = bindings.stream()
-                .filter(b -> b.getTargetType() == ResourceTargetType.CHAPTER)
-                .map(ResourceBindingEntity::getTargetId)
-                .collect(java.util.stream.Collectors.toSet());
-        if (!chapterIds.isEmpty()) {
-            java.util.Map<String, String> chapterCourseMap = chapterDomainService.getChapterCourseIdMapByIds(chapterIds);
-            courseIds.addAll(chapterCourseMap.values());
-        }
-        bindings.stream()
-                .filter(b -> b.getTargetType() == ResourceTargetType.COURSE)
-                .map(ResourceBindingEntity::getTargetId)
-                .forEach(courseIds::add);
-
         if (courseIds.isEmpty()) {
             // 绑定存在但未能解析出课程，按安全默认拒绝
             return false;
@@ -168,6 +177,30 @@ public class UserPermissionAppService {
         return !java.util.Collections.disjoint(courseIds, planCourses);
     }
     
+    /**
+     * 资源绑定的课程集合：章节绑定换算为所属课程；资源未绑定时返回 null
+     */
+    private java.util.Set<String> resolveResourceCourseIds(String resourceId) {
+        java.util.List<ResourceBindingEntity> bindings = resourceBindingDomainService.getBindingsByResourceId(resourceId);
+        if (bindings == null || bindings.isEmpty()) {
+            return null;
+        }
+        java.util.Set<String> courseIds = new java.util.HashSet<>();
+        java.util.Set<String> chapterIds = bindings.stream()
+                .filter(b -> b.getTargetType() == ResourceTargetType.CHAPTER)
+                .map(ResourceBindingEntity::getTargetId)
+                .collect(java.util.stream.Collectors.toSet());
+        if (!chapterIds.isEmpty()) {
+            java.util.Map<String, String> chapterCourseMap = chapterDomainService.getChapterCourseIdMapByIds(chapterIds);
+            courseIds.addAll(chapterCourseMap.values());
+        }
+        bindings.stream()
+                .filter(b -> b.getTargetType() == ResourceTargetType.COURSE)
+                .map(ResourceBindingEntity::getTargetId)
+                .forEach(courseIds::add);
+        return courseIds;
+    }
+    
     /**
      * 检查用户是否直接拥有课程权限
      */
@@ -221,6 +254,8 @@ public class UserPermissionAppService {
      */
     public void grantCourseAccess(String userId, String courseId) {
         userDomainService.grantCourseToUser(userId, courseId);
+        resourceAccessCache.evictUser(userId);
+        effectivePermissionCache.evictUser(userId);
     }
     
     /**
@@ -238,7 +273,43 @@ public class UserPermissionAppService {
      * 获取用户的功能权限码集合（并集）
      */
     public List<String> getUserPlanPermissionCodes(String userId) {
+        return planPermissionCodes(subscriptionDomainService.getUserActiveSubscriptions(userId));
+    }
+
+    /**
+     * 获取用户的有效功能权限（套餐权限码并集 + 直购课程附加权限）
+     * 进程内缓存，条目不晚于最早到期的有效订阅；订阅变更、课程授权、套餐权限码变更时失效
+     */
+    public EffectivePermissions getEffectivePermissions(String userId) {
+        EffectivePermissions cached = effectivePermissionCache.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+        long epoch = effectivePermissionCache.currentEpoch();
+
         List<UserSubscriptionEntity> actives = subscriptionDomainService.getUserActiveSubscriptions(userId);
+        java.util.Set<String> codes = new java.util.HashSet<>(planPermissionCodes(actives));
+        // 直购课程用户额外具备资源下载与章节详情权限
+        List<String> directCourses = userDomainService.getUserCourses(userId);
+        if (directCourses != null && !directCourses.isEmpty()) {
+            codes.add("RESOURCE_DOWNLOAD");
+            codes.add("CHAPTER_APP_DETAIL");
+        }
+        EffectivePermissions permissions = new EffectivePermissions(codes, permissionCodeScanner.toBits(codes));
+
+        long notAfter = Long.MAX_VALUE;
+        if (actives != null) {
+            for (UserSubscriptionEntity sub : actives) {
+                if (sub.getEndTime() != null) {
+                    notAfter = Math.min(notAfter, sub.getEndTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+                }
+            }
+        }
+        effectivePermissionCache.put(userId, permissions, notAfter, epoch);
+        return permissions;
+    }
+
+    private List<String> planPermissionCodes(List<UserSubscriptionEntity> actives) {
         if (actives == null || actives.isEmpty()) return List.of();
         java.util.LinkedHashSet<String> set = new java.util.LinkedHashSet<>();
         for (UserSubscriptionEntity sub : actives) {
@@ -6,11 +6,13 @@ public class UnreadAssembler {
 
     private UnreadAssembler() {}
 
-    public static UnreadSummaryDTO toDTO(Long postsUnread, Long questionsUnread, Long chaptersUnread) {
+    public static UnreadSummaryDTO toDTO(Long postsUnread, Long questionsUnread, Long chaptersUnread,
+                                         Long notificationsUnread) {
         UnreadSummaryDTO dto = new UnreadSummaryDTO();
         dto.setPostsUnread(postsUnread == null ? 0L : postsUnread);
         dto.setQuestionsUnread(questionsUnread == null ? 0L : questionsUnread);
         dto.setChaptersUnread(chaptersUnread == null ? 0L : chaptersUnread);
+        dto.setNotificationsUnread(notificationsUnread == null ? 0L : notificationsUnread);
         return dto;
     }
 }
@@ -4,6 +4,7 @@ public class UnreadSummaryDTO {
     private Long postsUnread;
     private Long questionsUnread;
     private Long chaptersUnread;
+    private Long notificationsUnread;
 
     public Long getPostsUnread() {
         return postsUnread;
@@ -28,4 +29,12 @@ public class UnreadSummaryDTO {
     public void setChaptersUnread(Long chaptersUnread) {
         this.chaptersUnread = chaptersUnread;
     }
+
+    public Long getNotificationsUnread() {
+        return notificationsUnread;
+    }
+
+    public void setNotificationsUnread(Long notificationsUnread) {
+        this.notificationsUnread = notificationsUnread;
+    }
 }
@@ -1,16 +1,23 @@
 package org.xhy.community.application.read.service;
 
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.xhy.community.application.read.assembler.UnreadAssembler;
 import org.xhy.community.application.read.dto.UnreadSummaryDTO;
 import org.xhy.community.domain.common.valueobject.ReadChannel;
 import org.xhy.community.domain.interview.service.InterviewQuestionDomainService;
+import org.xhy.community.domain.notification.service.NotificationDomainService;
 import org.xhy.community.domain.post.service.PostDomainService;
-import org.xhy.community.domain.read.entity.UserLastSeenEntity;
 import org.xhy.community.domain.read.service.ReadDomainService;
 import org.xhy.community.domain.course.service.ChapterDomainService;
+import org.xhy.community.infrastructure.cache.UnreadCounterCache;
+import org.xhy.community.infrastructure.push.SsePushHub;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 
 @Service
 public class UnreadAppService {
@@ -19,31 +26,69 @@ public class UnreadAppService {
     private final PostDomainService postDomainService;
     private final InterviewQuestionDomainService interviewQuestionDomainService;
     private final ChapterDomainService chapterDomainService;
+    private final NotificationDomainService notificationDomainService;
+    private final UnreadCounterCache unreadCounterCache;
+    private final SsePushHub ssePushHub;
 
     public UnreadAppService(ReadDomainService readDomainService,
                             PostDomainService postDomainService,
                             InterviewQuestionDomainService interviewQuestionDomainService,
-                            ChapterDomainService chapterDomainService) {
+                            ChapterDomainService chapterDomainService,
+                            NotificationDomainService notificationDomainService,
+                            UnreadCounterCache unreadCounterCache,
+                            SsePushHub ssePushHub) {
         this.readDomainService = readDomainService;
         this.postDomainService = postDomainService;
         this.interviewQuestionDomainService = interviewQuestionDomainService;
         this.chapterDomainService = chapterDomainService;
+        this.notificationDomainService = notificationDomainService;
+        this.unreadCounterCache = unreadCounterCache;
+        this.ssePushHub = ssePushHub;
     }
 
     /**
-     * 获取用户的未读汇总（文章/题目）。
-     * 首次调用会初始化 lastSeen（默认清零策略）。
+     * 获取用户的未读汇总（文章/题目/章节/站内信）。
+     * 优先由未读计数缓存一次返回；未命中的项回源数据库并预热，首次调用会初始化 lastSeen（默认清零策略）。
      */
     public UnreadSummaryDTO getUnreadSummary(String userId) {
-        // 获取/初始化三个频道的 lastSeen
-        UserLastSeenEntity postSeen = readDomainService.getOrInit(userId, ReadChannel.POSTS);
-        UserLastSeenEntity questionSeen = readDomainService.getOrInit(userId, ReadChannel.QUESTIONS);
-        UserLastSeenEntity chapterSeen = readDomainService.getOrInit(userId, ReadChannel.CHAPTERS);
-
-        Long postsUnread = postDomainService.countPublishedSince(postSeen.getLastSeenAt());
-        Long questionsUnread = interviewQuestionDomainService.countPublishedSince(questionSeen.getLastSeenAt());
-        Long chaptersUnread = chapterDomainService.countSince(chapterSeen.getLastSeenAt());
-        return UnreadAssembler.toDTO(postsUnread, questionsUnread, chaptersUnread);
+        UnreadCounterCache.Snapshot snapshot = unreadCounterCache.read(userId);
+
+        Map<ReadChannel, Long> unread = new EnumMap<>(snapshot.getUnread());
+        List<ReadChannel> missingLastSeen = new ArrayList<>();
+        for (ReadChannel channel : ReadChannel.values()) {
+            if (!unread.containsKey(channel) && !snapshot.getLastSeen().containsKey(channel)) {
+                missingLastSeen.add(channel);
+            }
+        }
+        Map<ReadChannel, LocalDateTime> lastSeen = new EnumMap<>(snapshot.getLastSeen());
+        if (!missingLastSeen.isEmpty()) {
+            Map<ReadChannel, LocalDateTime> loaded = readDomainService.getOrInitAll(userId, missingLastSeen);
+            loaded.forEach((channel, lastSeenAt) -> {
+                if (lastSeenAt != null) {
+                    unreadCounterCache.warmLastSeen(userId, channel, lastSeenAt);
+                }
+            });
+            lastSeen.putAll(loaded);
+        }
+        for (ReadChannel channel : ReadChannel.values()) {
+            if (!unread.containsKey(channel)) {
+                unread.put(channel, countSince(channel, lastSeen.get(channel)));
+            }
+        }
+
+        Long notificationsUnread = snapshot.getNotifications() != null
+                ? snapshot.getNotifications()
+                : notificationDomainService.getUnreadCount(userId);
+
+        return UnreadAssembler.toDTO(unread.get(ReadChannel.POSTS), unread.get(ReadChannel.QUESTIONS),
+                unread.get(ReadChannel.CHAPTERS), notificationsUnread);
+    }
+
+    /**
+     * 订阅未读推送：先推送当前未读汇总，之后推送新站内信与各频道未读数变化，替代定时轮询。
+     */
+    public SseEmitter subscribe(String userId) {
+        return ssePushHub.open(userId, SsePushHub.EVENT_SUMMARY, getUnreadSummary(userId));
     }
 
     /**
@@ -53,4 +98,12 @@ public class UnreadAppService {
         LocalDateTime serverNow = LocalDateTime.now();
         readDomainService.updateLastSeen(userId, channel, serverNow);
     }
+
+    private Long countSince(ReadChannel channel, LocalDateTime since) {
+        return switch (channel) {
+            case POSTS -> postDomainService.countPublishedSince(since);
+            case QUESTIONS -> interviewQuestionDomainService.countPublishedSince(since);
+            case CHAPTERS -> chapterDomainService.countSince(since);
+        };
+    }
 }
@@ -18,11 +18,14 @@ import org.xhy.community.domain.session.valueobject.ActiveIpInfo;
 import org.xhy.community.domain.user.entity.UserEntity;
 import org.xhy.community.domain.user.query.UserQuery;
 import org.xhy.community.domain.user.service.UserDomainService;
+import org.xhy.community.infrastructure.cache.AuthDecisionCache;
+import org.xhy.community.infrastructure.config.JwtProperties;
 import org.xhy.community.infrastructure.exception.BusinessException;
 import org.xhy.community.infrastructure.exception.UserErrorCode;
 import org.xhy.community.interfaces.user.request.BlacklistQueryRequest;
 import org.xhy.community.interfaces.user.request.DeviceSessionQueryRequest;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
@@ -44,15 +47,21 @@ public class AdminDeviceSessionAppService {
     private final DeviceSessionDomainService deviceSessionDomainService;
     private final TokenBlacklistDomainService tokenBlacklistDomainService;
     private final TokenIpMappingDomainService tokenIpMappingDomainService;
+    private final AuthDecisionCache authDecisionCache;
+    private final JwtProperties jwtProperties;
 
     public AdminDeviceSessionAppService(UserDomainService userDomainService,
                                       DeviceSessionDomainService deviceSessionDomainService,
                                       TokenBlacklistDomainService tokenBlacklistDomainService,
-                                      TokenIpMappingDomainService tokenIpMappingDomainService) {
+                                      TokenIpMappingDomainService tokenIpMappingDomainService,
+                                      AuthDecisionCache authDecisionCache,
+                                      JwtProperties jwtProperties) {
         this.userDomainService = userDomainService;
         this.deviceSessionDomainService = deviceSessionDomainService;
         this.tokenBlacklistDomainService = tokenBlacklistDomainService;
         this.tokenIpMappingDomainService = tokenIpMappingDomainService;
+        this.authDecisionCache = authDecisionCache;
+        this.jwtProperties = jwtProperties;
     }
 
     /**
@@ -136,6 +145,7 @@ public class AdminDeviceSessionAppService {
 
         // 强制下线设备
         deviceSessionDomainService.forceRemoveActiveIp(userId, ip);
+        authDecisionCache.evictUser(userId);
     }
 
     /**
@@ -148,17 +158,17 @@ public class AdminDeviceSessionAppService {
             throw new BusinessException(UserErrorCode.USER_NOT_FOUND, "用户不存在");
         }
 
-        // 获取该用户所有tokens，并将它们加入黑名单
+        // 整体吊销该用户此刻之前签发的全部token（含未记录在映射中的token），无需逐个token写入
         Set<String> tokens = tokenIpMappingDomainService.getAllTokensByUser(userId);
+        tokenBlacklistDomainService.revokeAllForUser(userId, tokens, Duration.ofMillis(jwtProperties.getExpiration()));
         if (!tokens.isEmpty()) {
-            // 使用新的用户级黑名单管理
-            tokenBlacklistDomainService.addUserToBlacklist(userId, tokens, null);
             // 移除所有token和IP的映射关系
             tokenIpMappingDomainService.removeAllTokensForUser(userId);
         }
 
         // 强制下线所有设备
         deviceSessionDomainService.clearAllActiveIps(userId);
+        authDecisionCache.evictUser(userId);
     }
 
     /**
@@ -215,7 +225,6 @@ public class AdminDeviceSessionAppService {
 
                 if (matches) {
                     Long blacklistTime = tokenBlacklistDomainService.getUserBlacklistTime(userId);
-                    Set<String> tokens = tokenBlacklistDomainService.getUserBlacklistTokens(userId);
 
                     BlacklistedUserDTO dto = new BlacklistedUserDTO();
                     dto.setUserId(userId);
@@ -226,7 +235,7 @@ public class AdminDeviceSessionAppService {
                         dto.setBlacklistedTime(LocalDateTime.ofInstant(
                             Instant.ofEpochMilli(blacklistTime), ZoneId.systemDefault()));
                     }
-                    dto.setTokenCount(tokens.size());
+                    dto.setTokenCount((int) tokenBlacklistDomainService.getUserBlacklistTokenCount(userId));
 
                     blacklistedUsers.add(dto);
                 }
@@ -6,6 +6,7 @@ import org.xhy.community.application.session.dto.ActiveSessionDTO;
 import org.xhy.community.domain.session.service.DeviceSessionDomainService;
 import org.xhy.community.domain.config.service.UserSessionConfigService;
 import org.xhy.community.domain.session.valueobject.ActiveIpInfo;
+import org.xhy.community.infrastructure.cache.AuthDecisionCache;
 import org.xhy.community.infrastructure.exception.BusinessException;
 import org.xhy.community.infrastructure.exception.UserErrorCode;
 
@@ -19,11 +20,14 @@ public class DeviceSessionAppService {
 
     private final DeviceSessionDomainService deviceSessionDomainService;
     private final UserSessionConfigService userSessionConfigService;
+    private final AuthDecisionCache authDecisionCache;
 
     public DeviceSessionAppService(DeviceSessionDomainService deviceSessionDomainService,
-                                   UserSessionConfigService userSessionConfigService) {
+                                   UserSessionConfigService userSessionConfigService,
+                                   AuthDecisionCache authDecisionCache) {
         this.deviceSessionDomainService = deviceSessionDomainService;
         this.userSessionConfigService = userSessionConfigService;
+        this.authDecisionCache = authDecisionCache;
     }
 
     /**
@@ -58,6 +62,7 @@ public class DeviceSessionAppService {
         }
 
         deviceSessionDomainService.removeActiveIp(userId, ip);
+        authDecisionCache.evictUser(userId);
     }
 
     /**
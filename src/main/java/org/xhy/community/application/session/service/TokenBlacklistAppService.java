@@ -2,6 +2,7 @@ package org.xhy.community.application.session.service;
 
 import org.springframework.stereotype.Service;
 import org.xhy.community.domain.session.service.TokenBlacklistDomainService;
+import org.xhy.community.infrastructure.config.JwtUtil;
 
 /**
  * Token 黑名单应用服务
@@ -11,13 +12,21 @@ import org.xhy.community.domain.session.service.TokenBlacklistDomainService;
 public class TokenBlacklistAppService {
 
     private final TokenBlacklistDomainService tokenBlacklistDomainService;
+    private final JwtUtil jwtUtil;
 
-    public TokenBlacklistAppService(TokenBlacklistDomainService tokenBlacklistDomainService) {
+    public TokenBlacklistAppService(TokenBlacklistDomainService tokenBlacklistDomainService, JwtUtil jwtUtil) {
         this.tokenBlacklistDomainService = tokenBlacklistDomainService;
+        this.jwtUtil = jwtUtil;
     }
 
+    /**
+     * token 是否已被吊销：token 级吊销，或所属用户在其签发之后被整体吊销
+     */
     public boolean isBlacklisted(String token) {
-        return tokenBlacklistDomainService.isBlacklisted(token);
+        JwtUtil.VerifiedToken verified = jwtUtil.verify(token);
+        if (verified == null || verified.getIssuedAtMillis() < 0) {
+            return tokenBlacklistDomainService.isBlacklisted(token);
+        }
+        return tokenBlacklistDomainService.isRevoked(token, verified.getUserId(), verified.getIssuedAtMillis());
     }
 }
-
@@ -11,6 +11,8 @@ import org.xhy.community.domain.subscription.service.SubscriptionDomainService;
 import org.xhy.community.domain.user.event.UserRegisteredEvent;
 import org.xhy.community.domain.user.event.UserLoginEvent;
 import org.xhy.community.domain.subscription.entity.UserSubscriptionEntity;
+import org.xhy.community.infrastructure.cache.EffectivePermissionCache;
+import org.xhy.community.infrastructure.cache.ResourceAccessCache;
 import org.xhy.community.infrastructure.lock.DistributedLock;
 
 /**
@@ -27,13 +29,19 @@ public class DefaultSubscriptionEventListener {
     private final SystemConfigDomainService systemConfigDomainService;
     private final SubscriptionDomainService subscriptionDomainService;
     private final DistributedLock distributedLock;
+    private final ResourceAccessCache resourceAccessCache;
+    private final EffectivePermissionCache effectivePermissionCache;
 
     public DefaultSubscriptionEventListener(SystemConfigDomainService systemConfigDomainService,
                                             SubscriptionDomainService subscriptionDomainService,
-                                            DistributedLock distributedLock) {
+                                            DistributedLock distributedLock,
+                                            ResourceAccessCache resourceAccessCache,
+                                            EffectivePermissionCache effectivePermissionCache) {
         this.systemConfigDomainService = systemConfigDomainService;
         this.subscriptionDomainService = subscriptionDomainService;
         this.distributedLock = distributedLock;
+        this.resourceAccessCache = resourceAccessCache;
+        this.effectivePermissionCache = effectivePermissionCache;
     }
 
     @EventListener
@@ -66,6 +74,8 @@ public class DefaultSubscriptionEventListener {
 
                 // 创建系统赠送的免费订阅
                 subscriptionDomainService.createSystemGiftSubscription(userId, config.getSubscriptionPlanId());
+                resourceAccessCache.evictUser(userId);
+                effectivePermissionCache.evictUser(userId);
                 // 分配默认套餐成功，省略日志
             });
 
@@ -102,6 +112,8 @@ public class DefaultSubscriptionEventListener {
                         userId,
                         config.getSubscriptionPlanId()
                 );
+                resourceAccessCache.evictUser(userId);
+                effectivePermissionCache.evictUser(userId);
 
                 // 兜底分配成功或跳过，省略日志
             });
@@ -11,6 +11,9 @@ import org.xhy.community.domain.subscription.service.SubscriptionDomainService;
 import org.xhy.community.domain.cdk.service.CDKDomainService;
 import org.xhy.community.domain.cdk.entity.CDKEntity;
 import org.xhy.community.domain.cdk.valueobject.CDKSubscriptionStrategy;
+import org.xhy.community.infrastructure.cache.AuthDecisionCache;
+import org.xhy.community.infrastructure.cache.EffectivePermissionCache;
+import org.xhy.community.infrastructure.cache.ResourceAccessCache;
 
 @Component
 public class SubscriptionCDKEventListener {
@@ -19,11 +22,20 @@ public class SubscriptionCDKEventListener {
 
     private final SubscriptionDomainService subscriptionDomainService;
     private final CDKDomainService cdkDomainService;
+    private final AuthDecisionCache authDecisionCache;
+    private final ResourceAccessCache resourceAccessCache;
+    private final EffectivePermissionCache effectivePermissionCache;
 
     public SubscriptionCDKEventListener(SubscriptionDomainService subscriptionDomainService,
-                                        CDKDomainService cdkDomainService) {
+                                        CDKDomainService cdkDomainService,
+                                        AuthDecisionCache authDecisionCache,
+                                        ResourceAccessCache resourceAccessCache,
+                                        EffectivePermissionCache effectivePermissionCache) {
         this.subscriptionDomainService = subscriptionDomainService;
         this.cdkDomainService = cdkDomainService;
+        this.authDecisionCache = authDecisionCache;
+        this.resourceAccessCache = resourceAccessCache;
+        this.effectivePermissionCache = effectivePermissionCache;
     }
 
     @EventListener
@@ -43,6 +55,10 @@ public class SubscriptionCDKEventListener {
                     cdkCode,
                     strategy
             );
+            // 订阅变更：失效该用户的鉴权结论、资源访问结论与有效功能权限缓存
+            authDecisionCache.evictUser(event.getUserId());
+            resourceAccessCache.evictUser(event.getUserId());
+            effectivePermissionCache.evictUser(event.getUserId());
 
             if (created != null) {
                 log.info("[CDK激活-监听] 已创建订阅: subscriptionId={}, userId={}, planId={}, endTime={}",
@@ -10,6 +10,8 @@ import org.xhy.community.domain.subscription.query.SubscriptionPlanQuery;
 import org.xhy.community.domain.subscription.service.SubscriptionPlanDomainService;
 import org.xhy.community.interfaces.subscription.request.CreateSubscriptionPlanRequest;
 import org.xhy.community.interfaces.subscription.request.SubscriptionPlanQueryRequest;
+import org.xhy.community.infrastructure.cache.EffectivePermissionCache;
+import org.xhy.community.infrastructure.cache.ResourceAccessCache;
 import org.xhy.community.interfaces.subscription.request.UpdateSubscriptionPlanRequest;
 
 import java.util.List;
@@ -18,9 +20,15 @@ import java.util.List;
 public class AdminSubscriptionPlanAppService {
     
     private final SubscriptionPlanDomainService subscriptionPlanDomainService;
+    private final ResourceAccessCache resourceAccessCache;
+    private final EffectivePermissionCache effectivePermissionCache;
     
-    public AdminSubscriptionPlanAppService(SubscriptionPlanDomainService subscriptionPlanDomainService) {
+    public AdminSubscriptionPlanAppService(SubscriptionPlanDomainService subscriptionPlanDomainService,
+                                           ResourceAccessCache resourceAccessCache,
+                                           EffectivePermissionCache effectivePermissionCache) {
         this.subscriptionPlanDomainService = subscriptionPlanDomainService;
+        this.resourceAccessCache = resourceAccessCache;
+        this.effectivePermissionCache = effectivePermissionCache;
     }
     
     public SubscriptionPlanDTO createSubscriptionPlan(CreateSubscriptionPlanRequest request) {
@@ -33,6 +41,8 @@ public class AdminSubscriptionPlanAppService {
     public SubscriptionPlanDTO updateSubscriptionPlan(String id, UpdateSubscriptionPlanRequest request) {
         SubscriptionPlanEntity entity = SubscriptionPlanAssembler.fromUpdateRequest(request, id);
         SubscriptionPlanEntity updated = subscriptionPlanDomainService.updateSubscriptionPlan(entity);
+        // 套餐等级影响未绑定资源的下载判定
+        resourceAccessCache.evictDecisions();
         
         return SubscriptionPlanAssembler.toDTO(updated);
     }
@@ -44,6 +54,8 @@ public class AdminSubscriptionPlanAppService {
     
     public void deleteSubscriptionPlan(String id) {
         subscriptionPlanDomainService.deleteSubscriptionPlan(id);
+        resourceAccessCache.evictDecisions();
+        effectivePermissionCache.evictAll();
     }
     
     public IPage<SubscriptionPlanDTO> getPagedSubscriptionPlans(SubscriptionPlanQueryRequest request) {
@@ -8,6 +8,7 @@ import org.xhy.community.application.subscription.assembler.SubscriptionPlanAsse
 import org.xhy.community.application.course.assembler.CourseAssembler;
 import org.xhy.community.domain.subscription.service.SubscriptionPlanDomainService;
 import org.xhy.community.domain.course.service.CourseDomainService;
+import org.xhy.community.infrastructure.cache.ResourceAccessCache;
 import org.xhy.community.interfaces.subscription.request.UpdateSubscriptionPlanCoursesRequest;
 
 import java.util.List;
@@ -17,11 +18,14 @@ public class AdminSubscriptionPlanCourseAppService {
     
     private final SubscriptionPlanDomainService subscriptionPlanDomainService;
     private final CourseDomainService courseDomainService;
+    private final ResourceAccessCache resourceAccessCache;
     
     public AdminSubscriptionPlanCourseAppService(SubscriptionPlanDomainService subscriptionPlanDomainService,
-                                               CourseDomainService courseDomainService) {
+                                               CourseDomainService courseDomainService,
+                                               ResourceAccessCache resourceAccessCache) {
         this.subscriptionPlanDomainService = subscriptionPlanDomainService;
         this.courseDomainService = courseDomainService;
+        this.resourceAccessCache = resourceAccessCache;
     }
     
     public List<SimpleSubscriptionPlanDTO> getSimpleSubscriptionPlans() {
@@ -45,5 +49,7 @@ public class AdminSubscriptionPlanCourseAppService {
     @Transactional
     public void updateSubscriptionPlanCourses(String planId, UpdateSubscriptionPlanCoursesRequest request) {
         subscriptionPlanDomainService.syncSubscriptionPlanCourses(planId, request.getCourseIds());
+        // 事务提交后才失效，避免提交前的回源把旧套餐内容写回缓存
+        resourceAccessCache.evictDecisions();
     }
 }
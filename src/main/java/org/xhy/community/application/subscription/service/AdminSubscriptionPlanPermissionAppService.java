@@ -6,6 +6,7 @@ import org.xhy.community.domain.subscription.service.SubscriptionPlanDomainServi
 import org.xhy.community.interfaces.subscription.request.UpdateSubscriptionPlanPermissionsRequest;
 import org.xhy.community.application.subscription.dto.PermissionOptionDTO;
 import org.xhy.community.infrastructure.permission.PermissionCodeScanner;
+import org.xhy.community.infrastructure.cache.EffectivePermissionCache;
 import org.xhy.community.infrastructure.cache.PlanPermissionCache;
 
 import java.util.List;
@@ -17,13 +18,16 @@ public class AdminSubscriptionPlanPermissionAppService {
     private final SubscriptionPlanDomainService subscriptionPlanDomainService;
     private final PermissionCodeScanner permissionCodeScanner;
     private final PlanPermissionCache planPermissionCache;
+    private final EffectivePermissionCache effectivePermissionCache;
 
     public AdminSubscriptionPlanPermissionAppService(SubscriptionPlanDomainService subscriptionPlanDomainService,
                                                      PermissionCodeScanner permissionCodeScanner,
-                                                     PlanPermissionCache planPermissionCache) {
+                                                     PlanPermissionCache planPermissionCache,
+                                                     EffectivePermissionCache effectivePermissionCache) {
         this.subscriptionPlanDomainService = subscriptionPlanDomainService;
         this.permissionCodeScanner = permissionCodeScanner;
         this.planPermissionCache = planPermissionCache;
+        this.effectivePermissionCache = effectivePermissionCache;
     }
 
     public List<String> getSubscriptionPlanPermissionCodes(String planId) {
@@ -40,6 +44,7 @@ public class AdminSubscriptionPlanPermissionAppService {
         subscriptionPlanDomainService.syncSubscriptionPlanPermissions(planId, normalized);
         // 主动失效套餐权限码缓存
         planPermissionCache.evictPlanCodes(planId);
+        effectivePermissionCache.evictAll();
     }
 
     public List<PermissionOptionDTO> getPermissionOptions() {
@@ -1,5 +1,7 @@
 package org.xhy.community.application.summary.service;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.xhy.community.domain.comment.entity.CommentEntity;
 import org.xhy.community.domain.comment.service.CommentDomainService;
@@ -12,60 +14,164 @@ import org.xhy.community.domain.summary.entity.DiscussionSummaryEntity;
 import org.xhy.community.domain.summary.service.DiscussionSummaryDomainService;
 import org.xhy.community.domain.summary.valueobject.SummaryMaterial;
 import org.xhy.community.domain.summary.valueobject.SummaryTargetType;
+import org.xhy.community.infrastructure.lock.DistributedLock;
+import org.xhy.community.infrastructure.lock.LockNotAcquiredException;
+import org.xhy.community.infrastructure.task.SummaryJobScheduler;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 @Service
 public class SummaryAppService {
 
+    private static final Logger log = LoggerFactory.getLogger(SummaryAppService.class);
+
     private static final int MIN_COMMENT_THRESHOLD = 3; // 评论数阈值，达到后触发
+    private static final int MIN_NEW_COMMENTS = 5; // 距上次摘要新增评论数阈值，达到后才重新生成
+    private static final String LOCK_KEY_PREFIX = "lock:summary:";
 
     private final CommentDomainService commentDomainService;
     private final PostDomainService postDomainService;
     private final ChapterDomainService chapterDomainService;
     private final DiscussionSummaryDomainService discussionSummaryDomainService;
+    private final SummaryJobScheduler summaryJobScheduler;
+    private final DistributedLock distributedLock;
 
     public SummaryAppService(CommentDomainService commentDomainService,
                              PostDomainService postDomainService,
                              ChapterDomainService chapterDomainService,
-                             DiscussionSummaryDomainService discussionSummaryDomainService) {
+                             DiscussionSummaryDomainService discussionSummaryDomainService,
+                             SummaryJobScheduler summaryJobScheduler,
+                             DistributedLock distributedLock) {
         this.commentDomainService = commentDomainService;
         this.postDomainService = postDomainService;
         this.chapterDomainService = chapterDomainService;
         this.discussionSummaryDomainService = discussionSummaryDomainService;
+        this.summaryJobScheduler = summaryJobScheduler;
+        this.distributedLock = distributedLock;
     }
 
     /**
-     * 监听到评论创建后调用：根据评论归属（文章/章节）触发生成
+     * 监听到评论创建后调用：根据评论归属（文章/章节）提交摘要任务
+     * 同一目标的评论事件在防抖窗口内合并为一次生成
      */
     public void handleCommentCreated(String commentId) {
         CommentEntity comment = commentDomainService.getCommentById(commentId);
         BusinessType bt = comment.getBusinessType();
         if (bt == BusinessType.POST || bt == BusinessType.CHAPTER) {
-            generateAndSaveIfNeeded(bt == BusinessType.POST ? SummaryTargetType.POST : SummaryTargetType.CHAPTER,
-                    comment.getBusinessId());
+            SummaryTargetType targetType = bt == BusinessType.POST ? SummaryTargetType.POST : SummaryTargetType.CHAPTER;
+            String targetId = comment.getBusinessId();
+            summaryJobScheduler.submit(targetType + ":" + targetId, () -> generateAndSaveIfNeeded(targetType, targetId));
         }
     }
 
     /**
-     * 当评论数达到阈值时生成与保存摘要
+     * 当评论数达到阈值、且距上次摘要的新增评论数达到阈值时生成与保存摘要
+     * 已有摘要时仅把新增评论与已有摘要交给模型做增量合并
      */
     public void generateAndSaveIfNeeded(SummaryTargetType targetType, String targetId) {
         long count = getCommentCount(targetType, targetId);
         if (count <= MIN_COMMENT_THRESHOLD) {
             return; // 未达阈值，跳过
         }
+        DiscussionSummaryEntity existing = discussionSummaryDomainService.getByTarget(targetType, targetId);
+        if (!hasEnoughNewComments(existing, count)) {
+            return;
+        }
+
+        // 多实例下同一目标只由一个节点生成；获取不到锁说明其他节点正在生成，直接跳过
+        try {
+            distributedLock.runWithLock(LOCK_KEY_PREFIX + targetType + ":" + targetId,
+                    Duration.ofMillis(100), Duration.ofMinutes(2), () -> generateAndSave(targetType, targetId));
+        } catch (LockNotAcquiredException e) {
+            log.debug("[SummaryAppService] 摘要生成进行中，跳过 target={}:{}", targetType, targetId);
+        } catch (RuntimeException e) {
+            log.warn("[SummaryAppService] 摘要生成失败 target={}:{}, err={}", targetType, targetId, e.getMessage(), e);
+        }
+    }
+
+    private void generateAndSave(SummaryTargetType targetType, String targetId) {
+        // 加锁后重新读取水位，避免重复生成
+        long count = getCommentCount(targetType, targetId);
+        DiscussionSummaryEntity existing = discussionSummaryDomainService.getByTarget(targetType, targetId);
+        if (!hasEnoughNewComments(existing, count)) {
+            return;
+        }
+
+        boolean incremental = existing != null && existing.getLastCommentTime() != null
+                && existing.getSummary() != null && !existing.getSummary().isBlank();
+        LocalDateTime since = incremental ? existing.getLastCommentTime() : null;
+        Set<String> coveredAtSince = incremental ? parseIds(existing.getLastCommentIds()) : Set.of();
+        List<CommentEntity> comments = getComments(targetType, targetId, since, coveredAtSince);
+        if (incremental && comments.isEmpty()) {
+            return;
+        }
 
-        SummaryMaterial material = buildMaterial(targetType, targetId);
+        SummaryMaterial material = buildMaterial(targetType, targetId, comments);
+        if (incremental) {
+            material = material.withPreviousSummary(existing.getSummary());
+        }
         String summaryText = discussionSummaryDomainService.generateSummary(material);
 
         DiscussionSummaryEntity entity = new DiscussionSummaryEntity();
         entity.setTargetType(targetType);
         entity.setTargetId(targetId);
         entity.setSummary(summaryText);
+        entity.setCommentCount((int) count);
+        LocalDateTime lastTime = comments.isEmpty() ? since : comments.get(comments.size() - 1).getCreateTime();
+        entity.setLastCommentTime(lastTime);
+        entity.setLastCommentIds(idsAt(lastTime, since, coveredAtSince, comments));
         discussionSummaryDomainService.upsert(entity);
     }
 
+    /**
+     * 新水位时间点上已覆盖的评论ID：水位未前进时与原有ID合并
+     */
+    private String idsAt(LocalDateTime lastTime, LocalDateTime since, Set<String> coveredAtSince,
+                         List<CommentEntity> comments) {
+        if (lastTime == null) {
+            return null;
+        }
+        Set<String> ids = new LinkedHashSet<>();
+        if (lastTime.equals(since)) {
+            ids.addAll(coveredAtSince);
+        }
+        for (CommentEntity comment : comments) {
+            if (lastTime.equals(comment.getCreateTime())) {
+                ids.add(comment.getId());
+            }
+        }
+        return String.join(",", ids);
+    }
+
+    private Set<String> parseIds(String ids) {
+        if (ids == null || ids.isBlank()) {
+            return Set.of();
+        }
+        Set<String> result = new LinkedHashSet<>(Arrays.asList(ids.split(",")));
+        result.remove("");
+        return result;
+    }
+
+    private boolean hasEnoughNewComments(DiscussionSummaryEntity existing, long count) {
+        if (existing == null) {
+            return true;
+        }
+        int summarized = existing.getCommentCount() == null ? 0 : existing.getCommentCount();
+        return count - summarized >= MIN_NEW_COMMENTS;
+    }
+
+    private List<CommentEntity> getComments(SummaryTargetType type, String targetId, LocalDateTime since,
+                                            Set<String> excludeIds) {
+        BusinessType bt = type == SummaryTargetType.POST ? BusinessType.POST : BusinessType.CHAPTER;
+        return commentDomainService.getCommentsByBusinessSince(targetId, bt, since, excludeIds,
+                DiscussionSummaryDomainService.MAX_COMMENT_COUNT);
+    }
+
     private long getCommentCount(SummaryTargetType type, String targetId) {
         return switch (type) {
             case POST -> commentDomainService.getCommentCountByBusiness(targetId, BusinessType.POST);
@@ -73,16 +179,14 @@ public class SummaryAppService {
         };
     }
 
-    private SummaryMaterial buildMaterial(SummaryTargetType type, String targetId) {
+    private SummaryMaterial buildMaterial(SummaryTargetType type, String targetId, List<CommentEntity> comments) {
         switch (type) {
             case POST: {
                 PostEntity post = postDomainService.getPostById(targetId);
-                List<CommentEntity> comments = commentDomainService.getCommentsByBusiness(targetId, BusinessType.POST);
                 return SummaryMaterial.ofPost(post, comments);
             }
             case CHAPTER: {
                 ChapterEntity chapter = chapterDomainService.getChapterById(targetId);
-                List<CommentEntity> comments = commentDomainService.getCommentsByBusiness(targetId, BusinessType.CHAPTER);
                 return SummaryMaterial.ofChapter(chapter, comments);
             }
             default:
@@ -11,6 +11,7 @@ import org.xhy.community.domain.subscription.entity.UserSubscriptionEntity;
 import org.xhy.community.domain.subscription.entity.SubscriptionPlanEntity;
 import org.xhy.community.domain.subscription.service.SubscriptionDomainService;
 import org.xhy.community.domain.subscription.service.SubscriptionPlanDomainService;
+import org.xhy.community.infrastructure.cache.AuthDecisionCache;
 import org.xhy.community.interfaces.user.request.AdminUserQueryRequest;
 import org.xhy.community.interfaces.user.request.UpdateUserDevicesRequest;
 
@@ -28,13 +29,16 @@ public class AdminUserAppService {
     private final UserDomainService userDomainService;
     private final SubscriptionDomainService subscriptionDomainService;
     private final SubscriptionPlanDomainService subscriptionPlanDomainService;
+    private final AuthDecisionCache authDecisionCache;
 
     public AdminUserAppService(UserDomainService userDomainService,
                                SubscriptionDomainService subscriptionDomainService,
-                               SubscriptionPlanDomainService subscriptionPlanDomainService) {
+                               SubscriptionPlanDomainService subscriptionPlanDomainService,
+                               AuthDecisionCache authDecisionCache) {
         this.userDomainService = userDomainService;
         this.subscriptionDomainService = subscriptionDomainService;
         this.subscriptionPlanDomainService = subscriptionPlanDomainService;
+        this.authDecisionCache = authDecisionCache;
     }
     
     /**
@@ -94,6 +98,8 @@ public class AdminUserAppService {
      */
     public AdminUserDTO toggleUserStatus(String userId) {
         UserEntity user = userDomainService.toggleUserStatus(userId);
+        // 用户状态变化：失效该用户的鉴权结论缓存
+        authDecisionCache.evictUser(userId);
         return AdminUserAssembler.toDTO(user);
     }
     
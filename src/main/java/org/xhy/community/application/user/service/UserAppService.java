@@ -35,6 +35,7 @@ import org.xhy.community.domain.user.valueobject.UserStatus;
 import org.xhy.community.domain.tag.service.TagDomainService;
 import org.xhy.community.domain.tag.entity.UserTagAssignmentEntity;
 import org.xhy.community.domain.tag.entity.TagDefinitionEntity;
+import org.xhy.community.infrastructure.cache.AuthDecisionCache;
 
 import java.util.List;
 
@@ -55,6 +56,7 @@ public class UserAppService {
     private final EmailService emailService;
     private final ApplicationEventPublisher eventPublisher;
     private final AppEnvironment appEnvironment;
+    private final AuthDecisionCache authDecisionCache;
 
     public UserAppService(UserDomainService userDomainService,
                           TagDomainService tagDomainService,
@@ -69,7 +71,8 @@ public class UserAppService {
                           PasswordResetDomainService passwordResetDomainService,
                           EmailService emailService,
                           ApplicationEventPublisher eventPublisher,
-                          AppEnvironment appEnvironment) {
+                          AppEnvironment appEnvironment,
+                          AuthDecisionCache authDecisionCache) {
         this.userDomainService = userDomainService;
         this.tagDomainService = tagDomainService;
         this.jwtUtil = jwtUtil;
@@ -84,6 +87,7 @@ public class UserAppService {
         this.emailService = emailService;
         this.eventPublisher = eventPublisher;
         this.appEnvironment = appEnvironment;
+        this.authDecisionCache = authDecisionCache;
     }
     
     public LoginResponseDTO login(String email, String password, String ip, String deviceId) {
@@ -116,6 +120,8 @@ public class UserAppService {
                     sessionConfig.getTtl().toMillis(), sessionConfig.getHistoryWindow().toMillis(),
                     sessionConfig.getBanThreshold(), sessionConfig.getBanTtl().toMillis());
         }
+        // 登录可能淘汰旧设备/IP或触发封禁：失效该用户已有的鉴权结论缓存
+        authDecisionCache.evictUser(user.getId());
         if (!allowed) {
             throw new BusinessException(UserErrorCode.USER_BANNED, "设备或IP限制，登录被拒绝");
         }
@@ -362,6 +368,7 @@ public class UserAppService {
                 if (remainingMs > 0) {
                     tokenBlacklistDomainService.addToBlacklist(token, java.time.Duration.ofMillis(remainingMs));
                 }
+                authDecisionCache.evictToken(token);
             }
 
             if (org.springframework.util.StringUtils.hasText(userId)) {
@@ -375,6 +382,7 @@ public class UserAppService {
                     tokenIpMappingDomainService.removeTokensForUserDevice(userId, deviceId);
                     // 不强制移除设备（可能存在其他 token 仍在使用）；如需“立即下线该设备”，应在上层配合黑名单与 removeActiveDevice
                 }
+                authDecisionCache.evictUser(userId);
             }
         } catch (Exception ignored) {
             // 幂等与安全：任何异常均不影响前端登出流程
@@ -0,0 +1,39 @@
+package org.xhy.community.domain.comment.entity;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableName;
+import org.xhy.community.domain.comment.valueobject.BusinessType;
+import org.xhy.community.infrastructure.converter.BusinessTypeConverter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 评论计数聚合（主键为 business_type + business_id）
+ */
+@TableName("comment_counters")
+public class CommentCounterEntity {
+
+    /** 业务类型 */
+    @TableField(typeHandler = BusinessTypeConverter.class)
+    private BusinessType businessType;
+
+    /** 业务ID */
+    private String businessId;
+
+    /** 评论数（含回复，不含已删除） */
+    private Long commentCount;
+
+    private LocalDateTime updateTime;
+
+    public BusinessType getBusinessType() { return businessType; }
+    public void setBusinessType(BusinessType businessType) { this.businessType = businessType; }
+
+    public String getBusinessId() { return businessId; }
+    public void setBusinessId(String businessId) { this.businessId = businessId; }
+
+    public Long getCommentCount() { return commentCount; }
+    public void setCommentCount(Long commentCount) { this.commentCount = commentCount; }
+
+    public LocalDateTime getUpdateTime() { return updateTime; }
+    public void setUpdateTime(LocalDateTime updateTime) { this.updateTime = updateTime; }
+}
@@ -0,0 +1,98 @@
+package org.xhy.community.domain.comment.repository;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Result;
+import org.apache.ibatis.annotations.Results;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.springframework.stereotype.Repository;
+import org.xhy.community.domain.comment.entity.CommentCounterEntity;
+import org.xhy.community.domain.comment.valueobject.BusinessCommentCount;
+import org.xhy.community.domain.comment.valueobject.BusinessType;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 评论计数聚合仓储
+ * 查询使用条件构造器；累加、分组统计与校准使用自定义 SQL
+ */
+@Repository
+public interface CommentCounterRepository extends BaseMapper<CommentCounterEntity> {
+
+    /**
+     * 累加评论数（不存在则创建），结果不小于 0
+     */
+    @Insert({
+            "INSERT INTO comment_counters (business_type, business_id, comment_count, update_time)",
+            "VALUES (#{businessType}, #{businessId}, GREATEST(#{delta}, 0), NOW())",
+            "ON CONFLICT (business_type, business_id) DO UPDATE",
+            "SET comment_count = GREATEST(comment_counters.comment_count + #{delta}, 0), update_time = NOW()"
+    })
+    int incrementCount(@Param("businessType") BusinessType businessType,
+                       @Param("businessId") String businessId,
+                       @Param("delta") long delta);
+
+    /**
+     * 直接在 comments 上分组统计（映射到值对象，不经过全局 Map 类型处理器）
+     * 仅返回有评论的业务ID
+     */
+    @Select({
+            "<script>",
+            "SELECT business_id, COUNT(*) AS comment_count FROM comments",
+            "WHERE deleted_at IS NULL AND business_type = #{businessType}",
+            "AND business_id IN",
+            "<foreach collection='businessIds' item='id' open='(' separator=',' close=')'>#{id}</foreach>",
+            "GROUP BY business_id",
+            "</script>"
+    })
+    @Results(id = "businessCommentCount", value = {
+            @Result(column = "business_id", property = "businessId"),
+            @Result(column = "comment_count", property = "commentCount")
+    })
+    List<BusinessCommentCount> countByBusinessIds(@Param("businessType") BusinessType businessType,
+                                                  @Param("businessIds") Collection<String> businessIds);
+
+    /**
+     * 为尚无计数行的业务对象补建计数行；已存在（并发写入已创建）时保持不变
+     */
+    @Insert({
+            "<script>",
+            "INSERT INTO comment_counters (business_type, business_id, comment_count, update_time) VALUES",
+            "<foreach collection='counts' item='c' separator=','>",
+            "(#{businessType}, #{c.businessId}, #{c.commentCount}, NOW())",
+            "</foreach>",
+            "ON CONFLICT (business_type, business_id) DO NOTHING",
+            "</script>"
+    })
+    int insertMissing(@Param("businessType") BusinessType businessType,
+                      @Param("counts") List<BusinessCommentCount> counts);
+
+    /**
+     * 按 comments 重算存在评论的业务对象，仅改写有偏差的行
+     * @return 被修正（含新建）的行数
+     */
+    @Insert({
+            "INSERT INTO comment_counters (business_type, business_id, comment_count, update_time)",
+            "SELECT business_type, business_id, COUNT(*), NOW() FROM comments",
+            "WHERE deleted_at IS NULL GROUP BY business_type, business_id",
+            "ON CONFLICT (business_type, business_id) DO UPDATE",
+            "SET comment_count = EXCLUDED.comment_count, update_time = NOW()",
+            "WHERE comment_counters.comment_count <> EXCLUDED.comment_count"
+    })
+    int reconcileFromComments();
+
+    /**
+     * 将已无有效评论但计数非 0 的业务对象归零
+     * @return 被归零的行数
+     */
+    @Update({
+            "UPDATE comment_counters c SET comment_count = 0, update_time = NOW()",
+            "WHERE c.comment_count <> 0 AND NOT EXISTS (",
+            "SELECT 1 FROM comments m WHERE m.deleted_at IS NULL",
+            "AND m.business_type = c.business_type AND m.business_id = c.business_id)"
+    })
+    int resetOrphanCounters();
+}
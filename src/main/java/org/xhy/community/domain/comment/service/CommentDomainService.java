@@ -7,8 +7,11 @@ import org.springframework.context.ApplicationEventPublisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.xhy.community.domain.comment.entity.CommentCounterEntity;
 import org.xhy.community.domain.comment.entity.CommentEntity;
+import org.xhy.community.domain.comment.repository.CommentCounterRepository;
 import org.xhy.community.domain.comment.repository.CommentRepository;
+import org.xhy.community.domain.comment.valueobject.BusinessCommentCount;
 import org.xhy.community.domain.comment.valueobject.BusinessType;
 import org.xhy.community.domain.common.event.ContentPublishedEvent;
 import org.xhy.community.domain.common.valueobject.ContentType;
@@ -16,6 +19,9 @@ import org.xhy.community.infrastructure.exception.BusinessException;
 import org.xhy.community.infrastructure.exception.CommentErrorCode;
 import org.xhy.community.domain.comment.query.CommentQuery;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Collection;
@@ -26,11 +32,14 @@ public class CommentDomainService {
     private static final Logger log = LoggerFactory.getLogger(CommentDomainService.class);
 
     private final CommentRepository commentRepository;
+    private final CommentCounterRepository commentCounterRepository;
     private final ApplicationEventPublisher eventPublisher;
 
     public CommentDomainService(CommentRepository commentRepository,
+                                CommentCounterRepository commentCounterRepository,
                                 ApplicationEventPublisher eventPublisher) {
         this.commentRepository = commentRepository;
+        this.commentCounterRepository = commentCounterRepository;
         this.eventPublisher = eventPublisher;
     }
     
@@ -46,6 +55,7 @@ public class CommentDomainService {
         }
         
         commentRepository.insert(comment);
+        commentCounterRepository.incrementCount(comment.getBusinessType(), comment.getBusinessId(), 1);
 
         // 评论创建为常规操作，省略日志
 
@@ -79,6 +89,26 @@ public class CommentDomainService {
         );
     }
 
+    /**
+     * 获取指定业务对象在 since（含）之后创建的评论（包含根评论与回复），按时间、ID 升序，最多 limit 条。
+     * since 为空时从最早的评论开始；excludeIds 为已处理过的评论（通常是创建时间等于 since 的那些），
+     * 使用 >= 加排除而非 >，同一时间戳上稍后提交的评论不会被跳过。
+     */
+    public List<CommentEntity> getCommentsByBusinessSince(String businessId, BusinessType businessType,
+                                                          LocalDateTime since, Collection<String> excludeIds,
+                                                          int limit) {
+        return commentRepository.selectList(
+            new LambdaQueryWrapper<CommentEntity>()
+                .eq(CommentEntity::getBusinessId, businessId)
+                .eq(CommentEntity::getBusinessType, businessType)
+                .ge(since != null, CommentEntity::getCreateTime, since)
+                .notIn(excludeIds != null && !excludeIds.isEmpty(), CommentEntity::getId, excludeIds)
+                .orderByAsc(CommentEntity::getCreateTime)
+                .orderByAsc(CommentEntity::getId)
+                .last("LIMIT " + Math.max(1, limit))
+        );
+    }
+
     /**
      * 获取指定业务对象的全部评论（包含根评论与回复），按时间升序。
      */
@@ -128,7 +158,9 @@ public class CommentDomainService {
             throw new BusinessException(CommentErrorCode.UNAUTHORIZED_DELETE);
         }
         
-        commentRepository.deleteById(commentId);
+        if (commentRepository.deleteById(commentId) > 0) {
+            commentCounterRepository.incrementCount(comment.getBusinessType(), comment.getBusinessId(), -1);
+        }
         // 评论删除为常规操作，省略日志
     }
     
@@ -139,11 +171,7 @@ public class CommentDomainService {
     }
     
     public Long getCommentCountByBusiness(String businessId, BusinessType businessType) {
-        return commentRepository.selectCount(
-            new LambdaQueryWrapper<CommentEntity>()
-                .eq(CommentEntity::getBusinessId, businessId)
-                .eq(CommentEntity::getBusinessType, businessType)
-        );
+        return getCommentCountMapByBusinessIds(List.of(businessId), businessType).getOrDefault(businessId, 0L);
     }
     
     public Long getRootCommentCountByBusiness(String businessId, BusinessType businessType) {
@@ -165,33 +193,57 @@ public class CommentDomainService {
 
     /**
      * 批量获取业务对象（文章/课程/章节）的评论数量映射
-     * 使用分组统计避免 N+1 查询
+     * 读取 comment_counters（主键 IN 查询）；尚无计数行的业务对象在 comments 上分组统计后补建计数行
      */
     public Map<String, Long> getCommentCountMapByBusinessIds(Collection<String> businessIds, BusinessType businessType) {
         if (businessIds == null || businessIds.isEmpty() || businessType == null) {
             return Map.of();
         }
 
-        // 直接查出记录，编码层面分组统计，避免 selectMaps 与全局 MapTypeHandler 的冲突
-        List<CommentEntity> list = commentRepository.selectList(
-                new com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper<CommentEntity>()
-                        .select(CommentEntity::getBusinessId) // 仅取业务ID即可
-                        .in(CommentEntity::getBusinessId, businessIds)
-                        .eq(CommentEntity::getBusinessType, businessType)
+        // 确保所有传入ID都有键，缺省为0
+        Map<String, Long> result = new HashMap<>();
+        List<CommentCounterEntity> counters = commentCounterRepository.selectList(
+                new LambdaQueryWrapper<CommentCounterEntity>()
+                        .eq(CommentCounterEntity::getBusinessType, businessType)
+                        .in(CommentCounterEntity::getBusinessId, businessIds)
         );
+        for (CommentCounterEntity counter : counters) {
+            result.put(counter.getBusinessId(), counter.getCommentCount() == null ? 0L : counter.getCommentCount());
+        }
 
-        Map<String, Long> counts = list.stream()
-                .map(CommentEntity::getBusinessId)
-                .filter(java.util.Objects::nonNull)
-                .collect(Collectors.groupingBy(s -> s, Collectors.counting()));
-
-        // 确保所有传入ID都有键，缺省为0
-        java.util.HashMap<String, Long> result = new java.util.HashMap<>();
-        for (String id : businessIds) {
-            result.put(id, counts.getOrDefault(id, 0L));
+        List<String> missingIds = businessIds.stream()
+                .filter(id -> id != null && !result.containsKey(id))
+                .distinct()
+                .toList();
+        if (!missingIds.isEmpty()) {
+            Map<String, Long> counted = commentCounterRepository.countByBusinessIds(businessType, missingIds).stream()
+                    .collect(Collectors.toMap(BusinessCommentCount::getBusinessId, BusinessCommentCount::getCommentCount));
+            List<BusinessCommentCount> rows = new ArrayList<>(missingIds.size());
+            for (String id : missingIds) {
+                long count = counted.getOrDefault(id, 0L);
+                result.put(id, count);
+                BusinessCommentCount row = new BusinessCommentCount();
+                row.setBusinessId(id);
+                row.setCommentCount(count);
+                rows.add(row);
+            }
+            commentCounterRepository.insertMissing(businessType, rows);
         }
         return result;
     }
+
+    /**
+     * 按 comments 校准评论计数
+     * @return 被修正的计数行数
+     */
+    public int reconcileCommentCounters() {
+        int fixed = commentCounterRepository.reconcileFromComments();
+        int reset = commentCounterRepository.resetOrphanCounters();
+        if (fixed + reset > 0) {
+            log.warn("【评论】计数校准发现偏差，fixed={}, reset={}", fixed, reset);
+        }
+        return fixed + reset;
+    }
     
     public IPage<CommentEntity> getUserRelatedComments(CommentQuery query) {
         Page<CommentEntity> page = new Page<>(query.getPageNum(), query.getPageSize());
@@ -0,0 +1,19 @@
+package org.xhy.community.domain.comment.valueobject;
+
+/**
+ * 业务对象评论数（分组统计结果）
+ */
+public class BusinessCommentCount {
+
+    /** 业务ID */
+    private String businessId;
+
+    /** 评论数 */
+    private Long commentCount;
+
+    public String getBusinessId() { return businessId; }
+    public void setBusinessId(String businessId) { this.businessId = businessId; }
+
+    public Long getCommentCount() { return commentCount; }
+    public void setCommentCount(Long commentCount) { this.commentCount = commentCount; }
+}
@@ -0,0 +1,47 @@
+package org.xhy.community.domain.common.event;
+
+/**
+ * 未读数变化事件
+ * 由领域服务在未读数变化（标记已读、全部已读、更新 Last Seen）时发布，基础设施层在事务提交后推送给在线连接
+ */
+public class UnreadChangedEvent {
+
+    /** 站内信未读数对应的频道名（其余频道与 ReadChannel 一致） */
+    public static final String CHANNEL_NOTIFICATIONS = "NOTIFICATIONS";
+
+    private final String userId;
+    private final String channel;
+    private final Long delta;    // 增量，与 count 二选一
+    private final Long count;    // 绝对值，与 delta 二选一
+
+    private UnreadChangedEvent(String userId, String channel, Long delta, Long count) {
+        this.userId = userId;
+        this.channel = channel;
+        this.delta = delta;
+        this.count = count;
+    }
+
+    public static UnreadChangedEvent delta(String userId, String channel, long delta) {
+        return new UnreadChangedEvent(userId, channel, delta, null);
+    }
+
+    public static UnreadChangedEvent count(String userId, String channel, long count) {
+        return new UnreadChangedEvent(userId, channel, null, count);
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public Long getDelta() {
+        return delta;
+    }
+
+    public Long getCount() {
+        return count;
+    }
+}
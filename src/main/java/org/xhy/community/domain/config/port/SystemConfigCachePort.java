@@ -0,0 +1,27 @@
+package org.xhy.community.domain.config.port;
+
+import org.xhy.community.domain.config.valueobject.SystemConfigType;
+
+import java.util.function.Supplier;
+
+/**
+ * 系统配置缓存端口（由基础设施层实现，跨节点失效）
+ * 返回的配置对象为多线程共享实例，调用方只读，不得修改。
+ */
+public interface SystemConfigCachePort {
+
+    /**
+     * 读取配置；未命中或已过期时通过 loader 回源（loader 可返回 null，表示配置不存在，同样缓存）
+     */
+    <T> T get(SystemConfigType type, Class<T> clazz, Supplier<T> loader);
+
+    /**
+     * 失效某类配置（所有节点）
+     */
+    void invalidate(SystemConfigType type);
+
+    /**
+     * 失效全部配置（所有节点）
+     */
+    void invalidateAll();
+}
@@ -7,6 +7,7 @@ import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xhy.community.domain.config.entity.SystemConfigEntity;
+import org.xhy.community.domain.config.port.SystemConfigCachePort;
 import org.xhy.community.domain.config.repository.SystemConfigRepository;
 import org.xhy.community.domain.config.valueobject.DefaultSubscriptionConfig;
 import org.xhy.community.domain.config.valueobject.SystemConfigType;
@@ -18,11 +19,15 @@ public class SystemConfigDomainService {
 
     private final SystemConfigRepository systemConfigRepository;
     private final ObjectMapper objectMapper;
+    private final SystemConfigCachePort systemConfigCache;
     private static final Logger log = LoggerFactory.getLogger(SystemConfigDomainService.class);
 
-    public SystemConfigDomainService(SystemConfigRepository systemConfigRepository, ObjectMapper objectMapper) {
+    public SystemConfigDomainService(SystemConfigRepository systemConfigRepository,
+                                     ObjectMapper objectMapper,
+                                     SystemConfigCachePort systemConfigCache) {
         this.systemConfigRepository = systemConfigRepository;
         this.objectMapper = objectMapper;
+        this.systemConfigCache = systemConfigCache;
     }
 
     /**
@@ -43,8 +48,20 @@ public class SystemConfigDomainService {
 
     /**
      * 通用配置获取方法
+     * 优先读取进程内缓存（已反序列化对象），返回值为共享实例，调用方不得修改
      */
     public <T> T getConfigData(SystemConfigType type, Class<T> clazz) {
+        return systemConfigCache.get(type, clazz, () -> loadConfigData(type, clazz));
+    }
+
+    /**
+     * 重载配置缓存（所有节点）
+     */
+    public void reloadConfigCache() {
+        systemConfigCache.invalidateAll();
+    }
+
+    private <T> T loadConfigData(SystemConfigType type, Class<T> clazz) {
         SystemConfigEntity config = getConfigEntityPrivate(type);
         if (config == null) {
             return null;
@@ -74,6 +91,8 @@ public class SystemConfigDomainService {
                 SystemConfigEntity newConfig = new SystemConfigEntity(type, jsonData, type.getDescription());
                 systemConfigRepository.insert(newConfig);
             }
+            // 递增版本并广播，所有节点丢弃旧配置
+            systemConfigCache.invalidate(type);
             log.info("【系统配置】已更新：type={}", type);
         } catch (JsonProcessingException e) {
             log.warn("【系统配置】序列化失败：type={}", type, e);
@@ -1,7 +1,14 @@
 package org.xhy.community.domain.course.entity;
 
+import com.baomidou.mybatisplus.annotation.TableField;
 import com.baomidou.mybatisplus.annotation.TableName;
 import org.xhy.community.domain.common.entity.BaseEntity;
+import org.xhy.community.domain.course.valueobject.ChapterContentKind;
+import org.xhy.community.infrastructure.converter.ChapterContentKindConverter;
+import org.xhy.community.infrastructure.converter.UniversalListConverter;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 @TableName("chapters")
 public class ChapterEntity extends BaseEntity {
@@ -24,6 +31,27 @@ public class ChapterEntity extends BaseEntity {
     /** 预计阅读时长（分钟） */
     private Integer readingTime;
     
+    /** 内容类型（保存时由内容分析得出） */
+    @TableField(typeHandler = ChapterContentKindConverter.class)
+    private ChapterContentKind contentType;
+    
+    /** 视频地址列表，JSON格式存储 */
+    @TableField(typeHandler = UniversalListConverter.class)
+    private List<String> videoSources;
+    
+    /** 正文引用的资源ID列表，JSON格式存储 */
+    @TableField(typeHandler = UniversalListConverter.class)
+    private List<String> resourceIds;
+    
+    /** 正文字数 */
+    private Integer wordCount;
+    
+    /** 预计阅读时长（分钟，由正文字数估算） */
+    private Integer estimatedReadingTime;
+    
+    /** 内容分析时间 */
+    private LocalDateTime contentAnalyzedAt;
+    
     public ChapterEntity() {
     }
     
@@ -54,4 +82,32 @@ public class ChapterEntity extends BaseEntity {
     
     public Integer getReadingTime() { return readingTime; }
     public void setReadingTime(Integer readingTime) { this.readingTime = readingTime; }
+    
+    public ChapterContentKind getContentType() { return contentType; }
+    public void setContentType(ChapterContentKind contentType) { this.contentType = contentType; }
+    
+    public List<String> getVideoSources() { return videoSources; }
+    public void setVideoSources(List<String> videoSources) { this.videoSources = videoSources; }
+    
+    public List<String> getResourceIds() { return resourceIds; }
+    public void setResourceIds(List<String> resourceIds) { this.resourceIds = resourceIds; }
+    
+    public Integer getWordCount() { return wordCount; }
+    public void setWordCount(Integer wordCount) { this.wordCount = wordCount; }
+    
+    public Integer getEstimatedReadingTime() { return estimatedReadingTime; }
+    public void setEstimatedReadingTime(Integer estimatedReadingTime) { this.estimatedReadingTime = estimatedReadingTime; }
+    
+    /**
+     * 展示用阅读时长：作者填写了则用填写值，否则用预计阅读时长
+     */
+    public int resolveReadingTime() {
+        if (readingTime != null && readingTime > 0) {
+            return readingTime;
+        }
+        return estimatedReadingTime != null ? estimatedReadingTime : 0;
+    }
+    
+    public LocalDateTime getContentAnalyzedAt() { return contentAnalyzedAt; }
+    public void setContentAnalyzedAt(LocalDateTime contentAnalyzedAt) { this.contentAnalyzedAt = contentAnalyzedAt; }
 }
\ No newline at end of file
@@ -0,0 +1,100 @@
+package org.xhy.community.domain.course.service;
+
+import org.springframework.stereotype.Component;
+import org.xhy.community.domain.course.valueobject.ChapterContentKind;
+import org.xhy.community.domain.course.valueobject.ChapterContentMetadata;
+import org.xhy.community.domain.resourcebinding.service.ResourceBindingDomainService;
+import org.xhy.community.infrastructure.markdown.MarkdownParser;
+import org.xhy.community.infrastructure.markdown.model.MarkdownNode;
+import org.xhy.community.infrastructure.markdown.model.NodeType;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 章节内容分析
+ * 对正文只解析一次 Markdown，由 Node 树得出内容类型、视频地址、引用资源ID、字数与预计阅读时长；
+ * 引用资源ID的提取规则与资源绑定共用 {@link ResourceBindingDomainService#extractResourceIds(MarkdownNode)}。
+ * 不依赖 Spring 容器之外的状态，回填工具可直接构造使用。
+ */
+@Component
+public class ChapterContentAnalyzer {
+
+    // 阅读速度：每分钟约 300 字（中文字符按字计，英文按词计）
+    private static final int WORDS_PER_MINUTE = 300;
+
+    private final MarkdownParser markdownParser;
+
+    public ChapterContentAnalyzer(MarkdownParser markdownParser) {
+        this.markdownParser = markdownParser;
+    }
+
+    public ChapterContentMetadata analyze(String markdown) {
+        MarkdownNode root = markdownParser.parse(markdown);
+        Accumulator acc = new Accumulator();
+        visit(root, acc);
+
+        ChapterContentKind kind = acc.hasVideo ? ChapterContentKind.VIDEO : ChapterContentKind.TEXT;
+        int readingTime = acc.wordCount == 0 ? 0 : Math.max(1, (acc.wordCount + WORDS_PER_MINUTE - 1) / WORDS_PER_MINUTE);
+        return new ChapterContentMetadata(kind, new ArrayList<>(acc.videoSources),
+                new ArrayList<>(ResourceBindingDomainService.extractResourceIds(root)), acc.wordCount, readingTime);
+    }
+
+    private void visit(MarkdownNode node, Accumulator acc) {
+        if (node == null) return;
+        NodeType type = node.getType();
+        if (type == NodeType.VIDEO) {
+            acc.hasVideo = true;
+            String src = node.getAttributes().get("src");
+            if (src != null && !src.isBlank()) acc.videoSources.add(src);
+        } else if (type == NodeType.TEXT || type == NodeType.INLINE_CODE) {
+            acc.wordCount += countWords(node.getText());
+        }
+        // 代码块不计入字数
+        if (type != NodeType.CODE_BLOCK && node.getChildren() != null) {
+            for (MarkdownNode c : node.getChildren()) {
+                visit(c, acc);
+            }
+        }
+    }
+
+    /**
+     * 中日韩字符每字计 1，其余连续字母数字计为 1 个词
+     */
+    static int countWords(String text) {
+        if (text == null || text.isEmpty()) return 0;
+        int count = 0;
+        boolean inWord = false;
+        for (int i = 0; i < text.length(); ) {
+            int cp = text.codePointAt(i);
+            i += Character.charCount(cp);
+            if (isCjk(cp)) {
+                count++;
+                inWord = false;
+            } else if (Character.isLetterOrDigit(cp)) {
+                if (!inWord) {
+                    count++;
+                    inWord = true;
+                }
+            } else {
+                inWord = false;
+            }
+        }
+        return count;
+    }
+
+    private static boolean isCjk(int cp) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(cp);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+
+    private static final class Accumulator {
+        private boolean hasVideo;
+        private final Set<String> videoSources = new LinkedHashSet<>();
+        private int wordCount;
+    }
+}
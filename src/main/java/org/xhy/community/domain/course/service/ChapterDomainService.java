@@ -10,6 +10,7 @@ import org.xhy.community.domain.course.entity.ChapterEntity;
 import org.xhy.community.domain.course.entity.CourseEntity;
 import org.xhy.community.domain.course.repository.ChapterRepository;
 import org.xhy.community.domain.course.repository.CourseRepository;
+import org.xhy.community.domain.course.valueobject.ChapterContentMetadata;
 import org.xhy.community.domain.common.event.ContentPublishedEvent;
 import org.xhy.community.domain.common.valueobject.ContentType;
 import org.xhy.community.infrastructure.exception.BusinessException;
@@ -28,13 +29,16 @@ public class ChapterDomainService {
     private final ChapterRepository chapterRepository;
     private final CourseRepository courseRepository;
     private final ApplicationEventPublisher eventPublisher;
+    private final ChapterContentAnalyzer chapterContentAnalyzer;
 
     public ChapterDomainService(ChapterRepository chapterRepository,
                                 CourseRepository courseRepository,
-                                ApplicationEventPublisher eventPublisher) {
+                                ApplicationEventPublisher eventPublisher,
+                                ChapterContentAnalyzer chapterContentAnalyzer) {
         this.chapterRepository = chapterRepository;
         this.courseRepository = courseRepository;
         this.eventPublisher = eventPublisher;
+        this.chapterContentAnalyzer = chapterContentAnalyzer;
     }
     
     public ChapterEntity createChapter(ChapterEntity chapter) {
@@ -43,6 +47,7 @@ public class ChapterDomainService {
             throw new BusinessException(CourseErrorCode.COURSE_NOT_FOUND);
         }
         
+        applyContentMetadata(chapter);
         chapterRepository.insert(chapter);
 
         // 发布简化的章节创建事件
@@ -57,10 +62,46 @@ public class ChapterDomainService {
             throw new BusinessException(CourseErrorCode.COURSE_NOT_FOUND);
         }
         
+        if (chapter.getContent() != null) {
+            applyContentMetadata(chapter);
+        }
         chapterRepository.updateById(chapter);
         return chapter;
     }
     
+    /**
+     * 确保章节已有内容元数据（用于尚未回填的历史章节）：缺失时分析一次并落库
+     */
+    public void ensureContentMetadata(ChapterEntity chapter) {
+        if (chapter.getContentType() != null) {
+            return;
+        }
+        applyContentMetadata(chapter);
+
+        ChapterEntity patch = new ChapterEntity();
+        patch.setId(chapter.getId());
+        patch.setContentType(chapter.getContentType());
+        patch.setVideoSources(chapter.getVideoSources());
+        patch.setResourceIds(chapter.getResourceIds());
+        patch.setWordCount(chapter.getWordCount());
+        patch.setContentAnalyzedAt(chapter.getContentAnalyzedAt());
+        patch.setEstimatedReadingTime(chapter.getEstimatedReadingTime());
+        chapterRepository.updateById(patch);
+    }
+
+    /**
+     * 分析章节正文并写入内容元数据；预计阅读时长单独保存，不覆盖作者填写的阅读时长
+     */
+    private void applyContentMetadata(ChapterEntity chapter) {
+        ChapterContentMetadata metadata = chapterContentAnalyzer.analyze(chapter.getContent());
+        chapter.setContentType(metadata.getContentType());
+        chapter.setVideoSources(metadata.getVideoSources());
+        chapter.setResourceIds(metadata.getResourceIds());
+        chapter.setWordCount(metadata.getWordCount());
+        chapter.setEstimatedReadingTime(metadata.getReadingTime());
+        chapter.setContentAnalyzedAt(LocalDateTime.now());
+    }
+    
     public void deleteChapter(String chapterId) {
         chapterRepository.deleteById(chapterId);
     }
@@ -140,6 +181,17 @@ public class ChapterDomainService {
         );
     }
 
+    /**
+     * 查询自 since 起创建章节的创建时间（仅查询 id、create_time 两列，用于未读计数的频道集合重建）
+     */
+    public Map<String, LocalDateTime> getCreateTimesSince(LocalDateTime since) {
+        return chapterRepository.selectList(
+            new LambdaQueryWrapper<ChapterEntity>()
+                .select(ChapterEntity::getId, ChapterEntity::getCreateTime)
+                .gt(ChapterEntity::getCreateTime, since)
+        ).stream().collect(Collectors.toMap(ChapterEntity::getId, ChapterEntity::getCreateTime));
+    }
+
     public Map<String, String> getChapterTitleMapByIds(Collection<String> chapterIds) {
         if (chapterIds == null || chapterIds.isEmpty()) {
             return Map.of();
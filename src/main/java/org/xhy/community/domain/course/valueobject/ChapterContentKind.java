@@ -0,0 +1,28 @@
+package org.xhy.community.domain.course.valueobject;
+
+/**
+ * 章节内容类型（由内容分析得出）
+ */
+public enum ChapterContentKind {
+    VIDEO("视频"),
+    TEXT("图文");
+
+    private final String description;
+
+    ChapterContentKind(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public static ChapterContentKind fromCode(String code) {
+        for (ChapterContentKind kind : values()) {
+            if (kind.name().equals(code)) {
+                return kind;
+            }
+        }
+        throw new IllegalArgumentException("Unknown chapter content kind code: " + code);
+    }
+}
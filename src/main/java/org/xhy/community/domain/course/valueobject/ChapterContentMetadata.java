@@ -0,0 +1,35 @@
+package org.xhy.community.domain.course.valueobject;
+
+import java.util.List;
+
+/**
+ * 章节内容元数据（保存章节时由 Markdown 正文分析得出）
+ */
+public class ChapterContentMetadata {
+
+    private final ChapterContentKind contentType;
+    private final List<String> videoSources;
+    private final List<String> resourceIds;
+    private final int wordCount;
+    private final int readingTime;
+
+    public ChapterContentMetadata(ChapterContentKind contentType, List<String> videoSources,
+                                  List<String> resourceIds, int wordCount, int readingTime) {
+        this.contentType = contentType;
+        this.videoSources = videoSources == null ? List.of() : List.copyOf(videoSources);
+        this.resourceIds = resourceIds == null ? List.of() : List.copyOf(resourceIds);
+        this.wordCount = wordCount;
+        this.readingTime = readingTime;
+    }
+
+    public ChapterContentKind getContentType() { return contentType; }
+
+    public List<String> getVideoSources() { return videoSources; }
+
+    public List<String> getResourceIds() { return resourceIds; }
+
+    public int getWordCount() { return wordCount; }
+
+    /** 预计阅读时长（分钟） */
+    public int getReadingTime() { return readingTime; }
+}
@@ -16,7 +16,11 @@ import org.xhy.community.domain.follow.valueobject.FollowTargetType;
 import org.xhy.community.infrastructure.exception.BusinessException;
 import org.xhy.community.infrastructure.exception.FollowErrorCode;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * 关注领域服务
@@ -140,6 +144,46 @@ public class FollowDomainService {
         return followRepository.selectPage(page, queryWrapper);
     }
     
+    /**
+     * 按主键游标分批读取目标对象的有效关注者（仅返回 id 与 followerId），用于通知扇出
+     *
+     * @param afterId 上一批最后一条记录的 id，首批传 null
+     * @param limit   每批条数
+     */
+    public List<FollowEntity> listFollowersAfter(String targetId, FollowTargetType targetType,
+                                                 String afterId, int limit) {
+        LambdaQueryWrapper<FollowEntity> queryWrapper = new LambdaQueryWrapper<FollowEntity>()
+                .select(FollowEntity::getId, FollowEntity::getFollowerId)
+                .eq(FollowEntity::getTargetId, targetId)
+                .eq(FollowEntity::getTargetType, targetType)
+                .eq(FollowEntity::getStatus, FollowStatus.ACTIVE)
+                .gt(afterId != null, FollowEntity::getId, afterId)
+                .orderByAsc(FollowEntity::getId)
+                .last("LIMIT " + limit);
+
+        return followRepository.selectList(queryWrapper);
+    }
+
+    /**
+     * 从给定用户中筛选出正在关注目标对象的用户
+     */
+    public Set<String> filterFollowerIds(String targetId, FollowTargetType targetType,
+                                         Collection<String> followerIds) {
+        if (followerIds == null || followerIds.isEmpty()) {
+            return Collections.emptySet();
+        }
+        LambdaQueryWrapper<FollowEntity> queryWrapper = new LambdaQueryWrapper<FollowEntity>()
+                .select(FollowEntity::getFollowerId)
+                .eq(FollowEntity::getTargetId, targetId)
+                .eq(FollowEntity::getTargetType, targetType)
+                .eq(FollowEntity::getStatus, FollowStatus.ACTIVE)
+                .in(FollowEntity::getFollowerId, followerIds);
+
+        return followRepository.selectList(queryWrapper).stream()
+                .map(FollowEntity::getFollowerId)
+                .collect(Collectors.toSet());
+    }
+
     /**
      * 统计关注数量
      */
@@ -59,6 +59,19 @@ public class InterviewQuestionDomainService {
         );
     }
 
+    /**
+     * 查询自 since 起已发布题目的发布时间（仅查询 id、publish_time 两列，用于未读计数的频道集合重建）
+     */
+    public java.util.Map<String, LocalDateTime> getPublishTimesSince(LocalDateTime since) {
+        return interviewQuestionRepository.selectList(
+                new LambdaQueryWrapper<InterviewQuestionEntity>()
+                        .select(InterviewQuestionEntity::getId, InterviewQuestionEntity::getPublishTime)
+                        .eq(InterviewQuestionEntity::getStatus, ProblemStatus.PUBLISHED)
+                        .gt(InterviewQuestionEntity::getPublishTime, since)
+        ).stream().collect(java.util.stream.Collectors.toMap(
+                InterviewQuestionEntity::getId, InterviewQuestionEntity::getPublishTime));
+    }
+
     /**
      * 批量按标题创建题目（默认发布，难度=3，描述/答案为空串）
      * 仅需标题列表与分类ID与作者ID，领域内部处理默认值
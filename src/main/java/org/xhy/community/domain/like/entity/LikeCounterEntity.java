@@ -0,0 +1,39 @@
+package org.xhy.community.domain.like.entity;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableName;
+import org.xhy.community.domain.like.valueobject.LikeTargetType;
+import org.xhy.community.infrastructure.converter.LikeTargetTypeConverter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 点赞计数聚合（主键为 target_type + target_id）
+ */
+@TableName("like_counters")
+public class LikeCounterEntity {
+
+    /** 目标类型 */
+    @TableField(typeHandler = LikeTargetTypeConverter.class)
+    private LikeTargetType targetType;
+
+    /** 目标对象ID */
+    private String targetId;
+
+    /** 点赞数 */
+    private Long likeCount;
+
+    private LocalDateTime updateTime;
+
+    public LikeTargetType getTargetType() { return targetType; }
+    public void setTargetType(LikeTargetType targetType) { this.targetType = targetType; }
+
+    public String getTargetId() { return targetId; }
+    public void setTargetId(String targetId) { this.targetId = targetId; }
+
+    public Long getLikeCount() { return likeCount; }
+    public void setLikeCount(Long likeCount) { this.likeCount = likeCount; }
+
+    public LocalDateTime getUpdateTime() { return updateTime; }
+    public void setUpdateTime(LocalDateTime updateTime) { this.updateTime = updateTime; }
+}
@@ -0,0 +1,33 @@
+package org.xhy.community.domain.like.port;
+
+import org.xhy.community.domain.like.valueobject.LikeTargetType;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 点赞数缓存端口（由基础设施层实现）
+ * 写路径只做失效，由下一次读取按 like_counters 回填。
+ */
+public interface LikeCountCachePort {
+
+    /**
+     * 批量读取点赞数，仅返回命中项；读取失败返回空 Map，由调用方回源
+     */
+    Map<String, Long> multiGet(LikeTargetType targetType, Collection<String> targetIds);
+
+    /**
+     * 批量写入点赞数
+     */
+    void putAll(LikeTargetType targetType, Map<String, Long> counts);
+
+    /**
+     * 失效单个目标的点赞数；处于事务中时延迟到事务结束后执行
+     */
+    void evict(LikeTargetType targetType, String targetId);
+
+    /**
+     * 清空全部点赞数缓存（校准后调用）
+     */
+    void evictAll();
+}
@@ -0,0 +1,30 @@
+package org.xhy.community.domain.like.port;
+
+import org.xhy.community.domain.like.valueobject.LikeTargetType;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 用户已点赞集合缓存端口（由基础设施层实现）
+ */
+public interface LikedSetCachePort {
+
+    /**
+     * 批量判断点赞状态
+     *
+     * @return Map<targetType, Map<targetId, isLiked>>；集合未预热的类型不在结果中；缓存不可用时返回 null
+     */
+    Map<LikeTargetType, Map<String, Boolean>> batchCheck(String userId, Map<LikeTargetType, List<String>> idsByType);
+
+    /**
+     * 预热用户某类型的已点赞集合（集合已存在时不覆盖）
+     */
+    void warm(String userId, LikeTargetType targetType, Collection<String> likedTargetIds);
+
+    /**
+     * 记录点赞/取消；处于事务中时在提交后执行，回滚则不更新
+     */
+    void update(String userId, LikeTargetType targetType, String targetId, boolean liked);
+}
@@ -0,0 +1,54 @@
+package org.xhy.community.domain.like.repository;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
+import org.springframework.stereotype.Repository;
+import org.xhy.community.domain.like.entity.LikeCounterEntity;
+import org.xhy.community.domain.like.valueobject.LikeTargetType;
+
+/**
+ * 点赞计数聚合仓储
+ * 查询使用条件构造器；累加与校准使用自定义 SQL
+ */
+@Repository
+public interface LikeCounterRepository extends BaseMapper<LikeCounterEntity> {
+
+    /**
+     * 累加点赞数（不存在则创建），结果不小于 0
+     */
+    @Insert({
+            "INSERT INTO like_counters (target_type, target_id, like_count, update_time)",
+            "VALUES (#{targetType}, #{targetId}, GREATEST(#{delta}, 0), NOW())",
+            "ON CONFLICT (target_type, target_id) DO UPDATE",
+            "SET like_count = GREATEST(like_counters.like_count + #{delta}, 0), update_time = NOW()"
+    })
+    int incrementCount(@Param("targetType") LikeTargetType targetType,
+                       @Param("targetId") String targetId,
+                       @Param("delta") long delta);
+
+    /**
+     * 按 likes 重算存在点赞的目标，仅改写有偏差的行
+     * @return 被修正（含新建）的行数
+     */
+    @Insert({
+            "INSERT INTO like_counters (target_type, target_id, like_count, update_time)",
+            "SELECT target_type, target_id, COUNT(*), NOW() FROM likes GROUP BY target_type, target_id",
+            "ON CONFLICT (target_type, target_id) DO UPDATE",
+            "SET like_count = EXCLUDED.like_count, update_time = NOW()",
+            "WHERE like_counters.like_count <> EXCLUDED.like_count"
+    })
+    int reconcileFromLikes();
+
+    /**
+     * 将已无点赞记录但计数非 0 的目标归零
+     * @return 被归零的行数
+     */
+    @Update({
+            "UPDATE like_counters c SET like_count = 0, update_time = NOW()",
+            "WHERE c.like_count <> 0 AND NOT EXISTS (",
+            "SELECT 1 FROM likes l WHERE l.target_type = c.target_type AND l.target_id = c.target_id)"
+    })
+    int resetOrphanCounters();
+}
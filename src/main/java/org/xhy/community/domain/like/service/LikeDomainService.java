@@ -5,12 +5,18 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.xhy.community.domain.like.entity.LikeCounterEntity;
 import org.xhy.community.domain.like.entity.LikeEntity;
+import org.xhy.community.domain.like.port.LikeCountCachePort;
+import org.xhy.community.domain.like.port.LikedSetCachePort;
+import org.xhy.community.domain.like.repository.LikeCounterRepository;
 import org.xhy.community.domain.like.repository.LikeRepository;
 import org.xhy.community.domain.like.valueobject.LikeTargetType;
 import org.xhy.community.infrastructure.exception.BusinessException;
 import org.xhy.community.infrastructure.exception.LikeErrorCode;
 
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -25,61 +31,65 @@ import java.util.stream.Collectors;
 public class LikeDomainService {
 
     private final LikeRepository likeRepository;
+    private final LikeCounterRepository likeCounterRepository;
+    private final LikeCountCachePort likeCountCache;
+    private final LikedSetCachePort likedSetCache;
     private static final Logger log = LoggerFactory.getLogger(LikeDomainService.class);
 
-    public LikeDomainService(LikeRepository likeRepository) {
+    public LikeDomainService(LikeRepository likeRepository,
+                             LikeCounterRepository likeCounterRepository,
+                             LikeCountCachePort likeCountCache,
+                             LikedSetCachePort likedSetCache) {
         this.likeRepository = likeRepository;
+        this.likeCounterRepository = likeCounterRepository;
+        this.likeCountCache = likeCountCache;
+        this.likedSetCache = likedSetCache;
     }
 
     /**
      * 切换点赞状态（Toggle，物理写入/删除）
-     * 未点赞 -> 点赞（插入）
-     * 已点赞 -> 取消（物理删除）
+     * 先尝试删除：删到记录即为取消点赞；未删到则插入即为点赞，省去前置查询
+     * 点赞计数 like_counters 在同一事务内增减（调用方需开启事务），已点赞集合缓存在提交后更新
      */
     public boolean toggleLike(String userId, String targetId, LikeTargetType targetType) {
-        LambdaQueryWrapper<LikeEntity> queryWrapper = new LambdaQueryWrapper<LikeEntity>()
+        int deleted = likeRepository.delete(new LambdaQueryWrapper<LikeEntity>()
                 .eq(LikeEntity::getUserId, userId)
                 .eq(LikeEntity::getTargetId, targetId)
-                .eq(LikeEntity::getTargetType, targetType)
-                .last("LIMIT 1");
-
-        LikeEntity existingLike = likeRepository.selectOne(queryWrapper);
-        if (existingLike == null) {
-            try {
-                LikeEntity like = new LikeEntity(userId, targetId, targetType);
-                likeRepository.insert(like);
-                // 点赞成功为常规操作，省略日志
-                return true; // 点赞成功
-            } catch (DataIntegrityViolationException e) {
-                // 唯一约束冲突视为已经点赞
-                log.warn("【点赞】并发冲突：已点赞，userId={}, targetType={}, targetId={}", userId, targetType, targetId);
-                throw new BusinessException(LikeErrorCode.ALREADY_LIKED);
-            }
-        } else {
-            // 已点赞 -> 取消（物理删除）
-            likeRepository.delete(new LambdaQueryWrapper<LikeEntity>()
-                    .eq(LikeEntity::getUserId, userId)
-                    .eq(LikeEntity::getTargetId, targetId)
-                    .eq(LikeEntity::getTargetType, targetType));
+                .eq(LikeEntity::getTargetType, targetType));
+        if (deleted > 0) {
+            // 已点赞 -> 取消（物理删除）；并发取消时仅实际删除的一方扣减计数
+            adjustLikeCount(targetType, targetId, -deleted);
+            likedSetCache.update(userId, targetType, targetId, false);
             // 取消点赞为常规操作，省略日志
             return false;
         }
+
+        try {
+            LikeEntity like = new LikeEntity(userId, targetId, targetType);
+            likeRepository.insert(like);
+            adjustLikeCount(targetType, targetId, 1);
+            likedSetCache.update(userId, targetType, targetId, true);
+            // 点赞成功为常规操作，省略日志
+            return true; // 点赞成功
+        } catch (DataIntegrityViolationException e) {
+            // 唯一约束冲突视为已经点赞
+            log.warn("【点赞】并发冲突：已点赞，userId={}, targetType={}, targetId={}", userId, targetType, targetId);
+            throw new BusinessException(LikeErrorCode.ALREADY_LIKED);
+        }
     }
 
     /**
      * 检查用户是否已点赞
      */
     public boolean isLiked(String userId, String targetId, LikeTargetType targetType) {
-        LambdaQueryWrapper<LikeEntity> queryWrapper = new LambdaQueryWrapper<LikeEntity>()
-                .eq(LikeEntity::getUserId, userId)
-                .eq(LikeEntity::getTargetId, targetId)
-                .eq(LikeEntity::getTargetType, targetType);
-
-        return likeRepository.exists(queryWrapper);
+        return batchCheckLikeStatus(userId, Map.of(targetId, targetType))
+                .getOrDefault(buildTargetKey(targetType, targetId), false);
     }
 
     /**
      * 批量查询点赞状态
+     * 优先读取已点赞集合缓存（一次 pipeline SMISMEMBER），未预热的类型从 likes 加载全量后预热；
+     * Redis 不可用时降级为按目标直接查询数据库
      * @param userId 用户ID
      * @param targets 目标列表 Map<targetId, targetType>
      * @return Map<targetKey, isLiked> targetKey格式: targetType:targetId
@@ -89,46 +99,39 @@ public class LikeDomainService {
             return new HashMap<>();
         }
 
-        // 构建查询条件
-        LambdaQueryWrapper<LikeEntity> queryWrapper = new LambdaQueryWrapper<LikeEntity>()
-                .eq(LikeEntity::getUserId, userId)
-                .and(wrapper -> {
-                    for (Map.Entry<String, LikeTargetType> entry : targets.entrySet()) {
-                        wrapper.or(w -> w.eq(LikeEntity::getTargetId, entry.getKey())
-                                .eq(LikeEntity::getTargetType, entry.getValue()));
-                    }
-                });
-
-        List<LikeEntity> likes = likeRepository.selectList(queryWrapper);
-
-        // 转换为Map
-        Set<String> likedKeys = likes.stream()
-                .map(like -> buildTargetKey(like.getTargetType(), like.getTargetId()))
-                .collect(Collectors.toSet());
+        Map<LikeTargetType, List<String>> idsByType = groupIdsByType(targets);
+        Map<LikeTargetType, Map<String, Boolean>> cached = likedSetCache.batchCheck(userId, idsByType);
+        if (cached == null) {
+            return queryLikeStatus(userId, targets);
+        }
 
-        // 构建结果Map
         Map<String, Boolean> result = new HashMap<>();
-        for (Map.Entry<String, LikeTargetType> entry : targets.entrySet()) {
-            String key = buildTargetKey(entry.getValue(), entry.getKey());
-            result.put(key, likedKeys.contains(key));
+        for (Map.Entry<LikeTargetType, List<String>> entry : idsByType.entrySet()) {
+            LikeTargetType targetType = entry.getKey();
+            Map<String, Boolean> status = cached.get(targetType);
+            if (status == null) {
+                Set<String> likedIds = warmLikedSet(userId, targetType);
+                for (String targetId : entry.getValue()) {
+                    result.put(buildTargetKey(targetType, targetId), likedIds.contains(targetId));
+                }
+            } else {
+                status.forEach((targetId, liked) -> result.put(buildTargetKey(targetType, targetId), liked));
+            }
         }
 
         return result;
     }
 
     /**
-     * 统计点赞数量
+     * 统计点赞数量（读取 like_counters，经 Redis 缓存）
      */
     public long countLikes(String targetId, LikeTargetType targetType) {
-        LambdaQueryWrapper<LikeEntity> queryWrapper = new LambdaQueryWrapper<LikeEntity>()
-                .eq(LikeEntity::getTargetId, targetId)
-                .eq(LikeEntity::getTargetType, targetType);
-
-        return likeRepository.selectCount(queryWrapper);
+        return loadCounts(targetType, List.of(targetId)).getOrDefault(targetId, 0L);
     }
 
     /**
      * 批量统计点赞数量
+     * 按目标类型分组，每组一次 HMGET，未命中部分一次主键 IN 查询回源并回填缓存
      * @param targets Map<targetId, targetType>
      * @return Map<targetKey, count> targetKey格式: targetType:targetId
      */
@@ -137,8 +140,65 @@ public class LikeDomainService {
             return new HashMap<>();
         }
 
-        // 按目标集合查询
+        Map<LikeTargetType, List<String>> idsByType = groupIdsByType(targets);
+
+        // 补全未点赞的目标（count = 0）
+        Map<String, Long> result = new HashMap<>();
+        for (Map.Entry<LikeTargetType, List<String>> entry : idsByType.entrySet()) {
+            Map<String, Long> counts = loadCounts(entry.getKey(), entry.getValue());
+            for (String targetId : entry.getValue()) {
+                result.put(buildTargetKey(entry.getKey(), targetId), counts.getOrDefault(targetId, 0L));
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * 按 likes 校准点赞计数，并清空计数缓存
+     * @return 被修正的计数行数
+     */
+    public int reconcileLikeCounters() {
+        int fixed = likeCounterRepository.reconcileFromLikes();
+        int reset = likeCounterRepository.resetOrphanCounters();
+        likeCountCache.evictAll();
+        if (fixed + reset > 0) {
+            log.warn("【点赞】计数校准发现偏差，fixed={}, reset={}", fixed, reset);
+        }
+        return fixed + reset;
+    }
+
+    /**
+     * 读取同一类型下多个目标的点赞数：先查缓存，未命中的再查 like_counters 并回填（无计数行按 0 回填）
+     */
+    private Map<String, Long> loadCounts(LikeTargetType targetType, List<String> targetIds) {
+        Map<String, Long> counts = likeCountCache.multiGet(targetType, targetIds);
+        List<String> missIds = targetIds.stream().filter(id -> !counts.containsKey(id)).distinct().toList();
+        if (missIds.isEmpty()) {
+            return counts;
+        }
+
+        Map<String, Long> loaded = new HashMap<>();
+        missIds.forEach(id -> loaded.put(id, 0L));
+        List<LikeCounterEntity> rows = likeCounterRepository.selectList(new LambdaQueryWrapper<LikeCounterEntity>()
+                .eq(LikeCounterEntity::getTargetType, targetType)
+                .in(LikeCounterEntity::getTargetId, missIds));
+        for (LikeCounterEntity row : rows) {
+            loaded.put(row.getTargetId(), row.getLikeCount() == null ? 0L : row.getLikeCount());
+        }
+
+        likeCountCache.putAll(targetType, loaded);
+        counts.putAll(loaded);
+        return counts;
+    }
+
+    /**
+     * 按目标直接查询点赞状态（缓存不可用时的降级路径）
+     */
+    private Map<String, Boolean> queryLikeStatus(String userId, Map<String, LikeTargetType> targets) {
+        // 构建查询条件
         LambdaQueryWrapper<LikeEntity> queryWrapper = new LambdaQueryWrapper<LikeEntity>()
+                .eq(LikeEntity::getUserId, userId)
                 .and(wrapper -> {
                     for (Map.Entry<String, LikeTargetType> entry : targets.entrySet()) {
                         wrapper.or(w -> w.eq(LikeEntity::getTargetId, entry.getKey())
@@ -148,23 +208,49 @@ public class LikeDomainService {
 
         List<LikeEntity> likes = likeRepository.selectList(queryWrapper);
 
-        // 按targetKey分组统计
-        Map<String, Long> countMap = likes.stream()
-                .collect(Collectors.groupingBy(
-                        like -> buildTargetKey(like.getTargetType(), like.getTargetId()),
-                        Collectors.counting()
-                ));
+        // 转换为Map
+        Set<String> likedKeys = likes.stream()
+                .map(like -> buildTargetKey(like.getTargetType(), like.getTargetId()))
+                .collect(Collectors.toSet());
 
-        // 补全未点赞的目标（count = 0）
-        Map<String, Long> result = new HashMap<>();
+        // 构建结果Map
+        Map<String, Boolean> result = new HashMap<>();
         for (Map.Entry<String, LikeTargetType> entry : targets.entrySet()) {
             String key = buildTargetKey(entry.getValue(), entry.getKey());
-            result.put(key, countMap.getOrDefault(key, 0L));
+            result.put(key, likedKeys.contains(key));
         }
 
         return result;
     }
 
+    /**
+     * 从 likes 加载用户某类型的全部已点赞目标并预热集合缓存
+     */
+    private Set<String> warmLikedSet(String userId, LikeTargetType targetType) {
+        Set<String> likedIds = likeRepository.selectList(new LambdaQueryWrapper<LikeEntity>()
+                        .select(LikeEntity::getTargetId)
+                        .eq(LikeEntity::getUserId, userId)
+                        .eq(LikeEntity::getTargetType, targetType))
+                .stream()
+                .map(LikeEntity::getTargetId)
+                .collect(Collectors.toSet());
+        likedSetCache.warm(userId, targetType, likedIds);
+        return likedIds;
+    }
+
+    private Map<LikeTargetType, List<String>> groupIdsByType(Map<String, LikeTargetType> targets) {
+        Map<LikeTargetType, List<String>> idsByType = new EnumMap<>(LikeTargetType.class);
+        for (Map.Entry<String, LikeTargetType> entry : targets.entrySet()) {
+            idsByType.computeIfAbsent(entry.getValue(), k -> new ArrayList<>()).add(entry.getKey());
+        }
+        return idsByType;
+    }
+
+    private void adjustLikeCount(LikeTargetType targetType, String targetId, long delta) {
+        likeCounterRepository.incrementCount(targetType, targetId, delta);
+        likeCountCache.evict(targetType, targetId);
+    }
+
     /**
      * 构建目标唯一标识：targetType:targetId
      */
@@ -0,0 +1,51 @@
+package org.xhy.community.domain.log.entity;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+
+import java.time.LocalDateTime;
+
+/**
+ * 去重浏览人数持久化记录（主键为 target_type + target_id）
+ */
+@TableName("distinct_viewer_counts")
+public class DistinctViewerCountEntity {
+
+    /** 目标类型：POST/INTERVIEW_QUESTION */
+    private String targetType;
+
+    /** 目标ID */
+    private String targetId;
+
+    /** 去重浏览人数 */
+    private Long viewerCount;
+
+    /** Redis HyperLogLog 原始数据 */
+    private byte[] hllData;
+
+    private LocalDateTime updateTime;
+
+    public DistinctViewerCountEntity() {
+    }
+
+    public DistinctViewerCountEntity(String targetType, String targetId, Long viewerCount, byte[] hllData) {
+        this.targetType = targetType;
+        this.targetId = targetId;
+        this.viewerCount = viewerCount;
+        this.hllData = hllData;
+    }
+
+    public String getTargetType() { return targetType; }
+    public void setTargetType(String targetType) { this.targetType = targetType; }
+
+    public String getTargetId() { return targetId; }
+    public void setTargetId(String targetId) { this.targetId = targetId; }
+
+    public Long getViewerCount() { return viewerCount; }
+    public void setViewerCount(Long viewerCount) { this.viewerCount = viewerCount; }
+
+    public byte[] getHllData() { return hllData; }
+    public void setHllData(byte[] hllData) { this.hllData = hllData; }
+
+    public LocalDateTime getUpdateTime() { return updateTime; }
+    public void setUpdateTime(LocalDateTime updateTime) { this.updateTime = updateTime; }
+}
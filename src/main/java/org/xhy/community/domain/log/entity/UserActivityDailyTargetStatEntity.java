@@ -0,0 +1,54 @@
+package org.xhy.community.domain.log.entity;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 用户活动按日汇总（按活动类型 + 目标，主键为 stat_date + activity_type + target_type + target_id）
+ */
+@TableName("user_activity_daily_target_stats")
+public class UserActivityDailyTargetStatEntity {
+
+    /** 统计日期 */
+    private LocalDate statDate;
+
+    /** 活动类型（ActivityType 名称） */
+    private String activityType;
+
+    /** 目标类型 */
+    private String targetType;
+
+    /** 目标ID */
+    private String targetId;
+
+    /** 当日事件数 */
+    private Long eventCount;
+
+    /** 当日去重用户数（不含匿名） */
+    private Long uniqueUsers;
+
+    private LocalDateTime updateTime;
+
+    public LocalDate getStatDate() { return statDate; }
+    public void setStatDate(LocalDate statDate) { this.statDate = statDate; }
+
+    public String getActivityType() { return activityType; }
+    public void setActivityType(String activityType) { this.activityType = activityType; }
+
+    public String getTargetType() { return targetType; }
+    public void setTargetType(String targetType) { this.targetType = targetType; }
+
+    public String getTargetId() { return targetId; }
+    public void setTargetId(String targetId) { this.targetId = targetId; }
+
+    public Long getEventCount() { return eventCount; }
+    public void setEventCount(Long eventCount) { this.eventCount = eventCount; }
+
+    public Long getUniqueUsers() { return uniqueUsers; }
+    public void setUniqueUsers(Long uniqueUsers) { this.uniqueUsers = uniqueUsers; }
+
+    public LocalDateTime getUpdateTime() { return updateTime; }
+    public void setUpdateTime(LocalDateTime updateTime) { this.updateTime = updateTime; }
+}
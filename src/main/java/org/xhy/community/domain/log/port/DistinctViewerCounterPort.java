@@ -0,0 +1,44 @@
+package org.xhy.community.domain.log.port;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 去重浏览人数计数端口（由基础设施层以 HyperLogLog 实现）
+ * 有新增浏览的目标记入待持久化集合，成员格式为 {targetType}:{targetId}，由持久化任务取出后写回数据库。
+ */
+public interface DistinctViewerCounterPort {
+
+    /**
+     * 批量记录浏览：Map<targetId, userIds>，同时标记目标待持久化
+     */
+    void addAll(String targetType, Map<String, ? extends Collection<String>> viewersByTarget);
+
+    /**
+     * 批量读取去重人数；目标无计数时为 0
+     *
+     * @return Map<targetId, count>；计数存储不可用时返回 null，由调用方降级读取持久化值
+     */
+    Map<String, Long> count(String targetType, Collection<String> targetIds);
+
+    /**
+     * 批量导出计数原始数据（用于持久化）；无计数的目标不在结果中
+     */
+    Map<String, byte[]> dump(String targetType, Collection<String> targetIds);
+
+    /**
+     * 从持久化数据恢复计数（已存在时不覆盖）
+     */
+    void restore(String targetType, String targetId, byte[] sketch);
+
+    /**
+     * 取出一批待持久化的目标，返回 {targetType}:{targetId}
+     */
+    List<String> popDirty(int count);
+
+    /**
+     * 重新标记待持久化目标（持久化失败时回退）
+     */
+    void markDirty(Collection<String> members);
+}
@@ -0,0 +1,31 @@
+package org.xhy.community.domain.log.repository;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.xhy.community.domain.log.entity.DistinctViewerCountEntity;
+
+import java.util.List;
+
+/**
+ * 去重浏览人数持久化仓储
+ */
+@Mapper
+public interface DistinctViewerCountRepository extends BaseMapper<DistinctViewerCountEntity> {
+
+    /**
+     * 批量写入/覆盖计数与 HLL 原始数据
+     */
+    @Insert({
+            "<script>",
+            "INSERT INTO distinct_viewer_counts (target_type, target_id, viewer_count, hll_data, update_time) VALUES",
+            "<foreach collection='rows' item='r' separator=','>",
+            "(#{r.targetType}, #{r.targetId}, #{r.viewerCount}, #{r.hllData}, NOW())",
+            "</foreach>",
+            "ON CONFLICT (target_type, target_id) DO UPDATE",
+            "SET viewer_count = EXCLUDED.viewer_count, hll_data = EXCLUDED.hll_data, update_time = NOW()",
+            "</script>"
+    })
+    int batchUpsert(@Param("rows") List<DistinctViewerCountEntity> rows);
+}
@@ -0,0 +1,30 @@
+package org.xhy.community.domain.log.repository;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.xhy.community.domain.log.entity.UserActivityDailyStatEntity;
+
+import java.time.LocalDate;
+
+/**
+ * 用户活动按日汇总仓储（按活动类型）
+ */
+@Mapper
+public interface UserActivityDailyStatRepository extends BaseMapper<UserActivityDailyStatEntity> {
+
+    /**
+     * 汇总指定日期的日志（覆盖已有结果，可重复执行）；按 created_at 范围过滤，只扫描对应月分区
+     */
+    @Insert({
+            "INSERT INTO user_activity_daily_stats (stat_date, activity_type, event_count, unique_users, update_time)",
+            "SELECT #{day}, activity_type, COUNT(*), COUNT(DISTINCT user_id), NOW()",
+            "FROM user_activity_logs",
+            "WHERE created_at >= #{day} AND created_at < #{day} + INTERVAL '1 day'",
+            "GROUP BY activity_type",
+            "ON CONFLICT (stat_date, activity_type) DO UPDATE",
+            "SET event_count = EXCLUDED.event_count, unique_users = EXCLUDED.unique_users, update_time = NOW()"
+    })
+    int rollup(@Param("day") LocalDate day);
+}
@@ -0,0 +1,32 @@
+package org.xhy.community.domain.log.repository;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.xhy.community.domain.log.entity.UserActivityDailyTargetStatEntity;
+
+import java.time.LocalDate;
+
+/**
+ * 用户活动按日汇总仓储（按活动类型 + 目标）
+ */
+@Mapper
+public interface UserActivityDailyTargetStatRepository extends BaseMapper<UserActivityDailyTargetStatEntity> {
+
+    /**
+     * 汇总指定日期有目标的日志（覆盖已有结果，可重复执行）
+     */
+    @Insert({
+            "INSERT INTO user_activity_daily_target_stats",
+            "(stat_date, activity_type, target_type, target_id, event_count, unique_users, update_time)",
+            "SELECT #{day}, activity_type, target_type, target_id, COUNT(*), COUNT(DISTINCT user_id), NOW()",
+            "FROM user_activity_logs",
+            "WHERE created_at >= #{day} AND created_at < #{day} + INTERVAL '1 day'",
+            "AND target_type IS NOT NULL AND target_id IS NOT NULL",
+            "GROUP BY activity_type, target_type, target_id",
+            "ON CONFLICT (stat_date, activity_type, target_type, target_id) DO UPDATE",
+            "SET event_count = EXCLUDED.event_count, unique_users = EXCLUDED.unique_users, update_time = NOW()"
+    })
+    int rollup(@Param("day") LocalDate day);
+}
@@ -0,0 +1,35 @@
+package org.xhy.community.domain.log.repository;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.time.LocalDate;
+
+/**
+ * 用户活动日志分区维护仓储
+ * 调用 V73 迁移中定义的分区维护函数
+ */
+@Mapper
+public interface UserActivityLogPartitionRepository {
+
+    /**
+     * 确保当前月及未来若干个月的分区存在
+     * @return 新建的分区数
+     */
+    @Select("SELECT ensure_user_activity_log_partitions(#{monthsAhead})")
+    int ensurePartitions(@Param("monthsAhead") int monthsAhead);
+
+    /**
+     * 删除（或仅分离）整月早于 cutoff 的分区
+     * @return 处理的分区数
+     */
+    @Select("SELECT drop_user_activity_log_partitions_before(#{cutoff}, #{detachOnly})")
+    int dropPartitionsBefore(@Param("cutoff") LocalDate cutoff, @Param("detachOnly") boolean detachOnly);
+
+    /**
+     * 兜底分区中的行数（非 0 说明有日志落在未预建的月份）
+     */
+    @Select("SELECT COUNT(*) FROM user_activity_logs_default")
+    long countDefaultPartitionRows();
+}
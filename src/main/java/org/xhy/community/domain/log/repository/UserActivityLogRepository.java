@@ -1,14 +1,35 @@
 package org.xhy.community.domain.log.repository;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 import org.xhy.community.domain.log.entity.UserActivityLogEntity;
 
+import java.util.List;
+
 /**
  * 用户活动日志仓储接口
  * 继承MyBatis Plus的BaseMapper，提供基本的CRUD操作
  */
 @Mapper
 public interface UserActivityLogRepository extends BaseMapper<UserActivityLogEntity> {
-    
-}
\ No newline at end of file
+
+    /**
+     * 多行 INSERT 批量写入（id 与时间字段需由调用方填充）
+     */
+    @Insert({
+            "<script>",
+            "INSERT INTO user_activity_logs (id, user_id, activity_type, browser, equipment, ip, user_agent,",
+            "failure_reason, created_at, updated_at, target_type, target_id, request_method, request_path,",
+            "execution_time_ms, session_id, context_data) VALUES",
+            "<foreach collection='logs' item='l' separator=','>",
+            "(#{l.id}, #{l.userId}, #{l.activityType}, #{l.browser}, #{l.equipment}, #{l.ip}, #{l.userAgent},",
+            "#{l.failureReason}, #{l.createTime}, #{l.updateTime}, #{l.targetType}, #{l.targetId},",
+            "#{l.requestMethod}, #{l.requestPath}, #{l.executionTimeMs}, #{l.sessionId},",
+            "#{l.contextData, typeHandler=org.xhy.community.infrastructure.converter.MapJsonTypeHandler})",
+            "</foreach>",
+            "</script>"
+    })
+    int batchInsert(@Param("logs") List<UserActivityLogEntity> logs);
+}
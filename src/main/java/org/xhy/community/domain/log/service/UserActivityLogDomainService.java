@@ -2,21 +2,34 @@ package org.xhy.community.domain.log.service;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
+import org.xhy.community.domain.log.entity.DistinctViewerCountEntity;
 import org.xhy.community.domain.log.entity.UserActivityLogEntity;
+import org.xhy.community.domain.log.port.DistinctViewerCounterPort;
+import org.xhy.community.domain.log.repository.DistinctViewerCountRepository;
+import org.xhy.community.domain.log.repository.UserActivityLogPartitionRepository;
 import org.xhy.community.domain.log.repository.UserActivityLogRepository;
 import org.xhy.community.domain.log.query.UserActivityLogQuery;
 import org.xhy.community.domain.common.valueobject.ActivityType;
 import org.xhy.community.domain.common.valueobject.ActivityCategory;
+import org.xhy.community.infrastructure.lock.DistributedLock;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Collection;
@@ -29,11 +42,34 @@ import java.util.stream.Collectors;
 @Service
 public class UserActivityLogDomainService {
 
+    private static final Logger log = LoggerFactory.getLogger(UserActivityLogDomainService.class);
+
+    private static final String TARGET_POST = "POST";
+    private static final String TARGET_INTERVIEW_QUESTION = "INTERVIEW_QUESTION";
+    /** 计入去重浏览人数的活动类型及其目标类型 */
+    private static final Map<ActivityType, String> VIEW_TARGET_TYPES = Map.of(
+            ActivityType.VIEW_POST, TARGET_POST,
+            ActivityType.VIEW_INTERVIEW_QUESTION, TARGET_INTERVIEW_QUESTION);
+    private static final int REBUILD_BATCH_SIZE = 5000;
+    private static final String REBUILD_LOCK_KEY = "lock:task:distinct-viewer-rebuild";
+
     private final UserActivityLogRepository userActivityLogRepository;
+    private final DistinctViewerCountRepository distinctViewerCountRepository;
+    private final UserActivityLogPartitionRepository userActivityLogPartitionRepository;
+    private final DistinctViewerCounterPort distinctViewerCounter;
+    private final DistributedLock distributedLock;
     private final ObjectMapper objectMapper;
 
-    public UserActivityLogDomainService(UserActivityLogRepository userActivityLogRepository) {
+    public UserActivityLogDomainService(UserActivityLogRepository userActivityLogRepository,
+                                        DistinctViewerCountRepository distinctViewerCountRepository,
+                                        UserActivityLogPartitionRepository userActivityLogPartitionRepository,
+                                        DistinctViewerCounterPort distinctViewerCounter,
+                                        DistributedLock distributedLock) {
         this.userActivityLogRepository = userActivityLogRepository;
+        this.distinctViewerCountRepository = distinctViewerCountRepository;
+        this.userActivityLogPartitionRepository = userActivityLogPartitionRepository;
+        this.distinctViewerCounter = distinctViewerCounter;
+        this.distributedLock = distributedLock;
         this.objectMapper = new ObjectMapper();
     }
     
@@ -160,6 +196,31 @@ public class UserActivityLogDomainService {
     public void recordBusinessActivity(UserActivityLogEntity activityLog) {
         // createTime/updateTime 统一由 MetaObjectHandler 填充
         userActivityLogRepository.insert(activityLog);
+        recordDistinctViewers(List.of(activityLog));
+    }
+
+    /**
+     * 批量记录活动日志（多行 INSERT，供日志写入管道使用）
+     * 自定义 SQL 不经过 MetaObjectHandler，缺失的 id 与时间字段在此补齐
+     */
+    public void recordActivities(List<UserActivityLogEntity> activityLogs) {
+        if (activityLogs == null || activityLogs.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (UserActivityLogEntity activityLog : activityLogs) {
+            if (activityLog.getId() == null) {
+                activityLog.setId(IdWorker.get32UUID());
+            }
+            if (activityLog.getCreateTime() == null) {
+                activityLog.setCreateTime(now);
+            }
+            if (activityLog.getUpdateTime() == null) {
+                activityLog.setUpdateTime(activityLog.getCreateTime());
+            }
+        }
+        userActivityLogRepository.batchInsert(activityLogs);
+        recordDistinctViewers(activityLogs);
     }
 
     /**
@@ -193,28 +254,18 @@ public class UserActivityLogDomainService {
     }
 
     // ==================== 浏览统计（按用户去重） ====================
+    // 口径：activity_type = VIEW_POST/VIEW_INTERVIEW_QUESTION 且 target_type 对应，对同一 user_id 去重，忽略匿名浏览。
+    // 实现：Redis HyperLogLog 近似计数（误差约 0.81%），定时持久化到 distinct_viewer_counts，
+    // 不再对 user_activity_logs 分组统计，耗时与日志表规模无关。
 
     /**
      * 统计某篇文章的“按用户去重”的浏览人数
-     * 口径：user_activity_logs 中 activity_type = VIEW_POST 且 target_type = 'POST'
-     *      对同一 user_id 去重；忽略 user_id 为空的记录
      */
     public Long getDistinctViewerCountByPostId(String postId) {
-        if (!org.springframework.util.StringUtils.hasText(postId)) {
+        if (!StringUtils.hasText(postId)) {
             return 0L;
         }
-
-        // 使用条件构造器 + 分组，只选择 user_id，取结果数量即为去重人数
-        LambdaQueryWrapper<UserActivityLogEntity> wrapper = new LambdaQueryWrapper<UserActivityLogEntity>()
-                .eq(UserActivityLogEntity::getActivityType, ActivityType.VIEW_POST)
-                .eq(UserActivityLogEntity::getTargetType, "POST")
-                .eq(UserActivityLogEntity::getTargetId, postId)
-                .isNotNull(UserActivityLogEntity::getUserId)
-                .select(UserActivityLogEntity::getUserId)
-                .groupBy(UserActivityLogEntity::getUserId);
-
-        List<UserActivityLogEntity> list = userActivityLogRepository.selectList(wrapper);
-        return (long) list.size();
+        return getDistinctViewerCounts(TARGET_POST, List.of(postId)).getOrDefault(postId, 0L);
     }
 
     /**
@@ -225,30 +276,7 @@ public class UserActivityLogDomainService {
         if (postIds == null || postIds.isEmpty()) {
             return Map.of();
         }
-
-        // 选择 targetId + userId，按二者分组，返回的记录条数按 targetId 聚合后即为去重人数
-        LambdaQueryWrapper<UserActivityLogEntity> wrapper = new LambdaQueryWrapper<UserActivityLogEntity>()
-                .eq(UserActivityLogEntity::getActivityType, ActivityType.VIEW_POST)
-                .eq(UserActivityLogEntity::getTargetType, "POST")
-                .in(UserActivityLogEntity::getTargetId, postIds)
-                .isNotNull(UserActivityLogEntity::getUserId)
-                .select(UserActivityLogEntity::getTargetId, UserActivityLogEntity::getUserId)
-                .groupBy(UserActivityLogEntity::getTargetId, UserActivityLogEntity::getUserId);
-
-        List<UserActivityLogEntity> rows = userActivityLogRepository.selectList(wrapper);
-        Map<String, Long> result = new HashMap<>();
-        for (UserActivityLogEntity row : rows) {
-            String pid = row.getTargetId();
-            if (pid != null) {
-                result.merge(pid, 1L, Long::sum);
-            }
-        }
-
-        // 确保所有传入ID都有键
-        for (String id : postIds) {
-            result.putIfAbsent(id, 0L);
-        }
-        return result;
+        return getDistinctViewerCounts(TARGET_POST, postIds);
     }
 
     // ==================== 面试题浏览统计（按用户去重） ====================
@@ -257,20 +285,10 @@ public class UserActivityLogDomainService {
      * 统计某道面试题的“按用户去重”的浏览人数
      */
     public Long getDistinctViewerCountByInterviewQuestionId(String questionId) {
-        if (!org.springframework.util.StringUtils.hasText(questionId)) {
+        if (!StringUtils.hasText(questionId)) {
             return 0L;
         }
-
-        LambdaQueryWrapper<UserActivityLogEntity> wrapper = new LambdaQueryWrapper<UserActivityLogEntity>()
-                .eq(UserActivityLogEntity::getActivityType, ActivityType.VIEW_INTERVIEW_QUESTION)
-                .eq(UserActivityLogEntity::getTargetType, "INTERVIEW_QUESTION")
-                .eq(UserActivityLogEntity::getTargetId, questionId)
-                .isNotNull(UserActivityLogEntity::getUserId)
-                .select(UserActivityLogEntity::getUserId)
-                .groupBy(UserActivityLogEntity::getUserId);
-
-        List<UserActivityLogEntity> list = userActivityLogRepository.selectList(wrapper);
-        return (long) list.size();
+        return getDistinctViewerCounts(TARGET_INTERVIEW_QUESTION, List.of(questionId)).getOrDefault(questionId, 0L);
     }
 
     /**
@@ -281,29 +299,220 @@ public class UserActivityLogDomainService {
         if (questionIds == null || questionIds.isEmpty()) {
             return Map.of();
         }
+        return getDistinctViewerCounts(TARGET_INTERVIEW_QUESTION, questionIds);
+    }
+
+    /**
+     * 预建当前月及未来若干个月的日志分区
+     *
+     * @param monthsAhead 预建的未来月数
+     * @return 新建的分区数
+     */
+    public int ensureLogPartitions(int monthsAhead) {
+        int created = userActivityLogPartitionRepository.ensurePartitions(Math.max(0, monthsAhead));
+        long defaultRows = userActivityLogPartitionRepository.countDefaultPartitionRows();
+        if (defaultRows > 0) {
+            log.warn("[UserActivityLogDomainService] 兜底分区中有 {} 条日志，说明存在未预建分区的月份", defaultRows);
+        }
+        return created;
+    }
 
-        LambdaQueryWrapper<UserActivityLogEntity> wrapper = new LambdaQueryWrapper<UserActivityLogEntity>()
-                .eq(UserActivityLogEntity::getActivityType, ActivityType.VIEW_INTERVIEW_QUESTION)
-                .eq(UserActivityLogEntity::getTargetType, "INTERVIEW_QUESTION")
-                .in(UserActivityLogEntity::getTargetId, questionIds)
-                .isNotNull(UserActivityLogEntity::getUserId)
-                .select(UserActivityLogEntity::getTargetId, UserActivityLogEntity::getUserId)
-                .groupBy(UserActivityLogEntity::getTargetId, UserActivityLogEntity::getUserId);
+    /**
+     * 按保留期清理日志分区：整月早于 (当前月 - retentionMonths) 的分区被删除或分离
+     * 分区级 DROP/DETACH 不产生逐行删除与表膨胀
+     *
+     * @param retentionMonths 保留月数（含当前月），小于等于 0 时不清理
+     * @param detachOnly      true 时仅分离分区（保留数据表以便归档），false 时直接删除
+     * @return 处理的分区数
+     */
+    public int purgeExpiredLogPartitions(int retentionMonths, boolean detachOnly) {
+        if (retentionMonths <= 0) {
+            return 0;
+        }
+        LocalDate cutoff = LocalDate.now().withDayOfMonth(1).minusMonths(retentionMonths - 1L);
+        return userActivityLogPartitionRepository.dropPartitionsBefore(cutoff, detachOnly);
+    }
 
-        List<UserActivityLogEntity> rows = userActivityLogRepository.selectList(wrapper);
+    /**
+     * 将有新增浏览的目标的 HLL 计数与原始数据持久化到数据库
+     *
+     * @param batchSize 每批处理的目标数
+     * @return 持久化的目标数
+     */
+    public int persistDistinctViewerCounts(int batchSize) {
+        int total = 0;
+        while (true) {
+            List<String> members = distinctViewerCounter.popDirty(batchSize);
+            if (members.isEmpty()) {
+                break;
+            }
+            try {
+                total += persistDistinctViewerBatch(members);
+            } catch (RuntimeException e) {
+                distinctViewerCounter.markDirty(members);
+                throw e;
+            }
+            if (members.size() < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 是否已有持久化的去重浏览数据（用于判断是否需要首次从历史日志回灌）
+     */
+    public boolean hasPersistedDistinctViewerCounts() {
+        return !distinctViewerCountRepository.selectList(new LambdaQueryWrapper<DistinctViewerCountEntity>()
+                .select(DistinctViewerCountEntity::getTargetId)
+                .last("LIMIT 1")).isEmpty();
+    }
+
+    /**
+     * 从历史日志重建去重浏览计数
+     * 按主键游标分批扫描浏览日志，PFADD 合并进现有 HLL（幂等，可与线上写入并发），完成后全部持久化。
+     * 多节点通过分布式锁只执行一次。
+     *
+     * @return 扫描的日志行数
+     */
+    public long rebuildDistinctViewerCounts() {
+        return distributedLock.executeWithLock(REBUILD_LOCK_KEY, Duration.ofMillis(100), Duration.ofHours(2), () -> {
+            long scanned = 0;
+            for (Map.Entry<ActivityType, String> entry : VIEW_TARGET_TYPES.entrySet()) {
+                scanned += rebuildDistinctViewers(entry.getKey(), entry.getValue());
+            }
+            int persisted = persistDistinctViewerCounts(REBUILD_BATCH_SIZE);
+            log.info("【去重浏览】历史日志重建完成，扫描 {} 行，持久化 {} 个目标", scanned, persisted);
+            return scanned;
+        });
+    }
+
+    /**
+     * 读取去重浏览人数：Redis PFCOUNT 为主；Redis 中无数据（为 0）或不可用时读取持久化值，
+     * 并用持久化的 HLL 原始数据恢复 Redis
+     */
+    private Map<String, Long> getDistinctViewerCounts(String targetType, Collection<String> targetIds) {
+        List<String> ids = targetIds.stream().filter(StringUtils::hasText).distinct().toList();
         Map<String, Long> result = new HashMap<>();
-        for (UserActivityLogEntity row : rows) {
-            String qid = row.getTargetId();
-            if (qid != null) {
-                result.merge(qid, 1L, Long::sum);
+        if (ids.isEmpty()) {
+            return result;
+        }
+
+        Map<String, Long> counts = distinctViewerCounter.count(targetType, ids);
+        List<String> fallbackIds = new ArrayList<>();
+        for (String id : ids) {
+            long count = counts == null ? 0L : counts.getOrDefault(id, 0L);
+            result.put(id, count);
+            if (count == 0L) {
+                fallbackIds.add(id);
             }
         }
 
-        for (String id : questionIds) {
-            result.putIfAbsent(id, 0L);
+        if (!fallbackIds.isEmpty()) {
+            List<DistinctViewerCountEntity> rows = distinctViewerCountRepository.selectList(
+                    new LambdaQueryWrapper<DistinctViewerCountEntity>()
+                            .eq(DistinctViewerCountEntity::getTargetType, targetType)
+                            .in(DistinctViewerCountEntity::getTargetId, fallbackIds));
+            for (DistinctViewerCountEntity row : rows) {
+                result.put(row.getTargetId(), row.getViewerCount() == null ? 0L : row.getViewerCount());
+                if (counts != null && row.getHllData() != null) {
+                    distinctViewerCounter.restore(targetType, row.getTargetId(), row.getHllData());
+                }
+            }
         }
         return result;
     }
+
+    /**
+     * 浏览类日志计入去重浏览人数（按目标类型分组，每组一次 pipeline）
+     */
+    private void recordDistinctViewers(List<UserActivityLogEntity> activityLogs) {
+        Map<String, Map<String, List<String>>> viewers = new HashMap<>();
+        for (UserActivityLogEntity activityLog : activityLogs) {
+            String targetType = VIEW_TARGET_TYPES.get(activityLog.getActivityType());
+            if (targetType == null || !targetType.equals(activityLog.getTargetType())
+                    || !StringUtils.hasText(activityLog.getTargetId()) || !StringUtils.hasText(activityLog.getUserId())) {
+                continue;
+            }
+            viewers.computeIfAbsent(targetType, k -> new HashMap<>())
+                    .computeIfAbsent(activityLog.getTargetId(), k -> new ArrayList<>())
+                    .add(activityLog.getUserId());
+        }
+        for (Map.Entry<String, Map<String, List<String>>> entry : viewers.entrySet()) {
+            try {
+                distinctViewerCounter.addAll(entry.getKey(), entry.getValue());
+            } catch (Exception e) {
+                // 计数失败不影响日志记录，可通过历史日志重建
+                log.warn("【去重浏览】记录失败 targetType={}, size={}, err={}",
+                        entry.getKey(), entry.getValue().size(), e.getMessage());
+            }
+        }
+    }
+
+    private int persistDistinctViewerBatch(List<String> members) {
+        Map<String, List<String>> idsByType = new HashMap<>();
+        for (String member : members) {
+            int idx = member.indexOf(':');
+            if (idx > 0) {
+                idsByType.computeIfAbsent(member.substring(0, idx), k -> new ArrayList<>()).add(member.substring(idx + 1));
+            }
+        }
+
+        List<DistinctViewerCountEntity> rows = new ArrayList<>();
+        for (Map.Entry<String, List<String>> entry : idsByType.entrySet()) {
+            String targetType = entry.getKey();
+            Map<String, Long> counts = distinctViewerCounter.count(targetType, entry.getValue());
+            if (counts == null) {
+                throw new IllegalStateException("Redis 不可用，暂停持久化去重浏览计数");
+            }
+            Map<String, byte[]> sketches = distinctViewerCounter.dump(targetType, entry.getValue());
+            for (String id : entry.getValue()) {
+                byte[] sketch = sketches.get(id);
+                // Key 已不存在时跳过，避免用空数据覆盖已持久化的 HLL
+                if (sketch != null) {
+                    rows.add(new DistinctViewerCountEntity(targetType, id, counts.getOrDefault(id, 0L), sketch));
+                }
+            }
+        }
+        if (!rows.isEmpty()) {
+            distinctViewerCountRepository.batchUpsert(rows);
+        }
+        return rows.size();
+    }
+
+    private long rebuildDistinctViewers(ActivityType activityType, String targetType) {
+        long scanned = 0;
+        String lastId = null;
+        while (true) {
+            List<UserActivityLogEntity> batch = userActivityLogRepository.selectList(
+                    new LambdaQueryWrapper<UserActivityLogEntity>()
+                            .select(UserActivityLogEntity::getId, UserActivityLogEntity::getTargetId,
+                                    UserActivityLogEntity::getUserId)
+                            .eq(UserActivityLogEntity::getActivityType, activityType)
+                            .eq(UserActivityLogEntity::getTargetType, targetType)
+                            .isNotNull(UserActivityLogEntity::getUserId)
+                            .isNotNull(UserActivityLogEntity::getTargetId)
+                            .gt(lastId != null, UserActivityLogEntity::getId, lastId)
+                            .orderByAsc(UserActivityLogEntity::getId)
+                            .last("LIMIT " + REBUILD_BATCH_SIZE));
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            Map<String, LinkedHashSet<String>> viewersByTarget = new LinkedHashMap<>();
+            for (UserActivityLogEntity row : batch) {
+                viewersByTarget.computeIfAbsent(row.getTargetId(), k -> new LinkedHashSet<>()).add(row.getUserId());
+            }
+            distinctViewerCounter.addAll(targetType, viewersByTarget);
+
+            scanned += batch.size();
+            lastId = batch.get(batch.size() - 1).getId();
+            if (batch.size() < REBUILD_BATCH_SIZE) {
+                break;
+            }
+        }
+        return scanned;
+    }
     
     /**
      * 根据活动分类获取该分类下的所有活动类型
@@ -342,22 +551,4 @@ public class UserActivityLogDomainService {
             return fallbackMap;
         }
     }
-
-    // ==================== 统计方法 ====================
-
-    /**
-     * 获取活跃用户日志
-     * @param startTime 开始时间
-     * @param endTime 结束时间
-     * @return 活动日志列表
-     */
-    public List<UserActivityLogEntity> getActiveUserLogs(LocalDateTime startTime, LocalDateTime endTime) {
-        LambdaQueryWrapper<UserActivityLogEntity> queryWrapper = new LambdaQueryWrapper<UserActivityLogEntity>()
-                .select(UserActivityLogEntity::getUserId, UserActivityLogEntity::getCreateTime)
-                .ge(startTime != null, UserActivityLogEntity::getCreateTime, startTime)
-                .le(endTime != null, UserActivityLogEntity::getCreateTime, endTime)
-                .isNotNull(UserActivityLogEntity::getUserId);
-
-        return userActivityLogRepository.selectList(queryWrapper);
-    }
 }
@@ -0,0 +1,70 @@
+package org.xhy.community.domain.log.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import org.springframework.stereotype.Service;
+import org.xhy.community.domain.log.entity.UserActivityDailyStatEntity;
+import org.xhy.community.domain.log.entity.UserActivityDailyTargetStatEntity;
+import org.xhy.community.domain.log.repository.UserActivityDailyStatRepository;
+import org.xhy.community.domain.log.repository.UserActivityDailyTargetStatRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 用户活动按日汇总领域服务
+ * 汇总表由日志按日聚合生成（可重复执行），统计类查询优先读取汇总表，避免扫描原始日志
+ */
+@Service
+public class UserActivityStatDomainService {
+
+    private final UserActivityDailyStatRepository userActivityDailyStatRepository;
+    private final UserActivityDailyTargetStatRepository userActivityDailyTargetStatRepository;
+
+    public UserActivityStatDomainService(UserActivityDailyStatRepository userActivityDailyStatRepository,
+                                         UserActivityDailyTargetStatRepository userActivityDailyTargetStatRepository) {
+        this.userActivityDailyStatRepository = userActivityDailyStatRepository;
+        this.userActivityDailyTargetStatRepository = userActivityDailyTargetStatRepository;
+    }
+
+    /**
+     * 汇总指定日期的活动日志（覆盖该日已有汇总）
+     *
+     * @param day 统计日期
+     * @return 写入的汇总行数
+     */
+    public int rollupDay(LocalDate day) {
+        return userActivityDailyStatRepository.rollup(day) + userActivityDailyTargetStatRepository.rollup(day);
+    }
+
+    /**
+     * 查询日期范围内按活动类型的每日汇总（含首尾日期；当天数据次日汇总）
+     *
+     * @param activityType 活动类型，为空时返回全部类型
+     */
+    public List<UserActivityDailyStatEntity> getDailyStats(LocalDate startDate, LocalDate endDate, String activityType) {
+        return userActivityDailyStatRepository.selectList(new LambdaQueryWrapper<UserActivityDailyStatEntity>()
+                .ge(UserActivityDailyStatEntity::getStatDate, startDate)
+                .le(UserActivityDailyStatEntity::getStatDate, endDate)
+                .eq(activityType != null, UserActivityDailyStatEntity::getActivityType, activityType)
+                .orderByAsc(UserActivityDailyStatEntity::getStatDate)
+                .orderByAsc(UserActivityDailyStatEntity::getActivityType));
+    }
+
+    /**
+     * 查询指定目标在日期范围内的每日汇总（含首尾日期；当天数据次日汇总）
+     *
+     * @param activityType 活动类型，为空时返回全部类型
+     */
+    public List<UserActivityDailyTargetStatEntity> getDailyTargetStats(String targetType, String targetId,
+                                                                       LocalDate startDate, LocalDate endDate,
+                                                                       String activityType) {
+        return userActivityDailyTargetStatRepository.selectList(new LambdaQueryWrapper<UserActivityDailyTargetStatEntity>()
+                .eq(UserActivityDailyTargetStatEntity::getTargetType, targetType)
+                .eq(UserActivityDailyTargetStatEntity::getTargetId, targetId)
+                .ge(UserActivityDailyTargetStatEntity::getStatDate, startDate)
+                .le(UserActivityDailyTargetStatEntity::getStatDate, endDate)
+                .eq(activityType != null, UserActivityDailyTargetStatEntity::getActivityType, activityType)
+                .orderByAsc(UserActivityDailyTargetStatEntity::getStatDate)
+                .orderByAsc(UserActivityDailyTargetStatEntity::getActivityType));
+    }
+}
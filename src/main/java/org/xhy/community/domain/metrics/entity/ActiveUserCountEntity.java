@@ -0,0 +1,42 @@
+package org.xhy.community.domain.metrics.entity;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 按统计周期预计算的去重活跃用户数（主键为 period_unit + period_start + plan_key）
+ */
+@TableName("active_user_counts")
+public class ActiveUserCountEntity {
+
+    /** 周期单位：day/week/month */
+    private String periodUnit;
+
+    /** 周期起始日期（天/周一/月初） */
+    private LocalDate periodStart;
+
+    /** 统计维度：* 为全部用户，空串为无套餐，其余为套餐ID */
+    private String planKey;
+
+    /** 去重活跃用户数 */
+    private Long activeUsers;
+
+    private LocalDateTime updateTime;
+
+    public String getPeriodUnit() { return periodUnit; }
+    public void setPeriodUnit(String periodUnit) { this.periodUnit = periodUnit; }
+
+    public LocalDate getPeriodStart() { return periodStart; }
+    public void setPeriodStart(LocalDate periodStart) { this.periodStart = periodStart; }
+
+    public String getPlanKey() { return planKey; }
+    public void setPlanKey(String planKey) { this.planKey = planKey; }
+
+    public Long getActiveUsers() { return activeUsers; }
+    public void setActiveUsers(Long activeUsers) { this.activeUsers = activeUsers; }
+
+    public LocalDateTime getUpdateTime() { return updateTime; }
+    public void setUpdateTime(LocalDateTime updateTime) { this.updateTime = updateTime; }
+}
@@ -0,0 +1,44 @@
+package org.xhy.community.domain.metrics.entity;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import org.xhy.community.domain.metrics.valueobject.MetricType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 按日预聚合指标（主键为 stat_date + metric）
+ */
+@TableName("daily_metrics")
+public class DailyMetricEntity {
+
+    /** 统计日期 */
+    private LocalDate statDate;
+
+    /** 指标类型 */
+    private MetricType metric;
+
+    /** 当日数量 */
+    private Long itemCount;
+
+    /** 当日金额（仅订单） */
+    private BigDecimal amount;
+
+    private LocalDateTime updateTime;
+
+    public LocalDate getStatDate() { return statDate; }
+    public void setStatDate(LocalDate statDate) { this.statDate = statDate; }
+
+    public MetricType getMetric() { return metric; }
+    public void setMetric(MetricType metric) { this.metric = metric; }
+
+    public Long getItemCount() { return itemCount; }
+    public void setItemCount(Long itemCount) { this.itemCount = itemCount; }
+
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+
+    public LocalDateTime getUpdateTime() { return updateTime; }
+    public void setUpdateTime(LocalDateTime updateTime) { this.updateTime = updateTime; }
+}
@@ -0,0 +1,73 @@
+package org.xhy.community.domain.metrics.repository;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Result;
+import org.apache.ibatis.annotations.Results;
+import org.apache.ibatis.annotations.Select;
+import org.springframework.stereotype.Repository;
+import org.xhy.community.domain.metrics.entity.ActiveUserCountEntity;
+import org.xhy.community.domain.metrics.valueobject.MetricPoint;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 去重活跃用户数仓储
+ * 每个统计周期（天/周/月）× 维度（全部/无套餐/套餐）一行；日期区间均为 [from, to)，且必须与周期边界对齐
+ */
+@Repository
+public interface ActiveUserCountRepository extends BaseMapper<ActiveUserCountEntity> {
+
+    /** 全部用户维度 */
+    String ALL_USERS = "*";
+
+    @Delete("DELETE FROM active_user_counts WHERE period_unit = #{unit} AND period_start >= #{from} AND period_start < #{to}")
+    int deleteRange(@Param("unit") String unit, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * 从活动日志计算 [from, to) 内各周期的去重活跃用户数，按全部用户与用户当日有效套餐（多个时取结束时间最晚的）两个维度写入
+     *
+     * @param unit date_trunc 单位：day/week/month
+     */
+    @Insert({
+            "INSERT INTO active_user_counts (period_unit, period_start, plan_key, active_users, update_time)",
+            "SELECT #{unit}, t.bucket, COALESCE(t.plan_key, '*'), COUNT(DISTINCT t.user_id), NOW()",
+            "FROM (SELECT date_trunc(#{unit}, d.stat_date::TIMESTAMP)::DATE AS bucket, d.user_id,",
+            "COALESCE((SELECT s.subscription_plan_id FROM user_subscriptions s",
+            "WHERE s.user_id = d.user_id AND s.deleted_at IS NULL",
+            "AND s.start_time < d.stat_date + 1 AND s.end_time >= d.stat_date",
+            "ORDER BY s.end_time DESC LIMIT 1), '') AS plan_key",
+            "FROM (SELECT DISTINCT created_at::DATE AS stat_date, user_id FROM user_activity_logs",
+            "WHERE user_id IS NOT NULL AND deleted_at IS NULL",
+            "AND created_at >= #{from} AND created_at < #{to}) d) t",
+            "GROUP BY GROUPING SETS ((t.bucket), (t.bucket, t.plan_key))"
+    })
+    int aggregate(@Param("unit") String unit, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * 按周期读取去重活跃用户数
+     *
+     * @param planKey * 为全部用户；传 null 时返回全部套餐维度（不含 *），dimension 为套餐ID，无套餐为空串
+     */
+    @Select({
+            "<script>",
+            "SELECT period_start AS bucket, plan_key AS dimension, active_users AS count FROM active_user_counts",
+            "WHERE period_unit = #{unit} AND period_start &gt;= date_trunc(#{unit}, #{from}::TIMESTAMP)::DATE",
+            "AND period_start &lt; #{to}",
+            "<choose><when test='planKey != null'>AND plan_key = #{planKey}</when>",
+            "<otherwise>AND plan_key &lt;&gt; '*'</otherwise></choose>",
+            "</script>"
+    })
+    @Results(id = "activeUserPoint", value = {
+            @Result(column = "bucket", property = "bucket"),
+            @Result(column = "dimension", property = "dimension"),
+            @Result(column = "count", property = "count")
+    })
+    List<MetricPoint> selectByPeriod(@Param("unit") String unit,
+                                     @Param("planKey") String planKey,
+                                     @Param("from") LocalDate from,
+                                     @Param("to") LocalDate to);
+}
@@ -0,0 +1,71 @@
+package org.xhy.community.domain.metrics.repository;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Result;
+import org.apache.ibatis.annotations.Results;
+import org.apache.ibatis.annotations.Select;
+import org.springframework.stereotype.Repository;
+import org.xhy.community.domain.metrics.entity.DailyMetricEntity;
+import org.xhy.community.domain.metrics.valueobject.MetricPoint;
+import org.xhy.community.domain.metrics.valueobject.MetricType;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 按日预聚合指标仓储
+ * 日期区间均为 [from, to)；刷新由领域服务在同一事务内先删除窗口再重新聚合
+ */
+@Repository
+public interface DailyMetricRepository extends BaseMapper<DailyMetricEntity> {
+
+    @Delete("DELETE FROM daily_metrics WHERE stat_date >= #{from} AND stat_date < #{to}")
+    int deleteRange(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Insert({
+            "INSERT INTO daily_metrics (stat_date, metric, item_count, amount, update_time)",
+            "SELECT activated_time::DATE, 'ORDER', COUNT(*), COALESCE(SUM(amount), 0), NOW()",
+            "FROM orders WHERE deleted_at IS NULL AND activated_time >= #{from} AND activated_time < #{to}",
+            "GROUP BY activated_time::DATE"
+    })
+    int aggregateOrders(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Insert({
+            "INSERT INTO daily_metrics (stat_date, metric, item_count, amount, update_time)",
+            "SELECT create_time::DATE, 'REGISTRATION', COUNT(*), 0, NOW()",
+            "FROM users WHERE deleted_at IS NULL AND create_time >= #{from} AND create_time < #{to}",
+            "GROUP BY create_time::DATE"
+    })
+    int aggregateRegistrations(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Insert({
+            "INSERT INTO daily_metrics (stat_date, metric, item_count, amount, update_time)",
+            "SELECT create_time::DATE, 'COURSE', COUNT(*), 0, NOW()",
+            "FROM courses WHERE deleted_at IS NULL AND create_time >= #{from} AND create_time < #{to}",
+            "GROUP BY create_time::DATE"
+    })
+    int aggregateCourses(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * 按时间桶汇总指标
+     * @param unit date_trunc 单位：day/week/month
+     */
+    @Select({
+            "SELECT date_trunc(#{unit}, stat_date::TIMESTAMP)::DATE AS bucket,",
+            "SUM(item_count) AS count, SUM(amount) AS amount",
+            "FROM daily_metrics WHERE metric = #{metric} AND stat_date >= #{from} AND stat_date < #{to}",
+            "GROUP BY 1"
+    })
+    @Results(id = "metricPoint", value = {
+            @Result(column = "bucket", property = "bucket"),
+            @Result(column = "count", property = "count"),
+            @Result(column = "amount", property = "amount")
+    })
+    List<MetricPoint> sumByBucket(@Param("metric") MetricType metric,
+                                  @Param("unit") String unit,
+                                  @Param("from") LocalDate from,
+                                  @Param("to") LocalDate to);
+}
@@ -0,0 +1,143 @@
+package org.xhy.community.domain.metrics.service;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.xhy.community.domain.common.valueobject.TimeRange;
+import org.xhy.community.domain.metrics.repository.ActiveUserCountRepository;
+import org.xhy.community.domain.metrics.repository.DailyMetricRepository;
+import org.xhy.community.domain.metrics.valueobject.MetricPoint;
+import org.xhy.community.domain.metrics.valueobject.MetricType;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 趋势指标领域服务
+ * 指标按日预聚合到 daily_metrics，趋势查询只读取聚合表（行数与天数成正比），
+ * 定时任务只重算最近的日期窗口；时间桶由数据库按天/周一/月初对齐。
+ *
+ * 去重活跃用户无法由按日数量相加得到周/月值，因此按周期（天/周/月）× 维度（全部/套餐）各存一个计数：
+ * 日计数随最近窗口刷新；周、月计数每天对已结束的一天所在的周、月重算一次（当前周/月的计数截止到昨天）。
+ */
+@Service
+public class MetricsDomainService {
+
+    private static final String UNIT_DAY = "day";
+    private static final String UNIT_WEEK = "week";
+    private static final String UNIT_MONTH = "month";
+
+    private final DailyMetricRepository dailyMetricRepository;
+    private final ActiveUserCountRepository activeUserCountRepository;
+
+    public MetricsDomainService(DailyMetricRepository dailyMetricRepository,
+                                ActiveUserCountRepository activeUserCountRepository) {
+        this.dailyMetricRepository = dailyMetricRepository;
+        this.activeUserCountRepository = activeUserCountRepository;
+    }
+
+    /**
+     * 重算 [from, to] 日期窗口内的按日预聚合指标与日活跃用户数（同一事务内先删后写，窗口内变为 0 的日期同样被修正）
+     *
+     * @return 写入的聚合行数
+     */
+    @Transactional
+    public int refreshDailyMetrics(LocalDate from, LocalDate to) {
+        LocalDate end = to.plusDays(1);
+        dailyMetricRepository.deleteRange(from, end);
+        activeUserCountRepository.deleteRange(UNIT_DAY, from, end);
+        return dailyMetricRepository.aggregateOrders(from, end)
+                + dailyMetricRepository.aggregateRegistrations(from, end)
+                + dailyMetricRepository.aggregateCourses(from, end)
+                + activeUserCountRepository.aggregate(UNIT_DAY, from, end);
+    }
+
+    /**
+     * 重算 day 所在自然周与自然月的去重活跃用户数（每天对已结束的一天执行一次）
+     *
+     * @return 写入的聚合行数
+     */
+    @Transactional
+    public int refreshActiveUserPeriods(LocalDate day) {
+        LocalDate weekStart = day.with(DayOfWeek.MONDAY);
+        LocalDate monthStart = day.withDayOfMonth(1);
+        return refreshActiveUserPeriod(UNIT_WEEK, weekStart, weekStart.plusWeeks(1))
+                + refreshActiveUserPeriod(UNIT_MONTH, monthStart, monthStart.plusMonths(1));
+    }
+
+    private int refreshActiveUserPeriod(String unit, LocalDate start, LocalDate end) {
+        activeUserCountRepository.deleteRange(unit, start, end);
+        return activeUserCountRepository.aggregate(unit, start, end);
+    }
+
+    /**
+     * 指标数量趋势
+     *
+     * @return Map<时间桶, 数量>
+     */
+    public Map<LocalDate, Long> getCountTrend(MetricType metric, TimeRange timeRange, LocalDate from, LocalDate to) {
+        Map<LocalDate, Long> trend = new HashMap<>();
+        for (MetricPoint point : dailyMetricRepository.sumByBucket(metric, unit(timeRange), from, to.plusDays(1))) {
+            trend.put(point.getBucket(), point.getCount());
+        }
+        return trend;
+    }
+
+    /**
+     * 指标金额趋势
+     *
+     * @return Map<时间桶, 金额>
+     */
+    public Map<LocalDate, BigDecimal> getAmountTrend(MetricType metric, TimeRange timeRange, LocalDate from, LocalDate to) {
+        Map<LocalDate, BigDecimal> trend = new HashMap<>();
+        for (MetricPoint point : dailyMetricRepository.sumByBucket(metric, unit(timeRange), from, to.plusDays(1))) {
+            trend.put(point.getBucket(), point.getAmount() != null ? point.getAmount() : BigDecimal.ZERO);
+        }
+        return trend;
+    }
+
+    /**
+     * 去重活跃用户趋势
+     *
+     * @return Map<时间桶, 活跃用户数>
+     */
+    public Map<LocalDate, Long> getActiveUserTrend(TimeRange timeRange, LocalDate from, LocalDate to) {
+        Map<LocalDate, Long> trend = new HashMap<>();
+        List<MetricPoint> points = activeUserCountRepository.selectByPeriod(unit(timeRange),
+                ActiveUserCountRepository.ALL_USERS, from, to.plusDays(1));
+        for (MetricPoint point : points) {
+            trend.put(point.getBucket(), point.getCount());
+        }
+        return trend;
+    }
+
+    /**
+     * 按套餐分组的去重活跃用户趋势
+     *
+     * @return Map<套餐ID（无套餐为空串）, Map<时间桶, 活跃用户数>>
+     */
+    public Map<String, Map<LocalDate, Long>> getActiveUserTrendByPlan(TimeRange timeRange, LocalDate from, LocalDate to) {
+        Map<String, Map<LocalDate, Long>> trends = new HashMap<>();
+        List<MetricPoint> points = activeUserCountRepository.selectByPeriod(unit(timeRange), null, from, to.plusDays(1));
+        for (MetricPoint point : points) {
+            String planId = point.getDimension() != null ? point.getDimension() : "";
+            trends.computeIfAbsent(planId, k -> new HashMap<>()).put(point.getBucket(), point.getCount());
+        }
+        return trends;
+    }
+
+    private String unit(TimeRange timeRange) {
+        switch (timeRange) {
+            case WEEK:
+                return UNIT_WEEK;
+            case MONTH:
+                return UNIT_MONTH;
+            case DAY:
+            default:
+                return UNIT_DAY;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package org.xhy.community.domain.metrics.valueobject;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 趋势数据点（按时间桶分组的统计结果）
+ */
+public class MetricPoint {
+
+    /** 时间桶起始日期（天/周一/月初） */
+    private LocalDate bucket;
+
+    /** 分组维度（如套餐ID），无分组时为空 */
+    private String dimension;
+
+    /** 数量 */
+    private Long count;
+
+    /** 金额 */
+    private BigDecimal amount;
+
+    public LocalDate getBucket() { return bucket; }
+    public void setBucket(LocalDate bucket) { this.bucket = bucket; }
+
+    public String getDimension() { return dimension; }
+    public void setDimension(String dimension) { this.dimension = dimension; }
+
+    public Long getCount() { return count; }
+    public void setCount(Long count) { this.count = count; }
+
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+}
@@ -0,0 +1,32 @@
+package org.xhy.community.domain.metrics.valueobject;
+
+/**
+ * 预聚合指标类型
+ */
+public enum MetricType {
+
+    /**
+     * 订单（按激活时间统计数量与金额）
+     */
+    ORDER("订单"),
+
+    /**
+     * 注册用户（按创建时间统计）
+     */
+    REGISTRATION("注册用户"),
+
+    /**
+     * 课程（按创建时间统计）
+     */
+    COURSE("课程");
+
+    private final String description;
+
+    MetricType(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,84 @@
+package org.xhy.community.domain.notification.entity;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableName;
+import org.xhy.community.domain.common.entity.BaseEntity;
+import org.xhy.community.domain.notification.valueobject.ChannelType;
+import org.xhy.community.domain.notification.valueobject.DeliveryStatus;
+import org.xhy.community.domain.notification.valueobject.NotificationType;
+import org.xhy.community.infrastructure.converter.ChannelTypeConverter;
+import org.xhy.community.infrastructure.converter.DeliveryStatusConverter;
+import org.xhy.community.infrastructure.converter.NotificationTypeConverter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 通知投递任务实体（发件箱）
+ * 一条任务对应一个渠道的一批接收者，引用入队时已渲染的通知正文
+ */
+@TableName("notification_deliveries")
+public class NotificationDeliveryEntity extends BaseEntity {
+
+    /** 渠道类型 */
+    @TableField(typeHandler = ChannelTypeConverter.class)
+    private ChannelType channelType;
+
+    /** 通知类型 */
+    @TableField(typeHandler = NotificationTypeConverter.class)
+    private NotificationType notificationType;
+
+    /** 通知正文ID */
+    private String messageId;
+
+    /** 接收者列表（JSON 数组） */
+    private String recipients;
+
+    /** 投递状态 */
+    @TableField(typeHandler = DeliveryStatusConverter.class)
+    private DeliveryStatus status;
+
+    /** 已尝试次数 */
+    private Integer attempts;
+
+    /** 下次可领取时间 */
+    private LocalDateTime nextAttemptAt;
+
+    /** 领取标识 */
+    private String lockedBy;
+
+    /** 租约到期时间 */
+    private LocalDateTime lockedUntil;
+
+    /** 最近一次失败原因 */
+    private String lastError;
+
+    public ChannelType getChannelType() { return channelType; }
+    public void setChannelType(ChannelType channelType) { this.channelType = channelType; }
+
+    public NotificationType getNotificationType() { return notificationType; }
+    public void setNotificationType(NotificationType notificationType) { this.notificationType = notificationType; }
+
+    public String getMessageId() { return messageId; }
+    public void setMessageId(String messageId) { this.messageId = messageId; }
+
+    public String getRecipients() { return recipients; }
+    public void setRecipients(String recipients) { this.recipients = recipients; }
+
+    public DeliveryStatus getStatus() { return status; }
+    public void setStatus(DeliveryStatus status) { this.status = status; }
+
+    public Integer getAttempts() { return attempts; }
+    public void setAttempts(Integer attempts) { this.attempts = attempts; }
+
+    public LocalDateTime getNextAttemptAt() { return nextAttemptAt; }
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+
+    public String getLockedBy() { return lockedBy; }
+    public void setLockedBy(String lockedBy) { this.lockedBy = lockedBy; }
+
+    public LocalDateTime getLockedUntil() { return lockedUntil; }
+    public void setLockedUntil(LocalDateTime lockedUntil) { this.lockedUntil = lockedUntil; }
+
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+}
@@ -1,30 +1,23 @@
 package org.xhy.community.domain.notification.entity;
 
-import com.baomidou.mybatisplus.annotation.TableField;
-import com.baomidou.mybatisplus.annotation.TableName;
 import org.xhy.community.domain.common.entity.BaseEntity;
 import org.xhy.community.domain.notification.valueobject.ChannelType;
 import org.xhy.community.domain.notification.valueobject.NotificationStatus;
 import org.xhy.community.domain.notification.valueobject.NotificationType;
-import org.xhy.community.infrastructure.converter.NotificationTypeConverter;
-import org.xhy.community.infrastructure.converter.ChannelTypeConverter;
-import org.xhy.community.infrastructure.converter.NotificationStatusConverter;
 
 /**
- * 通知实体
+ * 通知视图
+ * 由收件箱行（id、接收者、状态、时间）与共享的通知正文（类型、标题、内容）组装，不直接对应数据表
  */
-@TableName("notifications")
 public class NotificationEntity extends BaseEntity {
     
     /** 接收者ID */
     private String recipientId;
     
     /** 通知类型 */
-    @TableField(typeHandler = NotificationTypeConverter.class)
     private NotificationType type;
     
     /** 渠道类型 */
-    @TableField(typeHandler = ChannelTypeConverter.class)
     private ChannelType channelType;
     
     /** 通知标题 */
@@ -34,7 +27,6 @@ public class NotificationEntity extends BaseEntity {
     private String content;
     
     /** 通知状态 */
-    @TableField(typeHandler = NotificationStatusConverter.class)
     private NotificationStatus status;
     
     // Getters and Setters
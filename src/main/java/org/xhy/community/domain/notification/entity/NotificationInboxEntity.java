@@ -0,0 +1,47 @@
+package org.xhy.community.domain.notification.entity;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableName;
+import org.xhy.community.domain.common.entity.BaseEntity;
+import org.xhy.community.domain.notification.valueobject.ChannelType;
+import org.xhy.community.domain.notification.valueobject.NotificationStatus;
+import org.xhy.community.infrastructure.converter.ChannelTypeConverter;
+import org.xhy.community.infrastructure.converter.NotificationStatusConverter;
+
+/**
+ * 通知收件箱实体
+ * 每个接收者一行，只保存接收者、正文ID与状态
+ */
+@TableName("notification_inbox")
+public class NotificationInboxEntity extends BaseEntity {
+
+    /** 接收者ID */
+    private String recipientId;
+
+    /** 通知正文ID */
+    private String messageId;
+
+    /** 渠道类型 */
+    @TableField(typeHandler = ChannelTypeConverter.class)
+    private ChannelType channelType;
+
+    /** 通知状态 */
+    @TableField(typeHandler = NotificationStatusConverter.class)
+    private NotificationStatus status;
+
+    public String getRecipientId() { return recipientId; }
+    public void setRecipientId(String recipientId) { this.recipientId = recipientId; }
+
+    public String getMessageId() { return messageId; }
+    public void setMessageId(String messageId) { this.messageId = messageId; }
+
+    public ChannelType getChannelType() { return channelType; }
+    public void setChannelType(ChannelType channelType) { this.channelType = channelType; }
+
+    public NotificationStatus getStatus() { return status; }
+    public void setStatus(NotificationStatus status) { this.status = status; }
+
+    public void markAsRead() {
+        this.status = NotificationStatus.READ;
+    }
+}
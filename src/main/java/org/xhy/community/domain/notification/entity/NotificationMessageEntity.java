@@ -0,0 +1,43 @@
+package org.xhy.community.domain.notification.entity;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableName;
+import org.xhy.community.domain.common.entity.BaseEntity;
+import org.xhy.community.domain.notification.valueobject.ChannelType;
+import org.xhy.community.domain.notification.valueobject.NotificationType;
+import org.xhy.community.infrastructure.converter.ChannelTypeConverter;
+import org.xhy.community.infrastructure.converter.NotificationTypeConverter;
+
+/**
+ * 通知正文实体
+ * 每次发送每个渠道一行，由该次发送的全部接收者共享
+ */
+@TableName("notification_messages")
+public class NotificationMessageEntity extends BaseEntity {
+
+    /** 通知类型 */
+    @TableField(typeHandler = NotificationTypeConverter.class)
+    private NotificationType type;
+
+    /** 渠道类型 */
+    @TableField(typeHandler = ChannelTypeConverter.class)
+    private ChannelType channelType;
+
+    /** 已渲染的标题 */
+    private String title;
+
+    /** 已渲染的内容 */
+    private String content;
+
+    public NotificationType getType() { return type; }
+    public void setType(NotificationType type) { this.type = type; }
+
+    public ChannelType getChannelType() { return channelType; }
+    public void setChannelType(ChannelType channelType) { this.channelType = channelType; }
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public String getContent() { return content; }
+    public void setContent(String content) { this.content = content; }
+}
@@ -0,0 +1,40 @@
+package org.xhy.community.domain.notification.event;
+
+import org.xhy.community.domain.notification.valueobject.NotificationType;
+
+import java.util.List;
+
+/**
+ * 站内信投递完成事件
+ * 一个投递任务写入收件箱后发布，基础设施层在事务提交后推送给在线的接收者
+ */
+public class NotificationDeliveredEvent {
+
+    private final List<String> recipientIds;
+    private final String messageId;
+    private final NotificationType type;
+    private final String title;
+
+    public NotificationDeliveredEvent(List<String> recipientIds, String messageId, NotificationType type, String title) {
+        this.recipientIds = recipientIds;
+        this.messageId = messageId;
+        this.type = type;
+        this.title = title;
+    }
+
+    public List<String> getRecipientIds() {
+        return recipientIds;
+    }
+
+    public String getMessageId() {
+        return messageId;
+    }
+
+    public NotificationType getType() {
+        return type;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+}
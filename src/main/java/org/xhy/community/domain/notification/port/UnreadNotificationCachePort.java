@@ -0,0 +1,35 @@
+package org.xhy.community.domain.notification.port;
+
+import java.util.Collection;
+
+/**
+ * 站内信未读数缓存端口（由基础设施层实现）
+ * 字段未预热时增减操作直接跳过，等待下一次读取按收件箱回源预热；写操作处于事务中时延迟到提交后执行。
+ */
+public interface UnreadNotificationCachePort {
+
+    /**
+     * 读取站内信未读数；未预热或缓存不可用时返回 null
+     */
+    Long getNotifications(String userId);
+
+    /**
+     * 预热站内信未读数（已存在时不覆盖）
+     */
+    void warmNotifications(String userId, long count);
+
+    /**
+     * 投递成功：接收者未读数 +1
+     */
+    void incrementNotifications(Collection<String> userIds);
+
+    /**
+     * 单条通知已读：未读数 -1（不低于 0）
+     */
+    void decrementNotifications(String userId);
+
+    /**
+     * 全部已读：未读数置 0
+     */
+    void resetNotifications(String userId);
+}
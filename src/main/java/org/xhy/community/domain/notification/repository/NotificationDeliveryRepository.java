@@ -0,0 +1,59 @@
+package org.xhy.community.domain.notification.repository;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
+import org.xhy.community.domain.notification.entity.NotificationDeliveryEntity;
+import org.xhy.community.domain.notification.valueobject.ChannelType;
+
+import java.time.LocalDateTime;
+
+/**
+ * 通知投递任务仓储
+ * 领取使用自定义 SQL（FOR UPDATE SKIP LOCKED，多节点并发领取互不阻塞），其余使用条件构造器
+ */
+@Mapper
+public interface NotificationDeliveryRepository extends BaseMapper<NotificationDeliveryEntity> {
+
+    /**
+     * 领取一批可投递的任务：到期的待投递任务与租约已过期的投递中任务
+     * 领取后状态为 PROCESSING、尝试次数 +1，并以 claimToken 标记，调用方按 claimToken 读取本次领取的任务
+     *
+     * @return 领取数量
+     */
+    @Update({
+            "UPDATE notification_deliveries SET status = 'PROCESSING', attempts = attempts + 1,",
+            "locked_by = #{claimToken}, locked_until = NOW() + make_interval(secs => #{leaseSeconds}), update_time = NOW()",
+            "WHERE id IN (",
+            "SELECT id FROM notification_deliveries",
+            "WHERE channel_type = #{channelType, typeHandler=org.xhy.community.infrastructure.converter.ChannelTypeConverter}",
+            "AND deleted_at IS NULL",
+            "AND ((status = 'PENDING' AND next_attempt_at <= NOW()) OR (status = 'PROCESSING' AND locked_until < NOW()))",
+            "ORDER BY next_attempt_at LIMIT #{limit}",
+            "FOR UPDATE SKIP LOCKED)"
+    })
+    int claim(@Param("channelType") ChannelType channelType,
+              @Param("claimToken") String claimToken,
+              @Param("limit") int limit,
+              @Param("leaseSeconds") long leaseSeconds);
+
+    /**
+     * 将租约早于指定时间过期的 SENDING 任务转入死信（邮件是否已发出未知，不再自动重试）
+     *
+     * @return 转入死信的数量
+     */
+    @Update({
+            "UPDATE notification_deliveries SET status = 'DEAD', locked_until = NULL,",
+            "last_error = '邮件发送期间租约过期，发送结果未知', update_time = NOW()",
+            "WHERE status = 'SENDING' AND locked_until < #{before}"
+    })
+    int expireStaleSending(@Param("before") LocalDateTime before);
+
+    /**
+     * 物理删除早于指定时间的已投递任务
+     */
+    @Delete("DELETE FROM notification_deliveries WHERE status = 'SUCCEEDED' AND update_time < #{before}")
+    int purgeSucceeded(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,32 @@
+package org.xhy.community.domain.notification.repository;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.xhy.community.domain.notification.entity.NotificationInboxEntity;
+
+import java.util.List;
+
+/**
+ * 通知收件箱Repository
+ */
+@Mapper
+public interface NotificationInboxRepository extends BaseMapper<NotificationInboxEntity> {
+
+    /**
+     * 多行 INSERT 批量写入（id 与时间字段需由调用方填充）
+     */
+    @Insert({
+            "<script>",
+            "INSERT INTO notification_inbox (id, recipient_id, message_id, channel_type, status, create_time, update_time) VALUES",
+            "<foreach collection='rows' item='r' separator=','>",
+            "(#{r.id}, #{r.recipientId}, #{r.messageId},",
+            "#{r.channelType, typeHandler=org.xhy.community.infrastructure.converter.ChannelTypeConverter},",
+            "#{r.status, typeHandler=org.xhy.community.infrastructure.converter.NotificationStatusConverter},",
+            "#{r.createTime}, #{r.updateTime})",
+            "</foreach>",
+            "</script>"
+    })
+    int batchInsert(@Param("rows") List<NotificationInboxEntity> rows);
+}
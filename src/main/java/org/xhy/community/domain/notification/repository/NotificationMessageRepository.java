@@ -2,12 +2,11 @@ package org.xhy.community.domain.notification.repository;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import org.apache.ibatis.annotations.Mapper;
-import org.xhy.community.domain.notification.entity.NotificationEntity;
+import org.xhy.community.domain.notification.entity.NotificationMessageEntity;
 
 /**
- * 通知Repository
+ * 通知正文Repository
  */
 @Mapper
-public interface NotificationRepository extends BaseMapper<NotificationEntity> {
-    // 继承BaseMapper，使用MyBatis Plus提供的方法和条件构造器
-}
\ No newline at end of file
+public interface NotificationMessageRepository extends BaseMapper<NotificationMessageEntity> {
+}
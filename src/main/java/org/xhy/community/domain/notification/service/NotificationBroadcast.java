@@ -0,0 +1,73 @@
+package org.xhy.community.domain.notification.service;
+
+import io.jsonwebtoken.lang.Strings;
+import org.xhy.community.domain.notification.context.NotificationData;
+import org.xhy.community.domain.notification.valueobject.ChannelType;
+import org.xhy.community.domain.notification.valueobject.DeliveryRecipient;
+import org.xhy.community.domain.notification.valueobject.NotificationType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 一次通知广播
+ * 各渠道的标题与正文在打开广播时渲染一次；正文在该渠道首次出现接收者时写入一份，
+ * 之后每批接收者只追加引用该正文的投递任务。按批顺序调用，非线程安全。
+ */
+public final class NotificationBroadcast {
+
+    private final NotificationDeliveryDomainService notificationDeliveryDomainService;
+    private final NotificationType type;
+    private final List<RenderedChannel> channels;
+
+    NotificationBroadcast(NotificationDeliveryDomainService notificationDeliveryDomainService,
+                          NotificationType type, List<RenderedChannel> channels) {
+        this.notificationDeliveryDomainService = notificationDeliveryDomainService;
+        this.type = type;
+        this.channels = channels;
+    }
+
+    /**
+     * 向一批接收者投递（邮件渠道仅包含开启邮件通知且有邮箱的用户）
+     *
+     * @return 写入的投递任务数
+     */
+    public int send(List<NotificationData.Recipient> recipients) {
+        int deliveries = 0;
+        for (RenderedChannel channel : channels) {
+            List<DeliveryRecipient> targets = new ArrayList<>();
+            for (NotificationData.Recipient recipient : recipients) {
+                if (channel.channelType == ChannelType.EMAIL) {
+                    if (Boolean.TRUE.equals(recipient.getEmailNotificationEnabled())
+                            && Strings.hasText(recipient.getRecipientEmail())) {
+                        targets.add(new DeliveryRecipient(recipient.getRecipientId(), recipient.getRecipientEmail()));
+                    }
+                } else {
+                    targets.add(new DeliveryRecipient(recipient.getRecipientId(), null));
+                }
+            }
+            if (targets.isEmpty()) {
+                continue;
+            }
+            if (channel.messageId == null) {
+                channel.messageId = notificationDeliveryDomainService.createMessage(
+                        channel.channelType, type, channel.title, channel.content);
+            }
+            deliveries += notificationDeliveryDomainService.enqueue(channel.channelType, type, channel.messageId, targets);
+        }
+        return deliveries;
+    }
+
+    static final class RenderedChannel {
+        private final ChannelType channelType;
+        private final String title;
+        private final String content;
+        private String messageId;
+
+        RenderedChannel(ChannelType channelType, String title, String content) {
+            this.channelType = channelType;
+            this.title = title;
+            this.content = content;
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package org.xhy.community.domain.notification.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.xhy.community.domain.notification.entity.NotificationDeliveryEntity;
+import org.xhy.community.domain.notification.event.NotificationDeliveredEvent;
+import org.xhy.community.domain.notification.entity.NotificationInboxEntity;
+import org.xhy.community.domain.notification.entity.NotificationMessageEntity;
+import org.xhy.community.domain.notification.port.UnreadNotificationCachePort;
+import org.xhy.community.domain.notification.repository.NotificationDeliveryRepository;
+import org.xhy.community.domain.notification.repository.NotificationInboxRepository;
+import org.xhy.community.domain.notification.repository.NotificationMessageRepository;
+import org.xhy.community.domain.notification.valueobject.ChannelType;
+import org.xhy.community.domain.notification.valueobject.DeliveryRecipient;
+import org.xhy.community.domain.notification.valueobject.DeliveryStatus;
+import org.xhy.community.domain.notification.valueobject.NotificationStatus;
+import org.xhy.community.domain.notification.valueobject.NotificationType;
+import org.xhy.community.infrastructure.email.EmailService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 通知投递领域服务（发件箱）
+ * - 入队：按渠道写入一份已渲染的通知正文，并拆成若干引用该正文的投递任务，与调用方事务一起提交；
+ * - 领取：各渠道独立领取（FOR UPDATE SKIP LOCKED + 租约），租约过期的任务可被其他节点重新领取；
+ * - 投递：由各渠道的投递线程池执行，收件箱写入与任务完成标记在同一事务内，邮件发送成功后同样记录并完成；
+ * - 邮件幂等：发送前以领取标识为栅栏把任务从 PROCESSING 置为 SENDING，租约已被接管时放弃发送；
+ *   SMTP 成功后立即单独把任务置为 SUCCEEDED，之后写收件箱失败也不会重发；SMTP 明确失败（未发出）时退回 PROCESSING 以便重试；
+ *   其余情况下 SENDING 任务不会被重新排队，结果未知时转入死信（进程崩溃遗留的由定时清理处理），因此邮件至多发送一次；
+ * - 失败：指数退避重试，超过最大次数进入死信（DEAD），保留失败原因供排查。
+ */
+@Service
+public class NotificationDeliveryDomainService {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationDeliveryDomainService.class);
+
+    /** 站内信每个任务的接收者数 */
+    private static final int IN_APP_CHUNK_SIZE = 500;
+    /** 邮件每个任务的收件人数（一个任务对应一封群发邮件，失败重试不影响其他批次） */
+    private static final int EMAIL_CHUNK_SIZE = 50;
+    private static final int MAX_ERROR_LENGTH = 1000;
+    private static final Duration MAX_BACKOFF = Duration.ofHours(1);
+
+    private final NotificationDeliveryRepository notificationDeliveryRepository;
+    private final NotificationMessageRepository notificationMessageRepository;
+    private final NotificationInboxRepository notificationInboxRepository;
+    private final EmailService emailService;
+    private final UnreadNotificationCachePort unreadNotificationCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final int maxAttempts;
+    private final Duration baseBackoff;
+
+    public NotificationDeliveryDomainService(NotificationDeliveryRepository notificationDeliveryRepository,
+                                             NotificationMessageRepository notificationMessageRepository,
+                                             NotificationInboxRepository notificationInboxRepository,
+                                             EmailService emailService,
+                                             UnreadNotificationCachePort unreadNotificationCache,
+                                             ApplicationEventPublisher eventPublisher,
+                                             @Value("${community.notification.delivery.max-attempts:8}") int maxAttempts,
+                                             @Value("${community.notification.delivery.base-backoff-seconds:30}") long baseBackoffSeconds) {
+        this.notificationDeliveryRepository = notificationDeliveryRepository;
+        this.notificationMessageRepository = notificationMessageRepository;
+        this.notificationInboxRepository = notificationInboxRepository;
+        this.emailService = emailService;
+        this.unreadNotificationCache = unreadNotificationCache;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = new ObjectMapper();
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseBackoff = Duration.ofSeconds(Math.max(1, baseBackoffSeconds));
+    }
+
+    /**
+     * 写入通知正文与该渠道的投递任务（正文只写一份，任务按渠道的批大小拆分并引用正文）
+     */
+    @Transactional
+    public int enqueue(ChannelType channelType, NotificationType notificationType,
+                       String title, String content, List<DeliveryRecipient> recipients) {
+        if (recipients == null || recipients.isEmpty()) {
+            return 0;
+        }
+        String messageId = createMessage(channelType, notificationType, title, content);
+        return enqueue(channelType, notificationType, messageId, recipients);
+    }
+
+    /**
+     * 写入一份已渲染的通知正文，返回正文ID
+     */
+    public String createMessage(ChannelType channelType, NotificationType notificationType,
+                                String title, String content) {
+        NotificationMessageEntity message = new NotificationMessageEntity();
+        message.setType(notificationType);
+        message.setChannelType(channelType);
+        message.setTitle(title);
+        message.setContent(content);
+        notificationMessageRepository.insert(message);
+        return message.getId();
+    }
+
+    /**
+     * 为已写入的正文追加投递任务（同一次广播分批解析接收者时，各批共用一份正文）
+     */
+    @Transactional
+    public int enqueue(ChannelType channelType, NotificationType notificationType,
+                       String messageId, List<DeliveryRecipient> recipients) {
+        if (recipients == null || recipients.isEmpty()) {
+            return 0;
+        }
+        int chunkSize = channelType == ChannelType.EMAIL ? EMAIL_CHUNK_SIZE : IN_APP_CHUNK_SIZE;
+        List<NotificationDeliveryEntity> deliveries = new ArrayList<>();
+        for (int start = 0; start < recipients.size(); start += chunkSize) {
+            List<DeliveryRecipient> chunk = recipients.subList(start, Math.min(start + chunkSize, recipients.size()));
+            NotificationDeliveryEntity delivery = new NotificationDeliveryEntity();
+            delivery.setChannelType(channelType);
+            delivery.setNotificationType(notificationType);
+            delivery.setMessageId(messageId);
+            delivery.setRecipients(writeRecipients(chunk));
+            delivery.setStatus(DeliveryStatus.PENDING);
+            delivery.setAttempts(0);
+            delivery.setNextAttemptAt(LocalDateTime.now());
+            deliveries.add(delivery);
+        }
+        notificationDeliveryRepository.insert(deliveries);
+        return deliveries.size();
+    }
+
+    /**
+     * 领取一批可投递的任务
+     *
+     * @param owner        领取方标识（节点）
+     * @param limit        最多领取数量
+     * @param leaseSeconds 租约时长，超时未完成的任务可被重新领取
+     */
+    public List<NotificationDeliveryEntity> claim(ChannelType channelType, String owner, int limit, long leaseSeconds) {
+        String claimToken = owner + ":" + UUID.randomUUID();
+        int claimed = notificationDeliveryRepository.claim(channelType, claimToken, limit, leaseSeconds);
+        if (claimed == 0) {
+            return List.of();
+        }
+        return notificationDeliveryRepository.selectList(new LambdaQueryWrapper<NotificationDeliveryEntity>()
+                .eq(NotificationDeliveryEntity::getLockedBy, claimToken)
+                .eq(NotificationDeliveryEntity::getStatus, DeliveryStatus.PROCESSING));
+    }
+
+    /**
+     * 物理删除早于保留期的已投递任务
+     */
+    public int purgeSucceeded(Duration retention) {
+        return notificationDeliveryRepository.purgeSucceeded(LocalDateTime.now().minus(retention));
+    }
+
+    /**
+     * 将发送期间租约过期、结果未知的邮件任务转入死信（不自动重发，避免重复邮件）
+     *
+     * @param grace 租约过期后的宽限时长，避免把仍在发送的慢任务误判为失败
+     */
+    public int expireStaleSending(Duration grace) {
+        return notificationDeliveryRepository.expireStaleSending(LocalDateTime.now().minus(grace));
+    }
+
+    /**
+     * 发送邮件任务（一个任务对应一封群发邮件）；失败时抛出异常，由调用方调用 {@link #fail}
+     * 发送前先以领取标识把任务置为 SENDING，租约已被其他节点接管时不发送；发送成功后立即置为 SUCCEEDED
+     */
+    public void sendEmail(NotificationDeliveryEntity delivery) {
+        if (!emailService.isEnabled()) {
+            throw new IllegalStateException("邮件服务未启用");
+        }
+        List<String> emails = readRecipients(delivery).stream()
+                .map(DeliveryRecipient::getEmail)
+                .toList();
+        NotificationMessageEntity message = notificationMessageRepository.selectById(delivery.getMessageId());
+        if (message == null) {
+            throw new IllegalStateException("通知正文不存在: " + delivery.getMessageId());
+        }
+        transition(delivery, DeliveryStatus.PROCESSING, DeliveryStatus.SENDING);
+        if (!emailService.sendEmail(emails, message.getTitle(), message.getContent())) {
+            // 一个任务即一封邮件，发送明确失败说明未发出，退回 PROCESSING 后按普通失败重试；退回失败则保持 SENDING 进入死信
+            transition(delivery, DeliveryStatus.SENDING, DeliveryStatus.PROCESSING);
+            throw new IllegalStateException("邮件发送失败");
+        }
+        transition(delivery, DeliveryStatus.SENDING, DeliveryStatus.SUCCEEDED);
+    }
+
+    private void transition(NotificationDeliveryEntity delivery, DeliveryStatus from, DeliveryStatus to) {
+        int updated = notificationDeliveryRepository.update(null, ownedBy(delivery, from)
+                .set(NotificationDeliveryEntity::getStatus, to));
+        if (updated == 0) {
+            throw new IllegalStateException("投递任务租约已失效: " + delivery.getId());
+        }
+        delivery.setStatus(to);
+    }
+
+    /**
+     * 写入收件箱并标记任务完成（同一事务，收件箱多行 INSERT 一次写入）；租约已被其他节点接管时回滚，避免重复写入
+     * 邮件任务此时已是 SUCCEEDED，这里只补写收件箱记录并清理租约
+     */
+    @Transactional
+    public void complete(NotificationDeliveryEntity delivery) {
+        LocalDateTime now = LocalDateTime.now();
+        List<NotificationInboxEntity> rows = new ArrayList<>();
+        for (DeliveryRecipient recipient : readRecipients(delivery)) {
+            NotificationInboxEntity row = new NotificationInboxEntity();
+            row.setId(IdWorker.get32UUID());
+            row.setRecipientId(recipient.getRecipientId());
+            row.setMessageId(delivery.getMessageId());
+            row.setChannelType(delivery.getChannelType());
+            row.setStatus(NotificationStatus.SENT);
+            row.setCreateTime(now);
+            row.setUpdateTime(now);
+            rows.add(row);
+        }
+        if (!rows.isEmpty()) {
+            notificationInboxRepository.batchInsert(rows);
+        }
+        int updated = notificationDeliveryRepository.update(null, ownedBy(delivery, delivery.getStatus())
+                .set(NotificationDeliveryEntity::getStatus, DeliveryStatus.SUCCEEDED)
+                .set(NotificationDeliveryEntity::getLockedUntil, null)
+                .set(NotificationDeliveryEntity::getLastError, null));
+        if (updated == 0) {
+            throw new IllegalStateException("投递任务租约已失效: " + delivery.getId());
+        }
+        if (delivery.getChannelType() == ChannelType.IN_APP && !rows.isEmpty()) {
+            List<String> recipientIds = rows.stream().map(NotificationInboxEntity::getRecipientId).toList();
+            unreadNotificationCache.incrementNotifications(recipientIds);
+            pushNewNotification(delivery, recipientIds);
+        }
+    }
+
+    /**
+     * 发布站内信投递完成事件（事务提交后推送到在线接收者）
+     */
+    private void pushNewNotification(NotificationDeliveryEntity delivery, List<String> recipientIds) {
+        NotificationMessageEntity message = notificationMessageRepository.selectById(delivery.getMessageId());
+        if (message == null) {
+            return;
+        }
+        eventPublisher.publishEvent(new NotificationDeliveredEvent(recipientIds, message.getId(),
+                message.getType(), message.getTitle()));
+    }
+
+    /**
+     * 记录投递失败：未超过最大次数时按指数退避重新排队，否则进入死信
+     * 邮件已发出（SUCCEEDED）时只记录错误；发送结果未知（SENDING）时直接进入死信，不重新排队
+     */
+    public void fail(NotificationDeliveryEntity delivery, Exception e) {
+        String error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        if (error.length() > MAX_ERROR_LENGTH) {
+            error = error.substring(0, MAX_ERROR_LENGTH);
+        }
+        int attempts = delivery.getAttempts() != null ? delivery.getAttempts() : 1;
+        DeliveryStatus current = delivery.getStatus() != null ? delivery.getStatus() : DeliveryStatus.PROCESSING;
+        LambdaUpdateWrapper<NotificationDeliveryEntity> update = ownedBy(delivery, current)
+                .set(NotificationDeliveryEntity::getLockedUntil, null)
+                .set(NotificationDeliveryEntity::getLastError, error);
+        if (current == DeliveryStatus.SUCCEEDED) {
+            log.warn("[NotificationDelivery] 邮件已发送但记录收件箱失败 id={}, err={}", delivery.getId(), error);
+        } else if (current == DeliveryStatus.SENDING || attempts >= maxAttempts) {
+            update.set(NotificationDeliveryEntity::getStatus, DeliveryStatus.DEAD);
+            log.error("[NotificationDelivery] 投递失败进入死信 id={}, channel={}, status={}, attempts={}, err={}",
+                    delivery.getId(), delivery.getChannelType(), current, attempts, error);
+        } else {
+            update.set(NotificationDeliveryEntity::getStatus, DeliveryStatus.PENDING)
+                    .set(NotificationDeliveryEntity::getNextAttemptAt, LocalDateTime.now().plus(backoff(attempts)));
+            log.warn("[NotificationDelivery] 投递失败等待重试 id={}, channel={}, attempts={}, err={}",
+                    delivery.getId(), delivery.getChannelType(), attempts, error);
+        }
+        try {
+            notificationDeliveryRepository.update(null, update);
+        } catch (Exception ex) {
+            // 状态未能回写时：PROCESSING 任务租约到期后会被重新领取，SENDING 任务由定时清理转入死信
+            log.error("[NotificationDelivery] 回写失败状态异常 id={}, err={}", delivery.getId(), ex.getMessage());
+        }
+    }
+
+    private Duration backoff(int attempts) {
+        Duration delay = baseBackoff.multipliedBy(1L << Math.min(attempts - 1, 16));
+        return delay.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : delay;
+    }
+
+    private LambdaUpdateWrapper<NotificationDeliveryEntity> ownedBy(NotificationDeliveryEntity delivery,
+                                                                    DeliveryStatus status) {
+        return new LambdaUpdateWrapper<NotificationDeliveryEntity>()
+                .eq(NotificationDeliveryEntity::getId, delivery.getId())
+                .eq(NotificationDeliveryEntity::getLockedBy, delivery.getLockedBy())
+                .eq(NotificationDeliveryEntity::getStatus, status);
+    }
+
+    private String writeRecipients(List<DeliveryRecipient> recipients) {
+        try {
+            return objectMapper.writeValueAsString(recipients);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("序列化接收者失败", e);
+        }
+    }
+
+    private List<DeliveryRecipient> readRecipients(NotificationDeliveryEntity delivery) {
+        try {
+            return objectMapper.readValue(delivery.getRecipients(), new TypeReference<List<DeliveryRecipient>>() {});
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("解析接收者失败: " + delivery.getId(), e);
+        }
+    }
+}
@@ -4,15 +4,21 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
-import io.jsonwebtoken.lang.Strings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.xhy.community.domain.common.event.UnreadChangedEvent;
 import org.xhy.community.domain.common.valueobject.ContentType;
 import org.xhy.community.domain.notification.context.NotificationData;
 import org.xhy.community.domain.notification.entity.NotificationEntity;
+import org.xhy.community.domain.notification.entity.NotificationInboxEntity;
+import org.xhy.community.domain.notification.entity.NotificationMessageEntity;
+import org.xhy.community.domain.notification.port.UnreadNotificationCachePort;
 import org.xhy.community.domain.notification.query.NotificationQuery;
-import org.xhy.community.domain.notification.repository.NotificationRepository;
+import org.xhy.community.domain.notification.repository.NotificationInboxRepository;
+import org.xhy.community.domain.notification.repository.NotificationMessageRepository;
 import org.xhy.community.domain.notification.template.NotificationTemplate;
 import org.xhy.community.domain.notification.template.NotificationTemplateRegistry;
 import org.xhy.community.domain.notification.valueobject.*;
@@ -21,6 +27,7 @@ import org.xhy.community.infrastructure.email.EmailService;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -32,150 +39,149 @@ public class NotificationDomainService {
     
     private static final Logger log = LoggerFactory.getLogger(NotificationDomainService.class);
     
-    private final NotificationRepository notificationRepository;
+    private final NotificationInboxRepository notificationInboxRepository;
+    private final NotificationMessageRepository notificationMessageRepository;
     private final NotificationTemplateRegistry templateRegistry;
     private final EmailService emailService;
+    private final NotificationDeliveryDomainService notificationDeliveryDomainService;
+    private final UnreadNotificationCachePort unreadNotificationCache;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public NotificationDomainService(NotificationRepository notificationRepository,
+    public NotificationDomainService(NotificationInboxRepository notificationInboxRepository,
+                                   NotificationMessageRepository notificationMessageRepository,
                                    NotificationTemplateRegistry templateRegistry,
-                                   EmailService emailService) {
-        this.notificationRepository = notificationRepository;
+                                   EmailService emailService,
+                                   NotificationDeliveryDomainService notificationDeliveryDomainService,
+                                   UnreadNotificationCachePort unreadNotificationCache,
+                                   ApplicationEventPublisher eventPublisher) {
+        this.notificationInboxRepository = notificationInboxRepository;
+        this.notificationMessageRepository = notificationMessageRepository;
         this.templateRegistry = templateRegistry;
         this.emailService = emailService;
+        this.notificationDeliveryDomainService = notificationDeliveryDomainService;
+        this.unreadNotificationCache = unreadNotificationCache;
+        this.eventPublisher = eventPublisher;
     }
 
 
+    /**
+     * 发送通知：按渠道渲染后写入投递任务（发件箱），由各渠道的投递线程池异步投递
+     * 处于调用方事务中时随事务一起提交
+     */
+    @Transactional
     public void send(NotificationData notificationData){
-        sendToChannel(notificationData,ChannelType.IN_APP);
-        sendToChannel(notificationData,ChannelType.EMAIL);
+        openBroadcast(notificationData).send(notificationData.getRecipients());
     }
 
     /**
-     * 发送到指定渠道
+     * 打开一次广播：按渠道渲染一次标题与正文，接收者由调用方分批追加（notificationData 中的接收者被忽略）
      */
-    private <T extends NotificationData> void sendToChannel(T notificationData, ChannelType channelType) {
-        try {
-
-            // 1. 获取模板
-            NotificationTemplate<T> template = templateRegistry.getTemplate(notificationData.getContentType(), channelType);
-            if (template == null) return;
-
-            // 防御：模板数据类型与实际数据不匹配时直接跳过，避免 ClassCastException
-            if (template.getSupportedDataType() != null &&
-                !template.getSupportedDataType().isInstance(notificationData)) {
-                log.warn("通知模板数据类型不匹配: expected={}, actual={}, contentType={}, channel={}",
-                        template.getSupportedDataType().getSimpleName(),
-                        notificationData.getClass().getSimpleName(),
-                        notificationData.getContentType(),
-                        channelType);
-                return;
-            }
-
-            // 2. 渲染内容
-            String title = template.renderTitle(notificationData);
-
-            String content = template.renderContent(notificationData);
-
-            List<NotificationData.Recipient> recipients = notificationData.getRecipients();
-
-            ArrayList<NotificationEntity> notificationEntities = new ArrayList<>();
-
-            ArrayList<String> notificationEmails = new ArrayList<>();
-
-            for (NotificationData.Recipient recipient : recipients) {
-                // 3. 创建通知记录
-                NotificationEntity notification = new NotificationEntity();
-                notification.setRecipientId(recipient.getRecipientId());
-                notification.setType(notificationData.getType());
-                notification.setChannelType(channelType);
-                notification.setTitle(title);
-                notification.setContent(content);
-                notification.setStatus(NotificationStatus.SENT);
-                notificationEntities.add(notification);
-                if (recipient.getEmailNotificationEnabled()){
-                    if (Strings.hasText(recipient.getRecipientEmail())){
-                        notificationEmails.add(recipient.getRecipientEmail());
-                    }
-                }
+    public NotificationBroadcast openBroadcast(NotificationData notificationData) {
+        List<NotificationBroadcast.RenderedChannel> channels = new ArrayList<>();
+        for (ChannelType channelType : List.of(ChannelType.IN_APP, ChannelType.EMAIL)) {
+            NotificationBroadcast.RenderedChannel channel = render(notificationData, channelType);
+            if (channel != null) {
+                channels.add(channel);
             }
-            notificationRepository.insert(notificationEntities);
-
-
-            if (channelType == ChannelType.EMAIL){
-                sendNotificationToChannel(channelType, notificationEmails, title, content);
-            }
-
-        } catch (Exception e) {
-            log.error("发送通知异常: dataType={}, channel={}",
-                    notificationData.getClass().getSimpleName(), channelType, e);
         }
+        return new NotificationBroadcast(notificationDeliveryDomainService, notificationData.getType(), channels);
     }
 
     /**
-     * 发送通知到指定渠道
+     * 渲染指定渠道的标题与正文；无模板、模板不匹配或渠道未启用时返回 null
      */
-    private boolean sendNotificationToChannel(ChannelType channelType, List<String> address, String title, String content) {
-        switch (channelType) {
-            case IN_APP:
-                // 站内消息直接保存到数据库即算发送成功
-                return true;
-
-            case EMAIL:
-                // 使用真实的邮件服务发送
-                if (emailService.isEnabled()) {
-                    return emailService.sendEmail(address, title, content);
-                } else {
-                    log.warn("邮件服务未启用，跳过邮件发送: to={}", address);
-                    return false;
-                }
-
-            case SMS:
-                // 暂不支持短信
-                log.info("暂不支持短信发送: to={}", address);
-                return false;
-
-            default:
-                log.warn("不支持的通知渠道: {}", channelType);
-                return false;
+    private <T extends NotificationData> NotificationBroadcast.RenderedChannel render(T notificationData, ChannelType channelType) {
+        // 1. 获取模板
+        NotificationTemplate<T> template = templateRegistry.getTemplate(notificationData.getContentType(), channelType);
+        if (template == null) return null;
+
+        // 防御：模板数据类型与实际数据不匹配时直接跳过，避免 ClassCastException
+        if (template.getSupportedDataType() != null &&
+            !template.getSupportedDataType().isInstance(notificationData)) {
+            log.warn("通知模板数据类型不匹配: expected={}, actual={}, contentType={}, channel={}",
+                    template.getSupportedDataType().getSimpleName(),
+                    notificationData.getClass().getSimpleName(),
+                    notificationData.getContentType(),
+                    channelType);
+            return null;
+        }
+
+        if (channelType == ChannelType.EMAIL && !emailService.isEnabled()) {
+            log.warn("邮件服务未启用，跳过邮件通知: type={}", notificationData.getType());
+            return null;
         }
+
+        // 2. 渲染内容
+        return new NotificationBroadcast.RenderedChannel(channelType,
+                template.renderTitle(notificationData), template.renderContent(notificationData));
     }
-    
+
     /**
      * 获取用户站内通知列表
+     * 先分页查询收件箱，再按本页的正文ID批量加载标题与内容
      */
     public IPage<NotificationEntity> getUserNotifications(NotificationQuery query) {
-        Page<NotificationEntity> page = new Page<>(query.getPageNum(), query.getPageSize());
+        Page<NotificationInboxEntity> page = new Page<>(query.getPageNum(), query.getPageSize());
 
-        LambdaQueryWrapper<NotificationEntity> queryWrapper =
-            new LambdaQueryWrapper<NotificationEntity>()
-                .eq(NotificationEntity::getRecipientId, query.getUserId())
-                .eq(NotificationEntity::getChannelType, ChannelType.IN_APP)
-                .orderByDesc(NotificationEntity::getCreateTime);
+        LambdaQueryWrapper<NotificationInboxEntity> queryWrapper =
+            new LambdaQueryWrapper<NotificationInboxEntity>()
+                .eq(NotificationInboxEntity::getRecipientId, query.getUserId())
+                .eq(NotificationInboxEntity::getChannelType, ChannelType.IN_APP)
+                .orderByDesc(NotificationInboxEntity::getCreateTime);
 
-        return notificationRepository.selectPage(page, queryWrapper);
+        IPage<NotificationInboxEntity> inboxPage = notificationInboxRepository.selectPage(page, queryWrapper);
+
+        Set<String> messageIds = inboxPage.getRecords().stream()
+                .map(NotificationInboxEntity::getMessageId)
+                .collect(Collectors.toSet());
+        Map<String, NotificationMessageEntity> messageMap = messageIds.isEmpty()
+                ? Map.of()
+                : notificationMessageRepository.selectBatchIds(messageIds).stream()
+                    .collect(Collectors.toMap(NotificationMessageEntity::getId, m -> m));
+
+        return inboxPage.convert(row -> toNotification(row, messageMap.get(row.getMessageId())));
     }
     
     /**
      * 获取未读通知数量
      */
     public Long getUnreadCount(String userId) {
-        LambdaQueryWrapper<NotificationEntity> queryWrapper = 
-            new LambdaQueryWrapper<NotificationEntity>()
-                .eq(NotificationEntity::getRecipientId, userId)
-                .eq(NotificationEntity::getChannelType, ChannelType.IN_APP)
-                .eq(NotificationEntity::getStatus, NotificationStatus.SENT);
+        Long cached = unreadNotificationCache.getNotifications(userId);
+        if (cached != null) {
+            return cached;
+        }
+        Long count = countUnread(userId);
+        unreadNotificationCache.warmNotifications(userId, count);
+        return count;
+    }
+
+    /**
+     * 从收件箱统计未读数量（未读计数缓存未命中时回源）
+     */
+    public Long countUnread(String userId) {
+        LambdaQueryWrapper<NotificationInboxEntity> queryWrapper = 
+            new LambdaQueryWrapper<NotificationInboxEntity>()
+                .eq(NotificationInboxEntity::getRecipientId, userId)
+                .eq(NotificationInboxEntity::getChannelType, ChannelType.IN_APP)
+                .eq(NotificationInboxEntity::getStatus, NotificationStatus.SENT);
         
-        return notificationRepository.selectCount(queryWrapper);
+        return notificationInboxRepository.selectCount(queryWrapper);
     }
     
     /**
-     * 标记通知为已读
+     * 标记通知为已读（仅未读通知实际变更时扣减未读数）
      */
     public void markAsRead(String userId, String notificationId) {
-        NotificationEntity notification = notificationRepository.selectById(notificationId);
-        if (notification != null && notification.getRecipientId().equals(userId)) {
-            notification.markAsRead();
-            notificationRepository.updateById(notification);
+        LambdaUpdateWrapper<NotificationInboxEntity> updateWrapper =
+            new LambdaUpdateWrapper<NotificationInboxEntity>()
+                .eq(NotificationInboxEntity::getId, notificationId)
+                .eq(NotificationInboxEntity::getRecipientId, userId)
+                .eq(NotificationInboxEntity::getStatus, NotificationStatus.SENT)
+                .set(NotificationInboxEntity::getStatus, NotificationStatus.READ);
+
+        if (notificationInboxRepository.update(null, updateWrapper) > 0) {
+            unreadNotificationCache.decrementNotifications(userId);
+            eventPublisher.publishEvent(UnreadChangedEvent.delta(userId, UnreadChangedEvent.CHANNEL_NOTIFICATIONS, -1));
         }
     }
     
@@ -183,13 +189,31 @@ public class NotificationDomainService {
      * 标记所有通知为已读
      */
     public void markAllAsRead(String userId) {
-        LambdaUpdateWrapper<NotificationEntity> updateWrapper = 
-            new LambdaUpdateWrapper<NotificationEntity>()
-                .eq(NotificationEntity::getRecipientId, userId)
-                .eq(NotificationEntity::getChannelType, ChannelType.IN_APP)
-                .eq(NotificationEntity::getStatus, NotificationStatus.SENT)
-                .set(NotificationEntity::getStatus, NotificationStatus.READ);
-
-        notificationRepository.update(null, updateWrapper);
+        LambdaUpdateWrapper<NotificationInboxEntity> updateWrapper = 
+            new LambdaUpdateWrapper<NotificationInboxEntity>()
+                .eq(NotificationInboxEntity::getRecipientId, userId)
+                .eq(NotificationInboxEntity::getChannelType, ChannelType.IN_APP)
+                .eq(NotificationInboxEntity::getStatus, NotificationStatus.SENT)
+                .set(NotificationInboxEntity::getStatus, NotificationStatus.READ);
+
+        notificationInboxRepository.update(null, updateWrapper);
+        unreadNotificationCache.resetNotifications(userId);
+        eventPublisher.publishEvent(UnreadChangedEvent.count(userId, UnreadChangedEvent.CHANNEL_NOTIFICATIONS, 0));
+    }
+
+    private NotificationEntity toNotification(NotificationInboxEntity row, NotificationMessageEntity message) {
+        NotificationEntity notification = new NotificationEntity();
+        notification.setId(row.getId());
+        notification.setRecipientId(row.getRecipientId());
+        notification.setChannelType(row.getChannelType());
+        notification.setStatus(row.getStatus());
+        notification.setCreateTime(row.getCreateTime());
+        notification.setUpdateTime(row.getUpdateTime());
+        if (message != null) {
+            notification.setType(message.getType());
+            notification.setTitle(message.getTitle());
+            notification.setContent(message.getContent());
+        }
+        return notification;
     }
 }
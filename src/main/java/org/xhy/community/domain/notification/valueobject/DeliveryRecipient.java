@@ -0,0 +1,27 @@
+package org.xhy.community.domain.notification.valueobject;
+
+/**
+ * 投递任务中的接收者（序列化到发件箱）
+ */
+public class DeliveryRecipient {
+
+    /** 接收者用户ID */
+    private String recipientId;
+
+    /** 接收者邮箱（仅邮件渠道） */
+    private String email;
+
+    public DeliveryRecipient() {
+    }
+
+    public DeliveryRecipient(String recipientId, String email) {
+        this.recipientId = recipientId;
+        this.email = email;
+    }
+
+    public String getRecipientId() { return recipientId; }
+    public void setRecipientId(String recipientId) { this.recipientId = recipientId; }
+
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+}
@@ -0,0 +1,23 @@
+package org.xhy.community.domain.notification.valueobject;
+
+/**
+ * 通知投递任务状态枚举
+ */
+public enum DeliveryStatus {
+
+    PENDING("待投递"),
+    PROCESSING("投递中"),
+    SENDING("邮件发送中（结果未确认前不再重试）"),
+    SUCCEEDED("已投递"),
+    DEAD("投递失败（死信）");
+
+    private final String description;
+
+    DeliveryStatus(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -100,6 +100,18 @@ public class PostDomainService {
         );
     }
 
+    /**
+     * 查询自 since 起已发布文章的发布时间（仅查询 id、publish_time 两列，用于未读计数的频道集合重建）
+     */
+    public Map<String, LocalDateTime> getPublishTimesSince(LocalDateTime since) {
+        return postRepository.selectList(
+                new LambdaQueryWrapper<PostEntity>()
+                        .select(PostEntity::getId, PostEntity::getPublishTime)
+                        .eq(PostEntity::getStatus, PostStatus.PUBLISHED)
+                        .gt(PostEntity::getPublishTime, since)
+        ).stream().collect(Collectors.toMap(PostEntity::getId, PostEntity::getPublishTime));
+    }
+
     /**
      * 采纳评论（作者可对多条评论采纳）
      */
@@ -0,0 +1,16 @@
+package org.xhy.community.domain.read.port;
+
+import org.xhy.community.domain.common.valueobject.ReadChannel;
+
+import java.time.LocalDateTime;
+
+/**
+ * 频道 Last Seen 缓存端口（由基础设施层实现）
+ */
+public interface LastSeenCachePort {
+
+    /**
+     * 更新频道 Last Seen（单调不减）；处于事务中时延迟到提交后执行
+     */
+    void updateLastSeen(String userId, ReadChannel channel, LocalDateTime lastSeenAt);
+}
@@ -5,26 +5,39 @@ import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.xhy.community.domain.common.event.UnreadChangedEvent;
 import org.xhy.community.domain.common.valueobject.ReadChannel;
 import org.xhy.community.domain.read.entity.UserLastSeenEntity;
+import org.xhy.community.domain.read.port.LastSeenCachePort;
 import org.xhy.community.domain.read.repository.UserLastSeenRepository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
 
 /**
  * 领域服务：管理用户的频道 Last Seen 记录（列表级未读）。
  * - 幂等初始化与更新
  * - 防回拨（lastSeenAt 单调不减）
+ * - 更新后同步未读计数缓存中的 Last Seen
  */
 @Service
 public class ReadDomainService {
     private static final Logger log = LoggerFactory.getLogger(ReadDomainService.class);
 
     private final UserLastSeenRepository userLastSeenRepository;
+    private final LastSeenCachePort lastSeenCache;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public ReadDomainService(UserLastSeenRepository userLastSeenRepository) {
+    public ReadDomainService(UserLastSeenRepository userLastSeenRepository,
+                             LastSeenCachePort lastSeenCache,
+                             ApplicationEventPublisher eventPublisher) {
         this.userLastSeenRepository = userLastSeenRepository;
+        this.lastSeenCache = lastSeenCache;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -56,6 +69,28 @@ public class ReadDomainService {
         }
     }
 
+    /**
+     * 批量获取多个频道的 Last Seen（一次查询），不存在的频道以 now 初始化。
+     */
+    public Map<ReadChannel, LocalDateTime> getOrInitAll(String userId, Collection<ReadChannel> channels) {
+        Map<ReadChannel, LocalDateTime> result = new EnumMap<>(ReadChannel.class);
+        if (channels.isEmpty()) {
+            return result;
+        }
+        userLastSeenRepository.selectList(
+                new LambdaQueryWrapper<UserLastSeenEntity>()
+                        .eq(UserLastSeenEntity::getUserId, userId)
+                        .in(UserLastSeenEntity::getChannel, channels)
+        ).forEach(record -> result.put(record.getChannel(), record.getLastSeenAt()));
+
+        for (ReadChannel channel : channels) {
+            if (!result.containsKey(channel)) {
+                result.put(channel, getOrInit(userId, channel).getLastSeenAt());
+            }
+        }
+        return result;
+    }
+
     /**
      * 读取 Last Seen（可能为 null，表示未初始化）。
      */
@@ -85,6 +120,7 @@ public class ReadDomainService {
             UserLastSeenEntity init = new UserLastSeenEntity(userId, channel, serverNow);
             try {
                 userLastSeenRepository.insert(init);
+                onLastSeenUpdated(userId, channel, serverNow);
                 return;
             } catch (DataIntegrityViolationException e) {
                 // 并发插入冲突则降级为更新
@@ -100,6 +136,13 @@ public class ReadDomainService {
                         .or().le(UserLastSeenEntity::getLastSeenAt, serverNow))
                 .set(UserLastSeenEntity::getLastSeenAt, serverNow);
         userLastSeenRepository.update(null, update);
+        onLastSeenUpdated(userId, channel, serverNow);
+    }
+
+    // 同步未读计数缓存，并通知该用户的其他在线连接清零
+    private void onLastSeenUpdated(String userId, ReadChannel channel, LocalDateTime serverNow) {
+        lastSeenCache.updateLastSeen(userId, channel, serverNow);
+        eventPublisher.publishEvent(UnreadChangedEvent.count(userId, channel.name(), 0));
     }
 }
 
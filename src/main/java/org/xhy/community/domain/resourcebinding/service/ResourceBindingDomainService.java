@@ -7,12 +7,11 @@ import org.slf4j.LoggerFactory;
 import org.xhy.community.domain.resourcebinding.entity.ResourceBindingEntity;
 import org.xhy.community.domain.resourcebinding.repository.ResourceBindingRepository;
 import org.xhy.community.domain.resourcebinding.valueobject.ResourceTargetType;
-import org.xhy.community.infrastructure.markdown.MarkdownParser;
 import org.xhy.community.infrastructure.markdown.model.MarkdownNode;
 import org.xhy.community.infrastructure.markdown.model.NodeType;
 
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -20,13 +19,10 @@ import java.util.Set;
 public class ResourceBindingDomainService {
 
     private final ResourceBindingRepository resourceBindingRepository;
-    private final MarkdownParser markdownParser;
     private static final Logger log = LoggerFactory.getLogger(ResourceBindingDomainService.class);
 
-    public ResourceBindingDomainService(ResourceBindingRepository resourceBindingRepository,
-                                        MarkdownParser markdownParser) {
+    public ResourceBindingDomainService(ResourceBindingRepository resourceBindingRepository) {
         this.resourceBindingRepository = resourceBindingRepository;
-        this.markdownParser = markdownParser;
     }
 
     /**
@@ -51,26 +47,17 @@ public class ResourceBindingDomainService {
     }
 
     /**
-     * 从 Markdown 文本解析资源 ID，并同步章节绑定
-     * - 解析只做技术结构（由 MarkdownParser 完成），业务语义解析（提取资源ID）在本 Domain 内完成
+     * 业务规则：遍历 Node 树，提取 /api/public/resource/{id}/... 中的 id（按出现顺序）
+     * 无状态；Markdown 解析由调用方完成（章节内容分析在一次解析中同时得到阅读时长与资源绑定）
      */
-    public void syncBindingsForChapterFromMarkdown(String chapterId, String markdownContent) {
-        MarkdownNode root = markdownParser.parse(markdownContent);
-        Set<String> ids = extractResourceIds(root);
-        syncBindingsForChapter(chapterId, ids);
-    }
-
-    /**
-     * 业务规则：遍历 Node 树，提取 /api/public/resource/{id}/... 中的 id
-     */
-    public Set<String> extractResourceIds(MarkdownNode root) {
-        Set<String> ids = new HashSet<>();
+    public static Set<String> extractResourceIds(MarkdownNode root) {
+        Set<String> ids = new LinkedHashSet<>();
         if (root == null) return ids;
         visit(root, ids);
         return ids;
     }
 
-    private void visit(MarkdownNode node, Set<String> out) {
+    private static void visit(MarkdownNode node, Set<String> out) {
         if (node.getType() == NodeType.IMAGE) {
             String src = node.getAttributes().get("src");
             String id = extractIdFromUrl(src);
@@ -90,7 +77,7 @@ public class ResourceBindingDomainService {
         }
     }
 
-    private String extractIdFromUrl(String url) {
+    private static String extractIdFromUrl(String url) {
         if (url == null || url.isEmpty()) return null;
         int idx = url.indexOf("/api/public/resource/");
         if (idx < 0) return null;
@@ -0,0 +1,44 @@
+package org.xhy.community.domain.session.port;
+
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * 已吊销 token 的进程内预判过滤器端口（由基础设施层实现）
+ * 只允许假阳性：判定“一定未吊销”时可跳过 Redis 查询，判定“可能已吊销”时必须回源确认。
+ */
+public interface RevocationFilterPort {
+
+    /**
+     * 判断 token 是否可能已被吊销
+     *
+     * @param fingerprint token 指纹
+     * @param userId      token 所属用户；无法解析时为 null
+     * @return false 表示一定未吊销，可跳过 Redis 查询
+     */
+    boolean mightBeRevoked(String fingerprint, String userId);
+
+    /**
+     * 登记单个 token 指纹的吊销
+     */
+    void addToken(String fingerprint);
+
+    /**
+     * 登记用户级整体吊销
+     */
+    void addUser(String userId);
+
+    /**
+     * 以当前仍有效的吊销记录全量重建过滤器
+     */
+    void rebuild(Supplier<Members> loader);
+
+    /**
+     * 重建所需的吊销成员
+     *
+     * @param fingerprints 仍有效的 token 级吊销指纹
+     * @param userIds      仍有效的用户级整体吊销
+     */
+    record Members(Collection<String> fingerprints, Collection<String> userIds) {
+    }
+}
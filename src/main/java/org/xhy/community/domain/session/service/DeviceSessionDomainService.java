@@ -1,15 +1,16 @@
 package org.xhy.community.domain.session.service;
 
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Service;
 import org.xhy.community.domain.session.valueobject.ActiveIpInfo;
 import org.xhy.community.domain.session.valueobject.EvictPolicy;
-import org.xhy.community.infrastructure.lock.DistributedLock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.time.Duration;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
@@ -23,28 +24,131 @@ import java.util.Set;
  * 说明：
  * - 使用 Redis ZSET 维护当前活跃 IP（score=lastSeen 毫秒），用于并发与 LRU；
  * - 使用 Redis ZSET 维护滑窗历史 IP（score=最近时间），用于封禁判定；
- * - 通过分布式锁串行化同一用户的变更，避免竞态绕过配额。
+ * - 登录准入（清理过期、滑窗封禁、配额判定与 LRU 淘汰）整体在一个 Lua 脚本中执行：
+ *   一次往返、服务端原子执行，同一用户的并发登录天然串行，无需分布式锁；
+ * - 鉴权时的活跃判定为一次 pipeline（封禁标记 + 活跃分数）。
  */
 @Service
 public class DeviceSessionDomainService {
     private static final Logger log = LoggerFactory.getLogger(DeviceSessionDomainService.class);
-    private final DistributedLock lock;
     private final StringRedisTemplate redis;
     private static final String KEY_USER_BAN_SET = "session:user:ban:set"; // ZSET(userId -> expireAtMillis)
+    private static final long PERMANENT_BAN_MS = 36500L * 24 * 3600 * 1000; // 永久封禁在集合中的过期时间（约100年）
 
-    public DeviceSessionDomainService(DistributedLock lock, StringRedisTemplate redis) {
-        this.lock = lock;
+    // 脚本返回码
+    private static final long ADMIT_OK = 1;
+    private static final long ADMIT_BANNED = 0;
+    private static final long ADMIT_BAN_TRIGGERED = -1;
+    private static final long ADMIT_DENIED = -2;
+
+    /** 准入脚本返回 {结果码, 历史 IP 数}，Redis 将整数数组反序列化为 List<Long> */
+    @SuppressWarnings("unchecked")
+    private static final Class<List<Long>> LONG_LIST = (Class<List<Long>>) (Class<?>) List.class;
+
+    /**
+     * 滑窗历史维护与封禁判定（两个准入脚本共用）
+     * KEYS[2]=历史 IP，KEYS[3]=封禁标记，KEYS[4]=封禁集合；返回历史 IP 数，触发封禁时返回负数
+     */
+    private static final String HISTORY_AND_BAN =
+            "local function track(userId, ip, now, windowMs, threshold, banTtl) " +
+            "redis.call('zremrangebyscore', KEYS[2], '-inf', now - windowMs) " +
+            "redis.call('zadd', KEYS[2], now, ip) " +
+            "local hist = redis.call('zcard', KEYS[2]) " +
+            "if hist > threshold then " +
+            "if banTtl > 0 then " +
+            "redis.call('set', KEYS[3], '1', 'PX', banTtl) " +
+            "redis.call('zadd', KEYS[4], now + banTtl, userId) " +
+            "else " +
+            "redis.call('set', KEYS[3], '1') " +
+            "redis.call('zadd', KEYS[4], now + " + PERMANENT_BAN_MS + ", userId) end " +
+            "return -hist end " +
+            "return hist end ";
+
+    /**
+     * 按 IP 准入
+     * KEYS: 1=活跃 IP，2=历史 IP，3=封禁标记，4=封禁集合
+     * ARGV: 1=userId，2=ip，3=now，4=maxActiveIps，5=是否拒绝新增（1/0），6=sessionTtlMs，
+     *       7=historyWindowMs，8=banThreshold，9=banTtlMs
+     * 返回 {结果码, 历史 IP 数}
+     */
+    private static final String ADMIT_BY_IP_SCRIPT = HISTORY_AND_BAN +
+            "if redis.call('exists', KEYS[3]) == 1 then return {0, 0} end " +
+            "local now = tonumber(ARGV[3]) " +
+            "redis.call('zremrangebyscore', KEYS[1], '-inf', now - tonumber(ARGV[6])) " +
+            "local hist = track(ARGV[1], ARGV[2], now, tonumber(ARGV[7]), tonumber(ARGV[8]), tonumber(ARGV[9])) " +
+            "if hist < 0 then return {-1, -hist} end " +
+            "if redis.call('zscore', KEYS[1], ARGV[2]) then " +
+            "redis.call('zadd', KEYS[1], now, ARGV[2]) return {1, hist} end " +
+            "if redis.call('zcard', KEYS[1]) >= tonumber(ARGV[4]) then " +
+            "if ARGV[5] == '1' then return {-2, hist} end " +
+            "local oldest = redis.call('zrange', KEYS[1], 0, 0) " +
+            "if oldest[1] then redis.call('zrem', KEYS[1], oldest[1]) end end " +
+            "redis.call('zadd', KEYS[1], now, ARGV[2]) " +
+            "return {1, hist}";
+
+    /**
+     * 按设备准入
+     * KEYS: 1=活跃设备，2=历史 IP，3=封禁标记，4=封禁集合，5=当前设备的活跃 IP
+     * ARGV: 1=userId，2=deviceId，3=ip，4=now，5=maxActiveDevices，6=maxIpsPerDevice，7=是否拒绝新增（1/0），
+     *       8=sessionTtlMs，9=historyWindowMs，10=banThreshold，11=banTtlMs，12=设备 IP 集合 Key 前缀
+     * 返回 {结果码, 历史 IP 数}
+     */
+    private static final String ADMIT_BY_DEVICE_SCRIPT = HISTORY_AND_BAN +
+            "if redis.call('exists', KEYS[3]) == 1 then return {0, 0} end " +
+            "local now = tonumber(ARGV[4]) " +
+            "local ttl = tonumber(ARGV[8]) " +
+            "redis.call('zremrangebyscore', KEYS[1], '-inf', now - ttl) " +
+            "local hist = track(ARGV[1], ARGV[3], now, tonumber(ARGV[9]), tonumber(ARGV[10]), tonumber(ARGV[11])) " +
+            "if hist < 0 then return {-1, -hist} end " +
+            "if not redis.call('zscore', KEYS[1], ARGV[2]) " +
+            "and redis.call('zcard', KEYS[1]) >= tonumber(ARGV[5]) then " +
+            "if ARGV[7] == '1' then return {-2, hist} end " +
+            "local oldest = redis.call('zrange', KEYS[1], 0, 0) " +
+            "if oldest[1] then " +
+            "redis.call('zrem', KEYS[1], oldest[1]) " +
+            "redis.call('del', ARGV[12] .. oldest[1] .. ':ips') end end " +
+            "redis.call('zadd', KEYS[1], now, ARGV[2]) " +
+            "redis.call('zremrangebyscore', KEYS[5], '-inf', now - ttl) " +
+            "if not redis.call('zscore', KEYS[5], ARGV[3]) " +
+            "and redis.call('zcard', KEYS[5]) >= tonumber(ARGV[6]) then " +
+            "if ARGV[7] == '1' then return {-2, hist} end " +
+            "local oldestIp = redis.call('zrange', KEYS[5], 0, 0) " +
+            "if oldestIp[1] then redis.call('zrem', KEYS[5], oldestIp[1]) end end " +
+            "redis.call('zadd', KEYS[5], now, ARGV[3]) " +
+            "return {1, hist}";
+
+    /**
+     * 后台清理：KEYS 同按 IP 准入的前三个；ARGV: 1=now，2=sessionTtlMs，3=historyWindowMs，4=banThreshold，5=banTtlMs
+     */
+    private static final String CLEANUP_SCRIPT =
+            "if redis.call('exists', KEYS[3]) == 1 then return 0 end " +
+            "local now = tonumber(ARGV[1]) " +
+            "redis.call('zremrangebyscore', KEYS[1], '-inf', now - tonumber(ARGV[2])) " +
+            "redis.call('zremrangebyscore', KEYS[2], '-inf', now - tonumber(ARGV[3])) " +
+            "if redis.call('zcard', KEYS[2]) > tonumber(ARGV[4]) then " +
+            "if tonumber(ARGV[5]) > 0 then redis.call('set', KEYS[3], '1', 'PX', ARGV[5]) " +
+            "else redis.call('set', KEYS[3], '1') end return 1 end " +
+            "return 0";
+
+    private final DefaultRedisScript<List<Long>> admitByIpLua;
+    private final DefaultRedisScript<List<Long>> admitByDeviceLua;
+    private final DefaultRedisScript<Long> cleanupLua;
+
+    public DeviceSessionDomainService(StringRedisTemplate redis) {
         this.redis = redis;
+        this.admitByIpLua = new DefaultRedisScript<>(ADMIT_BY_IP_SCRIPT, LONG_LIST);
+        this.admitByDeviceLua = new DefaultRedisScript<>(ADMIT_BY_DEVICE_SCRIPT, LONG_LIST);
+        this.cleanupLua = new DefaultRedisScript<>(CLEANUP_SCRIPT, Long.class);
     }
 
     private String keyActive(String userId) { return "u:" + userId + ":active_ips"; }
     private String keyHist(String userId) { return "u:" + userId + ":ip_history"; }
     private String keyBan(String userId) { return "u:" + userId + ":ban"; }
-    private String keyLock(String userId) { return "lock:user:" + userId + ":ip"; }
 
     // =============== 基于设备的并发控制（新增） ===============
     private String keyDevices(String userId) { return "u:" + userId + ":devices"; }
-    private String keyDeviceIps(String userId, String deviceId) { return "u:" + userId + ":d:" + deviceId + ":ips"; }
+    private String keyDeviceIpsPrefix(String userId) { return "u:" + userId + ":d:"; }
+    private String keyDeviceIps(String userId, String deviceId) { return keyDeviceIpsPrefix(userId) + deviceId + ":ips"; }
 
     /**
      * 登录/上线：按策略新增或续活 IP，必要时执行 LRU 淘汰或封禁。
@@ -58,70 +162,12 @@ public class DeviceSessionDomainService {
         Objects.requireNonNull(ip, "ip");
         Objects.requireNonNull(policy, "policy");
 
-        return lock.executeWithLock(keyLock(userId), Duration.ofMillis(200), Duration.ofSeconds(3), () -> {
-            long now = System.currentTimeMillis();
-            String activeKey = keyActive(userId);
-            String histKey = keyHist(userId);
-            String banKey = keyBan(userId);
-
-            // 0) 封禁检查
-            if (Boolean.TRUE.equals(redis.hasKey(banKey))) {
-                log.warn("【会话】用户已处于封禁窗口：userId={}", userId);
-                return false;
-            }
-
-            // 1) 清理过期活跃 IP
-            redis.opsForZSet().removeRangeByScore(activeKey, Double.NEGATIVE_INFINITY, now - sessionTtlMs);
-
-            // 2) 历史滑窗维护与封禁判定
-            redis.opsForZSet().removeRangeByScore(histKey, Double.NEGATIVE_INFINITY, now - historyWindowMs);
-            redis.opsForZSet().add(histKey, ip, now);
-            Long histCount = redis.opsForZSet().zCard(histKey);
-            if (histCount != null && histCount > banThreshold) {
-                if (banTtlMs > 0) {
-                    redis.opsForValue().set(banKey, "1", Duration.ofMillis(banTtlMs));
-                    long expireAt = now + banTtlMs;
-                    redis.opsForZSet().add(KEY_USER_BAN_SET, userId, expireAt);
-                } else {
-                    // 永久封禁：key 无过期；为了可枚举，这里将过期时间设置为远未来
-                    redis.opsForValue().set(banKey, "1");
-                    long expireAt = now + Duration.ofDays(36500).toMillis(); // 约100年
-                    redis.opsForZSet().add(KEY_USER_BAN_SET, userId, expireAt);
-                }
-                log.warn("【会话】触发封禁：userId={}, recentIpCount={}, threshold={}", userId, histCount, banThreshold);
-                return false;
-            }
-
-            // 3) 并发活跃 IP 控制
-            Double score = redis.opsForZSet().score(activeKey, ip);
-            if (score != null) {
-                redis.opsForZSet().add(activeKey, ip, now); // 续活
-                return true;
-            }
-
-            Long activeCount = redis.opsForZSet().zCard(activeKey);
-            long count = activeCount == null ? 0 : activeCount;
-            if (count < maxActiveIps) {
-                redis.opsForZSet().add(activeKey, ip, now);
-                return true;
-            }
-
-            if (policy == EvictPolicy.DENY_NEW) {
-                log.warn("【会话】拒绝新增活跃IP：userId={}, maxActiveIps={}", userId, maxActiveIps);
-                return false;
-            }
-
-            // 4) 淘汰最久未活跃 IP，后加入新 IP
-            Set<ZSetOperations.TypedTuple<String>> oldest = redis.opsForZSet().rangeWithScores(activeKey, 0, 0);
-            if (oldest != null && !oldest.isEmpty()) {
-                String victim = oldest.iterator().next().getValue();
-                if (victim != null) {
-                    redis.opsForZSet().remove(activeKey, victim);
-                }
-            }
-            redis.opsForZSet().add(activeKey, ip, now);
-            return true;
-        });
+        List<Long> result = redis.execute(admitByIpLua,
+                List.of(keyActive(userId), keyHist(userId), keyBan(userId), KEY_USER_BAN_SET),
+                userId, ip, String.valueOf(System.currentTimeMillis()), String.valueOf(maxActiveIps),
+                policy == EvictPolicy.DENY_NEW ? "1" : "0", String.valueOf(sessionTtlMs),
+                String.valueOf(historyWindowMs), String.valueOf(banThreshold), String.valueOf(banTtlMs));
+        return admitted(result, userId, banThreshold, "活跃IP", maxActiveIps);
     }
 
 
@@ -141,131 +187,76 @@ public class DeviceSessionDomainService {
         Objects.requireNonNull(ip, "ip");
         Objects.requireNonNull(policy, "policy");
 
-        return lock.executeWithLock(keyLock(userId), Duration.ofMillis(200), Duration.ofSeconds(3), () -> {
-            long now = System.currentTimeMillis();
-            String banKey = keyBan(userId);
-            if (Boolean.TRUE.equals(redis.hasKey(banKey))) {
-                return false;
-            }
-
-            String devicesKey = keyDevices(userId);
-            // 先清理过期设备（根据设备 lastSeen）
-            redis.opsForZSet().removeRangeByScore(devicesKey, Double.NEGATIVE_INFINITY, now - sessionTtlMs);
-
-            // 历史滑窗（沿用 IP 维度）
-            String histKey = keyHist(userId);
-            redis.opsForZSet().removeRangeByScore(histKey, Double.NEGATIVE_INFINITY, now - historyWindowMs);
-            redis.opsForZSet().add(histKey, ip, now);
-            Long histCount = redis.opsForZSet().zCard(histKey);
-            if (histCount != null && histCount > banThreshold) {
-                if (banTtlMs > 0) {
-                    redis.opsForValue().set(banKey, "1", Duration.ofMillis(banTtlMs));
-                    long expireAt = now + banTtlMs;
-                    redis.opsForZSet().add(KEY_USER_BAN_SET, userId, expireAt);
-                } else {
-                    // 永久封禁：key 无过期；为了可枚举，这里将过期时间设置为远未来
-                    redis.opsForValue().set(banKey, "1");
-                    long expireAt = now + Duration.ofDays(36500).toMillis(); // 约100年
-                    redis.opsForZSet().add(KEY_USER_BAN_SET, userId, expireAt);
-                }
-                log.warn("【会话】触发封禁：userId={}, recentIpCount={}, threshold={}", userId, histCount, banThreshold);
-                return false;
-            }
-
-            // 设备是否已存在
-            Double devScore = redis.opsForZSet().score(devicesKey, deviceId);
-            if (devScore == null) {
-                Long devCount = redis.opsForZSet().zCard(devicesKey);
-                long count = devCount == null ? 0 : devCount;
-                if (count >= maxActiveDevices) {
-                    if (policy == EvictPolicy.DENY_NEW) {
-                        log.warn("【会话】拒绝新增设备：userId={}, maxActiveDevices={}", userId, maxActiveDevices);
-                        return false;
-                    }
-                    // 淘汰最久未活跃设备
-                    Set<ZSetOperations.TypedTuple<String>> oldest = redis.opsForZSet().rangeWithScores(devicesKey, 0, 0);
-                    if (oldest != null && !oldest.isEmpty()) {
-                        String victimDevice = oldest.iterator().next().getValue();
-                        if (victimDevice != null) {
-                            redis.opsForZSet().remove(devicesKey, victimDevice);
-                            // 清理该设备的 IP 集
-                            redis.delete(keyDeviceIps(userId, victimDevice));
-                        }
-                    }
-                }
-                // 加入新设备
-                redis.opsForZSet().add(devicesKey, deviceId, now);
-            } else {
-                // 续活设备
-                redis.opsForZSet().add(devicesKey, deviceId, now);
-            }
-
-            // 在设备下维护活跃 IP 集合
-            String devIpsKey = keyDeviceIps(userId, deviceId);
-            // 清理该设备下过期 IP
-            redis.opsForZSet().removeRangeByScore(devIpsKey, Double.NEGATIVE_INFINITY, now - sessionTtlMs);
-
-            Double ipScore = redis.opsForZSet().score(devIpsKey, ip);
-            if (ipScore != null) {
-                // 同设备同 IP 续活
-                redis.opsForZSet().add(devIpsKey, ip, now);
-                return true;
-            }
-
-            Long ipCount = redis.opsForZSet().zCard(devIpsKey);
-            long ic = ipCount == null ? 0 : ipCount;
-            if (ic < maxIpsPerDevice) {
-                redis.opsForZSet().add(devIpsKey, ip, now);
-                return true;
-            }
+        List<Long> result = redis.execute(admitByDeviceLua,
+                List.of(keyDevices(userId), keyHist(userId), keyBan(userId), KEY_USER_BAN_SET,
+                        keyDeviceIps(userId, deviceId)),
+                userId, deviceId, ip, String.valueOf(System.currentTimeMillis()),
+                String.valueOf(maxActiveDevices), String.valueOf(maxIpsPerDevice),
+                policy == EvictPolicy.DENY_NEW ? "1" : "0", String.valueOf(sessionTtlMs),
+                String.valueOf(historyWindowMs), String.valueOf(banThreshold), String.valueOf(banTtlMs),
+                keyDeviceIpsPrefix(userId));
+        return admitted(result, userId, banThreshold, "设备/设备IP", maxActiveDevices);
+    }
 
-            if (policy == EvictPolicy.DENY_NEW) {
-                return false;
-            }
-            // 淘汰该设备下最久未活跃 IP
-            Set<ZSetOperations.TypedTuple<String>> oldestIp = redis.opsForZSet().rangeWithScores(devIpsKey, 0, 0);
-            if (oldestIp != null && !oldestIp.isEmpty()) {
-                String victimIp = oldestIp.iterator().next().getValue();
-                if (victimIp != null) {
-                    redis.opsForZSet().remove(devIpsKey, victimIp);
-                }
-            }
-            // 接纳当前 IP
-            redis.opsForZSet().add(devIpsKey, ip, now);
+    /**
+     * 解析准入脚本结果并记录拒绝原因
+     */
+    private boolean admitted(List<Long> result, String userId, int banThreshold, String dimension, int limit) {
+        long code = result != null && !result.isEmpty() && result.get(0) != null ? result.get(0) : ADMIT_DENIED;
+        if (code == ADMIT_OK) {
             return true;
-        });
+        }
+        if (code == ADMIT_BANNED) {
+            log.warn("【会话】用户已处于封禁窗口：userId={}", userId);
+        } else if (code == ADMIT_BAN_TRIGGERED) {
+            log.warn("【会话】触发封禁：userId={}, recentIpCount={}, threshold={}", userId, result.get(1), banThreshold);
+        } else {
+            log.warn("【会话】拒绝新增{}：userId={}, limit={}", dimension, userId, limit);
+        }
+        return false;
     }
 
     /**
      * 判断某设备是否处于活跃状态（不校验 IP）。
      */
     public boolean isDeviceActive(String userId, String deviceId, long sessionTtlMs) {
-        if (Boolean.TRUE.equals(redis.hasKey(keyBan(userId)))) {
-            return false;
-        }
-        String devicesKey = keyDevices(userId);
-        Double score = redis.opsForZSet().score(devicesKey, deviceId);
+        Double score = readActiveScore(userId, keyDevices(userId), deviceId);
         if (score == null) {
             return false;
         }
-        long now = System.currentTimeMillis();
-        if (score < now - sessionTtlMs) {
-            redis.opsForZSet().remove(devicesKey, deviceId);
-            // 同时清理该设备下 IP 集
+        if (score < System.currentTimeMillis() - sessionTtlMs) {
+            // 懒清理：同时清理该设备下 IP 集
+            redis.opsForZSet().remove(keyDevices(userId), deviceId);
             redis.delete(keyDeviceIps(userId, deviceId));
             return false;
         }
         return true;
     }
 
+    /**
+     * 一次 pipeline 读取封禁标记与活跃分数；已封禁或不在活跃集合时返回 null
+     */
+    private Double readActiveScore(String userId, String activeKey, String member) {
+        byte[] banKey = keyBan(userId).getBytes(StandardCharsets.UTF_8);
+        byte[] key = activeKey.getBytes(StandardCharsets.UTF_8);
+        byte[] value = member.getBytes(StandardCharsets.UTF_8);
+        List<Object> replies = redis.executePipelined((RedisCallback<Object>) connection -> {
+            connection.keyCommands().exists(banKey);
+            connection.zSetCommands().zScore(key, value);
+            return null;
+        });
+        if (Boolean.TRUE.equals(replies.get(0))) {
+            return null;
+        }
+        return replies.get(1) instanceof Number n ? n.doubleValue() : null;
+    }
+
     /**
      * 从活跃设备集合移除一个设备（管理员或应用层主动下线某设备）。
      */
     public void removeActiveDevice(String userId, String deviceId) {
-        lock.runWithLock(keyLock(userId), Duration.ofMillis(200), Duration.ofSeconds(3), () -> {
-            redis.opsForZSet().remove(keyDevices(userId), deviceId);
-            redis.delete(keyDeviceIps(userId, deviceId));
-        });
+        redis.opsForZSet().remove(keyDevices(userId), deviceId);
+        redis.delete(keyDeviceIps(userId, deviceId));
     }
 
 
@@ -277,21 +268,14 @@ public class DeviceSessionDomainService {
      * @param sessionTtlMs 会话TTL（毫秒）
      */
     public boolean isIpActive(String userId, String ip, long sessionTtlMs) {
-        if (Boolean.TRUE.equals(redis.hasKey(keyBan(userId)))) {
-            return false;
-        }
-
         String activeKey = keyActive(userId);
-        Double score = redis.opsForZSet().score(activeKey, ip);
-
+        Double score = readActiveScore(userId, activeKey, ip);
         if (score == null) {
             return false;
         }
 
         // 懒清理：检查该IP是否已过期（按配置TTL）
-        long now = System.currentTimeMillis();
-        if (score < now - sessionTtlMs) {
-            // IP已过期，异步移除（避免阻塞当前请求）
+        if (score < System.currentTimeMillis() - sessionTtlMs) {
             redis.opsForZSet().remove(activeKey, ip);
             return false;
         }
@@ -306,40 +290,16 @@ public class DeviceSessionDomainService {
     public void cleanupExpiredData(String userId,
                                   long sessionTtlMs, long historyWindowMs,
                                   int banThreshold, long banTtlMs) {
-        lock.runWithLock(keyLock(userId), Duration.ofMillis(1000), Duration.ofSeconds(3), () -> {
-            long now = System.currentTimeMillis();
-            String activeKey = keyActive(userId);
-            String histKey = keyHist(userId);
-            String banKey = keyBan(userId);
-
-            if (Boolean.TRUE.equals(redis.hasKey(banKey))) {
-                return; // 已封禁，跳过清理
-            }
-
-            // 清理过期的活跃IP
-            redis.opsForZSet().removeRangeByScore(activeKey, Double.NEGATIVE_INFINITY, now - sessionTtlMs);
-
-            // 清理过期的历史IP
-            redis.opsForZSet().removeRangeByScore(histKey, Double.NEGATIVE_INFINITY, now - historyWindowMs);
-
-            // 检查历史IP数量，进行异常检测
-            Long histCount = redis.opsForZSet().zCard(histKey);
-            if (histCount != null && histCount > banThreshold) {
-                if (banTtlMs > 0) {
-                    redis.opsForValue().set(banKey, "1", Duration.ofMillis(banTtlMs));
-                } else {
-                    redis.opsForValue().set(banKey, "1");
-                }
-            }
-        });
+        redis.execute(cleanupLua, List.of(keyActive(userId), keyHist(userId), keyBan(userId)),
+                String.valueOf(System.currentTimeMillis()), String.valueOf(sessionTtlMs),
+                String.valueOf(historyWindowMs), String.valueOf(banThreshold), String.valueOf(banTtlMs));
     }
 
     /**
      * 下线：从活跃集合移除某个 IP。
      */
     public void removeActiveIp(String userId, String ip) {
-        lock.runWithLock(keyLock(userId), Duration.ofMillis(200), Duration.ofSeconds(3), () ->
-                redis.opsForZSet().remove(keyActive(userId), ip));
+        redis.opsForZSet().remove(keyActive(userId), ip);
     }
 
     /**
@@ -430,8 +390,7 @@ public class DeviceSessionDomainService {
      * 清空用户所有活跃IP（管理员操作）。
      */
     public void clearAllActiveIps(String userId) {
-        lock.runWithLock(keyLock(userId), Duration.ofMillis(200), Duration.ofSeconds(3), () ->
-                redis.delete(keyActive(userId)));
+        redis.delete(keyActive(userId));
     }
 
     /**
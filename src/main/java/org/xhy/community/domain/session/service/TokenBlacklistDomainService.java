@@ -2,33 +2,74 @@ package org.xhy.community.domain.session.service;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Service;
+import org.xhy.community.domain.session.port.RevocationFilterPort;
+import org.xhy.community.infrastructure.util.TokenFingerprintUtil;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
- * Token黑名单领域服务
- * 负责管理被下线用户的JWT token黑名单，防止被下线的token继续访问系统
- * 使用Redis Set存储黑名单token，支持自动过期清理
+ * Token黑名单（吊销）领域服务
+ * 负责管理被下线用户的JWT吊销记录，防止被下线的token继续访问系统
+ *
+ * 存储结构（不保存完整 token）：
+ * - token 级吊销：STRING token:revoked:{fingerprint}，TTL = token 剩余有效期
+ * - token 吊销索引：ZSET token:revoked:index，member = fingerprint，score = 过期时间，用于计数与过滤器重建
+ * - 用户级整体吊销：STRING token:revoked-before:{userId} = 吊销时间（毫秒，向下取整到秒），签发时间早于该时间的 token
+ *   全部失效，批量下线无需逐个 token 写入；索引 ZSET token:revoked-before:index（score = 过期时间）。
+ *   JWT 的 iat 只有秒级精度，取整后吊销同一秒内重新登录签发的 token 不会被误判为已吊销；
+ *   同一秒内、吊销前签发的已知 token 另按指纹逐个吊销
+ * - 用户维度：SET user:blacklist:{userId}（被吊销的指纹，用于展示数量）与 ZSET blacklist:users（拉黑时间）
+ * 校验前先经过进程内布隆过滤器，绝大多数未吊销的 token 不访问 Redis。
  */
 @Service
 public class TokenBlacklistDomainService {
 
     private static final Logger log = LoggerFactory.getLogger(TokenBlacklistDomainService.class);
     private final StringRedisTemplate redis;
-
-    private static final String BLACKLIST_KEY_PREFIX = "token:blacklist:";
+    private final RevocationFilterPort revocationFilter;
+
+    private static final String REVOKED_KEY_PREFIX = "token:revoked:";
+    private static final String REVOKED_INDEX_KEY = "token:revoked:index";
+    private static final String REVOKED_BEFORE_KEY_PREFIX = "token:revoked-before:";
+    private static final String REVOKED_BEFORE_INDEX_KEY = "token:revoked-before:index";
+    // 旧格式：以完整 token 为 key，升级前写入的记录最长保留到 token 过期，过渡期内仍需校验
+    private static final String LEGACY_BLACKLIST_KEY_PREFIX = "token:blacklist:";
     private static final String USER_BLACKLIST_KEY_PREFIX = "user:blacklist:";
     private static final String BLACKLIST_USERS_KEY = "blacklist:users";
     private static final Duration DEFAULT_BLACKLIST_TTL = Duration.ofDays(1); // 黑名单token默认保留1天
+    private static final int BATCH_SIZE = 500;
+
+    /**
+     * KEYS: 1=token 级吊销，2=用户级吊销，3=旧格式 key
+     * ARGV: 1=token 签发时间（毫秒，未知时为 -1）
+     * 吊销时间按秒取整后比较，兼容取整前写入的记录
+     */
+    private static final String CHECK_SCRIPT =
+            "if redis.call('exists', KEYS[1]) == 1 then return 1 end " +
+            "local before = redis.call('get', KEYS[2]) " +
+            "local iat = tonumber(ARGV[1]) " +
+            "if before and iat >= 0 and iat < math.floor(tonumber(before) / 1000) * 1000 then return 1 end " +
+            "return redis.call('exists', KEYS[3])";
 
-    public TokenBlacklistDomainService(StringRedisTemplate redis) {
+    private final DefaultRedisScript<Long> checkLua = new DefaultRedisScript<>(CHECK_SCRIPT, Long.class);
+
+    public TokenBlacklistDomainService(StringRedisTemplate redis, RevocationFilterPort revocationFilter) {
         this.redis = redis;
+        this.revocationFilter = revocationFilter;
     }
 
     /**
@@ -41,12 +82,7 @@ public class TokenBlacklistDomainService {
         if (token == null || token.trim().isEmpty()) {
             return;
         }
-
-        String key = BLACKLIST_KEY_PREFIX + token;
-        Duration actualTtl = ttl != null ? ttl : DEFAULT_BLACKLIST_TTL;
-
-        // 设置token为黑名单状态，并设置过期时间
-        redis.opsForValue().set(key, "blacklisted", actualTtl);
+        addToBlacklist(Set.of(token), ttl);
     }
 
     /**
@@ -65,33 +101,40 @@ public class TokenBlacklistDomainService {
      * @param ttl 黑名单过期时间，如果为null则使用默认值
      */
     public void addToBlacklist(Set<String> tokens, Duration ttl) {
-        if (tokens == null || tokens.isEmpty()) {
-            return;
-        }
-
-        Duration actualTtl = ttl != null ? ttl : DEFAULT_BLACKLIST_TTL;
-
-        for (String token : tokens) {
-            if (token != null && !token.trim().isEmpty()) {
-                String key = BLACKLIST_KEY_PREFIX + token;
-                redis.opsForValue().set(key, "blacklisted", actualTtl);
-            }
-        }
+        revoke(fingerprints(tokens), ttl != null ? ttl : DEFAULT_BLACKLIST_TTL);
     }
 
     /**
-     * 检查token是否在黑名单中
+     * 检查token是否在黑名单中（仅 token 级吊销）
      *
      * @param token JWT token
      * @return true表示在黑名单中，false表示不在黑名单中
      */
     public boolean isBlacklisted(String token) {
+        return isRevoked(token, null, -1);
+    }
+
+    /**
+     * 检查token是否已被吊销（token 级吊销或所属用户的整体吊销）
+     *
+     * @param token JWT token
+     * @param userId token 所属用户；未知时为 null，仅校验 token 级吊销
+     * @param issuedAtMillis token 签发时间（毫秒）；未知时为 -1
+     * @return true表示已吊销
+     */
+    public boolean isRevoked(String token, String userId, long issuedAtMillis) {
         if (token == null || token.trim().isEmpty()) {
             return false;
         }
-
-        String key = BLACKLIST_KEY_PREFIX + token;
-        return Boolean.TRUE.equals(redis.hasKey(key));
+        String fp = TokenFingerprintUtil.fingerprint(token);
+        if (!revocationFilter.mightBeRevoked(fp, userId)) {
+            return false;
+        }
+        String revokedBeforeKey = userId != null ? REVOKED_BEFORE_KEY_PREFIX + userId : REVOKED_BEFORE_KEY_PREFIX;
+        Long result = redis.execute(checkLua,
+                List.of(REVOKED_KEY_PREFIX + fp, revokedBeforeKey, LEGACY_BLACKLIST_KEY_PREFIX + token),
+                String.valueOf(userId != null ? issuedAtMillis : -1));
+        return result != null && result == 1;
     }
 
     /**
@@ -104,9 +147,7 @@ public class TokenBlacklistDomainService {
         if (token == null || token.trim().isEmpty()) {
             return;
         }
-
-        String key = BLACKLIST_KEY_PREFIX + token;
-        redis.delete(key);
+        removeFromBlacklist(Set.of(token));
     }
 
     /**
@@ -118,12 +159,13 @@ public class TokenBlacklistDomainService {
         if (tokens == null || tokens.isEmpty()) {
             return;
         }
-
-        for (String token : tokens) {
-            if (token != null && !token.trim().isEmpty()) {
-                String key = BLACKLIST_KEY_PREFIX + token;
-                redis.delete(key);
-            }
+        List<String> legacyKeys = tokens.stream()
+                .filter(t -> t != null && !t.trim().isEmpty())
+                .map(t -> LEGACY_BLACKLIST_KEY_PREFIX + t)
+                .toList();
+        unrevoke(fingerprints(tokens));
+        if (!legacyKeys.isEmpty()) {
+            redis.delete(legacyKeys);
         }
     }
 
@@ -141,32 +183,44 @@ public class TokenBlacklistDomainService {
         }
 
         Duration actualTtl = ttl != null ? ttl : DEFAULT_BLACKLIST_TTL;
-        long now = System.currentTimeMillis();
+        List<String> fps = fingerprints(tokens);
 
-        log.info("[黑名单添加] 开始添加用户到黑名单: userId={}, tokensSize={}, ttl={}", userId, tokens.size(), actualTtl);
+        log.info("[黑名单添加] 开始添加用户到黑名单: userId={}, tokensSize={}, ttl={}", userId, fps.size(), actualTtl);
 
-        // 1. 将tokens加入黑名单
-        for (String token : tokens) {
-            if (token != null && !token.trim().isEmpty()) {
-                String key = BLACKLIST_KEY_PREFIX + token;
-                redis.opsForValue().set(key, "blacklisted", actualTtl);
-            }
-        }
+        // 1. 吊销 token 指纹
+        revoke(fps, actualTtl);
 
-        // 2. 维护用户级索引：存储该用户被拉黑的token列表
-        String userBlacklistKey = USER_BLACKLIST_KEY_PREFIX + userId;
-        for (String token : tokens) {
-            if (token != null && !token.trim().isEmpty()) {
-                redis.opsForSet().add(userBlacklistKey, token);
-            }
-        }
-        redis.expire(userBlacklistKey, actualTtl);
+        // 2. 维护用户级索引与全局被拉黑用户列表
+        recordUser(userId, fps, actualTtl);
 
-        // 3. 维护全局被拉黑用户列表，用于分页查询
-        redis.opsForZSet().add(BLACKLIST_USERS_KEY, userId, now);
+        log.info("[黑名单添加] 成功添加用户到黑名单: userId={}", userId);
+    }
 
-        log.info("[黑名单添加] 成功添加用户到黑名单: userId={}, userBlacklistKey={}, BLACKLIST_USERS_KEY={}",
-            userId, userBlacklistKey, BLACKLIST_USERS_KEY);
+    /**
+     * 整体吊销用户在此刻之前签发的全部 token（批量下线），无需逐个 token 写入
+     *
+     * @param userId 用户ID
+     * @param knownTokens 已知的该用户 token（仅用于统计展示，可为空）
+     * @param ttl 吊销记录保留时长，应不小于 token 最长有效期
+     */
+    public void revokeAllForUser(String userId, Set<String> knownTokens, Duration ttl) {
+        if (userId == null || userId.trim().isEmpty()) {
+            return;
+        }
+        Duration actualTtl = ttl != null ? ttl : DEFAULT_BLACKLIST_TTL;
+        long now = System.currentTimeMillis();
+        // iat 为秒级精度，取整到秒
+        long revokedBefore = now / 1000 * 1000;
+
+        redis.opsForValue().set(REVOKED_BEFORE_KEY_PREFIX + userId, String.valueOf(revokedBefore), actualTtl);
+        redis.opsForZSet().add(REVOKED_BEFORE_INDEX_KEY, userId, now + actualTtl.toMillis());
+        revocationFilter.addUser(userId);
+
+        // 取整后同一秒内签发的已知 token 不被 revoked-before 覆盖，逐个吊销
+        List<String> fps = fingerprints(knownTokens);
+        revoke(fps, actualTtl);
+        recordUser(userId, fps, actualTtl);
+        log.info("[黑名单添加] 整体吊销用户token: userId={}, revokedBefore={}", userId, revokedBefore);
     }
 
     /**
@@ -181,13 +235,17 @@ public class TokenBlacklistDomainService {
 
         String userBlacklistKey = USER_BLACKLIST_KEY_PREFIX + userId;
 
-        // 1. 获取该用户被拉黑的所有token
-        Set<String> tokens = redis.opsForSet().members(userBlacklistKey);
-        if (tokens != null && !tokens.isEmpty()) {
-            // 2. 从token级黑名单中移除
-            removeFromBlacklist(tokens);
+        // 1. 获取该用户被吊销的所有指纹并移除（升级前的记录为完整 token，一并清理旧格式 key）
+        Set<String> members = redis.opsForSet().members(userBlacklistKey);
+        if (members != null && !members.isEmpty()) {
+            unrevoke(new ArrayList<>(members));
+            redis.delete(members.stream().map(m -> LEGACY_BLACKLIST_KEY_PREFIX + m).toList());
         }
 
+        // 2. 清除用户级整体吊销
+        redis.delete(REVOKED_BEFORE_KEY_PREFIX + userId);
+        redis.opsForZSet().remove(REVOKED_BEFORE_INDEX_KEY, userId);
+
         // 3. 清除用户级索引
         redis.delete(userBlacklistKey);
 
@@ -196,19 +254,17 @@ public class TokenBlacklistDomainService {
     }
 
     /**
-     * 获取用户被拉黑的token列表
+     * 获取用户被吊销的token数量
      *
      * @param userId 用户ID
-     * @return 该用户被拉黑的token集合
+     * @return 该用户被吊销的token数量
      */
-    public Set<String> getUserBlacklistTokens(String userId) {
+    public long getUserBlacklistTokenCount(String userId) {
         if (userId == null || userId.trim().isEmpty()) {
-            return Set.of();
+            return 0;
         }
-
-        String userBlacklistKey = USER_BLACKLIST_KEY_PREFIX + userId;
-        Set<String> tokens = redis.opsForSet().members(userBlacklistKey);
-        return tokens != null ? tokens : Set.of();
+        Long size = redis.opsForSet().size(USER_BLACKLIST_KEY_PREFIX + userId);
+        return size != null ? size : 0;
     }
 
     /**
@@ -274,30 +330,153 @@ public class TokenBlacklistDomainService {
      */
     @Deprecated
     public void clearAllBlacklist() {
-        Set<String> keys = redis.keys(BLACKLIST_KEY_PREFIX + "*");
-        if (keys != null && !keys.isEmpty()) {
-            redis.delete(keys);
+        // 按索引分批删除，不使用 KEYS
+        Set<String> fps = redis.opsForZSet().range(REVOKED_INDEX_KEY, 0, -1);
+        deleteInBatches(fps, REVOKED_KEY_PREFIX);
+        Set<String> revokedUsers = redis.opsForZSet().range(REVOKED_BEFORE_INDEX_KEY, 0, -1);
+        deleteInBatches(revokedUsers, REVOKED_BEFORE_KEY_PREFIX);
+        Set<String> users = redis.opsForZSet().range(BLACKLIST_USERS_KEY, 0, -1);
+        deleteInBatches(users, USER_BLACKLIST_KEY_PREFIX);
+
+        // 旧格式 key 无索引，使用 SCAN 增量遍历
+        List<String> legacyKeys = new ArrayList<>();
+        try (Cursor<String> cursor = redis.scan(ScanOptions.scanOptions()
+                .match(LEGACY_BLACKLIST_KEY_PREFIX + "*").count(BATCH_SIZE).build())) {
+            while (cursor.hasNext()) {
+                legacyKeys.add(cursor.next());
+                if (legacyKeys.size() >= BATCH_SIZE) {
+                    redis.delete(legacyKeys);
+                    legacyKeys.clear();
+                }
+            }
         }
-
-        // 清空用户级索引
-        Set<String> userKeys = redis.keys(USER_BLACKLIST_KEY_PREFIX + "*");
-        if (userKeys != null && !userKeys.isEmpty()) {
-            redis.delete(userKeys);
+        if (!legacyKeys.isEmpty()) {
+            redis.delete(legacyKeys);
         }
 
-        // 清空全局用户列表
-        redis.delete(BLACKLIST_USERS_KEY);
+        // 清空索引与全局用户列表
+        redis.delete(List.of(REVOKED_INDEX_KEY, REVOKED_BEFORE_INDEX_KEY, BLACKLIST_USERS_KEY));
     }
 
     /**
-     * 获取黑名单中的token数量
+     * 获取黑名单中的token数量（来自吊销索引，先清理已过期成员）
      *
      * @return 黑名单token数量
      */
     public long getBlacklistCount() {
-        Set<String> keys = redis.keys(BLACKLIST_KEY_PREFIX + "*");
-        long count = keys != null ? keys.size() : 0;
-        log.info("[黑名单统计] token黑名单数量: {}, keys: {}", count, keys);
-        return count;
+        redis.opsForZSet().removeRangeByScore(REVOKED_INDEX_KEY, Double.NEGATIVE_INFINITY, System.currentTimeMillis());
+        Long count = redis.opsForZSet().zCard(REVOKED_INDEX_KEY);
+        long result = count != null ? count : 0;
+        log.info("[黑名单统计] token黑名单数量: {}", result);
+        return result;
+    }
+
+    /**
+     * 以 Redis 中仍有效的吊销记录全量重建进程内过滤器（定时任务调用）
+     */
+    public void rebuildRevocationFilter() {
+        revocationFilter.rebuild(() -> {
+            long now = System.currentTimeMillis();
+            redis.opsForZSet().removeRangeByScore(REVOKED_INDEX_KEY, Double.NEGATIVE_INFINITY, now);
+            redis.opsForZSet().removeRangeByScore(REVOKED_BEFORE_INDEX_KEY, Double.NEGATIVE_INFINITY, now);
+            Set<String> fps = redis.opsForZSet().range(REVOKED_INDEX_KEY, 0, -1);
+            Set<String> users = redis.opsForZSet().range(REVOKED_BEFORE_INDEX_KEY, 0, -1);
+            return new RevocationFilterPort.Members(fps != null ? fps : Set.of(), users != null ? users : Set.of());
+        });
+    }
+
+    /**
+     * 将旧格式（完整 token 为 key）的黑名单记录迁移为指纹记录，保留剩余 TTL
+     * 旧记录不在过滤器中，升级过渡期内需在重建过滤器前调用
+     *
+     * @return 迁移数量
+     */
+    public int migrateLegacyBlacklist() {
+        int migrated = 0;
+        try (Cursor<String> cursor = redis.scan(ScanOptions.scanOptions()
+                .match(LEGACY_BLACKLIST_KEY_PREFIX + "*").count(BATCH_SIZE).build())) {
+            while (cursor.hasNext()) {
+                String key = cursor.next();
+                Long ttl = redis.getExpire(key, TimeUnit.MILLISECONDS);
+                if (ttl != null && ttl > 0) {
+                    revoke(fingerprints(Set.of(key.substring(LEGACY_BLACKLIST_KEY_PREFIX.length()))),
+                            Duration.ofMillis(ttl));
+                }
+                redis.delete(key);
+                migrated++;
+            }
+        }
+        if (migrated > 0) {
+            log.info("[黑名单迁移] 旧格式黑名单记录已迁移: {}", migrated);
+        }
+        return migrated;
+    }
+
+    private void revoke(List<String> fps, Duration ttl) {
+        if (fps.isEmpty()) {
+            return;
+        }
+        long expireAt = System.currentTimeMillis() + ttl.toMillis();
+        byte[] value = raw("1");
+        byte[] indexKey = raw(REVOKED_INDEX_KEY);
+        redis.executePipelined((RedisCallback<Object>) connection -> {
+            for (String fp : fps) {
+                connection.stringCommands().pSetEx(raw(REVOKED_KEY_PREFIX + fp), ttl.toMillis(), value);
+                connection.zSetCommands().zAdd(indexKey, expireAt, raw(fp));
+            }
+            return null;
+        });
+        fps.forEach(revocationFilter::addToken);
+    }
+
+    private void unrevoke(List<String> fps) {
+        if (fps.isEmpty()) {
+            return;
+        }
+        redis.delete(fps.stream().map(fp -> REVOKED_KEY_PREFIX + fp).toList());
+        redis.opsForZSet().remove(REVOKED_INDEX_KEY, fps.toArray());
+    }
+
+    private void recordUser(String userId, List<String> fps, Duration ttl) {
+        String userBlacklistKey = USER_BLACKLIST_KEY_PREFIX + userId;
+        if (!fps.isEmpty()) {
+            redis.opsForSet().add(userBlacklistKey, fps.toArray(new String[0]));
+            redis.expire(userBlacklistKey, ttl);
+        }
+        redis.opsForZSet().add(BLACKLIST_USERS_KEY, userId, System.currentTimeMillis());
+    }
+
+    private void deleteInBatches(Set<String> members, String prefix) {
+        if (members == null || members.isEmpty()) {
+            return;
+        }
+        List<String> batch = new ArrayList<>(BATCH_SIZE);
+        for (String member : members) {
+            batch.add(prefix + member);
+            if (batch.size() >= BATCH_SIZE) {
+                redis.delete(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            redis.delete(batch);
+        }
+    }
+
+    private List<String> fingerprints(Collection<String> tokens) {
+        if (tokens == null || tokens.isEmpty()) {
+            return List.of();
+        }
+        Set<String> fps = new LinkedHashSet<>();
+        for (String token : tokens) {
+            if (token != null && !token.trim().isEmpty()) {
+                fps.add(TokenFingerprintUtil.fingerprint(token));
+            }
+        }
+        return new ArrayList<>(fps);
+    }
+
+    private static byte[] raw(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
     }
-}
\ No newline at end of file
+}
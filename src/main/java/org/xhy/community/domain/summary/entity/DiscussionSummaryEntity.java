@@ -6,9 +6,11 @@ import org.xhy.community.domain.common.entity.BaseEntity;
 import org.xhy.community.domain.summary.valueobject.SummaryTargetType;
 import org.xhy.community.infrastructure.converter.SummaryTargetTypeConverter;
 
+import java.time.LocalDateTime;
+
 /**
  * 通用讨论摘要（文章、章节等）。
- * 仅保存目标标识与摘要文本。
+ * 保存目标标识、摘要文本，以及摘要覆盖到的评论水位（用于增量更新）。
  */
 @TableName("discussion_summaries")
 public class DiscussionSummaryEntity extends BaseEntity {
@@ -23,6 +25,15 @@ public class DiscussionSummaryEntity extends BaseEntity {
     /** 摘要内容（中文要点） */
     private String summary;
 
+    /** 生成摘要时目标的评论总数 */
+    private Integer commentCount;
+
+    /** 摘要已覆盖的最后一条评论的创建时间 */
+    private LocalDateTime lastCommentTime;
+
+    /** 创建时间等于 lastCommentTime 且已被摘要覆盖的评论ID（逗号分隔） */
+    private String lastCommentIds;
+
     public SummaryTargetType getTargetType() { return targetType; }
     public void setTargetType(SummaryTargetType targetType) { this.targetType = targetType; }
 
@@ -31,5 +42,13 @@ public class DiscussionSummaryEntity extends BaseEntity {
 
     public String getSummary() { return summary; }
     public void setSummary(String summary) { this.summary = summary; }
-}
 
+    public Integer getCommentCount() { return commentCount; }
+    public void setCommentCount(Integer commentCount) { this.commentCount = commentCount; }
+
+    public LocalDateTime getLastCommentTime() { return lastCommentTime; }
+    public void setLastCommentTime(LocalDateTime lastCommentTime) { this.lastCommentTime = lastCommentTime; }
+
+    public String getLastCommentIds() { return lastCommentIds; }
+    public void setLastCommentIds(String lastCommentIds) { this.lastCommentIds = lastCommentIds; }
+}
@@ -16,7 +16,7 @@ import java.util.stream.Collectors;
 @Service
 public class DiscussionSummaryDomainService {
 
-    private static final int MAX_COMMENT_COUNT = 50;
+    public static final int MAX_COMMENT_COUNT = 50;
 
     private static final String SYSTEM_PROMPT_TEMPLATE = """
             你是一个专业的内容分析师，专门帮助用户快速理解%s评论区的核心内容。
@@ -117,13 +117,23 @@ public class DiscussionSummaryDomainService {
           .append("标题：").append(title).append('\n')
           .append("正文：").append(content).append("\n\n");
 
-        sb.append("=== 评论（按时间，最多").append(MAX_COMMENT_COUNT).append("条）===\n");
+        if (material.isIncremental()) {
+            sb.append("=== 已有摘要 ===\n").append(material.getPreviousSummary().trim()).append("\n\n");
+            sb.append("=== 上次摘要之后的新增评论（按时间，最多").append(MAX_COMMENT_COUNT).append("条）===\n");
+        } else {
+            sb.append("=== 评论（按时间，最多").append(MAX_COMMENT_COUNT).append("条）===\n");
+        }
         if (commentsJoined.isBlank()) {
             sb.append("（无有效评论）\n");
         } else {
             sb.append(commentsJoined).append('\n');
         }
-        sb.append("\n请按上述结构输出，控制在300-600字，最后包含“分析师观点与建议”。");
+        if (material.isIncremental()) {
+            sb.append("\n请将新增评论中的信息合并进已有摘要（保留仍然有效的要点，补充或修正变化之处），");
+        } else {
+            sb.append('\n');
+        }
+        sb.append("请按上述结构输出，控制在300-600字，最后包含“分析师观点与建议”。");
         return sb.toString();
     }
 
@@ -9,7 +9,7 @@ import java.util.List;
 import java.util.Objects;
 
 /**
- * 生成摘要所需的素材：目标类型、目标ID、标题、正文、评论列表。
+ * 生成摘要所需的素材：目标类型、目标ID、标题、正文、评论列表；增量更新时附带已有摘要，评论仅为新增部分。
  * 作为不可变值对象在应用层聚合后传入领域服务，便于扩展新的目标类型。
  */
 public final class SummaryMaterial {
@@ -19,17 +19,20 @@ public final class SummaryMaterial {
     private final String title;
     private final String content;
     private final List<CommentEntity> comments;
+    private final String previousSummary;
 
     private SummaryMaterial(SummaryTargetType targetType,
                             String targetId,
                             String title,
                             String content,
-                            List<CommentEntity> comments) {
+                            List<CommentEntity> comments,
+                            String previousSummary) {
         this.targetType = Objects.requireNonNull(targetType, "targetType");
         this.targetId = Objects.requireNonNull(targetId, "targetId");
         this.title = title == null ? "" : title;
         this.content = content == null ? "" : content;
         this.comments = comments == null ? Collections.emptyList() : comments;
+        this.previousSummary = previousSummary;
     }
 
     public static SummaryMaterial ofPost(PostEntity post, List<CommentEntity> comments) {
@@ -38,7 +41,8 @@ public final class SummaryMaterial {
                 post.getId(),
                 post.getTitle(),
                 post.getContent(),
-                comments
+                comments,
+                null
         );
     }
 
@@ -48,14 +52,24 @@ public final class SummaryMaterial {
                 chapter.getId(),
                 chapter.getTitle(),
                 chapter.getContent(),
-                comments
+                comments,
+                null
         );
     }
 
+    /**
+     * 基于已有摘要的增量素材：评论为上次摘要之后的新增评论
+     */
+    public SummaryMaterial withPreviousSummary(String previousSummary) {
+        return new SummaryMaterial(targetType, targetId, title, content, comments, previousSummary);
+    }
+
     public SummaryTargetType getTargetType() { return targetType; }
     public String getTargetId() { return targetId; }
     public String getTitle() { return title; }
     public String getContent() { return content; }
     public List<CommentEntity> getComments() { return comments; }
+    public String getPreviousSummary() { return previousSummary; }
+    public boolean isIncremental() { return previousSummary != null && !previousSummary.isBlank(); }
 }
 
@@ -0,0 +1,236 @@
+package org.xhy.community.infrastructure.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.xhy.community.infrastructure.cache.support.CacheInvalidationBus;
+import org.xhy.community.infrastructure.cache.support.ExpiringLocalCache;
+import org.xhy.community.infrastructure.push.SsePushHub;
+import org.xhy.community.infrastructure.util.TokenFingerprintUtil;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * 请求鉴权结论缓存（两级：进程内近缓存 + Redis）
+ * 缓存 UserContextInterceptor 的“放行”结论（黑名单、JWT、设备会话、用户状态、订阅均校验通过），
+ * 命中时跳过全部回源校验；拒绝结论不缓存。
+ *
+ * L1: 进程内有界缓存（超限按 LRU 淘汰），key = {tokenFingerprint}|{deviceKey}
+ * L2: Redis HASH auth:verdict:{tokenFingerprint}，field = deviceKey，value = {userId}|{expireAtMillis}
+ * 用户索引: Redis SET auth:verdict:user:{userId}，成员为 tokenFingerprint，用于按用户失效
+ * 失效广播: 频道 auth:verdict:invalidate，消息 u:{userId} 或 t:{tokenFingerprint}
+ *
+ * 条目过期时间取 min(配置 TTL, token 剩余有效期)，不会超出 token 本身的 exp。
+ */
+@Component
+public class AuthDecisionCache {
+
+    private static final Logger log = LoggerFactory.getLogger(AuthDecisionCache.class);
+
+    private static final String KEY_PREFIX = "auth:verdict:";
+    private static final String USER_INDEX_PREFIX = "auth:verdict:user:";
+    private static final String CHANNEL = "auth:verdict:invalidate";
+    private static final String MSG_USER = "u:";
+    private static final String MSG_TOKEN = "t:";
+
+    private final StringRedisTemplate redis;
+    private final SsePushHub ssePushHub;
+    private final boolean enabled;
+    private final long ttlMillis;
+
+    private final ExpiringLocalCache<String, Entry> local;
+    private final CacheInvalidationBus.Channel invalidations;
+
+    private final Counter localHitCounter;
+    private final Counter redisHitCounter;
+    private final Counter missCounter;
+    private final Counter invalidationCounter;
+
+    public AuthDecisionCache(StringRedisTemplate redis,
+                             CacheInvalidationBus invalidationBus,
+                             SsePushHub ssePushHub,
+                             MeterRegistry meterRegistry,
+                             @Value("${community.auth.verdict-cache.enabled:true}") boolean enabled,
+                             @Value("${community.auth.verdict-cache.ttl-seconds:30}") long ttlSeconds,
+                             @Value("${community.auth.verdict-cache.max-entries:20000}") int maxEntries) {
+        this.redis = redis;
+        this.ssePushHub = ssePushHub;
+        this.enabled = enabled;
+        this.ttlMillis = Duration.ofSeconds(Math.max(1, ttlSeconds)).toMillis();
+        this.local = new ExpiringLocalCache<String, Entry>(Math.max(100, maxEntries))
+                .registerSizeGauge(meterRegistry, "auth.verdict.cache.size");
+
+        this.localHitCounter = Counter.builder("auth.verdict.cache.requests")
+                .tag("result", "local_hit").register(meterRegistry);
+        this.redisHitCounter = Counter.builder("auth.verdict.cache.requests")
+                .tag("result", "redis_hit").register(meterRegistry);
+        this.missCounter = Counter.builder("auth.verdict.cache.requests")
+                .tag("result", "miss").register(meterRegistry);
+        this.invalidationCounter = Counter.builder("auth.verdict.cache.invalidations")
+                .register(meterRegistry);
+        this.invalidations = invalidationBus.subscribe(CHANNEL, this::applyInvalidation);
+    }
+
+    /**
+     * 当前失效代数；回源前读取，写入时传回
+     */
+    public long currentEpoch() {
+        return local.currentEpoch();
+    }
+
+    /**
+     * 读取放行结论
+     *
+     * @return 命中时返回 userId；未命中返回 null
+     */
+    public String get(String token, String deviceKey) {
+        if (!enabled || token == null || deviceKey == null) {
+            return null;
+        }
+        String fp = TokenFingerprintUtil.fingerprint(token);
+        String localKey = localKey(fp, deviceKey);
+        long now = System.currentTimeMillis();
+        long epochAtLoad = local.currentEpoch();
+
+        Entry entry = local.get(localKey);
+        if (entry != null) {
+            localHitCounter.increment();
+            return entry.userId;
+        }
+
+        try {
+            Object val = redis.opsForHash().get(KEY_PREFIX + fp, deviceKey);
+            if (val != null) {
+                Entry remote = Entry.parse(fp, val.toString());
+                if (remote != null && remote.expireAt > now) {
+                    local.put(localKey, remote, remote.expireAt, epochAtLoad);
+                    redisHitCounter.increment();
+                    return remote.userId;
+                }
+            }
+        } catch (Exception e) {
+            log.warn("[AuthDecisionCache] 读取Redis失败，降级回源 err={}", e.getMessage());
+        }
+
+        missCounter.increment();
+        return null;
+    }
+
+    /**
+     * 写入放行结论
+     *
+     * @param tokenRemainingMs token 剩余有效期（毫秒）
+     * @param epochAtLoad     回源前读取的失效代数
+     */
+    public void put(String token, String deviceKey, String userId, long tokenRemainingMs, long epochAtLoad) {
+        if (!enabled || token == null || deviceKey == null || userId == null) {
+            return;
+        }
+        long ttl = Math.min(ttlMillis, tokenRemainingMs);
+        if (ttl <= 0) {
+            return;
+        }
+        String fp = TokenFingerprintUtil.fingerprint(token);
+        Entry entry = new Entry(userId, fp, System.currentTimeMillis() + ttl);
+        if (!local.put(localKey(fp, deviceKey), entry, entry.expireAt, epochAtLoad)) {
+            return;
+        }
+
+        try {
+            String hashKey = KEY_PREFIX + fp;
+            String indexKey = USER_INDEX_PREFIX + userId;
+            redis.opsForHash().put(hashKey, deviceKey, entry.format());
+            redis.expire(hashKey, Duration.ofMillis(ttl));
+            redis.opsForSet().add(indexKey, fp);
+            redis.expire(indexKey, Duration.ofMillis(ttlMillis));
+        } catch (Exception e) {
+            log.warn("[AuthDecisionCache] 写入Redis失败，仅保留本地缓存 userId={}, err={}", userId, e.getMessage());
+        }
+    }
+
+    /**
+     * 失效某用户的全部鉴权结论（禁用用户、订阅变更、设备下线/淘汰、批量拉黑等）
+     * 同时关闭该用户已建立的推送连接：SSE 只在建连时鉴权，客户端重连时按新结论重新鉴权
+     */
+    public void evictUser(String userId) {
+        if (userId == null) {
+            return;
+        }
+        try {
+            String indexKey = USER_INDEX_PREFIX + userId;
+            Set<String> fps = redis.opsForSet().members(indexKey);
+            if (fps != null && !fps.isEmpty()) {
+                redis.delete(fps.stream().map(fp -> KEY_PREFIX + fp).toList());
+            }
+            redis.delete(indexKey);
+        } catch (Exception e) {
+            log.warn("[AuthDecisionCache] 用户级失效失败 userId={}, err={}", userId, e.getMessage());
+        }
+        invalidations.publish(MSG_USER + userId);
+        ssePushHub.closeUser(userId);
+    }
+
+    /**
+     * 失效单个 token 的鉴权结论（token 加入黑名单时调用）
+     */
+    public void evictToken(String token) {
+        String fp = TokenFingerprintUtil.fingerprint(token);
+        if (fp == null) {
+            return;
+        }
+        try {
+            redis.delete(KEY_PREFIX + fp);
+        } catch (Exception e) {
+            log.warn("[AuthDecisionCache] token级失效失败 err={}", e.getMessage());
+        }
+        invalidations.publish(MSG_TOKEN + fp);
+    }
+
+    private void applyInvalidation(String message) {
+        invalidationCounter.increment();
+        if (message.startsWith(MSG_USER)) {
+            String userId = message.substring(MSG_USER.length());
+            local.invalidateIf((k, e) -> userId.equals(e.userId));
+        } else if (message.startsWith(MSG_TOKEN)) {
+            String fp = message.substring(MSG_TOKEN.length());
+            local.invalidateIf((k, e) -> fp.equals(e.fingerprint));
+        }
+    }
+
+    private String localKey(String fp, String deviceKey) {
+        return fp + "|" + deviceKey;
+    }
+
+    private static final class Entry {
+        private final String userId;
+        private final String fingerprint;
+        private final long expireAt;
+
+        private Entry(String userId, String fingerprint, long expireAt) {
+            this.userId = userId;
+            this.fingerprint = fingerprint;
+            this.expireAt = expireAt;
+        }
+
+        private String format() {
+            return userId + "|" + expireAt;
+        }
+
+        private static Entry parse(String fingerprint, String value) {
+            int idx = value.lastIndexOf('|');
+            if (idx <= 0) {
+                return null;
+            }
+            try {
+                return new Entry(value.substring(0, idx), fingerprint, Long.parseLong(value.substring(idx + 1)));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package org.xhy.community.infrastructure.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.xhy.community.infrastructure.cache.support.CacheInvalidationBus;
+import org.xhy.community.infrastructure.cache.support.ExpiringLocalCache;
+import org.xhy.community.infrastructure.permission.EffectivePermissions;
+
+import java.time.Duration;
+
+/**
+ * 用户有效功能权限缓存，进程内（有界，超限时按 LRU 逐个淘汰）
+ * key = userId，value = 有效权限（权限码集合 + 注册表位图），过期时间取 min(配置 TTL, 最早到期的有效订阅结束时间)。
+ *
+ * 失效广播（频道 perm:effective:invalidate，各节点清理本地缓存）：
+ * - u:{userId}  订阅变更（CDK 激活、默认套餐发放）、课程授权；
+ * - *           套餐权限码变更、套餐删除。
+ */
+@Component
+public class EffectivePermissionCache {
+
+    private static final String CHANNEL = "perm:effective:invalidate";
+    private static final String MSG_USER = "u:";
+    private static final String MSG_ALL = "*";
+
+    private final boolean enabled;
+    private final long ttlMillis;
+
+    private final ExpiringLocalCache<String, EffectivePermissions> local;
+    private final CacheInvalidationBus.Channel invalidations;
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    public EffectivePermissionCache(CacheInvalidationBus invalidationBus,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${community.permission.effective-cache.enabled:true}") boolean enabled,
+                                    @Value("${community.permission.effective-cache.ttl-seconds:300}") long ttlSeconds,
+                                    @Value("${community.permission.effective-cache.max-entries:20000}") int maxEntries) {
+        this.enabled = enabled;
+        this.ttlMillis = Duration.ofSeconds(Math.max(1, ttlSeconds)).toMillis();
+        this.local = new ExpiringLocalCache<String, EffectivePermissions>(Math.max(100, maxEntries))
+                .registerSizeGauge(meterRegistry, "permission.effective.cache.size");
+
+        this.hitCounter = Counter.builder("permission.effective.cache.requests")
+                .tag("result", "hit").register(meterRegistry);
+        this.missCounter = Counter.builder("permission.effective.cache.requests")
+                .tag("result", "miss").register(meterRegistry);
+        this.invalidations = invalidationBus.subscribe(CHANNEL, this::applyInvalidation);
+    }
+
+    /**
+     * 当前失效代数；回源前读取，写入时传回
+     */
+    public long currentEpoch() {
+        return local.currentEpoch();
+    }
+
+    /**
+     * 读取有效权限；未命中返回 null
+     */
+    public EffectivePermissions get(String userId) {
+        if (!enabled || userId == null) {
+            return null;
+        }
+        EffectivePermissions cached = local.get(userId);
+        (cached != null ? hitCounter : missCounter).increment();
+        return cached;
+    }
+
+    /**
+     * 写入有效权限
+     *
+     * @param notAfterMillis 条目最晚过期时间（如最早到期订阅的结束时间），无限制时传 Long.MAX_VALUE
+     * @param epochAtLoad    回源前读取的失效代数
+     */
+    public void put(String userId, EffectivePermissions permissions, long notAfterMillis, long epochAtLoad) {
+        if (!enabled || userId == null || permissions == null) {
+            return;
+        }
+        local.put(userId, permissions, Math.min(System.currentTimeMillis() + ttlMillis, notAfterMillis), epochAtLoad);
+    }
+
+    /**
+     * 失效某用户的有效权限（订阅变更、课程授权）
+     */
+    public void evictUser(String userId) {
+        if (userId != null) {
+            invalidations.publish(MSG_USER + userId);
+        }
+    }
+
+    /**
+     * 失效全部用户的有效权限（套餐权限码变更）
+     */
+    public void evictAll() {
+        invalidations.publish(MSG_ALL);
+    }
+
+    private void applyInvalidation(String message) {
+        if (MSG_ALL.equals(message)) {
+            local.invalidateAll();
+        } else if (message.startsWith(MSG_USER)) {
+            local.invalidate(message.substring(MSG_USER.length()));
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package org.xhy.community.infrastructure.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.xhy.community.domain.like.port.LikeCountCachePort;
+import org.xhy.community.domain.like.valueobject.LikeTargetType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 点赞数缓存
+ * Key: like:count:{targetType}（HASH），field = targetId，value = 点赞数
+ * 写路径只删除 field（事务提交后执行），由下一次读取按 like_counters 回填；
+ * 读写竞争导致的个别旧值由定时校准任务整体清空兜底。
+ */
+@Component
+public class LikeCountCache implements LikeCountCachePort {
+
+    private static final Logger log = LoggerFactory.getLogger(LikeCountCache.class);
+
+    private static final String KEY_PREFIX = "like:count:";
+
+    private final StringRedisTemplate redis;
+
+    public LikeCountCache(StringRedisTemplate redis) {
+        this.redis = redis;
+    }
+
+    private String key(LikeTargetType targetType) {
+        return KEY_PREFIX + targetType.name();
+    }
+
+    /**
+     * 批量读取点赞数（HMGET），仅返回命中项；读取失败返回空 Map，由调用方回源
+     */
+    @Override
+    public Map<String, Long> multiGet(LikeTargetType targetType, Collection<String> targetIds) {
+        Map<String, Long> result = new HashMap<>();
+        if (targetIds == null || targetIds.isEmpty()) {
+            return result;
+        }
+        List<Object> fields = new ArrayList<>(targetIds);
+        try {
+            List<Object> values = redis.opsForHash().multiGet(key(targetType), fields);
+            for (int i = 0; i < fields.size(); i++) {
+                Object val = values.get(i);
+                if (val != null) {
+                    result.put((String) fields.get(i), Long.parseLong(val.toString()));
+                }
+            }
+        } catch (Exception e) {
+            log.warn("[LikeCountCache] 读取失败，降级回源 type={}, err={}", targetType, e.getMessage());
+            result.clear();
+        }
+        return result;
+    }
+
+    /**
+     * 批量写入点赞数（HMSET）
+     */
+    @Override
+    public void putAll(LikeTargetType targetType, Map<String, Long> counts) {
+        if (counts == null || counts.isEmpty()) {
+            return;
+        }
+        Map<String, String> values = new HashMap<>();
+        counts.forEach((id, count) -> values.put(id, String.valueOf(count)));
+        try {
+            redis.opsForHash().putAll(key(targetType), values);
+        } catch (Exception e) {
+            log.warn("[LikeCountCache] 写入失败，忽略缓存 type={}, err={}", targetType, e.getMessage());
+        }
+    }
+
+    /**
+     * 失效单个目标的点赞数；处于事务中时延迟到提交后执行，避免并发读取把提交前的旧值写回缓存
+     */
+    @Override
+    public void evict(LikeTargetType targetType, String targetId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    doEvict(targetType, targetId);
+                }
+            });
+        } else {
+            doEvict(targetType, targetId);
+        }
+    }
+
+    /**
+     * 清空全部点赞数缓存（校准后调用）
+     */
+    @Override
+    public void evictAll() {
+        try {
+            redis.delete(Arrays.stream(LikeTargetType.values()).map(this::key).toList());
+        } catch (Exception e) {
+            log.warn("[LikeCountCache] 清空失败 err={}", e.getMessage());
+        }
+    }
+
+    private void doEvict(LikeTargetType targetType, String targetId) {
+        try {
+            redis.opsForHash().delete(key(targetType), targetId);
+        } catch (Exception e) {
+            log.warn("[LikeCountCache] 失效失败 type={}, targetId={}, err={}", targetType, targetId, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package org.xhy.community.infrastructure.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.xhy.community.domain.like.port.LikedSetCachePort;
+import org.xhy.community.domain.like.valueobject.LikeTargetType;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 用户已点赞集合缓存
+ * Key: like:user:{userId}:{targetType}（SET），成员为已点赞的 targetId，另含空串占位成员，
+ * 使“从未点赞”的用户同样有缓存，Key 存在即代表集合完整。
+ * 预热：Key 不存在时由调用方从 likes 加载全量后写入（仅在 Key 仍不存在时写入）；
+ * 更新：点赞/取消在事务提交后对已存在的集合 SADD/SREM，不存在则跳过，等待下次读取预热；
+ * 兜底：集合带 TTL，预热与更新并发导致的偏差最多保留一个 TTL。
+ */
+@Component
+public class LikedSetCache implements LikedSetCachePort {
+
+    private static final Logger log = LoggerFactory.getLogger(LikedSetCache.class);
+
+    private static final String KEY_PREFIX = "like:user:";
+    private static final String PLACEHOLDER = "";
+
+    private static final String WARM_SCRIPT =
+            "if redis.call('exists', KEYS[1]) == 0 then " +
+            "for i = 2, #ARGV do redis.call('sadd', KEYS[1], ARGV[i]) end " +
+            "redis.call('pexpire', KEYS[1], ARGV[1]) end " +
+            "return 1";
+
+    private static final String UPDATE_SCRIPT =
+            "if redis.call('exists', KEYS[1]) == 1 then " +
+            "if ARGV[1] == '1' then redis.call('sadd', KEYS[1], ARGV[2]) " +
+            "else redis.call('srem', KEYS[1], ARGV[2]) end " +
+            "redis.call('pexpire', KEYS[1], ARGV[3]) return 1 end " +
+            "return 0";
+
+    private final StringRedisTemplate redis;
+    private final long ttlMillis;
+    private final DefaultRedisScript<Long> warmLua;
+    private final DefaultRedisScript<Long> updateLua;
+
+    public LikedSetCache(StringRedisTemplate redis,
+                         @Value("${community.like.liked-set.ttl-seconds:1800}") long ttlSeconds) {
+        this.redis = redis;
+        this.ttlMillis = Duration.ofSeconds(Math.max(1, ttlSeconds)).toMillis();
+        this.warmLua = new DefaultRedisScript<>(WARM_SCRIPT, Long.class);
+        this.updateLua = new DefaultRedisScript<>(UPDATE_SCRIPT, Long.class);
+    }
+
+    private String key(String userId, LikeTargetType targetType) {
+        return KEY_PREFIX + userId + ":" + targetType.name();
+    }
+
+    /**
+     * 批量判断点赞状态：一次 pipeline，每个类型 EXISTS + SMISMEMBER
+     *
+     * @return Map<targetType, Map<targetId, isLiked>>；集合未预热的类型不在结果中；Redis 不可用时返回 null
+     */
+    @Override
+    public Map<LikeTargetType, Map<String, Boolean>> batchCheck(String userId,
+                                                                Map<LikeTargetType, List<String>> idsByType) {
+        List<LikeTargetType> types = new ArrayList<>(idsByType.keySet());
+        List<Object> replies;
+        try {
+            replies = redis.executePipelined((RedisCallback<Object>) connection -> {
+                for (LikeTargetType type : types) {
+                    byte[] rawKey = key(userId, type).getBytes(StandardCharsets.UTF_8);
+                    byte[][] members = idsByType.get(type).stream()
+                            .map(id -> id.getBytes(StandardCharsets.UTF_8))
+                            .toArray(byte[][]::new);
+                    connection.keyCommands().exists(rawKey);
+                    connection.setCommands().sMIsMember(rawKey, members);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("[LikedSetCache] 批量读取失败，降级回源 userId={}, err={}", userId, e.getMessage());
+            return null;
+        }
+
+        Map<LikeTargetType, Map<String, Boolean>> result = new EnumMap<>(LikeTargetType.class);
+        for (int i = 0; i < types.size(); i++) {
+            if (!Boolean.TRUE.equals(replies.get(i * 2))) {
+                continue;
+            }
+            List<?> flags = (List<?>) replies.get(i * 2 + 1);
+            List<String> ids = idsByType.get(types.get(i));
+            Map<String, Boolean> status = new HashMap<>();
+            for (int j = 0; j < ids.size(); j++) {
+                status.put(ids.get(j), Boolean.TRUE.equals(flags.get(j)));
+            }
+            result.put(types.get(i), status);
+        }
+        return result;
+    }
+
+    /**
+     * 预热用户某类型的已点赞集合（集合已存在时不覆盖）
+     */
+    @Override
+    public void warm(String userId, LikeTargetType targetType, Collection<String> likedTargetIds) {
+        List<String> args = new ArrayList<>(likedTargetIds.size() + 2);
+        args.add(String.valueOf(ttlMillis));
+        args.add(PLACEHOLDER);
+        args.addAll(likedTargetIds);
+        try {
+            redis.execute(warmLua, Collections.singletonList(key(userId, targetType)), args.toArray());
+        } catch (Exception e) {
+            log.warn("[LikedSetCache] 预热失败 userId={}, type={}, err={}", userId, targetType, e.getMessage());
+        }
+    }
+
+    /**
+     * 记录点赞/取消；处于事务中时在提交后执行，回滚则不更新
+     */
+    @Override
+    public void update(String userId, LikeTargetType targetType, String targetId, boolean liked) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doUpdate(userId, targetType, targetId, liked);
+                }
+            });
+        } else {
+            doUpdate(userId, targetType, targetId, liked);
+        }
+    }
+
+    private void doUpdate(String userId, LikeTargetType targetType, String targetId, boolean liked) {
+        String key = key(userId, targetType);
+        try {
+            redis.execute(updateLua, Collections.singletonList(key),
+                    liked ? "1" : "0", targetId, String.valueOf(ttlMillis));
+        } catch (Exception e) {
+            log.warn("[LikedSetCache] 更新失败，删除集合等待重新预热 userId={}, type={}, err={}",
+                    userId, targetType, e.getMessage());
+            try {
+                redis.delete(key);
+            } catch (Exception ignored) {
+                // Redis 不可用时集合随 TTL 过期
+            }
+        }
+    }
+}
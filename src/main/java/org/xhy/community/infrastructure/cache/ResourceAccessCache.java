@@ -0,0 +1,161 @@
+package org.xhy.community.infrastructure.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.xhy.community.infrastructure.cache.support.CacheInvalidationBus;
+import org.xhy.community.infrastructure.cache.support.ExpiringLocalCache;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * 资源访问（下载/CDN 鉴权）结论缓存，进程内
+ * CDN 回源鉴权位于视频分片请求热路径上，同一播放会话内会对同一资源反复鉴权：
+ * - 结论缓存：key = {userId}|{resourceId}，value = 是否允许，短 TTL；允许与拒绝都缓存；
+ * - 资源索引：resourceId -> 绑定课程集合（章节绑定已换算为所属课程，未绑定为 null），较长 TTL。
+ * 两者均为有界缓存，超限时按 LRU 逐个淘汰。
+ *
+ * 失效广播（频道 resource:access:invalidate，各节点清理本地缓存）：
+ * - u:{userId}  用户订阅变更、课程授权；
+ * - r:*         资源绑定变更（章节内容同步、章节/课程删除），清空资源索引与全部结论；
+ * - d:*         套餐课程/等级变更，清空全部结论。
+ * 处于事务中时失效延迟到提交后执行，避免提交前回源把旧数据重新写入缓存。
+ */
+@Component
+public class ResourceAccessCache {
+
+    private static final String CHANNEL = "resource:access:invalidate";
+    private static final String MSG_USER = "u:";
+    private static final String MSG_RESOURCES = "r:*";
+    private static final String MSG_DECISIONS = "d:*";
+
+    private final boolean enabled;
+    private final long decisionTtlMillis;
+    private final long indexTtlMillis;
+
+    private final ExpiringLocalCache<String, Decision> decisions;
+    private final ExpiringLocalCache<String, CourseIndex> resourceCourses;
+    private final CacheInvalidationBus.Channel invalidations;
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    public ResourceAccessCache(CacheInvalidationBus invalidationBus,
+                               MeterRegistry meterRegistry,
+                               @Value("${community.resource-access.cache.enabled:true}") boolean enabled,
+                               @Value("${community.resource-access.cache.decision-ttl-seconds:60}") long decisionTtlSeconds,
+                               @Value("${community.resource-access.cache.index-ttl-seconds:600}") long indexTtlSeconds,
+                               @Value("${community.resource-access.cache.max-entries:50000}") int maxEntries) {
+        this.enabled = enabled;
+        this.decisionTtlMillis = Duration.ofSeconds(Math.max(1, decisionTtlSeconds)).toMillis();
+        this.indexTtlMillis = Duration.ofSeconds(Math.max(1, indexTtlSeconds)).toMillis();
+        this.decisions = new ExpiringLocalCache<String, Decision>(Math.max(100, maxEntries))
+                .registerSizeGauge(meterRegistry, "resource.access.cache.size");
+        this.resourceCourses = new ExpiringLocalCache<>(Math.max(100, maxEntries));
+
+        this.hitCounter = Counter.builder("resource.access.cache.requests")
+                .tag("result", "hit").register(meterRegistry);
+        this.missCounter = Counter.builder("resource.access.cache.requests")
+                .tag("result", "miss").register(meterRegistry);
+        this.invalidations = invalidationBus.subscribe(CHANNEL, this::applyInvalidation);
+    }
+
+    /**
+     * 读取访问结论；未命中时回源计算并写入
+     */
+    public boolean getDecision(String userId, String resourceId, Supplier<Boolean> loader) {
+        if (!enabled) {
+            return Boolean.TRUE.equals(loader.get());
+        }
+        String key = userId + "|" + resourceId;
+        Decision cached = decisions.get(key);
+        if (cached != null) {
+            hitCounter.increment();
+            return cached.allowed;
+        }
+        missCounter.increment();
+
+        long epochAtLoad = decisions.currentEpoch();
+        boolean allowed = Boolean.TRUE.equals(loader.get());
+        decisions.put(key, new Decision(userId, allowed), System.currentTimeMillis() + decisionTtlMillis, epochAtLoad);
+        return allowed;
+    }
+
+    /**
+     * 读取资源绑定的课程集合（null 表示资源未绑定）；未命中时回源计算并写入
+     */
+    public Set<String> getResourceCourses(String resourceId, Supplier<Set<String>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        CourseIndex cached = resourceCourses.get(resourceId);
+        if (cached != null) {
+            return cached.courseIds;
+        }
+
+        long epochAtLoad = resourceCourses.currentEpoch();
+        Set<String> loaded = loader.get();
+        Set<String> courseIds = loaded != null ? Set.copyOf(loaded) : null;
+        resourceCourses.put(resourceId, new CourseIndex(courseIds), System.currentTimeMillis() + indexTtlMillis, epochAtLoad);
+        return courseIds;
+    }
+
+    /**
+     * 用户订阅或课程权限变更
+     */
+    public void evictUser(String userId) {
+        if (userId != null) {
+            publish(MSG_USER + userId);
+        }
+    }
+
+    /**
+     * 资源绑定变更：资源索引与结论全部失效
+     */
+    public void evictResources() {
+        publish(MSG_RESOURCES);
+    }
+
+    /**
+     * 套餐内容变更：结论全部失效
+     */
+    public void evictDecisions() {
+        publish(MSG_DECISIONS);
+    }
+
+    private void publish(String message) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidations.publish(message);
+                }
+            });
+        } else {
+            invalidations.publish(message);
+        }
+    }
+
+    private void applyInvalidation(String message) {
+        if (message.startsWith(MSG_USER)) {
+            String userId = message.substring(MSG_USER.length());
+            decisions.invalidateIf((key, decision) -> userId.equals(decision.userId));
+        } else if (MSG_RESOURCES.equals(message)) {
+            resourceCourses.invalidateAll();
+            decisions.invalidateAll();
+        } else if (MSG_DECISIONS.equals(message)) {
+            decisions.invalidateAll();
+        }
+    }
+
+    private record Decision(String userId, boolean allowed) {
+    }
+
+    private record CourseIndex(Set<String> courseIds) {
+    }
+}
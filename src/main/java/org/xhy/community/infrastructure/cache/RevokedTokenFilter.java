@@ -0,0 +1,218 @@
+package org.xhy.community.infrastructure.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.xhy.community.domain.session.port.RevocationFilterPort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * 已吊销 token 的进程内布隆过滤器
+ * 成员为 token 指纹，以及整体吊销过的用户（u:{userId}）；过滤器判定“一定未吊销”时鉴权可跳过 Redis 查询。
+ *
+ * - 新增吊销：本节点立即加入，并通过频道 token:revoked 广播给其他节点；
+ * - 重建：定时从 Redis 吊销索引全量重建，清理已过期/已恢复的成员，并兜底补齐丢失的广播；
+ * - 未完成首次重建前（或关闭时）一律判定“可能已吊销”，回退到 Redis 查询。
+ * 布隆过滤器本身只有假阳性（多查一次 Redis）。
+ *
+ * 广播丢失窗口：pub/sub 不保证送达（发布失败、订阅连接断开重连期间的消息直接丢弃），
+ * 丢失广播的节点在下一次重建前会把该 token 判定为“一定未吊销”并放行，窗口上限为重建间隔
+ * community.auth.revocation-filter.rebuild-interval-ms（默认 15s）。对吊销时效要求更高的部署可调小该间隔，
+ * 或关闭过滤器（community.auth.revocation-filter.enabled=false）改为每次查询 Redis。
+ */
+@Component
+public class RevokedTokenFilter implements RevocationFilterPort {
+
+    private static final Logger log = LoggerFactory.getLogger(RevokedTokenFilter.class);
+
+    private static final String CHANNEL = "token:revoked";
+    private static final String USER_MEMBER_PREFIX = "u:";
+    private static final double FALSE_POSITIVE_RATE = 0.001;
+
+    private final StringRedisTemplate redis;
+    private final boolean enabled;
+    private final int expectedEntries;
+
+    private volatile Bloom current;
+    // 重建期间收到的新增成员，重建完成后补入新过滤器
+    private Set<String> pending;
+    private final Object rebuildLock = new Object();
+
+    private final Counter skipCounter;
+    private final Counter passCounter;
+
+    public RevokedTokenFilter(StringRedisTemplate redis,
+                              RedisMessageListenerContainer listenerContainer,
+                              MeterRegistry meterRegistry,
+                              @Value("${community.auth.revocation-filter.enabled:true}") boolean enabled,
+                              @Value("${community.auth.revocation-filter.expected-entries:100000}") int expectedEntries) {
+        this.redis = redis;
+        this.enabled = enabled;
+        this.expectedEntries = Math.max(1000, expectedEntries);
+
+        this.skipCounter = Counter.builder("auth.revocation.filter")
+                .tag("result", "skip").register(meterRegistry);
+        this.passCounter = Counter.builder("auth.revocation.filter")
+                .tag("result", "maybe").register(meterRegistry);
+
+        listenerContainer.addMessageListener((message, pattern) ->
+                        addLocal(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(CHANNEL));
+    }
+
+    @Override
+    public boolean mightBeRevoked(String fingerprint, String userId) {
+        Bloom bloom = current;
+        if (!enabled || bloom == null) {
+            return true;
+        }
+        boolean maybe = bloom.mightContain(fingerprint)
+                || (userId != null && bloom.mightContain(USER_MEMBER_PREFIX + userId));
+        (maybe ? passCounter : skipCounter).increment();
+        return maybe;
+    }
+
+    /**
+     * 登记单个 token 指纹的吊销（本节点 + 广播）
+     */
+    @Override
+    public void addToken(String fingerprint) {
+        publish(fingerprint);
+    }
+
+    /**
+     * 登记用户级整体吊销（本节点 + 广播）
+     */
+    @Override
+    public void addUser(String userId) {
+        publish(USER_MEMBER_PREFIX + userId);
+    }
+
+    /**
+     * 全量重建过滤器；加载失败时沿用旧过滤器
+     */
+    @Override
+    public void rebuild(Supplier<Members> loader) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (rebuildLock) {
+            doRebuild(loader);
+        }
+    }
+
+    private void doRebuild(Supplier<Members> loader) {
+        synchronized (this) {
+            pending = ConcurrentHashMap.newKeySet();
+        }
+        try {
+            Members members = loader.get();
+            int size = members.fingerprints().size() + members.userIds().size();
+            Bloom bloom = new Bloom(Math.max(expectedEntries, size * 2));
+            members.fingerprints().forEach(bloom::put);
+            members.userIds().forEach(userId -> bloom.put(USER_MEMBER_PREFIX + userId));
+            synchronized (this) {
+                pending.forEach(bloom::put);
+                current = bloom;
+            }
+            log.debug("[RevokedTokenFilter] 过滤器已重建 members={}", size);
+        } catch (Exception e) {
+            log.warn("[RevokedTokenFilter] 过滤器重建失败，沿用旧过滤器 err={}", e.getMessage());
+        } finally {
+            synchronized (this) {
+                pending = null;
+            }
+        }
+    }
+
+    private void publish(String member) {
+        addLocal(member);
+        try {
+            redis.convertAndSend(CHANNEL, member);
+        } catch (Exception e) {
+            // 其他节点将在下次重建时补齐
+            log.warn("[RevokedTokenFilter] 吊销广播失败 err={}", e.getMessage());
+        }
+    }
+
+    private synchronized void addLocal(String member) {
+        if (current != null) {
+            current.put(member);
+        }
+        if (pending != null) {
+            pending.add(member);
+        }
+    }
+
+    /**
+     * 固定大小的布隆过滤器，位数组按 long 分段并以 CAS 置位，读无锁
+     */
+    private static final class Bloom {
+        private final AtomicLongArray bits;
+        private final long bitCount;
+        private final int hashCount;
+
+        private Bloom(int expected) {
+            long m = (long) Math.ceil(-expected * Math.log(FALSE_POSITIVE_RATE) / (Math.log(2) * Math.log(2)));
+            this.bits = new AtomicLongArray((int) ((m + 63) / 64));
+            this.bitCount = bits.length() * 64L;
+            this.hashCount = Math.max(1, (int) Math.round((double) m / expected * Math.log(2)));
+        }
+
+        private void put(String member) {
+            long h1 = hash(member);
+            long h2 = mix(h1);
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                int idx = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long old;
+                do {
+                    old = bits.get(idx);
+                    if ((old & mask) != 0) {
+                        break;
+                    }
+                } while (!bits.compareAndSet(idx, old, old | mask));
+            }
+        }
+
+        private boolean mightContain(String member) {
+            long h1 = hash(member);
+            long h2 = mix(h1);
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // FNV-1a 64 位 + splitmix 混淆，双重哈希生成 k 个位置
+        private static long hash(String member) {
+            long h = 0xcbf29ce484222325L;
+            for (int i = 0; i < member.length(); i++) {
+                h ^= member.charAt(i);
+                h *= 0x100000001b3L;
+            }
+            return mix(h);
+        }
+
+        private static long mix(long z) {
+            z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+            z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+            return (z ^ (z >>> 31)) | 1L;
+        }
+    }
+}
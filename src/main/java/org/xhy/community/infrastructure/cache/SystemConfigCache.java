@@ -0,0 +1,171 @@
+package org.xhy.community.infrastructure.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.xhy.community.domain.config.port.SystemConfigCachePort;
+import org.xhy.community.domain.config.valueobject.SystemConfigType;
+import org.xhy.community.infrastructure.cache.support.CacheInvalidationBus;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 系统配置进程内缓存（已反序列化的配置对象，按 SystemConfigType 分槽）
+ * 版本号: Redis STRING sys:config:version:{type}，每次更新 INCR
+ * 失效广播: 经 CacheInvalidationBus 发布到频道 sys:config:invalidate，消息 {type}:{version}，各节点收到后丢弃低版本条目
+ * 兜底: 条目超过 max-age 后强制回源，防止广播丢失导致长期不一致
+ *
+ * 注意：返回的配置对象为多线程共享实例，调用方只读，不得修改。
+ */
+@Component
+public class SystemConfigCache implements SystemConfigCachePort {
+
+    private static final Logger log = LoggerFactory.getLogger(SystemConfigCache.class);
+
+    private static final String VERSION_KEY_PREFIX = "sys:config:version:";
+    private static final String CHANNEL = "sys:config:invalidate";
+
+    private final StringRedisTemplate redis;
+    private final long maxAgeMillis;
+    private final CacheInvalidationBus.Channel invalidations;
+
+    private final Map<SystemConfigType, Entry> entries = new ConcurrentHashMap<>();
+    // 已知的最新版本（来自本节点更新或广播），低于该版本的加载结果不写入缓存
+    private final Map<SystemConfigType, Long> knownVersions = new ConcurrentHashMap<>();
+
+    private final Map<SystemConfigType, Counter> hitCounters = new EnumMap<>(SystemConfigType.class);
+    private final Map<SystemConfigType, Counter> missCounters = new EnumMap<>(SystemConfigType.class);
+
+    public SystemConfigCache(StringRedisTemplate redis,
+                             CacheInvalidationBus invalidationBus,
+                             MeterRegistry meterRegistry,
+                             @Value("${community.config.cache.max-age-seconds:300}") long maxAgeSeconds) {
+        this.redis = redis;
+        this.maxAgeMillis = Duration.ofSeconds(Math.max(1, maxAgeSeconds)).toMillis();
+
+        for (SystemConfigType type : SystemConfigType.values()) {
+            hitCounters.put(type, Counter.builder("system.config.cache.requests")
+                    .tag("type", type.name()).tag("result", "hit").register(meterRegistry));
+            missCounters.put(type, Counter.builder("system.config.cache.requests")
+                    .tag("type", type.name()).tag("result", "miss").register(meterRegistry));
+            Gauge.builder("system.config.cache.age.seconds", this, c -> c.ageSeconds(type))
+                    .tag("type", type.name()).register(meterRegistry);
+            Gauge.builder("system.config.cache.version", this, c -> c.cachedVersion(type))
+                    .tag("type", type.name()).register(meterRegistry);
+        }
+
+        this.invalidations = invalidationBus.subscribe(CHANNEL, this::onInvalidation);
+    }
+
+    /**
+     * 读取配置；未命中或已过期时通过 loader 回源（loader 可返回 null，表示配置不存在，同样缓存）
+     */
+    @Override
+    public <T> T get(SystemConfigType type, Class<T> clazz, Supplier<T> loader) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(type);
+        if (entry != null && entry.valueClass == clazz && now - entry.loadedAt < maxAgeMillis) {
+            hitCounters.get(type).increment();
+            return clazz.cast(entry.value);
+        }
+
+        missCounters.get(type).increment();
+        long version = readVersion(type);
+        T value = loader.get();
+        if (version >= knownVersions.getOrDefault(type, 0L)) {
+            entries.put(type, new Entry(clazz, value, version, System.currentTimeMillis()));
+        }
+        return value;
+    }
+
+    /**
+     * 配置已更新：递增版本并广播到所有节点
+     */
+    @Override
+    public void invalidate(SystemConfigType type) {
+        long version = knownVersions.getOrDefault(type, 0L) + 1;
+        try {
+            Long v = redis.opsForValue().increment(VERSION_KEY_PREFIX + type.name());
+            if (v != null) {
+                version = v;
+            }
+        } catch (Exception e) {
+            log.warn("[SystemConfigCache] 版本递增失败 type={}, err={}", type, e.getMessage());
+        }
+
+        invalidations.publish(type.name() + ":" + version);
+        log.info("[SystemConfigCache] 配置缓存已失效 type={}, version={}", type, version);
+    }
+
+    /**
+     * 全量重载：所有类型递增版本并广播
+     */
+    @Override
+    public void invalidateAll() {
+        for (SystemConfigType type : SystemConfigType.values()) {
+            invalidate(type);
+        }
+    }
+
+    private void onInvalidation(String message) {
+        int idx = message.lastIndexOf(':');
+        if (idx <= 0) {
+            return;
+        }
+        try {
+            SystemConfigType type = SystemConfigType.valueOf(message.substring(0, idx));
+            long version = Long.parseLong(message.substring(idx + 1));
+            evictBelow(type, version);
+        } catch (IllegalArgumentException e) {
+            log.warn("[SystemConfigCache] 忽略无法识别的失效消息 message={}", message);
+        }
+    }
+
+    private void evictBelow(SystemConfigType type, long version) {
+        knownVersions.merge(type, version, Math::max);
+        entries.computeIfPresent(type, (k, e) -> e.version < version ? null : e);
+    }
+
+    private long readVersion(SystemConfigType type) {
+        try {
+            String v = redis.opsForValue().get(VERSION_KEY_PREFIX + type.name());
+            return v == null ? 0L : Long.parseLong(v);
+        } catch (Exception e) {
+            log.warn("[SystemConfigCache] 读取版本失败，按本地已知版本处理 type={}, err={}", type, e.getMessage());
+            return knownVersions.getOrDefault(type, 0L);
+        }
+    }
+
+    private double ageSeconds(SystemConfigType type) {
+        Entry entry = entries.get(type);
+        return entry == null ? 0 : (System.currentTimeMillis() - entry.loadedAt) / 1000.0;
+    }
+
+    private double cachedVersion(SystemConfigType type) {
+        Entry entry = entries.get(type);
+        return entry == null ? -1 : entry.version;
+    }
+
+    private static final class Entry {
+        private final Class<?> valueClass;
+        private final Object value;
+        private final long version;
+        private final long loadedAt;
+
+        private Entry(Class<?> valueClass, Object value, long version, long loadedAt) {
+            this.valueClass = valueClass;
+            this.value = value;
+            this.version = version;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
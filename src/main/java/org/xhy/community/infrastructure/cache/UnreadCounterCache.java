@@ -0,0 +1,358 @@
+package org.xhy.community.infrastructure.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.xhy.community.domain.common.valueobject.ReadChannel;
+import org.xhy.community.domain.notification.port.UnreadNotificationCachePort;
+import org.xhy.community.domain.read.port.LastSeenCachePort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 用户未读计数缓存
+ * 用户 Key: unread:user:{userId}（HASH），各字段独立预热：
+ * - NOTIFICATIONS：站内信未读数，投递成功后 +N、标记已读 -1、全部已读置 0，字段不存在时跳过，等待下次读取预热；
+ * - POSTS / QUESTIONS / CHAPTERS：各频道 Last Seen（毫秒时间戳），单调不减。
+ * 频道 Key: unread:channel:{channel}（ZSET），成员为内容ID，score 为发布时间（毫秒），仅保留最近窗口；
+ * 窗口下界记录在 unread:channel:floor（HASH），Last Seen 早于下界或下界不存在时由调用方回源数据库。
+ * 读取：一次 Lua 调用返回站内信未读数与各频道的 Last Seen、未读数（ZCOUNT）。
+ * 兜底：用户 Key 自创建起带固定 TTL（更新不续期），预热与更新并发导致的偏差最多保留一个 TTL；
+ * 频道集合由定时任务按数据库重建，删除/下线的内容在下次重建后不再计入。
+ */
+@Component
+public class UnreadCounterCache implements UnreadNotificationCachePort, LastSeenCachePort {
+
+    private static final Logger log = LoggerFactory.getLogger(UnreadCounterCache.class);
+
+    private static final String USER_KEY_PREFIX = "unread:user:";
+    private static final String CHANNEL_KEY_PREFIX = "unread:channel:";
+    private static final String FLOOR_KEY = "unread:channel:floor";
+    private static final String NOTIFICATIONS_FIELD = "NOTIFICATIONS";
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    /** 汇总脚本返回整数数组，Redis 将其反序列化为 List<Long> */
+    @SuppressWarnings("unchecked")
+    private static final Class<List<Long>> LONG_LIST = (Class<List<Long>>) (Class<?>) List.class;
+
+    /**
+     * KEYS[1]=用户 Key，KEYS[2]=窗口下界，KEYS[3..]=频道集合；ARGV=频道名
+     * 返回 [站内信未读, 频道1 LastSeen, 频道1 未读, ...]，缺失项为 -1
+     */
+    private static final String SUMMARY_SCRIPT =
+            "local result = {} " +
+            "result[1] = tonumber(redis.call('hget', KEYS[1], 'NOTIFICATIONS') or '-1') " +
+            "for i = 1, #ARGV do " +
+            "local seen = redis.call('hget', KEYS[1], ARGV[i]) " +
+            "local floor = redis.call('hget', KEYS[2], ARGV[i]) " +
+            "local count = -1 " +
+            "if seen and floor and tonumber(seen) >= tonumber(floor) then " +
+            "count = redis.call('zcount', KEYS[2 + i], '(' .. seen, '+inf') end " +
+            "result[2 * i] = tonumber(seen or '-1') " +
+            "result[2 * i + 1] = count end " +
+            "return result";
+
+    /**
+     * ARGV: 字段, 值, TTL, 是否覆盖（1 覆盖 / 0 仅字段不存在时写入）
+     */
+    private static final String WARM_SCRIPT =
+            "if ARGV[4] == '1' then redis.call('hset', KEYS[1], ARGV[1], ARGV[2]) " +
+            "else redis.call('hsetnx', KEYS[1], ARGV[1], ARGV[2]) end " +
+            "if redis.call('pttl', KEYS[1]) < 0 then redis.call('pexpire', KEYS[1], ARGV[3]) end " +
+            "return 1";
+
+    private static final String INCREMENT_SCRIPT =
+            "if redis.call('hexists', KEYS[1], ARGV[1]) == 1 then " +
+            "local v = redis.call('hincrby', KEYS[1], ARGV[1], ARGV[2]) " +
+            "if v < 0 then redis.call('hset', KEYS[1], ARGV[1], 0) end " +
+            "return 1 end " +
+            "return 0";
+
+    private static final String LAST_SEEN_SCRIPT =
+            "local old = redis.call('hget', KEYS[1], ARGV[1]) " +
+            "if not old or tonumber(old) <= tonumber(ARGV[2]) then " +
+            "redis.call('hset', KEYS[1], ARGV[1], ARGV[2]) end " +
+            "if redis.call('pttl', KEYS[1]) < 0 then redis.call('pexpire', KEYS[1], ARGV[3]) end " +
+            "return 1";
+
+    private final StringRedisTemplate redis;
+    private final long ttlMillis;
+    private final DefaultRedisScript<List<Long>> summaryLua;
+    private final DefaultRedisScript<Long> warmLua;
+    private final DefaultRedisScript<Long> lastSeenLua;
+
+    public UnreadCounterCache(StringRedisTemplate redis,
+                              @Value("${community.unread.ttl-seconds:1800}") long ttlSeconds) {
+        this.redis = redis;
+        this.ttlMillis = Duration.ofSeconds(Math.max(1, ttlSeconds)).toMillis();
+        this.summaryLua = new DefaultRedisScript<>(SUMMARY_SCRIPT, LONG_LIST);
+        this.warmLua = new DefaultRedisScript<>(WARM_SCRIPT, Long.class);
+        this.lastSeenLua = new DefaultRedisScript<>(LAST_SEEN_SCRIPT, Long.class);
+    }
+
+    /**
+     * 未读汇总读取结果；未命中的项为 null
+     */
+    public static class Snapshot {
+        private Long notifications;
+        private final Map<ReadChannel, LocalDateTime> lastSeen = new EnumMap<>(ReadChannel.class);
+        private final Map<ReadChannel, Long> unread = new EnumMap<>(ReadChannel.class);
+
+        public Long getNotifications() { return notifications; }
+        public Map<ReadChannel, LocalDateTime> getLastSeen() { return lastSeen; }
+        public Map<ReadChannel, Long> getUnread() { return unread; }
+    }
+
+    /**
+     * 一次读取用户的站内信未读数与各频道未读数
+     *
+     * @return Redis 不可用时返回空快照（全部回源）
+     */
+    public Snapshot read(String userId) {
+        ReadChannel[] channels = ReadChannel.values();
+        List<String> keys = new ArrayList<>(channels.length + 2);
+        keys.add(userKey(userId));
+        keys.add(FLOOR_KEY);
+        Object[] args = new Object[channels.length];
+        for (int i = 0; i < channels.length; i++) {
+            keys.add(channelKey(channels[i]));
+            args[i] = channels[i].name();
+        }
+
+        Snapshot snapshot = new Snapshot();
+        List<Long> values;
+        try {
+            values = redis.execute(summaryLua, keys, args);
+        } catch (Exception e) {
+            log.warn("[UnreadCounterCache] 读取失败，降级回源 userId={}, err={}", userId, e.getMessage());
+            return snapshot;
+        }
+        if (values == null || values.size() < 1 + channels.length * 2) {
+            return snapshot;
+        }
+        snapshot.notifications = present(values.get(0));
+        for (int i = 0; i < channels.length; i++) {
+            Long seen = present(values.get(1 + i * 2));
+            Long count = present(values.get(2 + i * 2));
+            if (seen != null) {
+                snapshot.lastSeen.put(channels[i], fromMillis(seen));
+            }
+            if (count != null) {
+                snapshot.unread.put(channels[i], count);
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * 读取站内信未读数；未预热或 Redis 不可用时返回 null
+     */
+    @Override
+    public Long getNotifications(String userId) {
+        try {
+            Object value = redis.opsForHash().get(userKey(userId), NOTIFICATIONS_FIELD);
+            return value == null ? null : Long.parseLong(value.toString());
+        } catch (Exception e) {
+            log.warn("[UnreadCounterCache] 读取站内信未读数失败，降级回源 userId={}, err={}", userId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 预热站内信未读数（字段已存在时不覆盖）
+     */
+    @Override
+    public void warmNotifications(String userId, long count) {
+        warm(userId, NOTIFICATIONS_FIELD, String.valueOf(count));
+    }
+
+    /**
+     * 预热频道 Last Seen（字段已存在时不覆盖）
+     */
+    public void warmLastSeen(String userId, ReadChannel channel, LocalDateTime lastSeenAt) {
+        warm(userId, channel.name(), String.valueOf(toMillis(lastSeenAt)));
+    }
+
+    /**
+     * 站内信投递成功：接收者未读数 +1（事务提交后执行，一次 pipeline）
+     */
+    @Override
+    public void incrementNotifications(Collection<String> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            return;
+        }
+        List<String> ids = List.copyOf(userIds);
+        afterCommit(() -> {
+            byte[] script = raw(INCREMENT_SCRIPT);
+            byte[] field = raw(NOTIFICATIONS_FIELD);
+            byte[] delta = raw("1");
+            redis.executePipelined((RedisCallback<Object>) connection -> {
+                for (String userId : ids) {
+                    connection.scriptingCommands().eval(script, ReturnType.INTEGER, 1,
+                            raw(userKey(userId)), field, delta);
+                }
+                return null;
+            });
+        }, "批量累加站内信未读数 size=" + ids.size(), ids);
+    }
+
+    /**
+     * 单条通知已读：未读数 -1（不低于 0）
+     */
+    @Override
+    public void decrementNotifications(String userId) {
+        afterCommit(() -> redis.execute((RedisCallback<Object>) connection -> connection.scriptingCommands()
+                        .eval(raw(INCREMENT_SCRIPT), ReturnType.INTEGER, 1,
+                                raw(userKey(userId)), raw(NOTIFICATIONS_FIELD), raw("-1"))),
+                "扣减站内信未读数 userId=" + userId, List.of(userId));
+    }
+
+    /**
+     * 全部已读：未读数置 0
+     */
+    @Override
+    public void resetNotifications(String userId) {
+        afterCommit(() -> redis.execute(warmLua, List.of(userKey(userId)),
+                        NOTIFICATIONS_FIELD, "0", String.valueOf(ttlMillis), "1"), "清零站内信未读数 userId=" + userId, List.of(userId));
+    }
+
+    /**
+     * 更新频道 Last Seen（单调不减）
+     */
+    @Override
+    public void updateLastSeen(String userId, ReadChannel channel, LocalDateTime lastSeenAt) {
+        afterCommit(() -> redis.execute(lastSeenLua, List.of(userKey(userId)),
+                        channel.name(), String.valueOf(toMillis(lastSeenAt)), String.valueOf(ttlMillis)),
+                "更新 Last Seen userId=" + userId + ", channel=" + channel, List.of(userId));
+    }
+
+    /**
+     * 记录频道新发布的内容
+     */
+    public void recordPublished(ReadChannel channel, String contentId, LocalDateTime publishTime) {
+        try {
+            redis.opsForZSet().add(channelKey(channel), contentId, toMillis(publishTime));
+        } catch (Exception e) {
+            log.warn("[UnreadCounterCache] 记录发布失败 channel={}, contentId={}, err={}",
+                    channel, contentId, e.getMessage());
+        }
+    }
+
+    /**
+     * 按数据库数据重建频道集合：
+     * 写入窗口内全部内容，移除快照时刻之前已不存在（删除/下线）或早于窗口的成员，最后更新窗口下界；
+     * 快照之后通过事件写入的成员不会被移除。
+     *
+     * @param publishTimes 窗口内已发布内容：contentId -> 发布时间
+     */
+    public void rebuildChannel(ReadChannel channel, Map<String, LocalDateTime> publishTimes,
+                               LocalDateTime floor, LocalDateTime snapshotAt) {
+        byte[] key = raw(channelKey(channel));
+        List<Map.Entry<String, LocalDateTime>> entries = new ArrayList<>(publishTimes.entrySet());
+        for (int start = 0; start < entries.size(); start += REBUILD_BATCH_SIZE) {
+            List<Map.Entry<String, LocalDateTime>> batch =
+                    entries.subList(start, Math.min(entries.size(), start + REBUILD_BATCH_SIZE));
+            redis.executePipelined((RedisCallback<Object>) connection -> {
+                for (Map.Entry<String, LocalDateTime> entry : batch) {
+                    connection.zSetCommands().zAdd(key, toMillis(entry.getValue()), raw(entry.getKey()));
+                }
+                return null;
+            });
+        }
+
+        Set<String> existing = redis.opsForZSet().rangeByScore(channelKey(channel),
+                Double.NEGATIVE_INFINITY, toMillis(snapshotAt));
+        if (existing != null) {
+            Set<String> stale = new HashSet<>(existing);
+            stale.removeAll(publishTimes.keySet());
+            if (!stale.isEmpty()) {
+                redis.opsForZSet().remove(channelKey(channel), stale.toArray());
+            }
+        }
+        long floorMillis = toMillis(floor);
+        redis.execute((RedisCallback<Object>) connection -> {
+            connection.zSetCommands().zRemRangeByScore(key, Double.NEGATIVE_INFINITY, floorMillis);
+            return null;
+        });
+        redis.opsForHash().put(FLOOR_KEY, channel.name(), String.valueOf(floorMillis));
+    }
+
+    private void warm(String userId, String field, String value) {
+        try {
+            redis.execute(warmLua, List.of(userKey(userId)), field, value, String.valueOf(ttlMillis), "0");
+        } catch (Exception e) {
+            log.warn("[UnreadCounterCache] 预热失败 userId={}, field={}, err={}", userId, field, e.getMessage());
+        }
+    }
+
+    /**
+     * 处于事务中时在提交后执行，回滚则不更新；失败时删除用户 Key 等待重新预热
+     */
+    private void afterCommit(Runnable action, String description, Collection<String> userIds) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    run(action, description, userIds);
+                }
+            });
+        } else {
+            run(action, description, userIds);
+        }
+    }
+
+    private void run(Runnable action, String description, Collection<String> userIds) {
+        try {
+            action.run();
+        } catch (Exception e) {
+            log.warn("[UnreadCounterCache] {} 失败，删除用户缓存等待重新预热 err={}", description, e.getMessage());
+            try {
+                redis.delete(userIds.stream().map(this::userKey).toList());
+            } catch (Exception ignored) {
+                // Redis 不可用时随 TTL 过期
+            }
+        }
+    }
+
+    private Long present(Long value) {
+        return value != null && value >= 0 ? value : null;
+    }
+
+    private String userKey(String userId) {
+        return USER_KEY_PREFIX + userId;
+    }
+
+    private String channelKey(ReadChannel channel) {
+        return CHANNEL_KEY_PREFIX + channel.name();
+    }
+
+    private long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private LocalDateTime fromMillis(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    private byte[] raw(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,64 @@
+package org.xhy.community.infrastructure.cache.support;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * 进程内缓存的跨节点失效广播（Redis pub/sub）
+ * 发布时先在本节点执行失效，再广播给其他节点；本节点也会收到自己的广播，失效处理需幂等。
+ * 广播失败时其他节点的条目最多在各自 TTL 后过期。
+ */
+@Component
+public class CacheInvalidationBus {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    private final StringRedisTemplate redis;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    public CacheInvalidationBus(StringRedisTemplate redis, RedisMessageListenerContainer listenerContainer) {
+        this.redis = redis;
+        this.listenerContainer = listenerContainer;
+    }
+
+    /**
+     * 订阅失效频道
+     *
+     * @param handler 本节点的失效处理（须幂等）
+     */
+    public Channel subscribe(String channel, Consumer<String> handler) {
+        listenerContainer.addMessageListener((message, pattern) ->
+                        handler.accept(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(channel));
+        return new Channel(channel, handler);
+    }
+
+    public final class Channel {
+        private final String name;
+        private final Consumer<String> handler;
+
+        private Channel(String name, Consumer<String> handler) {
+            this.name = name;
+            this.handler = handler;
+        }
+
+        /**
+         * 本节点立即失效并广播
+         */
+        public void publish(String message) {
+            handler.accept(message);
+            try {
+                redis.convertAndSend(name, message);
+            } catch (Exception e) {
+                log.warn("[CacheInvalidationBus] 失效广播失败 channel={}, message={}, err={}", name, message, e.getMessage());
+            }
+        }
+    }
+}
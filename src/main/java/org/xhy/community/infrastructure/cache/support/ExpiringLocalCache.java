@@ -0,0 +1,137 @@
+package org.xhy.community.infrastructure.cache.support;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiPredicate;
+import java.util.function.LongSupplier;
+
+/**
+ * 进程内有界近缓存（基于 Caffeine）
+ * - 容量：超过上限时按近似 LRU/LFU 淘汰单个条目，不会整体清空；
+ * - 过期：每个条目携带自己的绝对过期时间（如 min(配置 TTL, token exp)）；
+ * - 失效代数：回源前读取 {@link #currentEpoch()}，写入时传回；回源期间发生过失效则放弃写入，
+ *   避免把旧结论写回缓存。
+ */
+public final class ExpiringLocalCache<K, V> {
+
+    private final Cache<K, Timed<V>> cache;
+    private final LongSupplier clockMillis;
+    private final AtomicLong epoch = new AtomicLong();
+
+    public ExpiringLocalCache(long maxEntries) {
+        this(maxEntries, Ticker.systemTicker(), System::currentTimeMillis, null);
+    }
+
+    ExpiringLocalCache(long maxEntries, Ticker ticker, LongSupplier clockMillis, Executor executor) {
+        this.clockMillis = clockMillis;
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .ticker(ticker);
+        if (executor != null) {
+            builder.executor(executor);
+        }
+        this.cache = builder.expireAfter(new Expiry<K, Timed<V>>() {
+            @Override
+            public long expireAfterCreate(K key, Timed<V> value, long currentTime) {
+                return remainingNanos(value);
+            }
+
+            @Override
+            public long expireAfterUpdate(K key, Timed<V> value, long currentTime, long currentDuration) {
+                return remainingNanos(value);
+            }
+
+            @Override
+            public long expireAfterRead(K key, Timed<V> value, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        }).build();
+    }
+
+    /**
+     * 注册条目数量指标
+     */
+    public ExpiringLocalCache<K, V> registerSizeGauge(MeterRegistry registry, String name) {
+        Gauge.builder(name, this, ExpiringLocalCache::size).register(registry);
+        return this;
+    }
+
+    public long currentEpoch() {
+        return epoch.get();
+    }
+
+    /**
+     * 读取未过期的值；未命中返回 null
+     */
+    public V get(K key) {
+        Timed<V> timed = cache.getIfPresent(key);
+        if (timed == null) {
+            return null;
+        }
+        if (timed.expireAt <= clockMillis.getAsLong()) {
+            cache.asMap().remove(key, timed);
+            return null;
+        }
+        return timed.value;
+    }
+
+    /**
+     * 写入；回源期间发生过失效（代数变化）或已过期时放弃
+     *
+     * @return 是否写入
+     */
+    public boolean put(K key, V value, long expireAtMillis, long epochAtLoad) {
+        if (epoch.get() != epochAtLoad || expireAtMillis <= clockMillis.getAsLong()) {
+            return false;
+        }
+        Timed<V> timed = new Timed<>(value, expireAtMillis);
+        cache.put(key, timed);
+        // 写入与失效并发：失效已发生则撤回本次写入
+        if (epoch.get() != epochAtLoad) {
+            cache.asMap().remove(key, timed);
+            return false;
+        }
+        return true;
+    }
+
+    public void invalidate(K key) {
+        epoch.incrementAndGet();
+        cache.invalidate(key);
+    }
+
+    /**
+     * 失效满足条件的条目（按用户、按 token 等）
+     */
+    public void invalidateIf(BiPredicate<? super K, ? super V> predicate) {
+        epoch.incrementAndGet();
+        cache.asMap().entrySet().removeIf(e -> predicate.test(e.getKey(), e.getValue().value));
+    }
+
+    public void invalidateAll() {
+        epoch.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    void cleanUp() {
+        cache.cleanUp();
+    }
+
+    private long remainingNanos(Timed<V> value) {
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, value.expireAt - clockMillis.getAsLong()));
+    }
+
+    private record Timed<V>(V value, long expireAt) {
+    }
+}
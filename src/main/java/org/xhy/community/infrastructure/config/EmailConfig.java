@@ -30,6 +30,16 @@ public class EmailConfig {
         private String password;
         private String senderName = "敲鸭社区";
         private boolean enabled = true;
+        /** 连接池：最大并行连接数（同时也是批量发送的并行度） */
+        private int poolSize = 3;
+        /** 连接池：空闲连接最长保留时间（秒），超过后关闭 */
+        private int maxIdleSeconds = 60;
+        /** 连接池：单个连接最多发送的邮件数，达到后关闭重建 */
+        private int maxMessagesPerConnection = 200;
+        /** 限速：每秒发送邮件数（令牌桶填充速率，全部连接共享） */
+        private double ratePerSecond = 5.0;
+        /** 限速：令牌桶容量（允许的突发数量） */
+        private int rateBurst = 5;
 
         // Getters and Setters
         public String getHost() {
@@ -79,5 +89,45 @@ public class EmailConfig {
         public void setEnabled(boolean enabled) {
             this.enabled = enabled;
         }
+
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        public void setPoolSize(int poolSize) {
+            this.poolSize = poolSize;
+        }
+
+        public int getMaxIdleSeconds() {
+            return maxIdleSeconds;
+        }
+
+        public void setMaxIdleSeconds(int maxIdleSeconds) {
+            this.maxIdleSeconds = maxIdleSeconds;
+        }
+
+        public int getMaxMessagesPerConnection() {
+            return maxMessagesPerConnection;
+        }
+
+        public void setMaxMessagesPerConnection(int maxMessagesPerConnection) {
+            this.maxMessagesPerConnection = maxMessagesPerConnection;
+        }
+
+        public double getRatePerSecond() {
+            return ratePerSecond;
+        }
+
+        public void setRatePerSecond(double ratePerSecond) {
+            this.ratePerSecond = ratePerSecond;
+        }
+
+        public int getRateBurst() {
+            return rateBurst;
+        }
+
+        public void setRateBurst(int rateBurst) {
+            this.rateBurst = rateBurst;
+        }
     }
-}
\ No newline at end of file
+}
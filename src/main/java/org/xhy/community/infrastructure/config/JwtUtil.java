@@ -1,24 +1,53 @@
 package org.xhy.community.infrastructure.config;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.xhy.community.infrastructure.cache.support.ExpiringLocalCache;
 
 import javax.crypto.SecretKey;
+import java.time.Duration;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * JWT 工具类
+ * 校验走单次解析：复用预构建的解析器，校验通过的 claims 缓存在进程内（有界，超限时逐个淘汰，过期时间不超过 token 的 exp），
+ * 同一 token 的后续请求（拦截器、黑名单、CDN 鉴权等）无需重复验签与反序列化。
+ */
 @Component
 public class JwtUtil {
     
     private final JwtProperties jwtProperties;
     private final SecretKey secretKey;
+    private final JwtParser parser;
+    private final long cacheTtlMillis;
+    // key 为完整 token：查找只需 String 哈希与比较，开销远低于再计算一次摘要
+    private final ExpiringLocalCache<String, VerifiedToken> verified;
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
     
-    public JwtUtil(JwtProperties jwtProperties) {
+    public JwtUtil(JwtProperties jwtProperties,
+                   MeterRegistry meterRegistry,
+                   @Value("${community.jwt.claims-cache.ttl-seconds:300}") long cacheTtlSeconds,
+                   @Value("${community.jwt.claims-cache.max-entries:10000}") int cacheMaxEntries) {
         this.jwtProperties = jwtProperties;
         this.secretKey = Keys.hmacShaKeyFor(jwtProperties.getSecret().getBytes());
+        // 兼容 jjwt 0.12.x：使用 verifyWith(..).build().parseSignedClaims(..).getPayload()；解析器线程安全，构建一次复用
+        this.parser = Jwts.parser().verifyWith(secretKey).build();
+        this.cacheTtlMillis = Duration.ofSeconds(Math.max(0, cacheTtlSeconds)).toMillis();
+        this.verified = new ExpiringLocalCache<String, VerifiedToken>(Math.max(100, cacheMaxEntries))
+                .registerSizeGauge(meterRegistry, "jwt.claims.cache.size");
+
+        this.hitCounter = Counter.builder("jwt.claims.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.missCounter = Counter.builder("jwt.claims.cache.requests").tag("result", "miss").register(meterRegistry);
     }
     
     /**
@@ -48,71 +77,116 @@ public class JwtUtil {
     }
     
     /**
-     * 从token中获取用户ID
+     * 校验签名与有效期，返回已验证的 claims；无效或已过期返回 null
+     * 单次解析入口：需要多个字段时应调用本方法一次，而不是组合 validateToken + getXxxFromToken
      */
-    public String getUserIdFromToken(String token) {
+    public VerifiedToken verify(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        VerifiedToken cached = verified.get(token);
+        if (cached != null) {
+            hitCounter.increment();
+            return cached;
+        }
+        missCounter.increment();
+
+        long now = System.currentTimeMillis();
+        Claims claims;
         try {
-            Claims claims = getClaimsFromToken(token);
-            return claims.get("userId", String.class);
+            claims = parser.parseSignedClaims(token).getPayload();
         } catch (Exception e) {
             return null;
         }
+        Date expiration = claims.getExpiration();
+        if (expiration == null || expiration.getTime() <= now) {
+            return null;
+        }
+        Date issuedAt = claims.getIssuedAt();
+        VerifiedToken result = new VerifiedToken(
+                claims.get("userId", String.class),
+                claims.get("email", String.class),
+                issuedAt != null ? issuedAt.getTime() : -1,
+                expiration.getTime());
+        if (cacheTtlMillis > 0) {
+            verified.put(token, result, Math.min(expiration.getTime(), now + cacheTtlMillis), verified.currentEpoch());
+        }
+        return result;
     }
-    
+
     /**
-     * 从token中获取邮箱
+     * 校验通过时返回用户ID，否则返回 null
      */
-    public String getEmailFromToken(String token) {
-        try {
-            Claims claims = getClaimsFromToken(token);
-            return claims.get("email", String.class);
-        } catch (Exception e) {
-            return null;
-        }
+    public String getVerifiedUserId(String token) {
+        VerifiedToken result = verify(token);
+        return result != null ? result.getUserId() : null;
     }
     
     /**
-     * 验证token是否有效
+     * 从token中获取用户ID
      */
-    public boolean validateToken(String token) {
-        try {
-            Claims claims = getClaimsFromToken(token);
-            return !isTokenExpired(claims);
-        } catch (Exception e) {
-            return false;
-        }
+    public String getUserIdFromToken(String token) {
+        return getVerifiedUserId(token);
     }
     
     /**
-     * 从token中获取Claims
+     * 从token中获取邮箱
      */
-    private Claims getClaimsFromToken(String token) {
-        // 兼容 jjwt 0.12.x：使用 verifyWith(..).build().parseSignedClaims(..).getPayload()
-        return Jwts.parser()
-                .verifyWith(secretKey)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    public String getEmailFromToken(String token) {
+        VerifiedToken result = verify(token);
+        return result != null ? result.getEmail() : null;
     }
     
     /**
-     * 检查token是否过期
+     * 验证token是否有效
      */
-    private boolean isTokenExpired(Claims claims) {
-        Date expiration = claims.getExpiration();
-        return expiration.before(new Date());
+    public boolean validateToken(String token) {
+        return verify(token) != null;
     }
     
     /**
      * 获取token剩余有效时间（毫秒）
      */
     public long getRemainingTime(String token) {
-        try {
-            Claims claims = getClaimsFromToken(token);
-            Date expiration = claims.getExpiration();
-            return expiration.getTime() - System.currentTimeMillis();
-        } catch (Exception e) {
-            return 0;
+        VerifiedToken result = verify(token);
+        return result != null ? result.getRemainingMillis() : 0;
+    }
+
+    /**
+     * 已验证的 token 信息（不可变，可安全缓存共享）
+     */
+    public static final class VerifiedToken {
+        private final String userId;
+        private final String email;
+        private final long issuedAtMillis;
+        private final long expiresAtMillis;
+
+        private VerifiedToken(String userId, String email, long issuedAtMillis, long expiresAtMillis) {
+            this.userId = userId;
+            this.email = email;
+            this.issuedAtMillis = issuedAtMillis;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        public String getUserId() {
+            return userId;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        /** 签发时间（毫秒，JWT 精度为秒）；缺失时为 -1 */
+        public long getIssuedAtMillis() {
+            return issuedAtMillis;
+        }
+
+        public long getExpiresAtMillis() {
+            return expiresAtMillis;
+        }
+
+        public long getRemainingMillis() {
+            return expiresAtMillis - System.currentTimeMillis();
         }
     }
 }
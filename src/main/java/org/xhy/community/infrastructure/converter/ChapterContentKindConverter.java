@@ -0,0 +1,40 @@
+package org.xhy.community.infrastructure.converter;
+
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.MappedTypes;
+import org.springframework.stereotype.Component;
+import org.xhy.community.domain.course.valueobject.ChapterContentKind;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+@Component
+@MappedTypes(ChapterContentKind.class)
+public class ChapterContentKindConverter extends BaseTypeHandler<ChapterContentKind> {
+
+    @Override
+    public void setNonNullParameter(PreparedStatement ps, int i, ChapterContentKind parameter, JdbcType jdbcType) throws SQLException {
+        ps.setString(i, parameter.name());
+    }
+
+    @Override
+    public ChapterContentKind getNullableResult(ResultSet rs, String columnName) throws SQLException {
+        String code = rs.getString(columnName);
+        return code == null ? null : ChapterContentKind.fromCode(code);
+    }
+
+    @Override
+    public ChapterContentKind getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+        String code = rs.getString(columnIndex);
+        return code == null ? null : ChapterContentKind.fromCode(code);
+    }
+
+    @Override
+    public ChapterContentKind getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+        String code = cs.getString(columnIndex);
+        return code == null ? null : ChapterContentKind.fromCode(code);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,39 @@
+package org.xhy.community.infrastructure.converter;
+
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+import org.xhy.community.domain.notification.valueobject.DeliveryStatus;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * 通知投递状态转换器
+ */
+public class DeliveryStatusConverter extends BaseTypeHandler<DeliveryStatus> {
+
+    @Override
+    public void setNonNullParameter(PreparedStatement ps, int i, DeliveryStatus parameter, JdbcType jdbcType) throws SQLException {
+        ps.setString(i, parameter.name());
+    }
+
+    @Override
+    public DeliveryStatus getNullableResult(ResultSet rs, String columnName) throws SQLException {
+        String value = rs.getString(columnName);
+        return value != null ? DeliveryStatus.valueOf(value) : null;
+    }
+
+    @Override
+    public DeliveryStatus getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+        String value = rs.getString(columnIndex);
+        return value != null ? DeliveryStatus.valueOf(value) : null;
+    }
+
+    @Override
+    public DeliveryStatus getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+        String value = cs.getString(columnIndex);
+        return value != null ? DeliveryStatus.valueOf(value) : null;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,166 @@
+package org.xhy.community.infrastructure.counter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.stereotype.Component;
+import org.xhy.community.domain.log.port.DistinctViewerCounterPort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 去重浏览人数计数器（Redis HyperLogLog，标准误差约 0.81%）
+ * Key: uv:{targetType}:{targetId}（HLL），成员为 userId
+ * 脏集合: uv:dirty（SET），成员为 {targetType}:{targetId}，记录自上次持久化以来有新增浏览的目标，
+ * 由持久化任务 SPOP 取出后写回数据库（多节点并发 SPOP 不会重复处理同一目标）。
+ */
+@Component
+public class DistinctViewerCounter implements DistinctViewerCounterPort {
+
+    private static final Logger log = LoggerFactory.getLogger(DistinctViewerCounter.class);
+
+    private static final String KEY_PREFIX = "uv:";
+    private static final String DIRTY_KEY = "uv:dirty";
+
+    private final StringRedisTemplate redis;
+
+    public DistinctViewerCounter(StringRedisTemplate redis) {
+        this.redis = redis;
+    }
+
+    /**
+     * 记录一次浏览（PFADD + 标记脏目标，一次 pipeline）
+     */
+    public void record(String targetType, String targetId, String userId) {
+        addAll(targetType, Map.of(targetId, List.of(userId)));
+    }
+
+    /**
+     * 批量记录浏览：Map<targetId, userIds>
+     */
+    @Override
+    public void addAll(String targetType, Map<String, ? extends Collection<String>> viewersByTarget) {
+        if (viewersByTarget.isEmpty()) {
+            return;
+        }
+        redis.executePipelined((RedisCallback<Object>) connection -> {
+            for (Map.Entry<String, ? extends Collection<String>> entry : viewersByTarget.entrySet()) {
+                byte[][] users = entry.getValue().stream()
+                        .map(this::raw)
+                        .toArray(byte[][]::new);
+                connection.hyperLogLogCommands().pfAdd(raw(key(targetType, entry.getKey())), users);
+                connection.setCommands().sAdd(raw(DIRTY_KEY), raw(member(targetType, entry.getKey())));
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 批量读取去重人数（逐个 PFCOUNT，一次 pipeline）；Key 不存在时为 0
+     *
+     * @return Map<targetId, count>；Redis 不可用时返回 null
+     */
+    @Override
+    public Map<String, Long> count(String targetType, Collection<String> targetIds) {
+        List<String> ids = new ArrayList<>(targetIds);
+        try {
+            List<Object> replies = redis.executePipelined((RedisCallback<Object>) connection -> {
+                for (String id : ids) {
+                    connection.hyperLogLogCommands().pfCount(raw(key(targetType, id)));
+                }
+                return null;
+            });
+            Map<String, Long> result = new HashMap<>();
+            for (int i = 0; i < ids.size(); i++) {
+                Object reply = replies.get(i);
+                result.put(ids.get(i), reply instanceof Number n ? n.longValue() : 0L);
+            }
+            return result;
+        } catch (Exception e) {
+            log.warn("[DistinctViewerCounter] 读取失败，降级读取持久化值 type={}, err={}", targetType, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 批量导出 HLL 原始数据（用于持久化）；Key 不存在的目标不在结果中
+     */
+    @Override
+    public Map<String, byte[]> dump(String targetType, Collection<String> targetIds) {
+        List<String> ids = new ArrayList<>(targetIds);
+        List<byte[]> values = redis.execute((RedisCallback<List<byte[]>>) connection -> {
+            byte[][] keys = ids.stream().map(id -> raw(key(targetType, id))).toArray(byte[][]::new);
+            return connection.stringCommands().mGet(keys);
+        });
+        Map<String, byte[]> result = new HashMap<>();
+        if (values != null) {
+            for (int i = 0; i < ids.size(); i++) {
+                if (values.get(i) != null) {
+                    result.put(ids.get(i), values.get(i));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 从持久化数据恢复 HLL（Key 已存在时不覆盖）
+     */
+    @Override
+    public void restore(String targetType, String targetId, byte[] sketch) {
+        try {
+            redis.execute((RedisCallback<Boolean>) connection -> connection.stringCommands()
+                    .set(raw(key(targetType, targetId)), sketch, Expiration.persistent(),
+                            RedisStringCommands.SetOption.ifAbsent()));
+        } catch (Exception e) {
+            log.warn("[DistinctViewerCounter] 恢复失败 type={}, targetId={}, err={}", targetType, targetId, e.getMessage());
+        }
+    }
+
+    /**
+     * 取出一批待持久化的目标（SPOP），返回 {targetType}:{targetId}
+     */
+    @Override
+    public List<String> popDirty(int count) {
+        List<String> members = redis.opsForSet().pop(DIRTY_KEY, count);
+        return members == null ? List.of() : members;
+    }
+
+    /**
+     * 重新标记待持久化目标（持久化失败时回退）
+     */
+    @Override
+    public void markDirty(Collection<String> members) {
+        if (members.isEmpty()) {
+            return;
+        }
+        try {
+            redis.opsForSet().add(DIRTY_KEY, members.toArray(new String[0]));
+        } catch (Exception e) {
+            log.warn("[DistinctViewerCounter] 回退脏标记失败 size={}, err={}", members.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * 脏集合成员格式：{targetType}:{targetId}
+     */
+    public static String member(String targetType, String targetId) {
+        return targetType + ":" + targetId;
+    }
+
+    private String key(String targetType, String targetId) {
+        return KEY_PREFIX + targetType + ":" + targetId;
+    }
+
+    private byte[] raw(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -1,10 +1,14 @@
 package org.xhy.community.infrastructure.email.impl;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.xhy.community.infrastructure.config.EmailConfig;
 import org.xhy.community.infrastructure.email.EmailService;
+import org.xhy.community.infrastructure.email.smtp.SmtpConnectionPool;
+import org.xhy.community.infrastructure.email.smtp.TokenBucket;
 
 import javax.mail.*;
 import javax.mail.internet.InternetAddress;
@@ -13,6 +17,10 @@ import javax.mail.internet.MimeMessage;
 import javax.mail.internet.MimeMultipart;
 import java.io.UnsupportedEncodingException;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.xhy.community.infrastructure.exception.ValidationException;
 import org.xhy.community.infrastructure.config.ValidationErrorCode;
@@ -20,6 +28,7 @@ import org.xhy.community.domain.notification.valueobject.BatchSendConfig;
 
 /**
  * 阿里云Direct Mail邮件发送服务实现
+ * 通过 SMTP 连接池复用已认证连接；多批次时在有限个连接上并行发送，由令牌桶统一限速。
  */
 @Service
 public class AliCloudEmailService implements EmailService {
@@ -27,10 +36,15 @@ public class AliCloudEmailService implements EmailService {
     private static final Logger log = LoggerFactory.getLogger(AliCloudEmailService.class);
 
     private final EmailConfig emailConfig;
+    private final MeterRegistry meterRegistry;
     private Session mailSession;
+    private SmtpConnectionPool connectionPool;
+    private TokenBucket rateLimiter;
+    private ExecutorService batchExecutor;
 
-    public AliCloudEmailService(EmailConfig emailConfig) {
+    public AliCloudEmailService(EmailConfig emailConfig, MeterRegistry meterRegistry) {
         this.emailConfig = emailConfig;
+        this.meterRegistry = meterRegistry;
         initMailSession();
     }
 
@@ -53,6 +67,10 @@ public class AliCloudEmailService implements EmailService {
         props.put("mail.smtp.from", smtp.getUsername());
         props.put("mail.user", smtp.getUsername());
         props.put("mail.password", smtp.getPassword());
+        // 连接复用后需设置超时，避免半开连接长期阻塞发送线程
+        props.put("mail.smtp.connectiontimeout", "10000");
+        props.put("mail.smtp.timeout", "30000");
+        props.put("mail.smtp.writetimeout", "30000");
 
         // 用于解决附件名过长导致的显示异常
         System.setProperty("mail.mime.splitlongparameters", "false");
@@ -68,8 +86,29 @@ public class AliCloudEmailService implements EmailService {
         // 创建邮件会话
         this.mailSession = Session.getInstance(props, authenticator);
 
-        log.info("邮件服务初始化完成: host={}, port={}, username={}",
-                smtp.getHost(), smtp.getPort(), smtp.getUsername());
+        int poolSize = Math.max(1, smtp.getPoolSize());
+        this.connectionPool = new SmtpConnectionPool(mailSession, smtp.getHost(), smtp.getPort(),
+                smtp.getUsername(), smtp.getPassword(), poolSize,
+                smtp.getMaxIdleSeconds() * 1000L, smtp.getMaxMessagesPerConnection(), meterRegistry);
+        this.rateLimiter = new TokenBucket(smtp.getRatePerSecond(), smtp.getRateBurst());
+        this.batchExecutor = Executors.newFixedThreadPool(poolSize, r -> {
+            Thread t = new Thread(r, "smtp-sender");
+            t.setDaemon(true);
+            return t;
+        });
+
+        log.info("邮件服务初始化完成: host={}, port={}, username={}, poolSize={}, rate={}/s",
+                smtp.getHost(), smtp.getPort(), smtp.getUsername(), poolSize, smtp.getRatePerSecond());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (batchExecutor != null) {
+            batchExecutor.shutdown();
+        }
+        if (connectionPool != null) {
+            connectionPool.close();
+        }
     }
 
 
@@ -89,43 +128,62 @@ public class AliCloudEmailService implements EmailService {
             return true;
         }
 
-        // 使用批量发送配置（默认值：batchSize=50, delay=1s, 跳过错误, 无重试）
+        // 使用批量发送配置（默认值：batchSize=50, 跳过错误, 无重试）；批次节奏由令牌桶控制，不再固定等待
         BatchSendConfig config = new BatchSendConfig();
 
         int total = to.size();
         int batchSize = Math.max(1, config.getBatchSize());
         int batchCount = (total + batchSize - 1) / batchSize;
 
-        int successBatches = 0;
-        int failedBatches = 0;
-
         if (config.isLogDetail()) {
             log.info("开始批量发送邮件: 共{}人, 批大小={}, 批次数={} subject={}", total, batchSize, batchCount, subject);
         }
 
-        for (int start = 0, batchIndex = 1; start < total; start += batchSize, batchIndex++) {
-            int end = Math.min(start + batchSize, total);
-            List<String> batch = to.subList(start, end);
-
-            boolean sent = sendOneBatchWithRetry(batch, subject, content, senderName, config, batchIndex, batchCount);
-            if (sent) {
-                successBatches++;
-            } else {
-                failedBatches++;
-                if (!config.isSkipOnError()) {
-                    if (config.isLogDetail()) {
-                        log.warn("批量发送中止：第{}/{}批失败且配置为不跳过错误", batchIndex, batchCount);
+        List<List<String>> batches = new ArrayList<>(batchCount);
+        for (int start = 0; start < total; start += batchSize) {
+            batches.add(to.subList(start, Math.min(start + batchSize, total)));
+        }
+
+        int successBatches = 0;
+        int failedBatches = 0;
+
+        if (batchCount == 1 || !config.isSkipOnError()) {
+            // 单批次直接在调用线程发送；不跳过错误时需按顺序发送并在失败时中止
+            for (int i = 0; i < batchCount; i++) {
+                if (sendOneBatchWithRetry(batches.get(i), subject, content, senderName, config, i + 1, batchCount)) {
+                    successBatches++;
+                } else {
+                    failedBatches++;
+                    if (!config.isSkipOnError()) {
+                        if (config.isLogDetail()) {
+                            log.warn("批量发送中止：第{}/{}批失败且配置为不跳过错误", i + 1, batchCount);
+                        }
+                        return false;
                     }
-                    return false;
                 }
             }
-
-            // 批次间延迟（最后一批不延迟）
-            if (end < total && config.getDelayBetweenBatches() > 0) {
+        } else {
+            // 多批次在有限个连接上并行发送，速率由令牌桶统一控制
+            List<Future<Boolean>> futures = new ArrayList<>(batchCount);
+            for (int i = 0; i < batchCount; i++) {
+                final int batchIndex = i + 1;
+                final List<String> batch = batches.get(i);
+                futures.add(batchExecutor.submit(() ->
+                        sendOneBatchWithRetry(batch, subject, content, senderName, config, batchIndex, batchCount)));
+            }
+            for (Future<Boolean> future : futures) {
+                boolean sent = false;
                 try {
-                    Thread.sleep(config.getDelayBetweenBatches());
+                    sent = Boolean.TRUE.equals(future.get());
                 } catch (InterruptedException ie) {
                     Thread.currentThread().interrupt();
+                } catch (ExecutionException ee) {
+                    log.error("批次发送异常: {}", ee.getCause() != null ? ee.getCause().getMessage() : ee.getMessage());
+                }
+                if (sent) {
+                    successBatches++;
+                } else {
+                    failedBatches++;
                 }
             }
         }
@@ -188,20 +246,27 @@ public class AliCloudEmailService implements EmailService {
         while (attempts < maxAttempts) {
             attempts++;
             try {
+                // 每次发送（含重试）消耗一个令牌，取代批次间的固定等待
+                rateLimiter.acquire();
                 sendOneMessage(batch, subject, content, senderName);
                 if (config.isLogDetail()) {
                     log.info("第{}/{}批发送成功，共{}人，尝试次数={}", batchIndex, batchCount, batch.size(), attempts);
                 }
                 return true;
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                lastEx = ie;
+                break;
             } catch (Exception e) {
                 lastEx = e;
                 log.error("第{}/{}批发送失败，尝试次数={}，错误={}，收件人={}", batchIndex, batchCount, attempts, e.getMessage(), batch, e);
-                // 简单线性等待，可根据需要改为指数退避
+                // 令牌桶只控制发送速率，失败后仍需退避，给服务端或网络恢复的时间
                 if (attempts < maxAttempts) {
                     try {
-                        Thread.sleep(Math.min(3000, Math.max(200, config.getDelayBetweenBatches())));
+                        Thread.sleep(retryBackoffMillis(config, attempts));
                     } catch (InterruptedException ie) {
                         Thread.currentThread().interrupt();
+                        break;
                     }
                 }
             }
@@ -213,6 +278,15 @@ public class AliCloudEmailService implements EmailService {
         return false;
     }
 
+    /**
+     * 重试退避：以批次间隔为基数（200ms~3s）按失败次数指数增长，上限 30s
+     */
+    static long retryBackoffMillis(BatchSendConfig config, int failedAttempts) {
+        long base = Math.min(3000, Math.max(200, config.getDelayBetweenBatches()));
+        int shift = Math.min(Math.max(0, failedAttempts - 1), 10);
+        return Math.min(30_000, base << shift);
+    }
+
     /**
      * 实际发送单封邮件（一个批次，多个收件人）
      */
@@ -259,7 +333,7 @@ public class AliCloudEmailService implements EmailService {
         // 设置邮件内容
         message.setContent(multipart);
 
-        // 发送邮件
-        Transport.send(message);
+        // 通过连接池发送，复用已认证的连接
+        connectionPool.send(message);
     }
 }
@@ -0,0 +1,253 @@
+package org.xhy.community.infrastructure.email.smtp;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.mail.Address;
+import javax.mail.MessagingException;
+import javax.mail.SendFailedException;
+import javax.mail.Session;
+import javax.mail.Transport;
+import javax.mail.internet.MimeMessage;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SMTP 连接池：复用已认证的 Transport，避免每封邮件重新建连、TLS 握手与认证
+ * - 最多 poolSize 个连接，每个连接占用一个固定槽位（槽位号即指标中的 connection 标签）；
+ * - 空闲超过 maxIdle 的连接在借出前或后台清理时关闭；空闲较久的连接借出前先做一次 NOOP 探活；
+ * - 单连接发送达到 maxMessages 后关闭重建；发送失败的连接直接丢弃，不放回池中。
+ */
+public class SmtpConnectionPool implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(SmtpConnectionPool.class);
+
+    // 空闲超过该时长的连接借出前先探活
+    private static final long VALIDATE_AFTER_IDLE_MILLIS = 10_000;
+
+    private final Session session;
+    private final String host;
+    private final int port;
+    private final String username;
+    private final String password;
+    private final long maxIdleMillis;
+    private final int maxMessages;
+
+    private final Semaphore permits;
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private final AtomicInteger openCount = new AtomicInteger();
+    private final SlotMetrics[] metrics;
+    private final ScheduledExecutorService reaper;
+    private volatile boolean closed;
+
+    public SmtpConnectionPool(Session session, String host, int port, String username, String password,
+                              int poolSize, long maxIdleMillis, int maxMessages, MeterRegistry meterRegistry) {
+        this.session = session;
+        this.host = host;
+        this.port = port;
+        this.username = username;
+        this.password = password;
+        this.maxIdleMillis = Math.max(1000, maxIdleMillis);
+        this.maxMessages = Math.max(1, maxMessages);
+
+        int size = Math.max(1, poolSize);
+        this.permits = new Semaphore(size, true);
+        this.metrics = new SlotMetrics[size];
+        for (int i = 0; i < size; i++) {
+            freeSlots.add(i);
+            metrics[i] = new SlotMetrics(meterRegistry, String.valueOf(i));
+        }
+        Gauge.builder("email.smtp.connections.open", openCount, AtomicInteger::get).register(meterRegistry);
+
+        this.reaper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "smtp-pool-reaper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000, this.maxIdleMillis / 2);
+        reaper.scheduleWithFixedDelay(this::closeIdleExpired, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 通过池中连接发送邮件（收件人取自邮件本身）
+     */
+    public void send(MimeMessage message) throws MessagingException {
+        if (closed) {
+            throw new MessagingException("SMTP 连接池已关闭");
+        }
+        message.saveChanges();
+        Address[] recipients = message.getAllRecipients();
+        if (recipients == null || recipients.length == 0) {
+            throw new SendFailedException("邮件缺少收件人");
+        }
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MessagingException("等待 SMTP 连接被中断", e);
+        }
+        PooledConnection conn = null;
+        try {
+            conn = borrow();
+            SlotMetrics m = metrics[conn.slot];
+            long start = System.nanoTime();
+            try {
+                conn.transport.sendMessage(message, recipients);
+            } catch (MessagingException | RuntimeException e) {
+                m.failure.increment();
+                discard(conn);
+                conn = null;
+                throw e;
+            }
+            m.send.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            m.success.increment();
+            conn.messages++;
+            conn.lastUsed = System.currentTimeMillis();
+            if (conn.messages >= maxMessages) {
+                discard(conn);
+                conn = null;
+            }
+        } finally {
+            if (conn != null) {
+                giveBack(conn);
+            }
+            permits.release();
+        }
+    }
+
+    private PooledConnection borrow() throws MessagingException {
+        while (true) {
+            PooledConnection conn;
+            synchronized (this) {
+                conn = idle.pollFirst();
+            }
+            if (conn == null) {
+                return open();
+            }
+            long idleFor = System.currentTimeMillis() - conn.lastUsed;
+            if (idleFor > maxIdleMillis || (idleFor > VALIDATE_AFTER_IDLE_MILLIS && !conn.transport.isConnected())) {
+                discard(conn);
+                continue;
+            }
+            return conn;
+        }
+    }
+
+    private PooledConnection open() throws MessagingException {
+        Integer slot;
+        synchronized (this) {
+            slot = freeSlots.pollFirst();
+        }
+        if (slot == null) {
+            // 持有许可时必有空闲槽位，这里仅作防御
+            throw new MessagingException("SMTP 连接池槽位耗尽");
+        }
+        try {
+            Transport transport = session.getTransport("smtp");
+            transport.connect(host, port, username, password);
+            metrics[slot].connects.increment();
+            openCount.incrementAndGet();
+            return new PooledConnection(slot, transport);
+        } catch (MessagingException | RuntimeException e) {
+            synchronized (this) {
+                freeSlots.addLast(slot);
+            }
+            metrics[slot].connectFailures.increment();
+            throw e;
+        }
+    }
+
+    private void giveBack(PooledConnection conn) {
+        synchronized (this) {
+            if (!closed) {
+                // 后进先出：优先复用最近使用的连接，其余连接可尽早空闲过期
+                idle.addFirst(conn);
+                return;
+            }
+        }
+        discard(conn);
+    }
+
+    private void discard(PooledConnection conn) {
+        try {
+            conn.transport.close();
+        } catch (Exception e) {
+            log.debug("[SmtpConnectionPool] 关闭连接异常 slot={}, err={}", conn.slot, e.getMessage());
+        } finally {
+            openCount.decrementAndGet();
+            synchronized (this) {
+                freeSlots.addLast(conn.slot);
+            }
+        }
+    }
+
+    private void closeIdleExpired() {
+        long now = System.currentTimeMillis();
+        Deque<PooledConnection> expired = new ArrayDeque<>();
+        synchronized (this) {
+            idle.removeIf(c -> {
+                if (now - c.lastUsed > maxIdleMillis) {
+                    expired.add(c);
+                    return true;
+                }
+                return false;
+            });
+        }
+        expired.forEach(this::discard);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        reaper.shutdownNow();
+        Deque<PooledConnection> all;
+        synchronized (this) {
+            all = new ArrayDeque<>(idle);
+            idle.clear();
+        }
+        all.forEach(this::discard);
+    }
+
+    private static final class PooledConnection {
+        private final int slot;
+        private final Transport transport;
+        private int messages;
+        private volatile long lastUsed = System.currentTimeMillis();
+
+        private PooledConnection(int slot, Transport transport) {
+            this.slot = slot;
+            this.transport = transport;
+        }
+    }
+
+    private static final class SlotMetrics {
+        private final Counter success;
+        private final Counter failure;
+        private final Counter connects;
+        private final Counter connectFailures;
+        private final Timer send;
+
+        private SlotMetrics(MeterRegistry registry, String slot) {
+            this.success = Counter.builder("email.smtp.messages")
+                    .tag("connection", slot).tag("result", "success").register(registry);
+            this.failure = Counter.builder("email.smtp.messages")
+                    .tag("connection", slot).tag("result", "failure").register(registry);
+            this.connects = Counter.builder("email.smtp.connects")
+                    .tag("connection", slot).tag("result", "success").register(registry);
+            this.connectFailures = Counter.builder("email.smtp.connects")
+                    .tag("connection", slot).tag("result", "failure").register(registry);
+            this.send = Timer.builder("email.smtp.send")
+                    .tag("connection", slot).register(registry);
+        }
+    }
+}
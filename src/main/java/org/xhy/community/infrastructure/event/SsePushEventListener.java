@@ -0,0 +1,42 @@
+package org.xhy.community.infrastructure.event;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.xhy.community.domain.common.event.UnreadChangedEvent;
+import org.xhy.community.domain.notification.event.NotificationDeliveredEvent;
+import org.xhy.community.infrastructure.push.SsePushHub;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 将领域事件转换为 SSE 推送：事务提交后推送，回滚则不推送；不在事务中发布的事件立即推送
+ */
+@Component
+public class SsePushEventListener {
+
+    private final SsePushHub ssePushHub;
+
+    public SsePushEventListener(SsePushHub ssePushHub) {
+        this.ssePushHub = ssePushHub;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onNotificationDelivered(NotificationDeliveredEvent event) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("messageId", event.getMessageId());
+        data.put("type", event.getType() != null ? event.getType().name() : null);
+        data.put("title", event.getTitle());
+        ssePushHub.publish(event.getRecipientIds(), SsePushHub.EVENT_NOTIFICATION, data);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUnreadChanged(UnreadChangedEvent event) {
+        Map<String, Object> data = event.getDelta() != null
+                ? SsePushHub.unreadDelta(event.getChannel(), event.getDelta())
+                : SsePushHub.unreadCount(event.getChannel(), event.getCount());
+        ssePushHub.publish(List.of(event.getUserId()), SsePushHub.EVENT_UNREAD, data);
+    }
+}
@@ -0,0 +1,40 @@
+package org.xhy.community.infrastructure.event;
+
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.xhy.community.domain.common.event.ContentPublishedEvent;
+import org.xhy.community.domain.common.valueobject.ReadChannel;
+import org.xhy.community.infrastructure.cache.UnreadCounterCache;
+import org.xhy.community.infrastructure.push.SsePushHub;
+
+/**
+ * 内容发布后写入未读计数的频道集合，使未读数即时可见（删除/下线由定时重建校准），
+ * 并向所有在线连接推送该频道未读 +1；发布事务提交后执行，回滚的发布不会计入未读
+ */
+@Component
+public class UnreadChannelEventListener {
+
+    private final UnreadCounterCache unreadCounterCache;
+    private final SsePushHub ssePushHub;
+
+    public UnreadChannelEventListener(UnreadCounterCache unreadCounterCache, SsePushHub ssePushHub) {
+        this.unreadCounterCache = unreadCounterCache;
+        this.ssePushHub = ssePushHub;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Async
+    public void onContentPublished(ContentPublishedEvent event) {
+        ReadChannel channel = switch (event.getContentType()) {
+            case POST -> ReadChannel.POSTS;
+            case INTERVIEW_QUESTION -> ReadChannel.QUESTIONS;
+            case CHAPTER -> ReadChannel.CHAPTERS;
+            default -> null;
+        };
+        if (channel == null || event.getPublishTime() == null) return;
+        unreadCounterCache.recordPublished(channel, event.getContentId(), event.getPublishTime());
+        ssePushHub.broadcast(SsePushHub.EVENT_UNREAD, SsePushHub.unreadDelta(channel.name(), 1));
+    }
+}
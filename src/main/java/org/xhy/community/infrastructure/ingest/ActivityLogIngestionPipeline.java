@@ -0,0 +1,170 @@
+package org.xhy.community.infrastructure.ingest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.xhy.community.domain.log.entity.UserActivityLogEntity;
+import org.xhy.community.domain.log.service.UserActivityLogDomainService;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 活动日志写入管道
+ * - 入队：无锁有界队列（ConcurrentLinkedQueue + CAS 预占容量），请求线程只做一次入队，不触达数据库；
+ * - 溢出：队列满时直接丢弃并计数（activity.log.ingest.dropped{reason=queue_full}），绝不在调用方线程写库；
+ * - 出队：单个后台线程攒批，达到 batch-size 立即写，否则最多等待 linger-ms，以多行 INSERT 一次写入；
+ * - 写库失败的整批同样丢弃并计数（reason=write_failed），日志为尽力而为数据，不做无限重试；
+ * - 应用关闭时停止接收新日志并写完队列中剩余数据。
+ */
+@Component
+public class ActivityLogIngestionPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(ActivityLogIngestionPipeline.class);
+
+    private static final int MAX_BATCH_SIZE = 2000;
+
+    private final UserActivityLogDomainService userActivityLogDomainService;
+    private final int capacity;
+    private final int batchSize;
+    private final long lingerNanos;
+
+    private final ConcurrentLinkedQueue<UserActivityLogEntity> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private volatile boolean running;
+    private Thread drainer;
+
+    private final Counter acceptedCounter;
+    private final Counter writtenCounter;
+    private final Counter queueFullDropCounter;
+    private final Counter writeFailedDropCounter;
+    private final Counter closedDropCounter;
+    private final DistributionSummary batchSizeSummary;
+    private final Timer flushTimer;
+
+    public ActivityLogIngestionPipeline(UserActivityLogDomainService userActivityLogDomainService,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${community.activity-log.ingest.capacity:10000}") int capacity,
+                                        @Value("${community.activity-log.ingest.batch-size:200}") int batchSize,
+                                        @Value("${community.activity-log.ingest.linger-ms:200}") long lingerMs) {
+        this.userActivityLogDomainService = userActivityLogDomainService;
+        this.capacity = Math.max(1, capacity);
+        this.batchSize = Math.min(MAX_BATCH_SIZE, Math.max(1, batchSize));
+        this.lingerNanos = Duration.ofMillis(Math.max(1, lingerMs)).toNanos();
+
+        this.acceptedCounter = Counter.builder("activity.log.ingest.accepted").register(meterRegistry);
+        this.writtenCounter = Counter.builder("activity.log.ingest.written").register(meterRegistry);
+        this.queueFullDropCounter = Counter.builder("activity.log.ingest.dropped")
+                .tag("reason", "queue_full").register(meterRegistry);
+        this.writeFailedDropCounter = Counter.builder("activity.log.ingest.dropped")
+                .tag("reason", "write_failed").register(meterRegistry);
+        this.closedDropCounter = Counter.builder("activity.log.ingest.dropped")
+                .tag("reason", "closed").register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("activity.log.ingest.batch.size").register(meterRegistry);
+        this.flushTimer = Timer.builder("activity.log.ingest.flush").register(meterRegistry);
+        Gauge.builder("activity.log.ingest.queue.depth", size, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("activity.log.ingest.queue.capacity", () -> this.capacity).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        drainer = new Thread(this::drainLoop, "activity-log-drainer");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    /**
+     * 提交一条活动日志
+     *
+     * @return 是否入队成功；队列已满或管道已关闭时返回 false（已计入丢弃指标）
+     */
+    public boolean submit(UserActivityLogEntity activityLog) {
+        if (activityLog == null) {
+            return false;
+        }
+        if (!running) {
+            closedDropCounter.increment();
+            return false;
+        }
+        if (size.incrementAndGet() > capacity) {
+            size.decrementAndGet();
+            queueFullDropCounter.increment();
+            return false;
+        }
+        queue.offer(activityLog);
+        acceptedCounter.increment();
+        if (size.get() >= batchSize) {
+            LockSupport.unpark(drainer);
+        }
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(drainer);
+        try {
+            drainer.join(Duration.ofSeconds(20).toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("[ActivityLogIngestionPipeline] 已关闭，剩余未写入 {} 条", size.get());
+    }
+
+    private void drainLoop() {
+        while (running) {
+            if (size.get() < batchSize) {
+                LockSupport.parkNanos(this, lingerNanos);
+            }
+            drain();
+        }
+        // 关闭阶段：写完剩余数据
+        drain();
+    }
+
+    private void drain() {
+        while (!queue.isEmpty()) {
+            List<UserActivityLogEntity> batch = new ArrayList<>(Math.min(batchSize, size.get()));
+            UserActivityLogEntity item;
+            while (batch.size() < batchSize && (item = queue.poll()) != null) {
+                batch.add(item);
+            }
+            size.addAndGet(-batch.size());
+            if (batch.isEmpty()) {
+                return;
+            }
+            write(batch);
+            // 剩余不足一批且管道仍在运行：等待下一个 linger 周期继续攒批
+            if (running && size.get() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    private void write(List<UserActivityLogEntity> batch) {
+        long start = System.nanoTime();
+        try {
+            userActivityLogDomainService.recordActivities(batch);
+            writtenCounter.increment(batch.size());
+            batchSizeSummary.record(batch.size());
+        } catch (Exception e) {
+            writeFailedDropCounter.increment(batch.size());
+            log.error("[ActivityLogIngestionPipeline] 批量写入失败，丢弃 {} 条日志: {}", batch.size(), e.getMessage(), e);
+        } finally {
+            flushTimer.record(Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+}
@@ -13,10 +13,11 @@ public interface DistributedLock {
      * 在分布式锁的保护下执行并返回结果。
      * @param key 锁键
      * @param waitTime 获取锁的最长等待时间
-     * @param leaseTime 锁租约（自动释放）
+     * @param leaseTime 锁租约（自动释放）；实现开启续租时为续租周期，持有方宕机后最多一个租约即释放
      * @param supplier 要执行的代码块
      * @return 代码块返回值
-     * @throws IllegalStateException 获取锁失败或中断
+     * @throws LockNotAcquiredException 等待时间内未获取到锁
+     * @throws IllegalStateException 等待锁时被中断
      */
     <T> T executeWithLock(String key, Duration waitTime, Duration leaseTime, Supplier<T> supplier);
 
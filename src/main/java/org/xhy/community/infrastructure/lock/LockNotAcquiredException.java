@@ -0,0 +1,12 @@
+package org.xhy.community.infrastructure.lock;
+
+/**
+ * 等待时间内未获取到分布式锁（锁被其他持有方占用）
+ * 继承 IllegalStateException 以兼容按原约定捕获的调用方；需要区分锁竞争与业务异常时捕获本类型。
+ */
+public class LockNotAcquiredException extends IllegalStateException {
+
+    public LockNotAcquiredException(String key) {
+        super("获取分布式锁失败: " + key);
+    }
+}
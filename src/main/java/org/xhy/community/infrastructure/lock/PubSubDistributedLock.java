@@ -0,0 +1,343 @@
+package org.xhy.community.infrastructure.lock;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 基于 Redis 的分布式锁实现（发布订阅唤醒）：
+ * - 加锁：Lua 脚本 SET NX PX，失败时返回建议等待时长（锁剩余租约）；
+ * - 等待：不再固定间隔轮询，而是在本地信号上等待，锁释放时通过 Redis pub/sub 广播唤醒所有节点上的等待者，
+ *   同时以剩余租约为上限兜底重试（持有者宕机时租约到期即可获取）；
+ * - 公平：开启 community.lock.fair 后等待者按到达顺序排队（LIST + 截止时间 ZSET），只有队首可以获取，
+ *   放弃等待或超过截止时间的等待者会被移出队列；
+ * - 续租：持有期间看门狗每 1/3 租约续期一次，代码块执行时间超过租约也不会丢锁；进程宕机时锁在一个租约后自动释放；
+ * - 指标：按 Key 前缀统计等待时长、持有时长、竞争次数、获取超时与续租失败。
+ */
+@Component
+@ConditionalOnProperty(name = "community.lock.impl", havingValue = "pubsub", matchIfMissing = true)
+public class PubSubDistributedLock implements DistributedLock {
+
+    private static final Logger log = LoggerFactory.getLogger(PubSubDistributedLock.class);
+
+    private static final String CHANNEL = "lock:released";
+    private static final long MIN_RENEW_INTERVAL_MS = 100;
+
+    /**
+     * KEYS: 1=锁，2=等待队列，3=等待者截止时间
+     * ARGV: 1=owner，2=租约毫秒，3=now，4=本等待者截止时间，5=是否公平（1/0）
+     * 返回 0 表示获取成功，否则为建议等待毫秒数
+     */
+    private static final String ACQUIRE_SCRIPT =
+            "local now = tonumber(ARGV[3]) " +
+            "local fair = ARGV[5] == '1' " +
+            "if fair then " +
+            "while true do " +
+            "local head = redis.call('lindex', KEYS[2], 0) " +
+            "if not head then break end " +
+            "local dl = redis.call('zscore', KEYS[3], head) " +
+            "if dl and tonumber(dl) >= now then break end " +
+            "redis.call('lpop', KEYS[2]) " +
+            "redis.call('zrem', KEYS[3], head) end end " +
+            "if redis.call('exists', KEYS[1]) == 0 then " +
+            "local head = false " +
+            "if fair then head = redis.call('lindex', KEYS[2], 0) end " +
+            "if not head or head == ARGV[1] then " +
+            "redis.call('set', KEYS[1], ARGV[1], 'PX', ARGV[2]) " +
+            "if head then redis.call('lpop', KEYS[2]) redis.call('zrem', KEYS[3], ARGV[1]) end " +
+            "return 0 end end " +
+            "if fair then " +
+            "if not redis.call('zscore', KEYS[3], ARGV[1]) then redis.call('rpush', KEYS[2], ARGV[1]) end " +
+            "redis.call('zadd', KEYS[3], ARGV[4], ARGV[1]) " +
+            "local keep = tonumber(ARGV[4]) - now + 60000 " +
+            "if redis.call('pttl', KEYS[2]) < keep then redis.call('pexpire', KEYS[2], keep) end " +
+            "if redis.call('pttl', KEYS[3]) < keep then redis.call('pexpire', KEYS[3], keep) end end " +
+            "local ttl = redis.call('pttl', KEYS[1]) " +
+            "if ttl == -2 then " +
+            "local head = redis.call('lindex', KEYS[2], 0) " +
+            "local dl = head and redis.call('zscore', KEYS[3], head) " +
+            "if dl then return math.max(tonumber(dl) - now, 1) end " +
+            "return 1 end " +
+            "if ttl < 0 then return 1000 end " +
+            "return math.max(ttl, 1)";
+
+    private static final String RELEASE_SCRIPT =
+            "if redis.call('get', KEYS[1]) == ARGV[1] then " +
+            "redis.call('del', KEYS[1]) " +
+            "redis.call('publish', ARGV[2], KEYS[1]) " +
+            "return 1 end " +
+            "return 0";
+
+    private static final String RENEW_SCRIPT =
+            "if redis.call('get', KEYS[1]) == ARGV[1] then " +
+            "return redis.call('pexpire', KEYS[1], ARGV[2]) end " +
+            "return 0";
+
+    private static final String CANCEL_SCRIPT =
+            "redis.call('lrem', KEYS[1], 0, ARGV[1]) " +
+            "redis.call('zrem', KEYS[2], ARGV[1]) " +
+            "redis.call('publish', ARGV[2], ARGV[3]) " +
+            "return 1";
+
+    private final StringRedisTemplate redis;
+    private final MeterRegistry meterRegistry;
+    private final boolean fair;
+    private final boolean watchdogEnabled;
+    private final DefaultRedisScript<Long> acquireLua;
+    private final DefaultRedisScript<Long> releaseLua;
+    private final DefaultRedisScript<Long> renewLua;
+    private final DefaultRedisScript<Long> cancelLua;
+    private final ScheduledExecutorService watchdog;
+
+    private final Map<String, Signal> signals = new ConcurrentHashMap<>();
+    private final Map<String, Metrics> metricsByPrefix = new ConcurrentHashMap<>();
+
+    public PubSubDistributedLock(StringRedisTemplate redis,
+                                 RedisMessageListenerContainer listenerContainer,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${community.lock.fair:false}") boolean fair,
+                                 @Value("${community.lock.watchdog-enabled:true}") boolean watchdogEnabled) {
+        this.redis = redis;
+        this.meterRegistry = meterRegistry;
+        this.fair = fair;
+        this.watchdogEnabled = watchdogEnabled;
+        this.acquireLua = new DefaultRedisScript<>(ACQUIRE_SCRIPT, Long.class);
+        this.releaseLua = new DefaultRedisScript<>(RELEASE_SCRIPT, Long.class);
+        this.renewLua = new DefaultRedisScript<>(RENEW_SCRIPT, Long.class);
+        this.cancelLua = new DefaultRedisScript<>(CANCEL_SCRIPT, Long.class);
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "lock-watchdog");
+            t.setDaemon(true);
+            return t;
+        });
+
+        listenerContainer.addMessageListener((message, pattern) -> {
+            Signal signal = signals.get(new String(message.getBody(), StandardCharsets.UTF_8));
+            if (signal != null) {
+                signal.fire();
+            }
+        }, new ChannelTopic(CHANNEL));
+    }
+
+    @Override
+    public <T> T executeWithLock(String key, Duration waitTime, Duration leaseTime, Supplier<T> supplier) {
+        Objects.requireNonNull(key, "lock key");
+        Objects.requireNonNull(waitTime, "waitTime");
+        Objects.requireNonNull(leaseTime, "leaseTime");
+        Objects.requireNonNull(supplier, "supplier");
+
+        final String owner = UUID.randomUUID().toString();
+        final long leaseMillis = Math.max(1, leaseTime.toMillis());
+        final Metrics metrics = metrics(key);
+
+        long waitStart = System.nanoTime();
+        boolean acquired = acquire(key, owner, waitTime.toMillis(), leaseMillis, metrics);
+        metrics.waitTimer(acquired).record(System.nanoTime() - waitStart, TimeUnit.NANOSECONDS);
+        if (!acquired) {
+            metrics.timeouts.increment();
+            log.warn("【分布式锁】获取失败：key={}, waitMs={}, leaseMs={}", key, waitTime.toMillis(), leaseMillis);
+            throw new LockNotAcquiredException(key);
+        }
+
+        long holdStart = System.nanoTime();
+        ScheduledFuture<?> renewal = watchdogEnabled ? scheduleRenewal(key, owner, leaseMillis, metrics) : null;
+        try {
+            return supplier.get();
+        } finally {
+            if (renewal != null) {
+                renewal.cancel(false);
+            }
+            metrics.hold.record(System.nanoTime() - holdStart, TimeUnit.NANOSECONDS);
+            release(key, owner);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        watchdog.shutdownNow();
+    }
+
+    private boolean acquire(String key, String owner, long waitMillis, long leaseMillis, Metrics metrics) {
+        long deadline = System.currentTimeMillis() + Math.max(0, waitMillis);
+        Signal signal = signals.compute(key, (k, s) -> (s == null ? new Signal() : s).retain());
+        boolean contended = false;
+        try {
+            while (true) {
+                long version = signal.version();
+                long now = System.currentTimeMillis();
+                Long hint = redis.execute(acquireLua, List.of(key, queueKey(key), timeoutKey(key)),
+                        owner, String.valueOf(leaseMillis), String.valueOf(now), String.valueOf(deadline),
+                        fair ? "1" : "0");
+                if (hint != null && hint == 0) {
+                    return true;
+                }
+                if (!contended) {
+                    contended = true;
+                    metrics.contended.increment();
+                }
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    cancel(key, owner);
+                    return false;
+                }
+                long sleep = Math.min(hint == null ? remaining : Math.max(1, hint), remaining);
+                try {
+                    signal.await(version, sleep);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    cancel(key, owner);
+                    throw new IllegalStateException("锁等待被中断: " + key, e);
+                }
+            }
+        } finally {
+            signals.computeIfPresent(key, (k, s) -> s.release() == 0 ? null : s);
+        }
+    }
+
+    private ScheduledFuture<?> scheduleRenewal(String key, String owner, long leaseMillis, Metrics metrics) {
+        long interval = Math.max(MIN_RENEW_INTERVAL_MS, leaseMillis / 3);
+        ScheduledFuture<?>[] self = new ScheduledFuture<?>[1];
+        self[0] = watchdog.scheduleWithFixedDelay(() -> {
+            try {
+                Long renewed = redis.execute(renewLua, List.of(key), owner, String.valueOf(leaseMillis));
+                if (renewed == null || renewed == 0) {
+                    metrics.leaseLost.increment();
+                    log.error("【分布式锁】续租失败，锁已丢失：key={}", key);
+                    if (self[0] != null) {
+                        self[0].cancel(false);
+                    }
+                }
+            } catch (Exception e) {
+                // Redis 短暂不可用：下个周期重试，租约内恢复即可
+                log.warn("【分布式锁】续租异常：key={}, err={}", key, e.getMessage());
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+        return self[0];
+    }
+
+    private void release(String key, String owner) {
+        try {
+            redis.execute(releaseLua, List.of(key), owner, CHANNEL);
+        } catch (Exception e) {
+            // 忽略释放异常，避免影响主流程；锁将在租约到期后自动释放
+            log.debug("【分布式锁】释放异常已忽略：key={} owner={}", key, owner);
+        }
+    }
+
+    private void cancel(String key, String owner) {
+        if (!fair) {
+            return;
+        }
+        try {
+            // 放弃排队，并唤醒其他等待者重新判断队首
+            redis.execute(cancelLua, List.of(queueKey(key), timeoutKey(key)), owner, CHANNEL, key);
+        } catch (Exception e) {
+            log.debug("【分布式锁】取消排队异常已忽略：key={} owner={}", key, owner);
+        }
+    }
+
+    private String queueKey(String key) {
+        return key + ":queue";
+    }
+
+    private String timeoutKey(String key) {
+        return key + ":timeouts";
+    }
+
+    private Metrics metrics(String key) {
+        return metricsByPrefix.computeIfAbsent(prefixOf(key), p -> new Metrics(meterRegistry, p));
+    }
+
+    /**
+     * 指标维度：去掉末尾含数字的动态段（用户ID、兑换码等），如 lock:user:subscription:{userId} -> lock:user:subscription
+     */
+    static String prefixOf(String key) {
+        String[] parts = key.split(":");
+        int end = parts.length;
+        while (end > 1 && parts[end - 1].chars().anyMatch(Character::isDigit)) {
+            end--;
+        }
+        return String.join(":", Arrays.copyOf(parts, end));
+    }
+
+    /**
+     * 本地等待信号：收到释放广播时递增版本并唤醒；等待前记录版本，避免错过在两次检查之间到达的广播
+     */
+    private static final class Signal {
+        private long version;
+        private int refs;
+
+        synchronized Signal retain() {
+            refs++;
+            return this;
+        }
+
+        synchronized int release() {
+            return --refs;
+        }
+
+        synchronized long version() {
+            return version;
+        }
+
+        synchronized void fire() {
+            version++;
+            notifyAll();
+        }
+
+        synchronized void await(long seenVersion, long timeoutMillis) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + timeoutMillis;
+            long remaining = timeoutMillis;
+            while (version == seenVersion && remaining > 0) {
+                wait(remaining);
+                remaining = deadline - System.currentTimeMillis();
+            }
+        }
+    }
+
+    private static final class Metrics {
+        private final Timer waitAcquired;
+        private final Timer waitTimeout;
+        private final Timer hold;
+        private final Counter contended;
+        private final Counter timeouts;
+        private final Counter leaseLost;
+
+        private Metrics(MeterRegistry registry, String prefix) {
+            this.waitAcquired = Timer.builder("lock.wait").tag("prefix", prefix).tag("result", "acquired").register(registry);
+            this.waitTimeout = Timer.builder("lock.wait").tag("prefix", prefix).tag("result", "timeout").register(registry);
+            this.hold = Timer.builder("lock.hold").tag("prefix", prefix).register(registry);
+            this.contended = Counter.builder("lock.contended").tag("prefix", prefix).register(registry);
+            this.timeouts = Counter.builder("lock.acquire.timeout").tag("prefix", prefix).register(registry);
+            this.leaseLost = Counter.builder("lock.lease.lost").tag("prefix", prefix).register(registry);
+        }
+
+        private Timer waitTimer(boolean acquired) {
+            return acquired ? waitAcquired : waitTimeout;
+        }
+    }
+}
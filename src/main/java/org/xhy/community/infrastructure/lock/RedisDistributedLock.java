@@ -3,6 +3,7 @@ package org.xhy.community.infrastructure.lock;
 import org.springframework.dao.DataAccessException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
@@ -21,8 +22,10 @@ import java.util.function.Supplier;
  * - 轮询等待至 waitTime 超时
  * - 解锁：Lua 脚本校验 owner 一致后 DEL
  * 说明：Lua 仅用于解锁原子性，不用于业务原子流程。
+ * 默认使用 {@link PubSubDistributedLock}，配置 community.lock.impl=polling 时回退到本实现。
  */
 @Component
+@ConditionalOnProperty(name = "community.lock.impl", havingValue = "polling")
 public class RedisDistributedLock implements DistributedLock {
     private static final Logger log = LoggerFactory.getLogger(RedisDistributedLock.class);
     private static final String RELEASE_SCRIPT =
@@ -67,7 +70,7 @@ public class RedisDistributedLock implements DistributedLock {
             }
             if (!acquired) {
                 log.warn("【分布式锁】获取失败：key={}, waitMs={}, leaseMs={}", key, waitTime.toMillis(), leaseTime.toMillis());
-                throw new IllegalStateException("获取分布式锁失败: " + key);
+                throw new LockNotAcquiredException(key);
             }
             return supplier.get();
         } finally {
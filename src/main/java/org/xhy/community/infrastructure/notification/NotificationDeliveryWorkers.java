@@ -0,0 +1,221 @@
+package org.xhy.community.infrastructure.notification;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.xhy.community.domain.notification.entity.NotificationDeliveryEntity;
+import org.xhy.community.domain.notification.service.NotificationDeliveryDomainService;
+import org.xhy.community.domain.notification.valueobject.ChannelType;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 通知投递工作线程
+ * 每个渠道（站内信、邮件）拥有独立的领取线程与投递线程池，并发上限各自配置：
+ * 领取线程先占用空闲槽位（Semaphore），再从发件箱领取同等数量的任务交给该渠道的线程池执行，
+ * 因此慢速 SMTP 只会占满邮件渠道自己的槽位，不影响站内信投递，也不占用共享的 taskExecutor。
+ * 应用关闭时停止领取并等待在途任务完成；未完成的任务在租约到期后由其他节点重新领取。
+ */
+@Component
+public class NotificationDeliveryWorkers {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationDeliveryWorkers.class);
+
+    private final NotificationDeliveryDomainService notificationDeliveryDomainService;
+    private final MeterRegistry meterRegistry;
+    private final long pollIntervalMillis;
+    private final long leaseSeconds;
+    private final Duration retention;
+    private final String owner;
+    private final List<ChannelWorker> workers = new ArrayList<>();
+
+    private volatile boolean running;
+
+    public NotificationDeliveryWorkers(NotificationDeliveryDomainService notificationDeliveryDomainService,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${community.notification.delivery.in-app.concurrency:4}") int inAppConcurrency,
+                                       @Value("${community.notification.delivery.email.concurrency:2}") int emailConcurrency,
+                                       @Value("${community.notification.delivery.poll-interval-ms:1000}") long pollIntervalMillis,
+                                       @Value("${community.notification.delivery.lease-seconds:300}") long leaseSeconds,
+                                       @Value("${community.notification.delivery.retention-days:7}") long retentionDays) {
+        this.notificationDeliveryDomainService = notificationDeliveryDomainService;
+        this.meterRegistry = meterRegistry;
+        this.pollIntervalMillis = Math.max(100, pollIntervalMillis);
+        this.leaseSeconds = Math.max(30, leaseSeconds);
+        this.retention = Duration.ofDays(Math.max(1, retentionDays));
+        this.owner = resolveOwner();
+        workers.add(new ChannelWorker(ChannelType.IN_APP, Math.max(1, inAppConcurrency)));
+        workers.add(new ChannelWorker(ChannelType.EMAIL, Math.max(1, emailConcurrency)));
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        workers.forEach(ChannelWorker::start);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        workers.forEach(ChannelWorker::stop);
+        log.info("[NotificationDeliveryWorkers] 已关闭");
+    }
+
+    /**
+     * 将租约过期仍处于发送中（结果未知）的邮件任务转入死信；与投递同频检查，避免崩溃遗留的任务长时间停留在 SENDING
+     */
+    @Scheduled(fixedDelayString = "${community.notification.delivery.stale-sending-check-ms:60000}")
+    public void expireStaleSending() {
+        try {
+            int expired = notificationDeliveryDomainService.expireStaleSending(Duration.ofSeconds(leaseSeconds));
+            if (expired > 0) {
+                log.warn("[NotificationDeliveryWorkers] {} 条邮件任务发送结果未知，已转入死信", expired);
+            }
+        } catch (Exception e) {
+            log.error("邮件发送中任务清理失败", e);
+        }
+    }
+
+    /**
+     * 清理保留期之前已投递的任务（死信保留，供排查）
+     */
+    @Scheduled(cron = "${community.notification.delivery.purge-cron:0 40 4 * * ?}")
+    public void purgeSucceeded() {
+        try {
+            int purged = notificationDeliveryDomainService.purgeSucceeded(retention);
+            log.info("通知投递任务清理完成，删除 {} 条", purged);
+        } catch (Exception e) {
+            log.error("通知投递任务清理失败", e);
+        }
+    }
+
+    private String resolveOwner() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        return host + ":" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * 单个渠道的领取线程与投递线程池
+     */
+    private class ChannelWorker {
+
+        private final ChannelType channelType;
+        private final int concurrency;
+        private final Semaphore slots;
+        private final String threadPrefix;
+        private final ThreadPoolTaskExecutor executor;
+        private final Counter deliveredCounter;
+        private final Counter failedCounter;
+        private Thread poller;
+
+        ChannelWorker(ChannelType channelType, int concurrency) {
+            this.channelType = channelType;
+            this.concurrency = concurrency;
+            this.slots = new Semaphore(concurrency);
+            this.threadPrefix = "notify-" + channelType.name().toLowerCase().replace('_', '-');
+            this.executor = new ThreadPoolTaskExecutor();
+            executor.setCorePoolSize(concurrency);
+            executor.setMaxPoolSize(concurrency);
+            // 槽位保证在途任务数不超过并发上限，队列只需容纳一次领取的数量
+            executor.setQueueCapacity(concurrency);
+            executor.setThreadNamePrefix(threadPrefix + "-");
+            executor.setWaitForTasksToCompleteOnShutdown(true);
+            executor.setAwaitTerminationSeconds(30);
+            executor.initialize();
+
+            String channel = channelType.name();
+            this.deliveredCounter = Counter.builder("notification.delivery.delivered")
+                    .tag("channel", channel).register(meterRegistry);
+            this.failedCounter = Counter.builder("notification.delivery.failed")
+                    .tag("channel", channel).register(meterRegistry);
+            Gauge.builder("notification.delivery.in_flight", slots, s -> concurrency - s.availablePermits())
+                    .tag("channel", channel).register(meterRegistry);
+        }
+
+        void start() {
+            poller = new Thread(this::pollLoop, threadPrefix + "-poller");
+            poller.setDaemon(true);
+            poller.start();
+        }
+
+        void stop() {
+            poller.interrupt();
+            try {
+                poller.join(Duration.ofSeconds(5).toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            executor.shutdown();
+        }
+
+        private void pollLoop() {
+            while (running) {
+                try {
+                    // 至少等到一个空闲槽位，再尽量多占用剩余槽位
+                    slots.acquire();
+                    int acquired = 1 + drainPermits();
+                    List<NotificationDeliveryEntity> deliveries = List.of();
+                    try {
+                        deliveries = notificationDeliveryDomainService.claim(channelType, owner, acquired, leaseSeconds);
+                    } catch (Exception e) {
+                        log.warn("[NotificationDeliveryWorkers] 领取任务失败 channel={}, err={}", channelType, e.getMessage());
+                    }
+                    slots.release(acquired - deliveries.size());
+                    for (NotificationDeliveryEntity delivery : deliveries) {
+                        executor.execute(() -> deliver(delivery));
+                    }
+                    if (deliveries.size() < acquired) {
+                        TimeUnit.MILLISECONDS.sleep(pollIntervalMillis);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception e) {
+                    log.error("[NotificationDeliveryWorkers] 领取循环异常 channel={}", channelType, e);
+                }
+            }
+        }
+
+        private int drainPermits() {
+            int extra = 0;
+            while (extra < concurrency - 1 && slots.tryAcquire()) {
+                extra++;
+            }
+            return extra;
+        }
+
+        private void deliver(NotificationDeliveryEntity delivery) {
+            try {
+                if (channelType == ChannelType.EMAIL) {
+                    notificationDeliveryDomainService.sendEmail(delivery);
+                }
+                notificationDeliveryDomainService.complete(delivery);
+                deliveredCounter.increment();
+            } catch (Exception e) {
+                failedCounter.increment();
+                notificationDeliveryDomainService.fail(delivery, e);
+            } finally {
+                slots.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package org.xhy.community.infrastructure.permission;
+
+import java.util.Set;
+
+/**
+ * 用户的有效功能权限（套餐权限码并集 + 直购课程附加权限），不可变
+ */
+public final class EffectivePermissions {
+
+    private final Set<String> codes;
+    private final PermissionBitSet bits;
+
+    public EffectivePermissions(Set<String> codes, PermissionBitSet bits) {
+        this.codes = Set.copyOf(codes);
+        this.bits = bits;
+    }
+
+    public boolean satisfies(PermissionCodeScanner.Requirement requirement) {
+        return requirement.isBitsComplete()
+                ? bits.containsAll(requirement.getBits())
+                : codes.containsAll(requirement.getCodes());
+    }
+
+    public Set<String> getCodes() {
+        return codes;
+    }
+}
@@ -0,0 +1,47 @@
+package org.xhy.community.infrastructure.permission;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 不可变的权限码位图
+ * 位序号来自 {@link PermissionCodeScanner} 启动时建立的权限码注册表；不在注册表中的权限码不会被任何接口要求，直接忽略。
+ */
+public final class PermissionBitSet {
+
+    public static final PermissionBitSet EMPTY = new PermissionBitSet(new long[0]);
+
+    private final long[] words;
+
+    private PermissionBitSet(long[] words) {
+        this.words = words;
+    }
+
+    static PermissionBitSet of(Collection<String> codes, Map<String, Integer> index) {
+        if (codes == null || codes.isEmpty() || index.isEmpty()) {
+            return EMPTY;
+        }
+        long[] words = new long[(index.size() + 63) / 64];
+        for (String code : codes) {
+            Integer bit = code == null ? null : index.get(code);
+            if (bit != null) {
+                words[bit >>> 6] |= 1L << bit;
+            }
+        }
+        return new PermissionBitSet(words);
+    }
+
+    /**
+     * 是否包含 required 中的全部权限
+     */
+    public boolean containsAll(PermissionBitSet required) {
+        long[] need = required.words;
+        for (int i = 0; i < need.length; i++) {
+            long have = i < words.length ? words[i] : 0L;
+            if ((need[i] & ~have) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
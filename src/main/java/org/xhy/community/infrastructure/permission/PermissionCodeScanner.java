@@ -10,10 +10,14 @@ import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandl
 import org.xhy.community.infrastructure.annotation.RequiresPlanPermissions;
 import org.xhy.community.application.subscription.dto.PermissionOptionDTO;
 
+import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 扫描项目中 @RequiresPlanPermissions 注解，收集全部权限码
+ * 同时在启动时建立权限码注册表（权限码 -> 位序号），并预计算每个接口方法要求的权限位图，
+ * 请求时无需再反射读取注解。
  */
 @Component
 public class PermissionCodeScanner {
@@ -21,6 +25,39 @@ public class PermissionCodeScanner {
 
     private final RequestMappingHandlerMapping handlerMapping;
     private final Map<String, String> codeNameMap = new TreeMap<>(); // code -> name
+    private volatile List<String> registry = List.of();
+    private volatile Map<String, Integer> registryIndex = Map.of();
+    private final Map<Method, Requirement> requirements = new ConcurrentHashMap<>();
+
+    /**
+     * 接口方法要求的权限（方法注解优先，其次类注解）
+     */
+    public static final class Requirement {
+        private final Set<String> codes;
+        private final PermissionBitSet bits;
+        // 全部权限码均在注册表中时可直接按位图判定
+        private final boolean bitsComplete;
+
+        private Requirement(Set<String> codes, PermissionBitSet bits, boolean bitsComplete) {
+            this.codes = codes;
+            this.bits = bits;
+            this.bitsComplete = bitsComplete;
+        }
+
+        public Set<String> getCodes() {
+            return codes;
+        }
+
+        public PermissionBitSet getBits() {
+            return bits;
+        }
+
+        public boolean isBitsComplete() {
+            return bitsComplete;
+        }
+    }
+
+    private static final Requirement NONE = new Requirement(Set.of(), PermissionBitSet.EMPTY, true);
 
     public PermissionCodeScanner(@Qualifier("requestMappingHandlerMapping") RequestMappingHandlerMapping handlerMapping) {
         this.handlerMapping = handlerMapping;
@@ -30,6 +67,14 @@ public class PermissionCodeScanner {
     public void scan() {
         try {
             handlerMapping.getHandlerMethods().forEach((info, handler) -> collect(handler));
+            List<String> codes = new ArrayList<>(codeNameMap.keySet());
+            Map<String, Integer> index = new HashMap<>();
+            for (int i = 0; i < codes.size(); i++) {
+                index.put(codes.get(i), i);
+            }
+            registry = List.copyOf(codes);
+            registryIndex = Map.copyOf(index);
+            handlerMapping.getHandlerMethods().values().forEach(this::requirementOf);
             log.info("[PermissionCodeScanner] 已发现权限码 {} 个：{}", codeNameMap.size(), codeNameMap.keySet());
         } catch (Exception e) {
             log.warn("[PermissionCodeScanner] 扫描失败：{}", e.getMessage());
@@ -69,6 +114,47 @@ public class PermissionCodeScanner {
 
     private String nv(String s) { return s == null ? "" : s.trim(); }
 
+    /**
+     * 接口方法要求的权限；未标注或未要求任何权限时返回 null
+     * 启动时已为全部映射方法预计算，其余（如动态注册的接口）首次访问时计算并缓存
+     */
+    public Requirement requirementOf(HandlerMethod handler) {
+        Requirement requirement = requirements.computeIfAbsent(handler.getMethod(), m -> resolve(handler));
+        return requirement == NONE ? null : requirement;
+    }
+
+    /**
+     * 将权限码集合转换为注册表位图
+     */
+    public PermissionBitSet toBits(Collection<String> codes) {
+        return PermissionBitSet.of(codes, registryIndex);
+    }
+
+    private Requirement resolve(HandlerMethod handler) {
+        RequiresPlanPermissions ann = handler.getMethodAnnotation(RequiresPlanPermissions.class);
+        if (ann == null) {
+            ann = handler.getBeanType().getAnnotation(RequiresPlanPermissions.class);
+        }
+        if (ann == null) {
+            return NONE;
+        }
+        Set<String> need = new LinkedHashSet<>();
+        for (String code : ann.value()) {
+            if (code != null && !code.isBlank()) {
+                need.add(code.trim());
+            }
+        }
+        for (RequiresPlanPermissions.Item it : ann.items()) {
+            if (it != null && it.code() != null && !it.code().isBlank()) {
+                need.add(it.code().trim());
+            }
+        }
+        if (need.isEmpty()) {
+            return NONE;
+        }
+        return new Requirement(Set.copyOf(need), toBits(need), registryIndex.keySet().containsAll(need));
+    }
+
     /** 返回扫描得到的全部权限码（去重、按字典序） */
     public List<String> getDiscoveredCodes() {
         return new ArrayList<>(codeNameMap.keySet());
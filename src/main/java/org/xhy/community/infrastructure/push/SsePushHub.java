@@ -0,0 +1,343 @@
+package org.xhy.community.infrastructure.push;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.xhy.community.domain.common.event.UnreadChangedEvent;
+import org.xhy.community.infrastructure.config.SystemErrorCode;
+import org.xhy.community.infrastructure.exception.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 服务端推送（SSE）连接中心
+ * - 发布：领域服务发布领域事件，由事件监听器在事务提交后调用 publish，经 Redis pub/sub 广播到所有节点（蓝绿部署下两套节点都能收到）；
+ * - 分发：各节点收到消息后只把事件放入本地连接的发送队列，不在监听线程上写网络；
+ * - 发送：每个连接同一时刻最多一个发送任务，由发送线程池按序写出；队列中只保存不可变的事件内容，
+ *   发送时再为每个连接单独构建 SseEventBuilder（构建器 build 时会修改自身状态，不能在连接间共享）；
+ * - 背压：连接待发送事件超过 queue-capacity（客户端读取过慢）时直接断开，客户端重连后重新拉取汇总；
+ * - 心跳：定时向所有连接发送注释行，及时发现已断开的连接并防止代理空闲超时；
+ * - 上限：单用户连接数超限时关闭最早的连接，单节点连接数超限时拒绝新连接；
+ * - 吊销：用户鉴权结论变化（登出、强制下线、禁用等）时关闭其在所有节点上的连接，客户端重连时重新鉴权。
+ */
+@Component
+public class SsePushHub {
+
+    private static final Logger log = LoggerFactory.getLogger(SsePushHub.class);
+
+    private static final String CHANNEL = "push:events";
+    /** 内部控制事件：关闭指定用户的连接（不下发给客户端） */
+    private static final String CONTROL_CLOSE = "$close";
+
+    /** 初始事件：当前未读汇总 */
+    public static final String EVENT_SUMMARY = "summary";
+    /** 新站内信（同时意味着站内信未读 +1） */
+    public static final String EVENT_NOTIFICATION = "notification";
+    /** 未读数变化：{channel, delta} 为增量，{channel, count} 为绝对值 */
+    public static final String EVENT_UNREAD = "unread";
+    /** 站内信未读数对应的 channel 名（其余 channel 与 ReadChannel 一致） */
+    public static final String CHANNEL_NOTIFICATIONS = UnreadChangedEvent.CHANNEL_NOTIFICATIONS;
+
+    private final StringRedisTemplate redis;
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolTaskExecutor sender;
+    private final long timeoutMillis;
+    private final int queueCapacity;
+    private final int maxPerUser;
+    private final int maxConnections;
+
+    /**
+     * 推送消息（跨节点广播）；userIds 为 null 时推送给所有在线连接
+     */
+    record PushMessage(List<String> userIds, String event, Object data) {
+    }
+
+    /**
+     * 待发送事件；name 为 null 表示心跳注释行
+     */
+    private record OutboundEvent(String name, Object data) {
+
+        private static final OutboundEvent HEARTBEAT = new OutboundEvent(null, null);
+
+        SseEmitter.SseEventBuilder toBuilder() {
+            if (name == null) {
+                return SseEmitter.event().comment("hb");
+            }
+            return SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON);
+        }
+    }
+
+    private final Map<String, Set<Connection>> connections = new ConcurrentHashMap<>();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final Counter sentCounter;
+    private final Counter backpressureCounter;
+    private final Counter rejectedCounter;
+
+    public SsePushHub(StringRedisTemplate redis,
+                      ObjectMapper objectMapper,
+                      RedisMessageListenerContainer listenerContainer,
+                      MeterRegistry meterRegistry,
+                      @Value("${community.push.timeout-minutes:30}") long timeoutMinutes,
+                      @Value("${community.push.queue-capacity:64}") int queueCapacity,
+                      @Value("${community.push.max-connections-per-user:5}") int maxPerUser,
+                      @Value("${community.push.max-connections:10000}") int maxConnections,
+                      @Value("${community.push.sender-threads:4}") int senderThreads) {
+        this.redis = redis;
+        this.objectMapper = objectMapper;
+        this.timeoutMillis = Duration.ofMinutes(Math.max(1, timeoutMinutes)).toMillis();
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.maxPerUser = Math.max(1, maxPerUser);
+        this.maxConnections = Math.max(1, maxConnections);
+
+        this.sender = new ThreadPoolTaskExecutor();
+        this.sender.setCorePoolSize(Math.max(1, senderThreads));
+        this.sender.setMaxPoolSize(Math.max(1, senderThreads));
+        this.sender.setThreadNamePrefix("sse-push-");
+        this.sender.initialize();
+
+        this.sentCounter = Counter.builder("push.sse.events.sent").register(meterRegistry);
+        this.backpressureCounter = Counter.builder("push.sse.disconnected")
+                .tag("reason", "backpressure").register(meterRegistry);
+        this.rejectedCounter = Counter.builder("push.sse.rejected").register(meterRegistry);
+        Gauge.builder("push.sse.connections", connectionCount, AtomicInteger::get).register(meterRegistry);
+
+        listenerContainer.addMessageListener((message, pattern) ->
+                        onMessage(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(CHANNEL));
+    }
+
+    /**
+     * 建立连接并先发送一条初始事件（通常为当前未读汇总）
+     */
+    public SseEmitter open(String userId, String initialEvent, Object initialData) {
+        if (connectionCount.get() >= maxConnections) {
+            rejectedCounter.increment();
+            throw new BusinessException(SystemErrorCode.SERVICE_UNAVAILABLE, "推送连接数已达上限，请稍后重试");
+        }
+        SseEmitter emitter = newEmitter(timeoutMillis);
+        Connection connection = new Connection(userId, emitter);
+        emitter.onCompletion(() -> remove(connection));
+        emitter.onTimeout(() -> close(connection));
+        emitter.onError(e -> remove(connection));
+
+        Set<Connection> userConnections = connections.computeIfAbsent(userId, k -> new CopyOnWriteArraySet<>());
+        userConnections.add(connection);
+        connectionCount.incrementAndGet();
+        if (userConnections.size() > maxPerUser) {
+            userConnections.stream()
+                    .filter(c -> c != connection)
+                    .min((a, b) -> Long.compare(a.id, b.id))
+                    .ifPresent(this::close);
+        }
+
+        connection.offer(new OutboundEvent(initialEvent, initialData));
+        return emitter;
+    }
+
+    /**
+     * 向指定用户推送事件（立即发布；需要随事务提交的推送由事件监听器在提交后调用）
+     */
+    public void publish(Collection<String> userIds, String event, Object data) {
+        if (userIds == null || userIds.isEmpty()) {
+            return;
+        }
+        send(new PushMessage(List.copyOf(userIds), event, data));
+    }
+
+    /**
+     * 向所有在线连接推送事件
+     */
+    public void broadcast(String event, Object data) {
+        send(new PushMessage(null, event, data));
+    }
+
+    /**
+     * 关闭用户在所有节点上的连接
+     */
+    public void closeUser(String userId) {
+        if (userId == null) {
+            return;
+        }
+        send(new PushMessage(List.of(userId), CONTROL_CLOSE, null));
+    }
+
+    public static Map<String, Object> unreadDelta(String channel, long delta) {
+        return Map.of("channel", channel, "delta", delta);
+    }
+
+    public static Map<String, Object> unreadCount(String channel, long count) {
+        return Map.of("channel", channel, "count", count);
+    }
+
+    @Scheduled(fixedDelayString = "${community.push.heartbeat-ms:25000}")
+    public void heartbeat() {
+        for (Set<Connection> userConnections : connections.values()) {
+            for (Connection connection : userConnections) {
+                connection.offer(OutboundEvent.HEARTBEAT);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Set<Connection> userConnections : connections.values()) {
+            userConnections.forEach(this::close);
+        }
+        sender.shutdown();
+    }
+
+    private void send(PushMessage message) {
+        try {
+            redis.convertAndSend(CHANNEL, objectMapper.writeValueAsString(message));
+        } catch (Exception e) {
+            log.warn("[SsePushHub] 推送广播失败，仅投递本节点 event={}, err={}", message.event(), e.getMessage());
+            dispatch(message);
+        }
+    }
+
+    private void onMessage(String body) {
+        try {
+            dispatch(objectMapper.readValue(body, PushMessage.class));
+        } catch (Exception e) {
+            log.warn("[SsePushHub] 推送消息解析失败 err={}", e.getMessage());
+        }
+    }
+
+    private void dispatch(PushMessage message) {
+        if (connections.isEmpty()) {
+            return;
+        }
+        if (CONTROL_CLOSE.equals(message.event())) {
+            for (String userId : message.userIds()) {
+                Set<Connection> userConnections = connections.get(userId);
+                if (userConnections != null) {
+                    List.copyOf(userConnections).forEach(this::close);
+                }
+            }
+            return;
+        }
+        OutboundEvent event = new OutboundEvent(message.event(), message.data());
+        if (message.userIds() == null) {
+            connections.values().forEach(set -> set.forEach(c -> c.offer(event)));
+            return;
+        }
+        for (String userId : message.userIds()) {
+            Set<Connection> userConnections = connections.get(userId);
+            if (userConnections != null) {
+                userConnections.forEach(c -> c.offer(event));
+            }
+        }
+    }
+
+    SseEmitter newEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    private void close(Connection connection) {
+        remove(connection);
+        try {
+            connection.emitter.complete();
+        } catch (Exception ignored) {
+            // 连接已断开
+        }
+    }
+
+    private void remove(Connection connection) {
+        if (!connection.closed.compareAndSet(false, true)) {
+            return;
+        }
+        connectionCount.decrementAndGet();
+        connections.computeIfPresent(connection.userId, (k, set) -> {
+            set.remove(connection);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    /**
+     * 单个 SSE 连接：有界发送队列 + 单发送任务，保证同一连接事件按序写出
+     */
+    private final class Connection {
+        private final long id = sequence.incrementAndGet();
+        private final String userId;
+        private final SseEmitter emitter;
+        private final ConcurrentLinkedQueue<OutboundEvent> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Connection(String userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void offer(OutboundEvent event) {
+            if (closed.get()) {
+                return;
+            }
+            if (size.incrementAndGet() > queueCapacity) {
+                backpressureCounter.increment();
+                log.debug("[SsePushHub] 连接发送积压，断开 userId={}", userId);
+                close(this);
+                return;
+            }
+            queue.offer(event);
+            schedule();
+        }
+
+        private void schedule() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    sender.execute(this::drain);
+                } catch (Exception e) {
+                    draining.set(false);
+                    close(this);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                OutboundEvent event;
+                while (!closed.get() && (event = queue.poll()) != null) {
+                    size.decrementAndGet();
+                    emitter.send(event.toBuilder());
+                    sentCounter.increment();
+                }
+            } catch (Exception e) {
+                // 客户端已断开
+                close(this);
+            } finally {
+                draining.set(false);
+            }
+            if (!closed.get() && !queue.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package org.xhy.community.infrastructure.task;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.xhy.community.domain.comment.service.CommentDomainService;
+import org.xhy.community.infrastructure.lock.DistributedLock;
+
+import java.time.Duration;
+
+/**
+ * 评论计数校准定时任务
+ * 每天凌晨 3 点 30 分按 comments 表重算 comment_counters，修正计数偏差；多节点通过分布式锁只执行一次
+ */
+@Component
+public class CommentCounterReconcileScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(CommentCounterReconcileScheduler.class);
+
+    private static final String LOCK_KEY = "lock:task:comment-counter-reconcile";
+
+    private final CommentDomainService commentDomainService;
+    private final DistributedLock distributedLock;
+
+    public CommentCounterReconcileScheduler(CommentDomainService commentDomainService,
+                                            DistributedLock distributedLock) {
+        this.commentDomainService = commentDomainService;
+        this.distributedLock = distributedLock;
+    }
+
+    @Scheduled(cron = "${community.comment.counter-reconcile-cron:0 30 3 * * ?}")
+    public void reconcileCommentCounters() {
+        try {
+            int fixed = distributedLock.executeWithLock(LOCK_KEY, Duration.ofMillis(100), Duration.ofMinutes(10),
+                    commentDomainService::reconcileCommentCounters);
+            log.info("评论计数校准任务执行完成，修正 {} 行", fixed);
+        } catch (IllegalStateException e) {
+            log.info("评论计数校准任务已由其他节点执行，跳过");
+        } catch (Exception e) {
+            log.error("评论计数校准任务执行失败", e);
+        }
+    }
+}
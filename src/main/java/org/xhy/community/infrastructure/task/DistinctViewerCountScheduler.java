@@ -0,0 +1,59 @@
+package org.xhy.community.infrastructure.task;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.xhy.community.domain.log.service.UserActivityLogDomainService;
+
+/**
+ * 去重浏览人数定时任务
+ * - 定时将 Redis HyperLogLog 中有新增浏览的目标持久化到数据库；
+ * - 启动时若尚无任何持久化数据，则从历史日志回灌一次。
+ */
+@Component
+public class DistinctViewerCountScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(DistinctViewerCountScheduler.class);
+
+    private final UserActivityLogDomainService userActivityLogDomainService;
+    private final int batchSize;
+
+    public DistinctViewerCountScheduler(UserActivityLogDomainService userActivityLogDomainService,
+                                        @Value("${community.viewer.persist-batch-size:500}") int batchSize) {
+        this.userActivityLogDomainService = userActivityLogDomainService;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${community.viewer.persist-interval-ms:60000}")
+    public void persistDistinctViewerCounts() {
+        try {
+            int persisted = userActivityLogDomainService.persistDistinctViewerCounts(batchSize);
+            if (persisted > 0) {
+                log.debug("去重浏览人数持久化 {} 个目标", persisted);
+            }
+        } catch (Exception e) {
+            log.warn("去重浏览人数持久化失败，下次重试: {}", e.getMessage());
+        }
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedIfEmpty() {
+        try {
+            if (userActivityLogDomainService.hasPersistedDistinctViewerCounts()) {
+                return;
+            }
+            log.info("未发现去重浏览人数持久化数据，开始从历史日志回灌");
+            userActivityLogDomainService.rebuildDistinctViewerCounts();
+        } catch (IllegalStateException e) {
+            log.info("去重浏览人数回灌已由其他节点执行，跳过");
+        } catch (Exception e) {
+            log.error("去重浏览人数回灌失败", e);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package org.xhy.community.infrastructure.task;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.xhy.community.domain.like.service.LikeDomainService;
+import org.xhy.community.infrastructure.lock.DistributedLock;
+
+import java.time.Duration;
+
+/**
+ * 点赞计数校准定时任务
+ * 每天凌晨 3 点按 likes 表重算 like_counters，修正计数偏差；多节点通过分布式锁只执行一次
+ */
+@Component
+public class LikeCounterReconcileScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(LikeCounterReconcileScheduler.class);
+
+    private static final String LOCK_KEY = "lock:task:like-counter-reconcile";
+
+    private final LikeDomainService likeDomainService;
+    private final DistributedLock distributedLock;
+
+    public LikeCounterReconcileScheduler(LikeDomainService likeDomainService,
+                                         DistributedLock distributedLock) {
+        this.likeDomainService = likeDomainService;
+        this.distributedLock = distributedLock;
+    }
+
+    @Scheduled(cron = "${community.like.counter-reconcile-cron:0 0 3 * * ?}")
+    public void reconcileLikeCounters() {
+        try {
+            int fixed = distributedLock.executeWithLock(LOCK_KEY, Duration.ofMillis(100), Duration.ofMinutes(10),
+                    likeDomainService::reconcileLikeCounters);
+            log.info("点赞计数校准任务执行完成，修正 {} 行", fixed);
+        } catch (IllegalStateException e) {
+            log.info("点赞计数校准任务已由其他节点执行，跳过");
+        } catch (Exception e) {
+            log.error("点赞计数校准任务执行失败", e);
+        }
+    }
+}
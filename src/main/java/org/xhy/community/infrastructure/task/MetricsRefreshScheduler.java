@@ -0,0 +1,67 @@
+package org.xhy.community.infrastructure.task;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.xhy.community.domain.metrics.service.MetricsDomainService;
+import org.xhy.community.infrastructure.lock.DistributedLock;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+/**
+ * 趋势指标增量刷新定时任务
+ * 定期重算最近 window-days 天（含今天）的预聚合指标，只扫描最新窗口内的数据；
+ * 每天凌晨重算昨天所在周、月的去重活跃用户数；多节点通过分布式锁只执行一次
+ */
+@Component
+public class MetricsRefreshScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(MetricsRefreshScheduler.class);
+
+    private static final String LOCK_KEY = "lock:task:metrics-refresh";
+    private static final String PERIOD_LOCK_KEY = "lock:task:active-user-period-refresh";
+
+    private final MetricsDomainService metricsDomainService;
+    private final DistributedLock distributedLock;
+    private final int windowDays;
+
+    public MetricsRefreshScheduler(MetricsDomainService metricsDomainService,
+                                   DistributedLock distributedLock,
+                                   @Value("${community.metrics.refresh-window-days:2}") int windowDays) {
+        this.metricsDomainService = metricsDomainService;
+        this.distributedLock = distributedLock;
+        this.windowDays = Math.max(1, windowDays);
+    }
+
+    @Scheduled(fixedDelayString = "${community.metrics.refresh-interval-ms:300000}",
+               initialDelayString = "${community.metrics.refresh-initial-delay-ms:30000}")
+    public void refresh() {
+        LocalDate today = LocalDate.now();
+        try {
+            int rows = distributedLock.executeWithLock(LOCK_KEY, Duration.ofMillis(100), Duration.ofMinutes(10),
+                    () -> metricsDomainService.refreshDailyMetrics(today.minusDays(windowDays - 1L), today));
+            log.debug("趋势指标刷新完成，写入 {} 行", rows);
+        } catch (IllegalStateException e) {
+            log.debug("趋势指标刷新已由其他节点执行，跳过");
+        } catch (Exception e) {
+            log.error("趋势指标刷新失败", e);
+        }
+    }
+
+    @Scheduled(cron = "${community.metrics.period-refresh-cron:0 40 0 * * ?}")
+    public void refreshActiveUserPeriods() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        try {
+            int rows = distributedLock.executeWithLock(PERIOD_LOCK_KEY, Duration.ofMillis(100), Duration.ofMinutes(30),
+                    () -> metricsDomainService.refreshActiveUserPeriods(yesterday));
+            log.info("周/月活跃用户数刷新完成，day={}, 写入 {} 行", yesterday, rows);
+        } catch (IllegalStateException e) {
+            log.debug("周/月活跃用户数刷新已由其他节点执行，跳过");
+        } catch (Exception e) {
+            log.error("周/月活跃用户数刷新失败", e);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package org.xhy.community.infrastructure.task;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.xhy.community.domain.session.service.TokenBlacklistDomainService;
+import org.xhy.community.infrastructure.config.JwtProperties;
+
+/**
+ * 已吊销 token 过滤器重建任务
+ * 每个节点各自维护进程内过滤器，因此不加分布式锁；启动后立即构建，之后定时重建以清理过期成员、补齐丢失的吊销广播
+ * 重建间隔即广播丢失时吊销生效的最长延迟
+ * 启动后一个 token 有效期内（旧格式黑名单记录可能仍有效），重建前先迁移旧格式记录
+ */
+@Component
+public class RevokedTokenFilterRebuildScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(RevokedTokenFilterRebuildScheduler.class);
+
+    private final TokenBlacklistDomainService tokenBlacklistDomainService;
+    private final long legacyMigrationDeadline;
+
+    public RevokedTokenFilterRebuildScheduler(TokenBlacklistDomainService tokenBlacklistDomainService,
+                                              JwtProperties jwtProperties) {
+        this.tokenBlacklistDomainService = tokenBlacklistDomainService;
+        this.legacyMigrationDeadline = System.currentTimeMillis() + jwtProperties.getExpiration();
+    }
+
+    @Scheduled(initialDelayString = "${community.auth.revocation-filter.initial-delay-ms:1000}",
+            fixedDelayString = "${community.auth.revocation-filter.rebuild-interval-ms:15000}")
+    public void rebuild() {
+        try {
+            if (System.currentTimeMillis() < legacyMigrationDeadline) {
+                tokenBlacklistDomainService.migrateLegacyBlacklist();
+            }
+            tokenBlacklistDomainService.rebuildRevocationFilter();
+        } catch (Exception e) {
+            log.error("已吊销token过滤器重建失败", e);
+        }
+    }
+}
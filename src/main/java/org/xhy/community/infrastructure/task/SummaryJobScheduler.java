@@ -0,0 +1,184 @@
+package org.xhy.community.infrastructure.task;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AI 摘要任务调度器：按目标合并事件并防抖，全局限制并发中的 LLM 调用
+ * - 同一目标在防抖窗口内的多次触发合并为一次执行；窗口随新事件顺延，但自首次触发起最多延迟 max-delay；
+ * - 同一目标同一时刻只执行一个任务，执行期间的新触发在结束后重新排期；
+ * - 执行槽位（Semaphore）限制同时进行的生成任务数，槽位占满时稍后重试，不堆积线程。
+ */
+@Component
+public class SummaryJobScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(SummaryJobScheduler.class);
+
+    private static final long SLOT_RETRY_MILLIS = 5_000;
+
+    private final long debounceMillis;
+    private final long slotRetryMillis;
+    private final long maxDelayMillis;
+    private final int maxInFlight;
+    private final Semaphore slots;
+    private final ScheduledExecutorService timer;
+    private final ExecutorService workers;
+
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+
+    private final Counter submittedCounter;
+    private final Counter executedCounter;
+
+    public SummaryJobScheduler(MeterRegistry meterRegistry,
+                               @Value("${community.summary.debounce-seconds:60}") long debounceSeconds,
+                               @Value("${community.summary.max-delay-seconds:600}") long maxDelaySeconds,
+                               @Value("${community.summary.max-in-flight:2}") int maxInFlight) {
+        this(meterRegistry, TimeUnit.SECONDS.toMillis(Math.max(1, debounceSeconds)),
+                TimeUnit.SECONDS.toMillis(maxDelaySeconds), maxInFlight, SLOT_RETRY_MILLIS);
+    }
+
+    SummaryJobScheduler(MeterRegistry meterRegistry, long debounceMillis, long maxDelayMillis,
+                        int maxInFlight, long slotRetryMillis) {
+        this.debounceMillis = debounceMillis;
+        this.maxDelayMillis = Math.max(debounceMillis, maxDelayMillis);
+        this.slotRetryMillis = slotRetryMillis;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.slots = new Semaphore(this.maxInFlight);
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "summary-debounce");
+            t.setDaemon(true);
+            return t;
+        });
+        this.workers = Executors.newFixedThreadPool(this.maxInFlight, r -> {
+            Thread t = new Thread(r, "summary-worker");
+            t.setDaemon(true);
+            return t;
+        });
+
+        this.submittedCounter = Counter.builder("summary.jobs.submitted").register(meterRegistry);
+        this.executedCounter = Counter.builder("summary.jobs.executed").register(meterRegistry);
+        Gauge.builder("summary.jobs.pending", pending, Map::size).register(meterRegistry);
+        Gauge.builder("summary.jobs.in_flight", slots, s -> this.maxInFlight - s.availablePermits())
+                .register(meterRegistry);
+    }
+
+    /**
+     * 提交（或合并）一个目标的摘要任务
+     *
+     * @param key 目标标识，同一 key 的任务会被合并
+     * @param job 实际执行的任务，执行时读取最新数据
+     */
+    public void submit(String key, Runnable job) {
+        submittedCounter.increment();
+        long now = System.currentTimeMillis();
+        pending.compute(key, (k, p) -> {
+            if (p == null) {
+                Pending created = new Pending(job, now);
+                schedule(k, debounceMillis);
+                return created;
+            }
+            p.job = job;
+            p.lastEventAt = now;
+            if (p.running) {
+                p.dirty = true;
+            }
+            return p;
+        });
+    }
+
+    private void schedule(String key, long delayMillis) {
+        try {
+            timer.schedule(() -> fire(key), delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            pending.remove(key);
+        }
+    }
+
+    private void fire(String key) {
+        long now = System.currentTimeMillis();
+        Pending p = pending.get(key);
+        if (p == null || p.running) {
+            return;
+        }
+        // 防抖：窗口内仍有新事件则顺延，但不超过最大延迟
+        long quietFor = now - p.lastEventAt;
+        long waited = now - p.firstEventAt;
+        if (quietFor < debounceMillis && waited < maxDelayMillis) {
+            schedule(key, Math.min(debounceMillis - quietFor, maxDelayMillis - waited));
+            return;
+        }
+        if (!slots.tryAcquire()) {
+            schedule(key, slotRetryMillis);
+            return;
+        }
+        p.running = true;
+        p.dirty = false;
+        Runnable job = p.job;
+        try {
+            workers.execute(() -> run(key, p, job));
+        } catch (RejectedExecutionException e) {
+            slots.release();
+            pending.remove(key);
+        }
+    }
+
+    private void run(String key, Pending p, Runnable job) {
+        try {
+            job.run();
+            executedCounter.increment();
+        } catch (Exception e) {
+            log.warn("[SummaryJobScheduler] 摘要任务执行失败 key={}, err={}", key, e.getMessage());
+        } finally {
+            slots.release();
+            pending.compute(key, (k, cur) -> {
+                if (cur != p) {
+                    return cur;
+                }
+                if (!p.dirty) {
+                    return null;
+                }
+                // 执行期间有新事件：以本次结束时间为起点重新防抖
+                long now = System.currentTimeMillis();
+                Pending next = new Pending(p.job, now);
+                next.lastEventAt = now;
+                schedule(k, debounceMillis);
+                return next;
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+        workers.shutdown();
+    }
+
+    private static final class Pending {
+        private volatile Runnable job;
+        private final long firstEventAt;
+        private volatile long lastEventAt;
+        private volatile boolean running;
+        private volatile boolean dirty;
+
+        private Pending(Runnable job, long firstEventAt) {
+            this.job = job;
+            this.firstEventAt = firstEventAt;
+            this.lastEventAt = firstEventAt;
+        }
+    }
+}
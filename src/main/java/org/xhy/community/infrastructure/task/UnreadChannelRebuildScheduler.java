@@ -0,0 +1,79 @@
+package org.xhy.community.infrastructure.task;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.xhy.community.domain.common.valueobject.ReadChannel;
+import org.xhy.community.domain.course.service.ChapterDomainService;
+import org.xhy.community.domain.interview.service.InterviewQuestionDomainService;
+import org.xhy.community.domain.post.service.PostDomainService;
+import org.xhy.community.infrastructure.cache.UnreadCounterCache;
+import org.xhy.community.infrastructure.lock.DistributedLock;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * 未读计数频道集合重建定时任务
+ * 定期按数据库重建最近 window-days 天的各频道发布集合：补齐漏发事件的内容，剔除已删除/下线的内容；
+ * 启动后首次执行前频道集合不可用，未读数回源数据库。多节点通过分布式锁只执行一次
+ */
+@Component
+public class UnreadChannelRebuildScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(UnreadChannelRebuildScheduler.class);
+
+    private static final String LOCK_KEY = "lock:task:unread-channel-rebuild";
+
+    private final PostDomainService postDomainService;
+    private final InterviewQuestionDomainService interviewQuestionDomainService;
+    private final ChapterDomainService chapterDomainService;
+    private final UnreadCounterCache unreadCounterCache;
+    private final DistributedLock distributedLock;
+    private final int windowDays;
+
+    public UnreadChannelRebuildScheduler(PostDomainService postDomainService,
+                                         InterviewQuestionDomainService interviewQuestionDomainService,
+                                         ChapterDomainService chapterDomainService,
+                                         UnreadCounterCache unreadCounterCache,
+                                         DistributedLock distributedLock,
+                                         @Value("${community.unread.channel-window-days:30}") int windowDays) {
+        this.postDomainService = postDomainService;
+        this.interviewQuestionDomainService = interviewQuestionDomainService;
+        this.chapterDomainService = chapterDomainService;
+        this.unreadCounterCache = unreadCounterCache;
+        this.distributedLock = distributedLock;
+        this.windowDays = Math.max(1, windowDays);
+    }
+
+    @Scheduled(fixedDelayString = "${community.unread.channel-rebuild-interval-ms:600000}",
+               initialDelayString = "${community.unread.channel-rebuild-initial-delay-ms:10000}")
+    public void rebuild() {
+        try {
+            distributedLock.runWithLock(LOCK_KEY, Duration.ofMillis(100), Duration.ofMinutes(5), () -> {
+                for (ReadChannel channel : ReadChannel.values()) {
+                    rebuild(channel);
+                }
+            });
+        } catch (IllegalStateException e) {
+            log.debug("未读频道集合重建已由其他节点执行，跳过");
+        } catch (Exception e) {
+            log.error("未读频道集合重建失败", e);
+        }
+    }
+
+    private void rebuild(ReadChannel channel) {
+        LocalDateTime snapshotAt = LocalDateTime.now();
+        LocalDateTime floor = snapshotAt.minusDays(windowDays);
+        Map<String, LocalDateTime> publishTimes = switch (channel) {
+            case POSTS -> postDomainService.getPublishTimesSince(floor);
+            case QUESTIONS -> interviewQuestionDomainService.getPublishTimesSince(floor);
+            case CHAPTERS -> chapterDomainService.getCreateTimesSince(floor);
+        };
+        unreadCounterCache.rebuildChannel(channel, publishTimes, floor, snapshotAt);
+        log.debug("未读频道集合重建完成 channel={}, size={}", channel, publishTimes.size());
+    }
+}
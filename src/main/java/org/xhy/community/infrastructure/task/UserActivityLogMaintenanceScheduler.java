@@ -0,0 +1,73 @@
+package org.xhy.community.infrastructure.task;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.xhy.community.domain.log.service.UserActivityLogDomainService;
+import org.xhy.community.domain.log.service.UserActivityStatDomainService;
+import org.xhy.community.infrastructure.lock.DistributedLock;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+/**
+ * 用户活动日志维护定时任务
+ * 每天凌晨：预建未来月份分区；配置了保留期时分离（或删除）过期分区；汇总前一天（并重算前两天以吸收迟到的日志）；
+ * 多节点通过分布式锁只执行一次
+ *
+ * 保留期默认关闭（retention-months=0）；开启后默认只分离分区（retention-detach=true），
+ * 删除数据必须显式配置 retention-detach=false。
+ */
+@Component
+public class UserActivityLogMaintenanceScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(UserActivityLogMaintenanceScheduler.class);
+
+    private static final String LOCK_KEY = "lock:task:activity-log-maintenance";
+    private static final int ROLLUP_DAYS = 2;
+
+    private final UserActivityLogDomainService userActivityLogDomainService;
+    private final UserActivityStatDomainService userActivityStatDomainService;
+    private final DistributedLock distributedLock;
+    private final int partitionMonthsAhead;
+    private final int retentionMonths;
+    private final boolean retentionDetachOnly;
+
+    public UserActivityLogMaintenanceScheduler(UserActivityLogDomainService userActivityLogDomainService,
+                                               UserActivityStatDomainService userActivityStatDomainService,
+                                               DistributedLock distributedLock,
+                                               @Value("${community.activity-log.partition-months-ahead:3}") int partitionMonthsAhead,
+                                               @Value("${community.activity-log.retention-months:0}") int retentionMonths,
+                                               @Value("${community.activity-log.retention-detach:true}") boolean retentionDetachOnly) {
+        this.userActivityLogDomainService = userActivityLogDomainService;
+        this.userActivityStatDomainService = userActivityStatDomainService;
+        this.distributedLock = distributedLock;
+        this.partitionMonthsAhead = partitionMonthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.retentionDetachOnly = retentionDetachOnly;
+    }
+
+    @Scheduled(cron = "${community.activity-log.maintenance-cron:0 20 0 * * ?}")
+    public void maintain() {
+        try {
+            distributedLock.executeWithLock(LOCK_KEY, Duration.ofMillis(100), Duration.ofMinutes(30), () -> {
+                int created = userActivityLogDomainService.ensureLogPartitions(partitionMonthsAhead);
+                int purged = userActivityLogDomainService.purgeExpiredLogPartitions(retentionMonths, retentionDetachOnly);
+                int rolled = 0;
+                LocalDate today = LocalDate.now();
+                for (int i = ROLLUP_DAYS; i >= 1; i--) {
+                    rolled += userActivityStatDomainService.rollupDay(today.minusDays(i));
+                }
+                log.info("活动日志维护任务执行完成，新建分区 {} 个，{}过期分区 {} 个（保留 {} 个月，0 表示不清理），汇总 {} 行",
+                        created, retentionDetachOnly ? "分离" : "删除", purged, retentionMonths, rolled);
+                return null;
+            });
+        } catch (IllegalStateException e) {
+            log.info("活动日志维护任务已由其他节点执行，跳过");
+        } catch (Exception e) {
+            log.error("活动日志维护任务执行失败", e);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package org.xhy.community.infrastructure.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Token 指纹工具类
+ * 使用 SHA-256 截取前 128 位作为 token 的短指纹，用于缓存键等场景，避免在 Redis/日志中出现完整 token
+ */
+public class TokenFingerprintUtil {
+
+    private static final int FINGERPRINT_BYTES = 16;
+
+    /**
+     * 计算 token 指纹（32 位十六进制字符串）
+     *
+     * @param token 原始 token
+     * @return 指纹；token 为空时返回 null
+     */
+    public static String fingerprint(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, FINGERPRINT_BYTES);
+        } catch (NoSuchAlgorithmException e) {
+            // JDK 必定内置 SHA-256
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -70,14 +70,14 @@ public class CdnAuthController {
             return ResponseEntity.status(403).build();
         }
 
-        // 4. 验证 token 是否过期
-        if (!jwtUtil.validateToken(token)) {
+        // 4. 验证 token 是否过期（单次解析，同时取得用户ID）
+        String userId = jwtUtil.getVerifiedUserId(token);
+        if (userId == null) {
             return ResponseEntity.status(403).build();
         }
 
         // 5. 业务权限校验：判断用户是否有权限访问该资源
         if (StringUtils.hasText(resourceId)) {
-            String userId = jwtUtil.getUserIdFromToken(token);
             boolean allowed = userPermissionAppService.hasDownloadPermissionForResource(userId, resourceId);
             if (!allowed) {
                 return ResponseEntity.status(403).build();
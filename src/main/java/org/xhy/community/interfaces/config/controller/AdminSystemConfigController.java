@@ -56,4 +56,17 @@ public class AdminSystemConfigController {
         SystemConfigDTO config = adminSystemConfigAppService.updateConfigByType(configType, request.getData());
         return ApiResponse.success("保存成功",config);
     }
+
+    /**
+     * 重载系统配置缓存
+     * 所有节点丢弃进程内已缓存的配置，下次读取时从数据库重新加载
+     *
+     * @return 操作结果
+     */
+    @PostMapping("/cache/reload")
+    @ActivityLog(ActivityType.ADMIN_UPDATE_CONFIG)
+    public ApiResponse<Void> reloadConfigCache() {
+        adminSystemConfigAppService.reloadConfigCache();
+        return ApiResponse.success("重载成功");
+    }
 }
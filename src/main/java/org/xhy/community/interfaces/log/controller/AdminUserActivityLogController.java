@@ -3,10 +3,14 @@ package org.xhy.community.interfaces.log.controller;
 import jakarta.validation.Valid;
 import org.springframework.web.bind.annotation.*;
 import com.baomidou.mybatisplus.core.metadata.IPage;
+import org.xhy.community.application.log.dto.UserActivityDailyStatDTO;
 import org.xhy.community.application.log.service.UserActivityLogAppService;
 import org.xhy.community.application.user.dto.UserActivityLogDTO;
 import org.xhy.community.infrastructure.config.ApiResponse;
 import org.xhy.community.interfaces.log.request.QueryUserActivityLogRequest;
+import org.xhy.community.interfaces.log.request.UserActivityStatsRequest;
+
+import java.util.List;
 
 /**
  * 管理员用户活动日志控制器
@@ -50,4 +54,40 @@ public class AdminUserActivityLogController {
         IPage<UserActivityLogDTO> result = userActivityLogAppService.getActivityLogs(request);
         return ApiResponse.success(result);
     }
-}
\ No newline at end of file
+
+    /**
+     * 按活动类型的每日统计（读取按日汇总表，当天数据次日可见）
+     *
+     * @param request 查询参数：startDate/endDate（yyyy-MM-dd，默认最近 30 天）、activityType（可选）
+     *                示例：GET /api/admin/user-activity-logs/daily-stats?startDate=2025-01-01&endDate=2025-01-31
+     * @return 按日期、活动类型排序的统计列表
+     */
+    @GetMapping("/daily-stats")
+    public ApiResponse<List<UserActivityDailyStatDTO>> getDailyStats(UserActivityStatsRequest request) {
+        return ApiResponse.success(userActivityLogAppService.getDailyStats(request));
+    }
+
+    /**
+     * 指定目标的每日统计（如某篇文章每天的浏览次数与浏览人数）
+     *
+     * @param request 查询参数：targetType、targetId（必填），startDate/endDate、activityType（可选）
+     *                示例：GET /api/admin/user-activity-logs/target-stats?targetType=POST&targetId=xxx&activityType=VIEW_POST
+     * @return 按日期、活动类型排序的统计列表
+     */
+    @GetMapping("/target-stats")
+    public ApiResponse<List<UserActivityDailyStatDTO>> getDailyTargetStats(UserActivityStatsRequest request) {
+        return ApiResponse.success(userActivityLogAppService.getDailyTargetStats(request));
+    }
+
+    /**
+     * 从历史日志重建去重浏览人数（HyperLogLog）
+     * 异步执行，接口立即返回；多节点只会有一个任务实际运行
+     *
+     * @return 操作结果
+     */
+    @PostMapping("/distinct-viewers/rebuild")
+    public ApiResponse<Void> rebuildDistinctViewerCounts() {
+        userActivityLogAppService.rebuildDistinctViewerCounts();
+        return ApiResponse.success("重建任务已提交");
+    }
+}
@@ -0,0 +1,46 @@
+package org.xhy.community.interfaces.log.request;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.xhy.community.domain.common.valueobject.ActivityType;
+
+import java.time.LocalDate;
+
+/**
+ * 用户活动按日统计查询请求
+ * 日期范围含首尾两天，不传时默认最近 30 天（截至昨天）
+ */
+public class UserActivityStatsRequest {
+
+    /** 开始日期 */
+    @DateTimeFormat(pattern = "yyyy-MM-dd")
+    private LocalDate startDate;
+
+    /** 结束日期 */
+    @DateTimeFormat(pattern = "yyyy-MM-dd")
+    private LocalDate endDate;
+
+    /** 活动类型（可选） */
+    private ActivityType activityType;
+
+    /** 目标类型（按目标统计时必填） */
+    private String targetType;
+
+    /** 目标ID（按目标统计时必填） */
+    private String targetId;
+
+    // Getters and Setters
+    public LocalDate getStartDate() { return startDate; }
+    public void setStartDate(LocalDate startDate) { this.startDate = startDate; }
+
+    public LocalDate getEndDate() { return endDate; }
+    public void setEndDate(LocalDate endDate) { this.endDate = endDate; }
+
+    public ActivityType getActivityType() { return activityType; }
+    public void setActivityType(ActivityType activityType) { this.activityType = activityType; }
+
+    public String getTargetType() { return targetType; }
+    public void setTargetType(String targetType) { this.targetType = targetType; }
+
+    public String getTargetId() { return targetId; }
+    public void setTargetId(String targetId) { this.targetId = targetId; }
+}
@@ -119,14 +119,12 @@ public class PublicResourceController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        // JWT 有效期校验
-        if (!jwtUtil.validateToken(token)) {
+        // JWT 有效期校验并解析用户ID（单次解析）
+        String userId = jwtUtil.getVerifiedUserId(token);
+        if (userId == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        // 解析用户ID
-        String userId = jwtUtil.getUserIdFromToken(token);
-
         // 生成带签名的直链并重定向
         String accessUrl = resourceAppService.getResourceAccessUrl(resourceId, userId);
 
@@ -1,6 +1,9 @@
 package org.xhy.community.interfaces.read.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.xhy.community.application.read.dto.UnreadSummaryDTO;
 import org.xhy.community.application.read.service.UnreadAppService;
 import org.xhy.community.domain.common.valueobject.ReadChannel;
@@ -22,7 +25,7 @@ public class UserUnreadController {
         this.unreadAppService = unreadAppService;
     }
 
-    /** 获取用户的未读汇总（文章/题目） */
+    /** 获取用户的未读汇总（文章/题目/章节/站内信） */
     @GetMapping("/summary")
     @RequiresPlanPermissions(items = {@RequiresPlanPermissions.Item(code = "UNREAD_SUMMARY", name = "未读汇总")})
     public ApiResponse<UnreadSummaryDTO> getUnreadSummary() {
@@ -31,6 +34,22 @@ public class UserUnreadController {
         return ApiResponse.success(dto);
     }
 
+    /**
+     * 未读推送（SSE）
+     * 连接建立后先推送 summary（当前未读汇总），之后推送：
+     * - notification：新站内信（站内信未读 +1）；
+     * - unread：未读数变化，{channel, delta} 为增量、{channel, count} 为绝对值，channel 为 NOTIFICATIONS 或频道名。
+     * 连接断开后客户端重连即可重新获得完整汇总
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @RequiresPlanPermissions(items = {@RequiresPlanPermissions.Item(code = "UNREAD_SUMMARY", name = "未读汇总")})
+    public SseEmitter stream(HttpServletResponse response) {
+        String userId = UserContext.getCurrentUserId();
+        // 关闭反向代理缓冲，保证事件即时下发
+        response.setHeader("X-Accel-Buffering", "no");
+        return unreadAppService.subscribe(userId);
+    }
+
     /** 进入频道列表后清零（更新 Last Seen） */
     @PutMapping("/visit")
     @RequiresPlanPermissions(items = {@RequiresPlanPermissions.Item(code = "UNREAD_VISIT", name = "未读清零")})
@@ -77,13 +77,7 @@ public class AdminAuthInterceptor implements HandlerInterceptor {
     }
 
     private String parseUserIdFromToken(String token) {
-        try {
-            if (jwtUtil.validateToken(token)) {
-                return jwtUtil.getUserIdFromToken(token);
-            }
-        } catch (Exception e) {
-            log.warn("JWT token解析失败: {}", e.getMessage());
-        }
-        return null;
+        // 单次解析：验签、有效期与用户ID一并取得（已验证的 claims 有进程内缓存）
+        return jwtUtil.getVerifiedUserId(token);
     }
 }
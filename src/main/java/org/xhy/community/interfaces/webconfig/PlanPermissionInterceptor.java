@@ -4,25 +4,21 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.servlet.HandlerInterceptor;
 import org.xhy.community.application.permission.service.UserPermissionAppService;
-import org.xhy.community.domain.user.entity.UserCourseEntity;
-import org.xhy.community.infrastructure.annotation.RequiresPlanPermissions;
 import org.xhy.community.infrastructure.config.UserContext;
-
-import java.lang.reflect.Method;
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import org.xhy.community.infrastructure.permission.EffectivePermissions;
+import org.xhy.community.infrastructure.permission.PermissionCodeScanner;
 
 /**
  * 前台接口功能权限拦截器
  * - 仅对标注了 @RequiresPlanPermissions 的接口进行权限校验；
  * - 安全边界在后端：即使前端不做任何权限码判断，也会在此处被拒绝（403）。
  * - 与前端返回的权限码无关（那只是为了更友好的按钮显示体验）。
+ * - 接口所需权限在启动时预计算，用户有效权限按用户缓存，校验为位集合包含判断。
  */
 @Component
 public class PlanPermissionInterceptor implements HandlerInterceptor {
@@ -30,10 +26,13 @@ public class PlanPermissionInterceptor implements HandlerInterceptor {
     private static final Logger log = LoggerFactory.getLogger(PlanPermissionInterceptor.class);
 
     private final UserPermissionAppService userPermissionAppService;
+    private final PermissionCodeScanner permissionCodeScanner;
 
-
-    public PlanPermissionInterceptor(UserPermissionAppService userPermissionAppService) {
+    public PlanPermissionInterceptor(UserPermissionAppService userPermissionAppService,
+                                     // 扫描器依赖 HandlerMapping，而拦截器在 HandlerMapping 创建时注册，延迟注入以打破循环依赖
+                                     @Lazy PermissionCodeScanner permissionCodeScanner) {
         this.userPermissionAppService = userPermissionAppService;
+        this.permissionCodeScanner = permissionCodeScanner;
     }
 
     @Override
@@ -42,9 +41,8 @@ public class PlanPermissionInterceptor implements HandlerInterceptor {
             return true;
         }
 
-        // 先查方法注解，其次类注解
-        RequiresPlanPermissions ann = getAnnotation(handlerMethod);
-        if (ann == null || (ann.value().length == 0 && ann.items().length == 0)) {
+        PermissionCodeScanner.Requirement requirement = permissionCodeScanner.requirementOf(handlerMethod);
+        if (requirement == null) {
             return true; // 未要求功能权限，直接放行
         }
 
@@ -54,43 +52,15 @@ public class PlanPermissionInterceptor implements HandlerInterceptor {
             return false;
         }
 
-        Set<String> need = new HashSet<>(Arrays.asList(ann.value()));
-        if (ann.items().length > 0) {
-            for (RequiresPlanPermissions.Item it : ann.items()) {
-                if (it != null && it.code() != null && !it.code().isBlank()) {
-                    need.add(it.code());
-                }
-            }
-        }
-        Set<String> have = new HashSet<>(userPermissionAppService.getUserPlanPermissionCodes(userId));
-
-        // 如果用户有购买课程，则手动添加权限
-        addPermissionFoyBuyCourse(have,userId);
-
-        boolean allowed = have.containsAll(need);
-
-        if (!allowed) {
-            log.warn("功能权限不足：userId={}, need={}, have={} path={}", userId, need, have, request.getRequestURI());
+        // 有效权限已包含直购课程附加的权限
+        EffectivePermissions permissions = userPermissionAppService.getEffectivePermissions(userId);
+        if (!permissions.satisfies(requirement)) {
+            log.warn("功能权限不足：userId={}, need={}, have={} path={}",
+                    userId, requirement.getCodes(), permissions.getCodes(), request.getRequestURI());
             response.setStatus(HttpServletResponse.SC_FORBIDDEN);
             return false;
         }
 
         return true;
     }
-
-    private void addPermissionFoyBuyCourse(Set<String> permissionCodes,String userId){
-        List<String> directCoursesIds = userPermissionAppService.getDirectCoursesIds(userId);
-        if (directCoursesIds !=null && !directCoursesIds.isEmpty()){
-            permissionCodes.add("RESOURCE_DOWNLOAD");
-            permissionCodes.add("CHAPTER_APP_DETAIL");
-        }
-    }
-
-    private RequiresPlanPermissions getAnnotation(HandlerMethod handlerMethod) {
-        Method method = handlerMethod.getMethod();
-        RequiresPlanPermissions ann = method.getAnnotation(RequiresPlanPermissions.class);
-        if (ann != null) return ann;
-        Class<?> clazz = handlerMethod.getBeanType();
-        return clazz.getAnnotation(RequiresPlanPermissions.class);
-    }
 }
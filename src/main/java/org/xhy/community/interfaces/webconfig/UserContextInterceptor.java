@@ -7,17 +7,18 @@ import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
-import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
 import org.xhy.community.application.subscription.service.UserSubscriptionAppService;
 import org.xhy.community.application.session.service.DeviceSessionAppService;
 import org.xhy.community.application.session.service.TokenBlacklistAppService;
 import org.xhy.community.application.user.service.UserAppService;
+import org.xhy.community.infrastructure.cache.AuthDecisionCache;
 import org.xhy.community.infrastructure.config.JwtUtil;
 import org.xhy.community.infrastructure.config.UserContext;
 import org.xhy.community.infrastructure.util.ClientIpUtil;
 
 @Component
-public class UserContextInterceptor implements HandlerInterceptor {
+public class UserContextInterceptor implements AsyncHandlerInterceptor {
 
     private static final Logger log = LoggerFactory.getLogger(UserContextInterceptor.class);
 
@@ -26,40 +27,59 @@ public class UserContextInterceptor implements HandlerInterceptor {
     private final DeviceSessionAppService deviceSessionAppService;
     private final TokenBlacklistAppService tokenBlacklistAppService;
     private final UserAppService userAppService;
+    private final AuthDecisionCache authDecisionCache;
 
     public UserContextInterceptor(JwtUtil jwtUtil,
                                   UserSubscriptionAppService userSubscriptionAppService,
                                   DeviceSessionAppService deviceSessionAppService,
                                   TokenBlacklistAppService tokenBlacklistAppService,
-                                  UserAppService userAppService) {
+                                  UserAppService userAppService,
+                                  AuthDecisionCache authDecisionCache) {
         this.jwtUtil = jwtUtil;
         this.userSubscriptionAppService = userSubscriptionAppService;
         this.deviceSessionAppService = deviceSessionAppService;
         this.tokenBlacklistAppService = tokenBlacklistAppService;
         this.userAppService = userAppService;
+        this.authDecisionCache = authDecisionCache;
     }
 
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
-        String userId = extractUserIdFromRequest(request);
+        String token = extractTokenFromRequest(request);
+        if (token == null) {
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            return false;
+        }
+
+        // 基于设备优先的白名单检查；若缺失 deviceId，则回退到按 IP 检查
+        String ip = ClientIpUtil.getClientIp(request);
+        String deviceId = request.getHeader("X-Device-ID");
+        if (!StringUtils.hasText(deviceId) && request.getCookies() != null) {
+            for (var c : request.getCookies()) {
+                if ("DID".equals(c.getName()) && StringUtils.hasText(c.getValue())) {
+                    deviceId = c.getValue();
+                    break;
+                }
+            }
+        }
+        String deviceKey = resolveDeviceKey(ip, deviceId);
+
+        // 命中放行结论缓存：跳过黑名单、JWT、设备会话、用户状态与订阅的逐项回源
+        String cachedUserId = authDecisionCache.get(token, deviceKey);
+        if (cachedUserId != null) {
+            UserContext.setCurrentUserId(cachedUserId);
+            MDC.put("userId", cachedUserId);
+            return true;
+        }
+
+        long epoch = authDecisionCache.currentEpoch();
+        String userId = resolveUserIdFromToken(token);
 
         if (StringUtils.hasText(userId)) {
             UserContext.setCurrentUserId(userId);
             // 将 userId 写入 MDC，使得日志中自动包含用户信息
             MDC.put("userId", userId);
 
-            // 基于设备优先的白名单检查；若缺失 deviceId，则回退到按 IP 检查
-            String ip = ClientIpUtil.getClientIp(request);
-            String deviceId = request.getHeader("X-Device-ID");
-            if (!StringUtils.hasText(deviceId) && request.getCookies() != null) {
-                for (var c : request.getCookies()) {
-                    if ("DID".equals(c.getName()) && StringUtils.hasText(c.getValue())) {
-                        deviceId = c.getValue();
-                        break;
-                    }
-                }
-            }
-
             boolean allowed;
             if (isLocalLoopback(ip)) {
                 // 本地开发/回环地址直接放行
@@ -100,6 +120,7 @@ public class UserContextInterceptor implements HandlerInterceptor {
             return false;
         }
 
+        authDecisionCache.put(token, deviceKey, userId, jwtUtil.getRemainingTime(token), epoch);
         return true;
     }
 
@@ -108,33 +129,46 @@ public class UserContextInterceptor implements HandlerInterceptor {
         UserContext.clear();
     }
 
-    private String extractUserIdFromRequest(HttpServletRequest request) {
+    // 异步请求（如 SSE 长连接）开始后容器线程即被释放，不会执行 afterCompletion，需在此清理
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        UserContext.clear();
+    }
+
+    private String extractTokenFromRequest(HttpServletRequest request) {
         // 从Authorization头获取JWT token
         String authorization = request.getHeader("Authorization");
         if (StringUtils.hasText(authorization) && authorization.startsWith("Bearer ")) {
             String token = authorization.substring(7);
+            return StringUtils.hasText(token) ? token : null;
+        }
+        return null;
+    }
 
-            // 首先检查token是否在黑名单中
-            if (tokenBlacklistAppService.isBlacklisted(token)) {
-                log.warn("Token已被列入黑名单: {}", token.substring(0, Math.min(token.length(), 20)) + "...");
-                return null;
-            }
-
-            return parseUserIdFromToken(token);
+    private String resolveUserIdFromToken(String token) {
+        // 首先检查token是否在黑名单中
+        if (tokenBlacklistAppService.isBlacklisted(token)) {
+            log.warn("Token已被列入黑名单: {}", token.substring(0, Math.min(token.length(), 20)) + "...");
+            return null;
         }
 
-        return null;
+        return parseUserIdFromToken(token);
     }
 
-    private String parseUserIdFromToken(String token) {
-        try {
-            if (jwtUtil.validateToken(token)) {
-                return jwtUtil.getUserIdFromToken(token);
-            }
-        } catch (Exception e) {
-            log.warn("JWT token解析失败: {}", e.getMessage());
+    // 鉴权结论缓存的设备维度：回环地址统一归为 lo，其余优先 deviceId，缺失时回退 IP
+    private String resolveDeviceKey(String ip, String deviceId) {
+        if (isLocalLoopback(ip)) {
+            return "lo";
         }
-        return null;
+        if (StringUtils.hasText(deviceId)) {
+            return "d:" + deviceId;
+        }
+        return "ip:" + ip;
+    }
+
+    private String parseUserIdFromToken(String token) {
+        // 单次解析：验签、有效期与用户ID一并取得（已验证的 claims 有进程内缓存）
+        return jwtUtil.getVerifiedUserId(token);
     }
 
     // 本地回环地址判定
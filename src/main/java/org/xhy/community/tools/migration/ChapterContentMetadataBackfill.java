@@ -0,0 +1,101 @@
+package org.xhy.community.tools.migration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.xhy.community.domain.course.service.ChapterContentAnalyzer;
+import org.xhy.community.domain.course.valueobject.ChapterContentMetadata;
+import org.xhy.community.infrastructure.markdown.impl.FlexmarkMarkdownParser;
+
+import java.sql.*;
+
+/**
+ * 章节内容元数据回填脚本
+ *
+ * 功能：
+ * 1) 遍历 chapters.content（Markdown），使用与保存章节时相同的 ChapterContentAnalyzer 分析正文
+ * 2) 写入 content_type / video_sources / resource_ids / word_count / content_analyzed_at
+ * 3) 预计阅读时长写入 estimated_reading_time，不改动人工填写的 reading_time
+ *
+ * 环境变量（沿用现有迁移工具约定）：
+ * - TARGET_PG_HOST (默认 124.220.234.136)
+ * - TARGET_PG_PORT (默认 5432)
+ * - DB_NAME        (默认 qiaoya_community)
+ * - DB_USERNAME    (默认 qiaoya_community)
+ * - DB_PASSWORD    (必填)
+ *
+ * 可选控制：
+ * - ONLY_CHAPTER_ID 仅处理指定章节ID
+ * - ONLY_MISSING=true 仅处理尚未分析的章节（content_type 为空）
+ */
+public class ChapterContentMetadataBackfill {
+
+    public static void main(String[] args) throws Exception {
+        String pgHost = env("TARGET_PG_HOST", "124.220.234.136");
+        String pgPort = env("TARGET_PG_PORT", "5432");
+        String pgDb = env("DB_NAME", "qiaoya_community");
+        String pgUser = env("DB_USERNAME", "qiaoya_community");
+        String pgPass = env("DB_PASSWORD", null);
+        String onlyChapterId = env("ONLY_CHAPTER_ID", null);
+        boolean onlyMissing = Boolean.parseBoolean(env("ONLY_MISSING", "false"));
+
+        if (pgPass == null || pgPass.isEmpty()) throw new IllegalArgumentException("Missing DB_PASSWORD");
+        String pgUrl = String.format("jdbc:postgresql://%s:%s/%s", pgHost, pgPort, pgDb);
+        System.out.println("[ChapterContentMetadataBackfill] Postgres -> " + pgUrl);
+        if (onlyChapterId != null) System.out.println("[ChapterContentMetadataBackfill] ONLY_CHAPTER_ID=" + onlyChapterId);
+
+        ChapterContentAnalyzer analyzer = new ChapterContentAnalyzer(new FlexmarkMarkdownParser());
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        try (Connection pg = DriverManager.getConnection(pgUrl, pgUser, pgPass)) {
+            pg.setAutoCommit(false);
+
+            String select = "SELECT id, content FROM chapters WHERE deleted_at IS NULL"
+                    + (onlyChapterId != null ? " AND id=?" : "")
+                    + (onlyMissing ? " AND content_type IS NULL" : "")
+                    + " ORDER BY id";
+            String update = "UPDATE chapters SET content_type=?, video_sources=?::json, resource_ids=?::json, " +
+                    "word_count=?, estimated_reading_time=?, content_analyzed_at=NOW() " +
+                    "WHERE id=?";
+
+            try (PreparedStatement sel = pg.prepareStatement(select);
+                 PreparedStatement upd = pg.prepareStatement(update)) {
+                if (onlyChapterId != null) sel.setString(1, onlyChapterId);
+                try (ResultSet rs = sel.executeQuery()) {
+                    long processed = 0, videos = 0, failed = 0;
+                    while (rs.next()) {
+                        String chapterId = rs.getString(1);
+                        String content = rs.getString(2);
+                        try {
+                            ChapterContentMetadata m = analyzer.analyze(content);
+                            int i = 1;
+                            upd.setString(i++, m.getContentType().name());
+                            upd.setString(i++, objectMapper.writeValueAsString(m.getVideoSources()));
+                            upd.setString(i++, objectMapper.writeValueAsString(m.getResourceIds()));
+                            upd.setInt(i++, m.getWordCount());
+                            upd.setInt(i++, m.getReadingTime());
+                            upd.setString(i++, chapterId);
+                            upd.addBatch();
+                            processed++;
+                            if (m.getVideoSources().size() > 0) videos++;
+                        } catch (Exception e) {
+                            failed++;
+                            System.out.printf("[ChapterContentMetadataBackfill] chapter=%s failed: %s\n", chapterId, e.getMessage());
+                        }
+                        if (processed % 200 == 0) {
+                            upd.executeBatch();
+                            pg.commit();
+                        }
+                    }
+                    upd.executeBatch();
+                    pg.commit();
+                    System.out.printf("[ChapterContentMetadataBackfill] done. chapters=%d, video=%d, failed=%d\n", processed, videos, failed);
+                }
+            }
+        }
+    }
+
+    private static String env(String key, String def) {
+        String v = System.getenv(key);
+        if (v == null || v.isEmpty()) v = System.getProperty(key);
+        return (v == null || v.isEmpty()) ? def : v;
+    }
+}
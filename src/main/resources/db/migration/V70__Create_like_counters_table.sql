@@ -0,0 +1,20 @@
+-- 点赞计数聚合表：按 (target_type, target_id) 维护点赞数，替代对 likes 的逐行统计
+CREATE TABLE like_counters (
+    target_type VARCHAR(20) NOT NULL,
+    target_id VARCHAR(36) NOT NULL,
+    like_count BIGINT NOT NULL DEFAULT 0,
+    update_time TIMESTAMP NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (target_type, target_id)
+);
+
+COMMENT ON TABLE like_counters IS '点赞计数聚合表，由点赞/取消点赞同事务维护，定时任务按 likes 校准';
+COMMENT ON COLUMN like_counters.target_type IS '目标类型：COURSE/POST/CHAPTER/COMMENT/INTERVIEW_QUESTION';
+COMMENT ON COLUMN like_counters.target_id IS '目标对象ID';
+COMMENT ON COLUMN like_counters.like_count IS '点赞数';
+COMMENT ON COLUMN like_counters.update_time IS '更新时间';
+
+-- 按现有点赞数据回填
+INSERT INTO like_counters (target_type, target_id, like_count, update_time)
+SELECT target_type, target_id, COUNT(*), NOW()
+FROM likes
+GROUP BY target_type, target_id;
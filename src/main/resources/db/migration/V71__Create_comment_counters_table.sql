@@ -0,0 +1,21 @@
+-- 评论计数聚合表：按 (business_type, business_id) 维护未删除评论数，替代列表页对 comments 的逐行统计
+CREATE TABLE comment_counters (
+    business_type VARCHAR(20) NOT NULL,
+    business_id VARCHAR(36) NOT NULL,
+    comment_count BIGINT NOT NULL DEFAULT 0,
+    update_time TIMESTAMP NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (business_type, business_id)
+);
+
+COMMENT ON TABLE comment_counters IS '评论计数聚合表，由发表/删除评论维护，定时任务按 comments 校准';
+COMMENT ON COLUMN comment_counters.business_type IS '业务类型：POST/COURSE/CHAPTER/INTERVIEW_QUESTION 等';
+COMMENT ON COLUMN comment_counters.business_id IS '业务ID';
+COMMENT ON COLUMN comment_counters.comment_count IS '评论数（含回复，不含已删除）';
+COMMENT ON COLUMN comment_counters.update_time IS '更新时间';
+
+-- 按现有评论数据回填
+INSERT INTO comment_counters (business_type, business_id, comment_count, update_time)
+SELECT business_type, business_id, COUNT(*), NOW()
+FROM comments
+WHERE deleted_at IS NULL
+GROUP BY business_type, business_id;
@@ -0,0 +1,16 @@
+-- 去重浏览人数持久化表：保存 Redis HyperLogLog 的计数与原始数据，Redis 数据丢失时可据此恢复
+CREATE TABLE distinct_viewer_counts (
+    target_type VARCHAR(50) NOT NULL,
+    target_id VARCHAR(36) NOT NULL,
+    viewer_count BIGINT NOT NULL DEFAULT 0,
+    hll_data BYTEA,
+    update_time TIMESTAMP NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (target_type, target_id)
+);
+
+COMMENT ON TABLE distinct_viewer_counts IS '去重浏览人数（HyperLogLog 近似值）持久化表';
+COMMENT ON COLUMN distinct_viewer_counts.target_type IS '目标类型：POST/INTERVIEW_QUESTION';
+COMMENT ON COLUMN distinct_viewer_counts.target_id IS '目标ID';
+COMMENT ON COLUMN distinct_viewer_counts.viewer_count IS '去重浏览人数（PFCOUNT 结果）';
+COMMENT ON COLUMN distinct_viewer_counts.hll_data IS 'Redis HyperLogLog 原始数据';
+COMMENT ON COLUMN distinct_viewer_counts.update_time IS '更新时间';
@@ -0,0 +1,168 @@
+-- 用户活动日志按月范围分区（created_at）
+-- 1) 原表改名为 user_activity_logs_legacy，新建同结构分区表，数据按月迁移后删除原表
+-- 2) 分区维护函数：按月创建分区、按保留期删除/分离旧分区（由定时任务调用）
+--
+-- 运维说明（需要维护窗口）：
+-- - Flyway 在单个事务中执行本脚本，RENAME 持有 user_activity_logs 的排他锁直至提交，
+--   迁移期间所有活动日志读写都会阻塞；
+-- - 数据按月逐个分区复制（每条 INSERT 只写一个分区，每月复制完成输出一条 NOTICE 便于观察进度），
+--   但仍在同一事务内，耗时与 WAL 量和原表大小成正比，需预留对应磁盘空间；
+-- - 建议在停写窗口执行：先停止应用实例（或关闭活动日志写入），执行迁移后再启动新版本。
+--   原表较大时可先按保留策略归档/清理历史日志以缩短窗口。
+
+ALTER TABLE user_activity_logs RENAME TO user_activity_logs_legacy;
+ALTER TABLE user_activity_logs_legacy RENAME CONSTRAINT user_activity_logs_pkey TO user_activity_logs_legacy_pkey;
+
+-- 原表索引随原表删除，先释放索引名供新表使用
+DROP INDEX IF EXISTS idx_user_activity_logs_user_id;
+DROP INDEX IF EXISTS idx_user_activity_logs_activity_type;
+DROP INDEX IF EXISTS idx_user_activity_logs_created_at;
+DROP INDEX IF EXISTS idx_user_activity_logs_ip;
+DROP INDEX IF EXISTS idx_user_activity_logs_deleted;
+DROP INDEX IF EXISTS idx_user_activity_logs_target;
+DROP INDEX IF EXISTS idx_user_activity_logs_session;
+DROP INDEX IF EXISTS idx_user_activity_logs_request_path;
+DROP INDEX IF EXISTS idx_user_activity_logs_request_method;
+
+CREATE TABLE user_activity_logs (
+    id VARCHAR(36) NOT NULL,
+    user_id VARCHAR(36),
+    activity_type VARCHAR(50) NOT NULL,
+    browser VARCHAR(500),
+    equipment VARCHAR(100),
+    ip VARCHAR(45) NOT NULL,
+    user_agent TEXT,
+    failure_reason VARCHAR(500),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    target_type VARCHAR(50),
+    target_id VARCHAR(36),
+    request_method VARCHAR(10),
+    request_path VARCHAR(500),
+    execution_time_ms INTEGER,
+    session_id VARCHAR(64),
+    context_data JSONB,
+    deleted_at TIMESTAMP NULL,
+    -- 分区表主键必须包含分区键
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- 兜底分区：正常情况下应为空（定时任务会提前创建未来月份分区）
+CREATE TABLE user_activity_logs_default PARTITION OF user_activity_logs DEFAULT;
+
+-- 分区索引（在父表上声明，自动作用于所有分区）
+-- 原表的 session_id / request_path / request_method 单列索引没有查询使用，不再创建
+CREATE INDEX idx_user_activity_logs_created_at ON user_activity_logs (created_at);
+CREATE INDEX idx_user_activity_logs_user_time ON user_activity_logs (user_id, created_at);
+CREATE INDEX idx_user_activity_logs_type_time ON user_activity_logs (activity_type, created_at);
+CREATE INDEX idx_user_activity_logs_target ON user_activity_logs (target_type, target_id, activity_type);
+CREATE INDEX idx_user_activity_logs_ip ON user_activity_logs (ip);
+
+-- 创建指定月份的分区（已存在则跳过），返回是否新建
+CREATE OR REPLACE FUNCTION create_user_activity_log_partition(p_month DATE)
+RETURNS BOOLEAN AS $$
+DECLARE
+    v_start DATE := date_trunc('month', p_month)::DATE;
+    v_end DATE := (date_trunc('month', p_month) + INTERVAL '1 month')::DATE;
+    v_name TEXT := 'user_activity_logs_' || to_char(v_start, 'YYYYMM');
+BEGIN
+    IF to_regclass(v_name) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+    EXECUTE format('CREATE TABLE %I PARTITION OF user_activity_logs FOR VALUES FROM (%L) TO (%L)',
+                   v_name, v_start, v_end);
+    RETURN TRUE;
+END;
+$$ LANGUAGE plpgsql;
+
+-- 确保当前月及未来 p_months_ahead 个月的分区存在，返回新建数量
+CREATE OR REPLACE FUNCTION ensure_user_activity_log_partitions(p_months_ahead INTEGER)
+RETURNS INTEGER AS $$
+DECLARE
+    v_created INTEGER := 0;
+    i INTEGER;
+BEGIN
+    FOR i IN 0..GREATEST(p_months_ahead, 0) LOOP
+        IF create_user_activity_log_partition((date_trunc('month', CURRENT_DATE) + make_interval(months => i))::DATE) THEN
+            v_created := v_created + 1;
+        END IF;
+    END LOOP;
+    RETURN v_created;
+END;
+$$ LANGUAGE plpgsql;
+
+-- 删除（或仅分离）整月早于 p_cutoff 的分区，返回处理数量
+CREATE OR REPLACE FUNCTION drop_user_activity_log_partitions_before(p_cutoff DATE, p_detach_only BOOLEAN)
+RETURNS INTEGER AS $$
+DECLARE
+    v_count INTEGER := 0;
+    r RECORD;
+BEGIN
+    FOR r IN
+        SELECT c.relname AS name
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        JOIN pg_class p ON p.oid = i.inhparent
+        WHERE p.relname = 'user_activity_logs'
+          AND c.relname ~ '^user_activity_logs_[0-9]{6}$'
+          AND (to_date(substring(c.relname FROM '[0-9]{6}$'), 'YYYYMM') + INTERVAL '1 month') <= p_cutoff
+    LOOP
+        IF p_detach_only THEN
+            EXECUTE format('ALTER TABLE user_activity_logs DETACH PARTITION %I', r.name);
+        ELSE
+            EXECUTE format('DROP TABLE %I', r.name);
+        END IF;
+        v_count := v_count + 1;
+    END LOOP;
+    RETURN v_count;
+END;
+$$ LANGUAGE plpgsql;
+
+-- 为历史数据所在月份及未来 3 个月创建分区
+DO $$
+DECLARE
+    v_month DATE;
+BEGIN
+    SELECT date_trunc('month', MIN(created_at))::DATE INTO v_month FROM user_activity_logs_legacy;
+    WHILE v_month IS NOT NULL AND v_month < date_trunc('month', CURRENT_DATE)::DATE LOOP
+        PERFORM create_user_activity_log_partition(v_month);
+        v_month := (v_month + INTERVAL '1 month')::DATE;
+    END LOOP;
+    PERFORM ensure_user_activity_log_partitions(3);
+END $$;
+
+-- 按月复制历史数据（每次只写入一个分区）
+DO $$
+DECLARE
+    v_month DATE;
+    v_rows BIGINT;
+BEGIN
+    SELECT date_trunc('month', MIN(created_at))::DATE INTO v_month FROM user_activity_logs_legacy;
+    WHILE v_month IS NOT NULL AND v_month <= date_trunc('month', CURRENT_DATE)::DATE LOOP
+        INSERT INTO user_activity_logs (id, user_id, activity_type, browser, equipment, ip, user_agent, failure_reason,
+                                        created_at, updated_at, target_type, target_id, request_method, request_path,
+                                        execution_time_ms, session_id, context_data, deleted_at)
+        SELECT id, user_id, activity_type, browser, equipment, ip, user_agent, failure_reason,
+               created_at, updated_at, target_type, target_id, request_method, request_path,
+               execution_time_ms, session_id, context_data, deleted_at
+        FROM user_activity_logs_legacy
+        WHERE created_at >= v_month AND created_at < v_month + INTERVAL '1 month';
+        GET DIAGNOSTICS v_rows = ROW_COUNT;
+        RAISE NOTICE 'user_activity_logs: copied % rows for %', v_rows, to_char(v_month, 'YYYY-MM');
+        v_month := (v_month + INTERVAL '1 month')::DATE;
+    END LOOP;
+
+    -- 未来时间的异常数据落入兜底分区
+    INSERT INTO user_activity_logs (id, user_id, activity_type, browser, equipment, ip, user_agent, failure_reason,
+                                    created_at, updated_at, target_type, target_id, request_method, request_path,
+                                    execution_time_ms, session_id, context_data, deleted_at)
+    SELECT id, user_id, activity_type, browser, equipment, ip, user_agent, failure_reason,
+           created_at, updated_at, target_type, target_id, request_method, request_path,
+           execution_time_ms, session_id, context_data, deleted_at
+    FROM user_activity_logs_legacy
+    WHERE created_at >= date_trunc('month', CURRENT_DATE) + INTERVAL '1 month';
+END $$;
+
+DROP TABLE user_activity_logs_legacy;
+
+COMMENT ON TABLE user_activity_logs IS '用户活动日志表（按 created_at 月分区），记录用户登录、注册和业务操作等行为';
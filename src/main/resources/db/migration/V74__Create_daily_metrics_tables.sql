@@ -0,0 +1,68 @@
+-- 管理后台趋势指标预聚合表
+-- 1) daily_metrics：按日、按指标汇总的数量与金额（订单、注册、课程）
+-- 2) active_user_counts：按周期（天/周/月）× 维度（全部用户/无套餐/套餐）预计算的去重活跃用户数
+-- 历史数据在此回填，之后由定时任务增量刷新最近的日期窗口
+
+CREATE TABLE daily_metrics (
+    stat_date DATE NOT NULL,
+    metric VARCHAR(32) NOT NULL,
+    item_count BIGINT NOT NULL DEFAULT 0,
+    amount DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+    update_time TIMESTAMP NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (stat_date, metric)
+);
+
+COMMENT ON TABLE daily_metrics IS '按日预聚合的趋势指标';
+COMMENT ON COLUMN daily_metrics.stat_date IS '统计日期';
+COMMENT ON COLUMN daily_metrics.metric IS '指标类型：ORDER/REGISTRATION/COURSE';
+COMMENT ON COLUMN daily_metrics.item_count IS '当日数量';
+COMMENT ON COLUMN daily_metrics.amount IS '当日金额（仅订单）';
+
+CREATE TABLE active_user_counts (
+    period_unit VARCHAR(8) NOT NULL,
+    period_start DATE NOT NULL,
+    plan_key VARCHAR(36) NOT NULL,
+    active_users BIGINT NOT NULL DEFAULT 0,
+    update_time TIMESTAMP NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (period_unit, period_start, plan_key)
+);
+
+COMMENT ON TABLE active_user_counts IS '按周期预计算的去重活跃用户数';
+COMMENT ON COLUMN active_user_counts.period_unit IS '周期单位：day/week/month';
+COMMENT ON COLUMN active_user_counts.period_start IS '周期起始日期（天/周一/月初）';
+COMMENT ON COLUMN active_user_counts.plan_key IS '统计维度：* 为全部用户，空串为无套餐，其余为用户当日有效套餐ID';
+COMMENT ON COLUMN active_user_counts.active_users IS '周期内去重活跃用户数';
+
+-- 回填历史数据
+INSERT INTO daily_metrics (stat_date, metric, item_count, amount, update_time)
+SELECT activated_time::DATE, 'ORDER', COUNT(*), COALESCE(SUM(amount), 0), NOW()
+FROM orders WHERE deleted_at IS NULL
+GROUP BY activated_time::DATE;
+
+INSERT INTO daily_metrics (stat_date, metric, item_count, amount, update_time)
+SELECT create_time::DATE, 'REGISTRATION', COUNT(*), 0, NOW()
+FROM users WHERE deleted_at IS NULL
+GROUP BY create_time::DATE;
+
+INSERT INTO daily_metrics (stat_date, metric, item_count, amount, update_time)
+SELECT create_time::DATE, 'COURSE', COUNT(*), 0, NOW()
+FROM courses WHERE deleted_at IS NULL
+GROUP BY create_time::DATE;
+
+-- 活跃用户：日志中每个 (日期, 用户) 先确定当日有效套餐，再按三种周期分别去重计数
+CREATE TEMPORARY TABLE tmp_active_user_days ON COMMIT DROP AS
+SELECT d.stat_date, d.user_id,
+       COALESCE((SELECT s.subscription_plan_id FROM user_subscriptions s
+                 WHERE s.user_id = d.user_id AND s.deleted_at IS NULL
+                   AND s.start_time < d.stat_date + 1 AND s.end_time >= d.stat_date
+                 ORDER BY s.end_time DESC LIMIT 1), '') AS plan_key
+FROM (SELECT DISTINCT created_at::DATE AS stat_date, user_id
+      FROM user_activity_logs
+      WHERE user_id IS NOT NULL AND deleted_at IS NULL) d;
+
+INSERT INTO active_user_counts (period_unit, period_start, plan_key, active_users, update_time)
+SELECT u.unit, date_trunc(u.unit, t.stat_date::TIMESTAMP)::DATE, COALESCE(t.plan_key, '*'), COUNT(DISTINCT t.user_id), NOW()
+FROM tmp_active_user_days t
+CROSS JOIN (VALUES ('day'), ('week'), ('month')) AS u(unit)
+GROUP BY GROUPING SETS ((u.unit, date_trunc(u.unit, t.stat_date::TIMESTAMP)::DATE),
+                        (u.unit, date_trunc(u.unit, t.stat_date::TIMESTAMP)::DATE, t.plan_key));
@@ -0,0 +1,5 @@
+-- 通知扇出按主键游标分批读取目标对象的有效关注者
+-- WHERE target_id = ? AND target_type = ? AND status = 'ACTIVE' AND id > ? ORDER BY id LIMIT ?
+CREATE INDEX IF NOT EXISTS idx_follows_target_keyset
+  ON follows (target_id, target_type, id)
+  WHERE deleted_at IS NULL AND status = 'ACTIVE';
@@ -0,0 +1,51 @@
+-- 通知投递任务表（事务性发件箱）
+-- send() 在同一事务内按渠道写入已渲染的投递任务，各渠道的投递线程池独立轮询、领取并执行；
+-- 领取使用 FOR UPDATE SKIP LOCKED + 租约（locked_until），进程退出或发布切换后租约过期的任务会被重新领取
+CREATE TABLE notification_deliveries (
+    id VARCHAR(36) PRIMARY KEY,
+    channel_type VARCHAR(50) NOT NULL,
+    notification_type VARCHAR(50) NOT NULL,
+    title VARCHAR(200) NOT NULL,
+    content TEXT NOT NULL,
+    recipients TEXT NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    locked_by VARCHAR(100),
+    locked_until TIMESTAMP,
+    last_error VARCHAR(1000),
+    create_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    update_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    deleted_at TIMESTAMP NULL
+);
+
+COMMENT ON TABLE notification_deliveries IS '通知投递任务表（发件箱）';
+COMMENT ON COLUMN notification_deliveries.channel_type IS '渠道类型：IN_APP/EMAIL/SMS';
+COMMENT ON COLUMN notification_deliveries.notification_type IS '通知类型';
+COMMENT ON COLUMN notification_deliveries.title IS '已渲染的标题';
+COMMENT ON COLUMN notification_deliveries.content IS '已渲染的内容';
+COMMENT ON COLUMN notification_deliveries.recipients IS '接收者列表（JSON 数组）';
+COMMENT ON COLUMN notification_deliveries.status IS '状态：PENDING/PROCESSING/SENDING/SUCCEEDED/DEAD（SENDING 为邮件发送中，不会被重新领取）';
+COMMENT ON COLUMN notification_deliveries.attempts IS '已尝试次数';
+COMMENT ON COLUMN notification_deliveries.next_attempt_at IS '下次可领取时间（退避）';
+COMMENT ON COLUMN notification_deliveries.locked_by IS '领取标识';
+COMMENT ON COLUMN notification_deliveries.locked_until IS '租约到期时间';
+COMMENT ON COLUMN notification_deliveries.last_error IS '最近一次失败原因';
+
+-- 领取待投递任务
+CREATE INDEX idx_notification_deliveries_pending
+  ON notification_deliveries (channel_type, next_attempt_at)
+  WHERE status = 'PENDING' AND deleted_at IS NULL;
+
+-- 回收租约过期的任务
+CREATE INDEX idx_notification_deliveries_processing
+  ON notification_deliveries (channel_type, locked_until)
+  WHERE status = 'PROCESSING' AND deleted_at IS NULL;
+
+-- 清理结果未知的邮件发送任务
+CREATE INDEX idx_notification_deliveries_sending
+  ON notification_deliveries (locked_until)
+  WHERE status = 'SENDING';
+
+CREATE INDEX idx_notification_deliveries_locked_by ON notification_deliveries (locked_by);
+CREATE INDEX idx_notification_deliveries_status_time ON notification_deliveries (status, update_time);
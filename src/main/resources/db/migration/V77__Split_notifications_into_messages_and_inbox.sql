@@ -0,0 +1,79 @@
+-- 通知正文与收件箱拆分
+-- 原 notifications 表每个接收者一行并各自保存完整的标题与内容，全员广播会写入同一正文的大量副本；
+-- 拆分为：notification_messages（渲染后的正文，每次发送每个渠道一行）
+--        notification_inbox（接收者、消息ID、已读状态，每个接收者一行）
+-- 历史数据按 (type, channel_type, title, content) 去重迁移，收件箱行沿用原通知ID
+-- 原表不在本迁移中删除，改名为 notifications_legacy 保留，确认迁移无误且无回滚需要后在后续迁移中删除
+
+CREATE TABLE notification_messages (
+    id VARCHAR(36) PRIMARY KEY,
+    type VARCHAR(50) NOT NULL,
+    channel_type VARCHAR(50) NOT NULL,
+    title VARCHAR(200) NOT NULL,
+    content TEXT NOT NULL,
+    create_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    update_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    deleted_at TIMESTAMP NULL
+);
+
+COMMENT ON TABLE notification_messages IS '通知正文（多个接收者共享）';
+COMMENT ON COLUMN notification_messages.type IS '通知类型';
+COMMENT ON COLUMN notification_messages.channel_type IS '渠道类型';
+COMMENT ON COLUMN notification_messages.title IS '已渲染的标题';
+COMMENT ON COLUMN notification_messages.content IS '已渲染的内容';
+
+CREATE TABLE notification_inbox (
+    id VARCHAR(36) PRIMARY KEY,
+    recipient_id VARCHAR(36) NOT NULL,
+    message_id VARCHAR(36) NOT NULL,
+    channel_type VARCHAR(50) NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'SENT',
+    create_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    update_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    deleted_at TIMESTAMP NULL
+);
+
+COMMENT ON TABLE notification_inbox IS '通知收件箱（接收者 -> 通知正文）';
+COMMENT ON COLUMN notification_inbox.recipient_id IS '接收者ID';
+COMMENT ON COLUMN notification_inbox.message_id IS '通知正文ID';
+COMMENT ON COLUMN notification_inbox.channel_type IS '渠道类型';
+COMMENT ON COLUMN notification_inbox.status IS '状态：SENT/READ/FAILED';
+
+-- 迁移历史通知
+INSERT INTO notification_messages (id, type, channel_type, title, content, create_time, update_time)
+SELECT md5(type || '|' || channel_type || '|' || title || '|' || content),
+       type, channel_type, title, content, MIN(create_time), MIN(create_time)
+FROM notifications
+GROUP BY type, channel_type, title, content;
+
+INSERT INTO notification_inbox (id, recipient_id, message_id, channel_type, status, create_time, update_time, deleted_at)
+SELECT id, recipient_id, md5(type || '|' || channel_type || '|' || title || '|' || content),
+       channel_type, status, create_time, update_time, deleted_at
+FROM notifications;
+
+-- 保留原表以便回滚或核对；应用不再读写该表
+ALTER TABLE notifications RENAME TO notifications_legacy;
+COMMENT ON TABLE notifications_legacy IS '已拆分为 notification_messages/notification_inbox 的原通知表，待后续迁移删除';
+
+CREATE INDEX idx_notification_inbox_recipient_time
+  ON notification_inbox (recipient_id, channel_type, create_time DESC)
+  WHERE deleted_at IS NULL;
+CREATE INDEX idx_notification_inbox_recipient_status
+  ON notification_inbox (recipient_id, channel_type, status)
+  WHERE deleted_at IS NULL;
+CREATE INDEX idx_notification_inbox_message ON notification_inbox (message_id);
+
+-- 投递任务改为引用通知正文，不再各自保存标题与内容
+ALTER TABLE notification_deliveries ADD COLUMN message_id VARCHAR(36);
+
+INSERT INTO notification_messages (id, type, channel_type, title, content, create_time, update_time)
+SELECT md5(id), notification_type, channel_type, title, content, create_time, create_time
+FROM notification_deliveries;
+
+UPDATE notification_deliveries SET message_id = md5(id);
+
+ALTER TABLE notification_deliveries ALTER COLUMN message_id SET NOT NULL;
+ALTER TABLE notification_deliveries DROP COLUMN title;
+ALTER TABLE notification_deliveries DROP COLUMN content;
+
+COMMENT ON COLUMN notification_deliveries.message_id IS '通知正文ID';
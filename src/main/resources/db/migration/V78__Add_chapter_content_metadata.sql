@@ -0,0 +1,14 @@
+-- 章节内容元数据：保存章节时预先分析 Markdown 得出，前台查看章节时不再解析正文
+-- 历史数据由 ChapterContentMetadataBackfill 回填；未回填的章节在首次查看时补算并落库
+
+ALTER TABLE chapters ADD COLUMN content_type VARCHAR(20);
+ALTER TABLE chapters ADD COLUMN video_sources JSON;
+ALTER TABLE chapters ADD COLUMN resource_ids JSON;
+ALTER TABLE chapters ADD COLUMN word_count INTEGER;
+ALTER TABLE chapters ADD COLUMN content_analyzed_at TIMESTAMP;
+
+COMMENT ON COLUMN chapters.content_type IS '内容类型：VIDEO/TEXT（含视频节点即为 VIDEO）';
+COMMENT ON COLUMN chapters.video_sources IS '视频地址列表（JSON数组，按出现顺序去重）';
+COMMENT ON COLUMN chapters.resource_ids IS '正文引用的资源ID列表（JSON数组）';
+COMMENT ON COLUMN chapters.word_count IS '正文字数（中日韩字符按字计，其余按词计，不含代码块）';
+COMMENT ON COLUMN chapters.content_analyzed_at IS '内容分析时间';
@@ -0,0 +1,8 @@
+-- 讨论摘要水位：记录摘要覆盖到的评论数与最后一条评论时间
+-- 新评论增量达到阈值才重新生成，且只把水位之后的新增评论与已有摘要一起交给模型
+
+ALTER TABLE discussion_summaries ADD COLUMN comment_count INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE discussion_summaries ADD COLUMN last_comment_time TIMESTAMP NULL;
+
+COMMENT ON COLUMN discussion_summaries.comment_count IS '生成摘要时目标的评论总数';
+COMMENT ON COLUMN discussion_summaries.last_comment_time IS '摘要已覆盖的最后一条评论的创建时间';
@@ -0,0 +1,6 @@
+-- 预计阅读时长单独存储：reading_time 仅保存作者手工填写的值（0 表示未填写），
+-- 预计值随正文每次保存重新计算，不再写入 reading_time，避免正文修改后沿用旧的估算值
+
+ALTER TABLE chapters ADD COLUMN estimated_reading_time INTEGER;
+
+COMMENT ON COLUMN chapters.estimated_reading_time IS '预计阅读时长（分钟，由正文字数估算）；展示时 reading_time 未填写才使用';
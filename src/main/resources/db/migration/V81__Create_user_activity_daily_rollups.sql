@@ -0,0 +1,55 @@
+-- 用户活动按日汇总表（按活动类型、按活动类型 + 目标），由定时任务每天汇总前两天的日志
+-- 管理后台的活动统计查询读取汇总表，不再扫描原始日志
+
+-- 按日、按活动类型汇总
+CREATE TABLE user_activity_daily_stats (
+    stat_date DATE NOT NULL,
+    activity_type VARCHAR(50) NOT NULL,
+    event_count BIGINT NOT NULL DEFAULT 0,
+    unique_users BIGINT NOT NULL DEFAULT 0,
+    update_time TIMESTAMP NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (stat_date, activity_type)
+);
+
+COMMENT ON TABLE user_activity_daily_stats IS '用户活动按日汇总（按活动类型）';
+COMMENT ON COLUMN user_activity_daily_stats.stat_date IS '统计日期';
+COMMENT ON COLUMN user_activity_daily_stats.activity_type IS '活动类型';
+COMMENT ON COLUMN user_activity_daily_stats.event_count IS '当日事件数';
+COMMENT ON COLUMN user_activity_daily_stats.unique_users IS '当日去重用户数（不含匿名）';
+
+-- 按日、按活动类型 + 目标汇总（仅含有目标的日志）
+CREATE TABLE user_activity_daily_target_stats (
+    stat_date DATE NOT NULL,
+    activity_type VARCHAR(50) NOT NULL,
+    target_type VARCHAR(50) NOT NULL,
+    target_id VARCHAR(36) NOT NULL,
+    event_count BIGINT NOT NULL DEFAULT 0,
+    unique_users BIGINT NOT NULL DEFAULT 0,
+    update_time TIMESTAMP NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (stat_date, activity_type, target_type, target_id)
+);
+
+CREATE INDEX idx_user_activity_daily_target_stats_target
+    ON user_activity_daily_target_stats (target_type, target_id, stat_date);
+
+COMMENT ON TABLE user_activity_daily_target_stats IS '用户活动按日汇总（按活动类型 + 目标）';
+COMMENT ON COLUMN user_activity_daily_target_stats.stat_date IS '统计日期';
+COMMENT ON COLUMN user_activity_daily_target_stats.activity_type IS '活动类型';
+COMMENT ON COLUMN user_activity_daily_target_stats.target_type IS '目标类型';
+COMMENT ON COLUMN user_activity_daily_target_stats.target_id IS '目标ID';
+COMMENT ON COLUMN user_activity_daily_target_stats.event_count IS '当日事件数';
+COMMENT ON COLUMN user_activity_daily_target_stats.unique_users IS '当日去重用户数（不含匿名）';
+
+-- 回填历史汇总（今天的数据由定时任务汇总）
+INSERT INTO user_activity_daily_stats (stat_date, activity_type, event_count, unique_users, update_time)
+SELECT created_at::DATE, activity_type, COUNT(*), COUNT(DISTINCT user_id), NOW()
+FROM user_activity_logs
+WHERE created_at < CURRENT_DATE
+GROUP BY created_at::DATE, activity_type;
+
+INSERT INTO user_activity_daily_target_stats (stat_date, activity_type, target_type, target_id,
+                                              event_count, unique_users, update_time)
+SELECT created_at::DATE, activity_type, target_type, target_id, COUNT(*), COUNT(DISTINCT user_id), NOW()
+FROM user_activity_logs
+WHERE created_at < CURRENT_DATE AND target_type IS NOT NULL AND target_id IS NOT NULL
+GROUP BY created_at::DATE, activity_type, target_type, target_id;
@@ -0,0 +1,6 @@
+-- 讨论摘要水位补充：记录水位时间点上已覆盖的评论ID
+-- 增量读取改为 create_time >= 水位时间并排除这些评论，避免与水位同一时间戳、稍后才提交的评论被永久跳过
+
+ALTER TABLE discussion_summaries ADD COLUMN last_comment_ids TEXT NULL;
+
+COMMENT ON COLUMN discussion_summaries.last_comment_ids IS '创建时间等于 last_comment_time 且已被摘要覆盖的评论ID（逗号分隔）';
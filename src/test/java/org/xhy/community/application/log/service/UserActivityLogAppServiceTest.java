@@ -0,0 +1,90 @@
+package org.xhy.community.application.log.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xhy.community.application.log.dto.UserActivityDailyStatDTO;
+import org.xhy.community.domain.common.valueobject.ActivityType;
+import org.xhy.community.domain.course.service.CourseDomainService;
+import org.xhy.community.domain.log.entity.UserActivityDailyTargetStatEntity;
+import org.xhy.community.domain.log.service.UserActivityLogDomainService;
+import org.xhy.community.domain.log.service.UserActivityStatDomainService;
+import org.xhy.community.domain.post.service.CategoryDomainService;
+import org.xhy.community.domain.post.service.PostDomainService;
+import org.xhy.community.domain.user.service.UserDomainService;
+import org.xhy.community.infrastructure.exception.ValidationException;
+import org.xhy.community.interfaces.log.request.UserActivityStatsRequest;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * 用户活动按日统计查询单元测试
+ */
+class UserActivityLogAppServiceTest {
+
+    private UserActivityStatDomainService statDomainService;
+    private UserActivityLogAppService appService;
+
+    @BeforeEach
+    void setUp() {
+        statDomainService = mock(UserActivityStatDomainService.class);
+        appService = new UserActivityLogAppService(mock(UserActivityLogDomainService.class), statDomainService,
+                mock(UserDomainService.class), mock(PostDomainService.class), mock(CourseDomainService.class),
+                mock(CategoryDomainService.class));
+    }
+
+    @Test
+    void dailyStatsDefaultToTheLastThirtyRolledUpDays() {
+        appService.getDailyStats(new UserActivityStatsRequest());
+
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        verify(statDomainService).getDailyStats(yesterday.minusDays(29), yesterday, null);
+    }
+
+    @Test
+    void targetStatsAreReadFromRollupsAndFilteredByActivityType() {
+        UserActivityDailyTargetStatEntity row = new UserActivityDailyTargetStatEntity();
+        row.setStatDate(LocalDate.of(2025, 1, 2));
+        row.setActivityType(ActivityType.VIEW_POST.name());
+        row.setTargetType("POST");
+        row.setTargetId("p1");
+        row.setEventCount(7L);
+        row.setUniqueUsers(3L);
+        when(statDomainService.getDailyTargetStats(any(), any(), any(), any(), any())).thenReturn(List.of(row));
+        UserActivityStatsRequest request = new UserActivityStatsRequest();
+        request.setTargetType("POST");
+        request.setTargetId("p1");
+        request.setActivityType(ActivityType.VIEW_POST);
+        request.setStartDate(LocalDate.of(2025, 1, 1));
+        request.setEndDate(LocalDate.of(2025, 1, 31));
+
+        List<UserActivityDailyStatDTO> stats = appService.getDailyTargetStats(request);
+
+        verify(statDomainService).getDailyTargetStats("POST", "p1", LocalDate.of(2025, 1, 1),
+                LocalDate.of(2025, 1, 31), "VIEW_POST");
+        assertEquals(1, stats.size());
+        assertEquals("p1", stats.get(0).getTargetId());
+        assertEquals(7L, stats.get(0).getEventCount());
+        assertEquals(3L, stats.get(0).getUniqueUsers());
+    }
+
+    @Test
+    void invalidRangesAndMissingTargetAreRejected() {
+        UserActivityStatsRequest reversed = new UserActivityStatsRequest();
+        reversed.setStartDate(LocalDate.of(2025, 2, 1));
+        reversed.setEndDate(LocalDate.of(2025, 1, 1));
+        assertThrows(ValidationException.class, () -> appService.getDailyStats(reversed));
+
+        UserActivityStatsRequest tooLong = new UserActivityStatsRequest();
+        tooLong.setStartDate(LocalDate.of(2023, 1, 1));
+        tooLong.setEndDate(LocalDate.of(2025, 1, 1));
+        assertThrows(ValidationException.class, () -> appService.getDailyStats(tooLong));
+
+        assertThrows(ValidationException.class, () -> appService.getDailyTargetStats(new UserActivityStatsRequest()));
+        verifyNoInteractions(statDomainService);
+    }
+}
@@ -0,0 +1,96 @@
+package org.xhy.community.application.notification.dispatcher;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xhy.community.application.notification.handler.NotificationHandler;
+import org.xhy.community.application.notification.service.ContentNotificationService;
+import org.xhy.community.domain.common.event.ContentPublishedEvent;
+import org.xhy.community.domain.common.valueobject.ContentType;
+import org.xhy.community.domain.notification.context.ContentUpdateNotificationData;
+import org.xhy.community.domain.notification.context.NotificationData;
+import org.xhy.community.domain.notification.service.NotificationBroadcast;
+import org.xhy.community.domain.notification.service.NotificationDomainService;
+import org.xhy.community.domain.notification.valueobject.NotificationType;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 内容事件调度（一次广播只加载一次上下文、打开一次广播）单元测试
+ */
+class ContentEventDispatcherTest {
+
+    private ContentNotificationService contentNotificationService;
+    private NotificationDomainService notificationDomainService;
+    private NotificationHandler handler;
+    private ContentEventDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        contentNotificationService = mock(ContentNotificationService.class);
+        notificationDomainService = mock(NotificationDomainService.class);
+        handler = mock(NotificationHandler.class);
+        when(handler.getSupportedContentType()).thenReturn(ContentType.POST);
+        dispatcher = new ContentEventDispatcher(contentNotificationService, notificationDomainService, List.of(handler));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void contextIsPreparedOnceAndEachChunkReusesTheBroadcast() {
+        NotificationData data = new ContentUpdateNotificationData(List.of(), NotificationType.FOLLOWED_USER_POST,
+                ContentType.PUBLISH_CONTENT, "author", "title", "p1");
+        NotificationBroadcast broadcast = mock(NotificationBroadcast.class);
+        when(handler.prepareNotification("p1", "a1")).thenReturn(data);
+        when(notificationDomainService.openBroadcast(data)).thenReturn(broadcast);
+        when(handler.streamRecipients(eq("p1"), eq("a1"), eq(contentNotificationService), any())).thenAnswer(inv -> {
+            Consumer<List<ContentNotificationService.NotificationRecipient>> consumer = inv.getArgument(3);
+            consumer.accept(List.of(recipient("u1")));
+            consumer.accept(List.of(recipient("u2")));
+            return 2L;
+        });
+
+        dispatcher.handleContentPublishedEvent(new ContentPublishedEvent(ContentType.POST, "p1", "a1"));
+
+        verify(handler, times(1)).prepareNotification("p1", "a1");
+        verify(notificationDomainService, times(1)).openBroadcast(data);
+        verify(broadcast, times(2)).send(anyList());
+        verify(handler, never()).handleNotification(any(), any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failedChunkDoesNotStopLaterChunks() {
+        NotificationBroadcast broadcast = mock(NotificationBroadcast.class);
+        when(handler.prepareNotification(any(), any())).thenReturn(mock(NotificationData.class));
+        when(notificationDomainService.openBroadcast(any())).thenReturn(broadcast);
+        when(broadcast.send(anyList())).thenThrow(new IllegalStateException("db down")).thenReturn(1);
+        when(handler.streamRecipients(any(), any(), any(), any())).thenAnswer(inv -> {
+            Consumer<List<ContentNotificationService.NotificationRecipient>> consumer = inv.getArgument(3);
+            consumer.accept(List.of(recipient("u1")));
+            consumer.accept(List.of(recipient("u2")));
+            return 2L;
+        });
+
+        dispatcher.handleContentPublishedEvent(new ContentPublishedEvent(ContentType.POST, "p1", "a1"));
+
+        verify(broadcast, times(2)).send(anyList());
+    }
+
+    @Test
+    void handlerWithoutBroadcastHandlesRecipientsItself() {
+        when(handler.prepareNotification(any(), any())).thenReturn(null);
+
+        dispatcher.handleContentPublishedEvent(new ContentPublishedEvent(ContentType.POST, "c1", "a1"));
+
+        verify(handler).handleNotification("c1", "a1", List.of());
+        verify(handler, never()).streamRecipients(any(), any(), any(), any());
+        verifyNoInteractions(notificationDomainService);
+    }
+
+    private static ContentNotificationService.NotificationRecipient recipient(String id) {
+        return new ContentNotificationService.NotificationRecipient(id, id, id + "@example.com", true);
+    }
+}
@@ -0,0 +1,154 @@
+package org.xhy.community.application.summary.service;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.slf4j.LoggerFactory;
+import org.xhy.community.domain.comment.entity.CommentEntity;
+import org.xhy.community.domain.comment.service.CommentDomainService;
+import org.xhy.community.domain.comment.valueobject.BusinessType;
+import org.xhy.community.domain.course.service.ChapterDomainService;
+import org.xhy.community.domain.post.entity.PostEntity;
+import org.xhy.community.domain.post.service.PostDomainService;
+import org.xhy.community.domain.summary.entity.DiscussionSummaryEntity;
+import org.xhy.community.domain.summary.service.DiscussionSummaryDomainService;
+import org.xhy.community.domain.summary.valueobject.SummaryTargetType;
+import org.xhy.community.infrastructure.lock.DistributedLock;
+import org.xhy.community.infrastructure.lock.LockNotAcquiredException;
+import org.xhy.community.infrastructure.task.SummaryJobScheduler;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 讨论摘要生成单元测试：锁竞争与生成失败的区分、评论水位
+ */
+class SummaryAppServiceTest {
+
+    private static final LocalDateTime T = LocalDateTime.of(2025, 1, 1, 12, 0, 0);
+
+    private CommentDomainService commentDomainService;
+    private DiscussionSummaryDomainService summaryDomainService;
+    private DistributedLock lock;
+    private SummaryAppService service;
+    private ListAppender<ILoggingEvent> appender;
+
+    @BeforeEach
+    void setUp() {
+        commentDomainService = mock(CommentDomainService.class);
+        summaryDomainService = mock(DiscussionSummaryDomainService.class);
+        lock = mock(DistributedLock.class);
+        PostDomainService postDomainService = mock(PostDomainService.class);
+        PostEntity post = new PostEntity();
+        post.setId("p1");
+        post.setTitle("title");
+        post.setContent("content");
+        when(postDomainService.getPostById("p1")).thenReturn(post);
+        doAnswer(inv -> {
+            ((Runnable) inv.getArgument(3)).run();
+            return null;
+        }).when(lock).runWithLock(anyString(), any(), any(), any());
+        service = new SummaryAppService(commentDomainService, postDomainService, mock(ChapterDomainService.class),
+                summaryDomainService, mock(SummaryJobScheduler.class), lock);
+
+        appender = new ListAppender<>();
+        appender.start();
+        ((Logger) LoggerFactory.getLogger(SummaryAppService.class)).addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ((Logger) LoggerFactory.getLogger(SummaryAppService.class)).detachAppender(appender);
+    }
+
+    @Test
+    void lockContentionIsSkippedQuietly() {
+        when(commentDomainService.getCommentCountByBusiness("p1", BusinessType.POST)).thenReturn(10L);
+        doThrow(new LockNotAcquiredException("lock:summary:POST:p1"))
+                .when(lock).runWithLock(anyString(), any(), any(), any());
+
+        service.generateAndSaveIfNeeded(SummaryTargetType.POST, "p1");
+
+        assertTrue(appender.list.stream().noneMatch(e -> e.getLevel() == Level.WARN));
+        verify(summaryDomainService, never()).generateSummary(any());
+    }
+
+    @Test
+    void generationFailureIsLoggedAsWarning() {
+        when(commentDomainService.getCommentCountByBusiness("p1", BusinessType.POST)).thenReturn(10L);
+        when(commentDomainService.getCommentsByBusinessSince(eq("p1"), eq(BusinessType.POST), any(), any(), anyInt()))
+                .thenReturn(List.of(comment("c1", T)));
+        when(summaryDomainService.generateSummary(any())).thenThrow(new IllegalStateException("model unavailable"));
+
+        service.generateAndSaveIfNeeded(SummaryTargetType.POST, "p1");
+
+        assertTrue(appender.list.stream().anyMatch(e -> e.getLevel() == Level.WARN
+                && e.getFormattedMessage().contains("model unavailable")));
+        verify(summaryDomainService, never()).upsert(any());
+    }
+
+    @Test
+    void commentsAtTheWatermarkTimestampAreReadAgainExceptCoveredOnes() {
+        when(commentDomainService.getCommentCountByBusiness("p1", BusinessType.POST)).thenReturn(10L);
+        when(summaryDomainService.getByTarget(SummaryTargetType.POST, "p1")).thenReturn(existing(T, "c1"));
+        // c2 与水位同一时间戳但在上次摘要之后才提交
+        when(commentDomainService.getCommentsByBusinessSince(eq("p1"), eq(BusinessType.POST), eq(T), eq(Set.of("c1")), anyInt()))
+                .thenReturn(List.of(comment("c2", T)));
+        when(summaryDomainService.generateSummary(any())).thenReturn("merged");
+
+        service.generateAndSaveIfNeeded(SummaryTargetType.POST, "p1");
+
+        DiscussionSummaryEntity saved = saved();
+        assertEquals(T, saved.getLastCommentTime());
+        assertEquals("c1,c2", saved.getLastCommentIds());
+    }
+
+    @Test
+    void watermarkMovesToTheLastCommentAndKeepsOnlyItsIds() {
+        when(commentDomainService.getCommentCountByBusiness("p1", BusinessType.POST)).thenReturn(10L);
+        when(summaryDomainService.getByTarget(SummaryTargetType.POST, "p1")).thenReturn(existing(T, "c1"));
+        LocalDateTime later = T.plusSeconds(5);
+        when(commentDomainService.getCommentsByBusinessSince(eq("p1"), eq(BusinessType.POST), eq(T), any(), anyInt()))
+                .thenReturn(List.of(comment("c2", T), comment("c3", later), comment("c4", later)));
+        when(summaryDomainService.generateSummary(any())).thenReturn("merged");
+
+        service.generateAndSaveIfNeeded(SummaryTargetType.POST, "p1");
+
+        DiscussionSummaryEntity saved = saved();
+        assertEquals(later, saved.getLastCommentTime());
+        assertEquals("c3,c4", saved.getLastCommentIds());
+    }
+
+    private DiscussionSummaryEntity saved() {
+        ArgumentCaptor<DiscussionSummaryEntity> captor = ArgumentCaptor.forClass(DiscussionSummaryEntity.class);
+        verify(summaryDomainService).upsert(captor.capture());
+        return captor.getValue();
+    }
+
+    private static DiscussionSummaryEntity existing(LocalDateTime lastTime, String ids) {
+        DiscussionSummaryEntity existing = new DiscussionSummaryEntity();
+        existing.setSummary("previous");
+        existing.setCommentCount(4);
+        existing.setLastCommentTime(lastTime);
+        existing.setLastCommentIds(ids);
+        return existing;
+    }
+
+    private static CommentEntity comment(String id, LocalDateTime createTime) {
+        CommentEntity comment = new CommentEntity();
+        comment.setId(id);
+        comment.setContent("content " + id);
+        comment.setCreateTime(createTime);
+        return comment;
+    }
+}
@@ -0,0 +1,116 @@
+package org.xhy.community.domain.comment.service;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.xhy.community.domain.comment.entity.CommentCounterEntity;
+import org.xhy.community.domain.comment.entity.CommentEntity;
+import org.xhy.community.domain.comment.repository.CommentCounterRepository;
+import org.xhy.community.domain.comment.repository.CommentRepository;
+import org.xhy.community.domain.comment.valueobject.BusinessCommentCount;
+import org.xhy.community.domain.comment.valueobject.BusinessType;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 评论计数聚合（comment_counters）相关单元测试
+ */
+class CommentCounterDomainServiceTest {
+
+    private CommentRepository commentRepository;
+    private CommentCounterRepository counterRepository;
+    private CommentDomainService service;
+
+    @BeforeAll
+    static void initTableInfo() {
+        MapperBuilderAssistant assistant = new MapperBuilderAssistant(new MybatisConfiguration(), "");
+        TableInfoHelper.initTableInfo(assistant, CommentCounterEntity.class);
+        TableInfoHelper.initTableInfo(assistant, CommentEntity.class);
+    }
+
+    @BeforeEach
+    void setUp() {
+        commentRepository = mock(CommentRepository.class);
+        counterRepository = mock(CommentCounterRepository.class);
+        service = new CommentDomainService(commentRepository, counterRepository, mock(ApplicationEventPublisher.class));
+    }
+
+    @Test
+    void countsComeFromCounterRowsAndMissingRowsAreBackfilled() {
+        when(counterRepository.selectList(any())).thenReturn(List.of(counter("p1", 3L)));
+        when(counterRepository.countByBusinessIds(eq(BusinessType.POST), anyCollection()))
+                .thenReturn(List.of(count("p2", 2L)));
+
+        Map<String, Long> result = service.getCommentCountMapByBusinessIds(List.of("p1", "p2", "p3"), BusinessType.POST);
+
+        assertEquals(Map.of("p1", 3L, "p2", 2L, "p3", 0L), result);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<BusinessCommentCount>> rows = ArgumentCaptor.forClass(List.class);
+        verify(counterRepository).insertMissing(eq(BusinessType.POST), rows.capture());
+        assertEquals(List.of("p2", "p3"), rows.getValue().stream().map(BusinessCommentCount::getBusinessId).toList());
+    }
+
+    @Test
+    void noBackfillWhenAllCounterRowsExist() {
+        when(counterRepository.selectList(any())).thenReturn(List.of(counter("p1", 1L)));
+
+        assertEquals(Map.of("p1", 1L), service.getCommentCountMapByBusinessIds(List.of("p1"), BusinessType.POST));
+        verify(counterRepository, never()).countByBusinessIds(any(), anyCollection());
+        verify(counterRepository, never()).insertMissing(any(), anyList());
+    }
+
+    @Test
+    void createRootCommentIncrementsCounter() {
+        CommentEntity comment = new CommentEntity();
+        comment.setBusinessId("p1");
+        comment.setBusinessType(BusinessType.POST);
+        comment.setCommentUserId("u1");
+
+        service.createComment(comment);
+
+        verify(counterRepository).incrementCount(BusinessType.POST, "p1", 1);
+    }
+
+    @Test
+    void deleteDecrementsCounterOnlyWhenRowWasDeleted() {
+        CommentEntity comment = new CommentEntity();
+        comment.setId("c1");
+        comment.setBusinessId("p1");
+        comment.setBusinessType(BusinessType.POST);
+        comment.setCommentUserId("u1");
+        when(commentRepository.selectOne(any())).thenReturn(comment);
+        when(commentRepository.deleteById("c1")).thenReturn(0);
+
+        service.deleteComment("c1", "u1");
+        verify(counterRepository, never()).incrementCount(any(), anyString(), anyLong());
+
+        when(commentRepository.deleteById("c1")).thenReturn(1);
+        service.deleteComment("c1", "u1");
+        verify(counterRepository).incrementCount(BusinessType.POST, "p1", -1);
+    }
+
+    private static CommentCounterEntity counter(String businessId, long count) {
+        CommentCounterEntity entity = new CommentCounterEntity();
+        entity.setBusinessType(BusinessType.POST);
+        entity.setBusinessId(businessId);
+        entity.setCommentCount(count);
+        return entity;
+    }
+
+    private static BusinessCommentCount count(String businessId, long count) {
+        BusinessCommentCount row = new BusinessCommentCount();
+        row.setBusinessId(businessId);
+        row.setCommentCount(count);
+        return row;
+    }
+}
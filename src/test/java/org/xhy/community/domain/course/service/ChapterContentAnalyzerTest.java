@@ -0,0 +1,89 @@
+package org.xhy.community.domain.course.service;
+
+import org.junit.jupiter.api.Test;
+import org.xhy.community.domain.course.entity.ChapterEntity;
+import org.xhy.community.domain.course.valueobject.ChapterContentKind;
+import org.xhy.community.domain.course.valueobject.ChapterContentMetadata;
+import org.xhy.community.infrastructure.markdown.impl.FlexmarkMarkdownParser;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 章节内容分析单元测试
+ */
+class ChapterContentAnalyzerTest {
+
+    private final ChapterContentAnalyzer analyzer = new ChapterContentAnalyzer(new FlexmarkMarkdownParser());
+
+    @Test
+    void videoChapterCollectsSourcesAndResourceIds() {
+        String markdown = String.join("\n",
+                "# 第一节",
+                "",
+                "![cover](/api/public/resource/6e0fb19f69663da216606923f55af750/access)",
+                "",
+                "!video[intro.mp4](/api/public/resource/c292ae1a5a5b8e0639a2cf7f856cbaa1/access){poster=/api/public/resource/0de3ec4c42ef0a79a30ee80da2e3651d/access}");
+
+        ChapterContentMetadata metadata = analyzer.analyze(markdown);
+
+        assertEquals(ChapterContentKind.VIDEO, metadata.getContentType());
+        assertEquals(List.of("/api/public/resource/c292ae1a5a5b8e0639a2cf7f856cbaa1/access"), metadata.getVideoSources());
+        assertEquals(List.of("6e0fb19f69663da216606923f55af750", "c292ae1a5a5b8e0639a2cf7f856cbaa1",
+                "0de3ec4c42ef0a79a30ee80da2e3651d"), metadata.getResourceIds());
+    }
+
+    @Test
+    void textChapterCountsWordsButNotCodeBlocks() {
+        String markdown = String.join("\n",
+                "你好世界 hello world",
+                "",
+                "```java",
+                "int ignored = 1;",
+                "```");
+
+        ChapterContentMetadata metadata = analyzer.analyze(markdown);
+
+        assertEquals(ChapterContentKind.TEXT, metadata.getContentType());
+        assertTrue(metadata.getVideoSources().isEmpty());
+        assertTrue(metadata.getResourceIds().isEmpty());
+        assertEquals(6, metadata.getWordCount());
+        assertEquals(1, metadata.getReadingTime());
+    }
+
+    @Test
+    void foreignUrlsAreNotResources() {
+        ChapterContentMetadata metadata = analyzer.analyze("![x](https://example.com/a.png) ![y](/api/public/resource/not-an-id/access)");
+
+        assertTrue(metadata.getResourceIds().isEmpty());
+    }
+
+    @Test
+    void emptyContentHasNoReadingTime() {
+        ChapterContentMetadata metadata = analyzer.analyze("");
+
+        assertEquals(ChapterContentKind.TEXT, metadata.getContentType());
+        assertEquals(0, metadata.getWordCount());
+        assertEquals(0, metadata.getReadingTime());
+    }
+
+    @Test
+    void countWordsTreatsCjkPerCharacter() {
+        assertEquals(4, ChapterContentAnalyzer.countWords("中文 two-words"));
+        assertEquals(0, ChapterContentAnalyzer.countWords(null));
+    }
+
+    @Test
+    void manualReadingTimeWinsOverEstimate() {
+        ChapterEntity chapter = new ChapterEntity();
+        chapter.setEstimatedReadingTime(7);
+
+        chapter.setReadingTime(null);
+        assertEquals(7, chapter.resolveReadingTime());
+        chapter.setReadingTime(0);
+        assertEquals(7, chapter.resolveReadingTime());
+        chapter.setReadingTime(3);
+        assertEquals(3, chapter.resolveReadingTime());
+    }
+}
@@ -0,0 +1,86 @@
+package org.xhy.community.domain.metrics.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xhy.community.domain.common.valueobject.TimeRange;
+import org.xhy.community.domain.metrics.repository.ActiveUserCountRepository;
+import org.xhy.community.domain.metrics.repository.DailyMetricRepository;
+import org.xhy.community.domain.metrics.valueobject.MetricPoint;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class MetricsDomainServiceTest {
+
+    private DailyMetricRepository dailyMetricRepository;
+    private ActiveUserCountRepository activeUserCountRepository;
+    private MetricsDomainService service;
+
+    @BeforeEach
+    void setUp() {
+        dailyMetricRepository = mock(DailyMetricRepository.class);
+        activeUserCountRepository = mock(ActiveUserCountRepository.class);
+        service = new MetricsDomainService(dailyMetricRepository, activeUserCountRepository);
+    }
+
+    @Test
+    void dailyRefreshOnlyRecomputesDayPeriodsInWindow() {
+        LocalDate from = LocalDate.of(2026, 10, 17);
+        LocalDate to = LocalDate.of(2026, 10, 18);
+
+        service.refreshDailyMetrics(from, to);
+
+        verify(activeUserCountRepository).deleteRange("day", from, to.plusDays(1));
+        verify(activeUserCountRepository).aggregate("day", from, to.plusDays(1));
+        verify(activeUserCountRepository, never()).aggregate(eq("week"), any(), any());
+        verify(activeUserCountRepository, never()).aggregate(eq("month"), any(), any());
+    }
+
+    @Test
+    void periodRefreshCoversWholeWeekAndMonthOfDay() {
+        // 2026-10-14 为周三
+        service.refreshActiveUserPeriods(LocalDate.of(2026, 10, 14));
+
+        verify(activeUserCountRepository).deleteRange("week", LocalDate.of(2026, 10, 12), LocalDate.of(2026, 10, 19));
+        verify(activeUserCountRepository).aggregate("week", LocalDate.of(2026, 10, 12), LocalDate.of(2026, 10, 19));
+        verify(activeUserCountRepository).deleteRange("month", LocalDate.of(2026, 10, 1), LocalDate.of(2026, 11, 1));
+        verify(activeUserCountRepository).aggregate("month", LocalDate.of(2026, 10, 1), LocalDate.of(2026, 11, 1));
+    }
+
+    @Test
+    void activeUserTrendReadsPrecomputedCounts() {
+        LocalDate from = LocalDate.of(2026, 9, 1);
+        LocalDate to = LocalDate.of(2026, 10, 18);
+        when(activeUserCountRepository.selectByPeriod("month", ActiveUserCountRepository.ALL_USERS, from, to.plusDays(1)))
+                .thenReturn(List.of(point(LocalDate.of(2026, 9, 1), "*", 120L), point(LocalDate.of(2026, 10, 1), "*", 90L)));
+
+        Map<LocalDate, Long> trend = service.getActiveUserTrend(TimeRange.MONTH, from, to);
+
+        assertEquals(Map.of(LocalDate.of(2026, 9, 1), 120L, LocalDate.of(2026, 10, 1), 90L), trend);
+    }
+
+    @Test
+    void activeUserTrendByPlanGroupsByPlanKey() {
+        LocalDate day = LocalDate.of(2026, 10, 17);
+        when(activeUserCountRepository.selectByPeriod(eq("day"), isNull(), any(), any()))
+                .thenReturn(List.of(point(day, "plan-a", 5L), point(day, "", 7L)));
+
+        Map<String, Map<LocalDate, Long>> trends = service.getActiveUserTrendByPlan(TimeRange.DAY, day, day);
+
+        assertEquals(Map.of(day, 5L), trends.get("plan-a"));
+        assertEquals(Map.of(day, 7L), trends.get(""));
+    }
+
+    private static MetricPoint point(LocalDate bucket, String dimension, long count) {
+        MetricPoint point = new MetricPoint();
+        point.setBucket(bucket);
+        point.setDimension(dimension);
+        point.setCount(count);
+        return point;
+    }
+}
@@ -0,0 +1,112 @@
+package org.xhy.community.domain.notification.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.xhy.community.domain.common.valueobject.ContentType;
+import org.xhy.community.domain.notification.context.ContentUpdateNotificationData;
+import org.xhy.community.domain.notification.context.NotificationData;
+import org.xhy.community.domain.notification.repository.NotificationInboxRepository;
+import org.xhy.community.domain.notification.repository.NotificationMessageRepository;
+import org.xhy.community.domain.notification.template.NotificationTemplate;
+import org.xhy.community.domain.notification.template.NotificationTemplateRegistry;
+import org.xhy.community.domain.notification.valueobject.ChannelType;
+import org.xhy.community.domain.notification.valueobject.DeliveryRecipient;
+import org.xhy.community.domain.notification.valueobject.NotificationType;
+import org.xhy.community.domain.notification.port.UnreadNotificationCachePort;
+import org.xhy.community.infrastructure.email.EmailService;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 通知广播（正文每渠道只写一份，接收者分批追加）单元测试
+ */
+class NotificationBroadcastTest {
+
+    private NotificationTemplateRegistry templateRegistry;
+    private EmailService emailService;
+    private NotificationDeliveryDomainService deliveryDomainService;
+    private NotificationTemplate<NotificationData> template;
+    private NotificationDomainService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        templateRegistry = mock(NotificationTemplateRegistry.class);
+        emailService = mock(EmailService.class);
+        deliveryDomainService = mock(NotificationDeliveryDomainService.class);
+        template = mock(NotificationTemplate.class);
+        when(template.renderTitle(any())).thenReturn("title");
+        when(template.renderContent(any())).thenReturn("content");
+        when(templateRegistry.getTemplate(any(), any())).thenAnswer(inv -> template);
+        when(emailService.isEnabled()).thenReturn(true);
+        when(deliveryDomainService.createMessage(any(), any(), any(), any()))
+                .thenAnswer(inv -> "msg-" + inv.getArgument(0));
+        service = new NotificationDomainService(mock(NotificationInboxRepository.class),
+                mock(NotificationMessageRepository.class), templateRegistry, emailService,
+                deliveryDomainService, mock(UnreadNotificationCachePort.class), mock(ApplicationEventPublisher.class));
+    }
+
+    @Test
+    void rendersAndCreatesMessageOncePerChannelAcrossChunks() {
+        NotificationBroadcast broadcast = service.openBroadcast(data(List.of()));
+
+        broadcast.send(List.of(recipient("u1", true), recipient("u2", false)));
+        broadcast.send(List.of(recipient("u3", true)));
+
+        verify(template, times(2)).renderTitle(any());
+        verify(deliveryDomainService, times(1)).createMessage(eq(ChannelType.IN_APP), any(), any(), any());
+        verify(deliveryDomainService, times(1)).createMessage(eq(ChannelType.EMAIL), any(), any(), any());
+        verify(deliveryDomainService, times(2)).enqueue(eq(ChannelType.IN_APP), eq(NotificationType.FOLLOWED_USER_POST),
+                eq("msg-IN_APP"), anyList());
+        verify(deliveryDomainService, times(2)).enqueue(eq(ChannelType.EMAIL), eq(NotificationType.FOLLOWED_USER_POST),
+                eq("msg-EMAIL"), anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void emailChannelOnlyTargetsEmailEnabledRecipients() {
+        NotificationBroadcast broadcast = service.openBroadcast(data(List.of()));
+
+        broadcast.send(List.of(recipient("u1", true), recipient("u2", false)));
+
+        ArgumentCaptor<List<DeliveryRecipient>> captor = ArgumentCaptor.forClass(List.class);
+        verify(deliveryDomainService).enqueue(eq(ChannelType.EMAIL), any(), eq("msg-EMAIL"), captor.capture());
+        assertEquals(List.of("u1"), captor.getValue().stream().map(DeliveryRecipient::getRecipientId).toList());
+    }
+
+    @Test
+    void noMessageIsWrittenForChannelWithoutRecipients() {
+        NotificationBroadcast broadcast = service.openBroadcast(data(List.of()));
+
+        broadcast.send(List.of(recipient("u1", false)));
+        broadcast.send(List.of());
+
+        verify(deliveryDomainService, times(1)).createMessage(eq(ChannelType.IN_APP), any(), any(), any());
+        verify(deliveryDomainService, never()).createMessage(eq(ChannelType.EMAIL), any(), any(), any());
+    }
+
+    @Test
+    void disabledEmailServiceSkipsEmailChannel() {
+        when(emailService.isEnabled()).thenReturn(false);
+
+        service.send(data(List.of(recipient("u1", true))));
+
+        verify(deliveryDomainService).createMessage(eq(ChannelType.IN_APP), any(), any(), any());
+        verify(deliveryDomainService, never()).createMessage(eq(ChannelType.EMAIL), any(), any(), any());
+    }
+
+    private static NotificationData data(List<NotificationData.Recipient> recipients) {
+        return new ContentUpdateNotificationData(recipients, NotificationType.FOLLOWED_USER_POST,
+                ContentType.PUBLISH_CONTENT, "author", "title", "p1");
+    }
+
+    private static NotificationData.Recipient recipient(String id, boolean emailEnabled) {
+        return new NotificationData.Recipient(id, id + "@example.com", emailEnabled);
+    }
+}
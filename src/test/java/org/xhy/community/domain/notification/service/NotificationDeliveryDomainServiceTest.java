@@ -0,0 +1,185 @@
+package org.xhy.community.domain.notification.service;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.xhy.community.domain.notification.entity.NotificationDeliveryEntity;
+import org.xhy.community.domain.notification.entity.NotificationMessageEntity;
+import org.xhy.community.domain.notification.repository.NotificationDeliveryRepository;
+import org.xhy.community.domain.notification.repository.NotificationInboxRepository;
+import org.xhy.community.domain.notification.repository.NotificationMessageRepository;
+import org.xhy.community.domain.notification.valueobject.ChannelType;
+import org.xhy.community.domain.notification.valueobject.DeliveryRecipient;
+import org.xhy.community.domain.notification.valueobject.DeliveryStatus;
+import org.xhy.community.domain.notification.valueobject.NotificationType;
+import org.xhy.community.domain.notification.port.UnreadNotificationCachePort;
+import org.xhy.community.infrastructure.email.EmailService;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 通知投递（发件箱）单元测试
+ */
+class NotificationDeliveryDomainServiceTest {
+
+    private NotificationDeliveryRepository deliveryRepository;
+    private NotificationMessageRepository messageRepository;
+    private EmailService emailService;
+    private NotificationDeliveryDomainService service;
+
+    @BeforeAll
+    static void initTableInfo() {
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""),
+                NotificationDeliveryEntity.class);
+    }
+
+    @BeforeEach
+    void setUp() {
+        deliveryRepository = mock(NotificationDeliveryRepository.class);
+        messageRepository = mock(NotificationMessageRepository.class);
+        emailService = mock(EmailService.class);
+        when(emailService.isEnabled()).thenReturn(true);
+        service = new NotificationDeliveryDomainService(deliveryRepository, messageRepository,
+                mock(NotificationInboxRepository.class), emailService, mock(UnreadNotificationCachePort.class),
+                mock(ApplicationEventPublisher.class), 8, 30);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void emailRecipientsAreSplitIntoTasksSharingOneMessage() {
+        List<DeliveryRecipient> recipients = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            recipients.add(new DeliveryRecipient("u" + i, "u" + i + "@example.com"));
+        }
+
+        int tasks = service.enqueue(ChannelType.EMAIL, NotificationType.FOLLOWED_USER_POST, "m1", recipients);
+
+        assertEquals(3, tasks);
+        ArgumentCaptor<List<NotificationDeliveryEntity>> captor = ArgumentCaptor.forClass(List.class);
+        verify(deliveryRepository).insert(captor.capture());
+        assertTrue(captor.getValue().stream().allMatch(d -> "m1".equals(d.getMessageId())
+                && d.getStatus() == DeliveryStatus.PENDING));
+        verifyNoInteractions(messageRepository);
+    }
+
+    @Test
+    void emailIsMarkedSendingWithClaimTokenBeforeSmtpAndSucceededRightAfter() {
+        when(messageRepository.selectById("m1")).thenReturn(message());
+        when(deliveryRepository.update(isNull(), any())).thenReturn(1);
+        when(emailService.sendEmail(anyList(), any(), any())).thenReturn(true);
+        NotificationDeliveryEntity delivery = delivery();
+
+        service.sendEmail(delivery);
+
+        ArgumentCaptor<LambdaUpdateWrapper<NotificationDeliveryEntity>> updates = updateCaptor();
+        InOrder order = inOrder(deliveryRepository, emailService);
+        order.verify(deliveryRepository).update(isNull(), updates.capture());
+        order.verify(emailService).sendEmail(eq(List.of("a@example.com")), eq("title"), eq("content"));
+        order.verify(deliveryRepository).update(isNull(), updates.capture());
+        assertTrue(params(updates.getAllValues().get(0)).containsAll(List.of(DeliveryStatus.PROCESSING, DeliveryStatus.SENDING)));
+        assertTrue(params(updates.getAllValues().get(1)).containsAll(List.of(DeliveryStatus.SENDING, DeliveryStatus.SUCCEEDED)));
+        assertEquals(DeliveryStatus.SUCCEEDED, delivery.getStatus());
+    }
+
+    @Test
+    void smtpFailureReturnsTaskToProcessingSoItCanBeRetried() {
+        when(messageRepository.selectById("m1")).thenReturn(message());
+        when(deliveryRepository.update(isNull(), any())).thenReturn(1);
+        when(emailService.sendEmail(anyList(), any(), any())).thenReturn(false);
+        NotificationDeliveryEntity delivery = delivery();
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> service.sendEmail(delivery));
+        assertEquals(DeliveryStatus.PROCESSING, delivery.getStatus());
+
+        service.fail(delivery, e);
+        ArgumentCaptor<LambdaUpdateWrapper<NotificationDeliveryEntity>> updates = updateCaptor();
+        verify(deliveryRepository, times(3)).update(isNull(), updates.capture());
+        List<Object> requeue = params(updates.getValue());
+        assertTrue(requeue.contains(DeliveryStatus.PENDING));
+        assertTrue(requeue.contains(DeliveryStatus.PROCESSING));
+    }
+
+    @Test
+    void failureWhileSendingIsNeverRequeued() {
+        when(deliveryRepository.update(isNull(), any())).thenReturn(1);
+        NotificationDeliveryEntity delivery = delivery();
+        delivery.setStatus(DeliveryStatus.SENDING);
+
+        service.fail(delivery, new RuntimeException("db down"));
+
+        ArgumentCaptor<LambdaUpdateWrapper<NotificationDeliveryEntity>> update = updateCaptor();
+        verify(deliveryRepository).update(isNull(), update.capture());
+        List<Object> values = params(update.getValue());
+        assertTrue(values.contains(DeliveryStatus.DEAD));
+        assertFalse(values.contains(DeliveryStatus.PENDING));
+    }
+
+    @Test
+    void failureAfterEmailWasSentOnlyRecordsTheError() {
+        when(deliveryRepository.update(isNull(), any())).thenReturn(1);
+        NotificationDeliveryEntity delivery = delivery();
+        delivery.setStatus(DeliveryStatus.SUCCEEDED);
+
+        service.fail(delivery, new RuntimeException("inbox insert failed"));
+
+        ArgumentCaptor<LambdaUpdateWrapper<NotificationDeliveryEntity>> update = updateCaptor();
+        verify(deliveryRepository).update(isNull(), update.capture());
+        List<Object> values = params(update.getValue());
+        assertFalse(values.contains(DeliveryStatus.PENDING));
+        assertFalse(values.contains(DeliveryStatus.DEAD));
+        assertTrue(values.contains("inbox insert failed"));
+    }
+
+    @Test
+    void emailIsNotSentWhenLeaseWasTakenOver() {
+        when(messageRepository.selectById("m1")).thenReturn(message());
+        when(deliveryRepository.update(isNull(), any())).thenReturn(0);
+
+        assertThrows(IllegalStateException.class, () -> service.sendEmail(delivery()));
+
+        verify(emailService, never()).sendEmail(anyList(), any(), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<LambdaUpdateWrapper<NotificationDeliveryEntity>> updateCaptor() {
+        return ArgumentCaptor.forClass(LambdaUpdateWrapper.class);
+    }
+
+    private static List<Object> params(LambdaUpdateWrapper<NotificationDeliveryEntity> wrapper) {
+        wrapper.getSqlSet();
+        wrapper.getSqlSegment();
+        return new ArrayList<>(wrapper.getParamNameValuePairs().values());
+    }
+
+    private static NotificationDeliveryEntity delivery() {
+        NotificationDeliveryEntity delivery = new NotificationDeliveryEntity();
+        delivery.setId("d1");
+        delivery.setChannelType(ChannelType.EMAIL);
+        delivery.setMessageId("m1");
+        delivery.setLockedBy("node:token");
+        delivery.setStatus(DeliveryStatus.PROCESSING);
+        delivery.setAttempts(1);
+        delivery.setRecipients("[{\"recipientId\":\"u1\",\"email\":\"a@example.com\"}]");
+        return delivery;
+    }
+
+    private static NotificationMessageEntity message() {
+        NotificationMessageEntity message = new NotificationMessageEntity();
+        message.setId("m1");
+        message.setTitle("title");
+        message.setContent("content");
+        return message;
+    }
+}
@@ -0,0 +1,72 @@
+package org.xhy.community.domain.session.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.xhy.community.domain.session.valueobject.EvictPolicy;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 登录准入（单次 Lua 脚本）结果解析单元测试
+ */
+class DeviceSessionDomainServiceTest {
+
+    private StringRedisTemplate redis;
+    private DeviceSessionDomainService service;
+
+    @BeforeEach
+    void setUp() {
+        redis = mock(StringRedisTemplate.class);
+        service = new DeviceSessionDomainService(redis);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void admittedWhenScriptReturnsOk() {
+        when(redis.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(List.of(1L, 2L));
+
+        assertTrue(service.createOrReuseByIp("u1", "1.1.1.1", 3, EvictPolicy.DENY_NEW, 60_000, 3_600_000, 10, 60_000));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void bannedTriggeredAndDeniedAreRejected() {
+        when(redis.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of(0L, 0L), List.of(-1L, 11L), List.of(-2L, 3L));
+
+        for (int i = 0; i < 3; i++) {
+            assertFalse(service.createOrReuseByDevice("u1", "d1", "1.1.1.1", 2, 2, EvictPolicy.DENY_NEW,
+                    60_000, 3_600_000, 10, 60_000));
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void emptyScriptResultIsTreatedAsDenied() {
+        when(redis.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(null);
+
+        assertFalse(service.createOrReuseByIp("u1", "1.1.1.1", 3, EvictPolicy.DENY_NEW, 60_000, 3_600_000, 10, 60_000));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deviceAdmissionPassesKeysAndPolicyToScript() {
+        when(redis.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(List.of(1L, 1L));
+
+        service.createOrReuseByDevice("u1", "d1", "1.1.1.1", 2, 3, EvictPolicy.EVICT_OLDEST,
+                60_000, 3_600_000, 10, 60_000);
+
+        verify(redis).execute(any(RedisScript.class),
+                eq(List.of("u:u1:devices", "u:u1:ip_history", "u:u1:ban", "session:user:ban:set", "u:u1:d:d1:ips")),
+                eq("u1"), eq("d1"), eq("1.1.1.1"), any(), eq("2"), eq("3"), eq("0"),
+                eq("60000"), eq("3600000"), eq("10"), eq("60000"), eq("u:u1:d:"));
+    }
+}
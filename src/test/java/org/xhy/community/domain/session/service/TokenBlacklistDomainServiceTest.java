@@ -0,0 +1,106 @@
+package org.xhy.community.domain.session.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.xhy.community.domain.session.port.RevocationFilterPort;
+import org.xhy.community.infrastructure.util.TokenFingerprintUtil;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Token 吊销领域服务单元测试
+ */
+class TokenBlacklistDomainServiceTest {
+
+    private StringRedisTemplate redis;
+    private ValueOperations<String, String> valueOps;
+    private RevocationFilterPort filter;
+    private TokenBlacklistDomainService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redis = mock(StringRedisTemplate.class);
+        valueOps = mock(ValueOperations.class);
+        when(redis.opsForValue()).thenReturn(valueOps);
+        when(redis.opsForZSet()).thenReturn(mock(ZSetOperations.class));
+        when(redis.opsForSet()).thenReturn(mock(SetOperations.class));
+        filter = mock(RevocationFilterPort.class);
+        service = new TokenBlacklistDomainService(redis, filter);
+    }
+
+    @Test
+    void revokedBeforeIsFlooredToSecondsAndKnownTokensRevokedIndividually() {
+        long before = System.currentTimeMillis() / 1000 * 1000;
+
+        service.revokeAllForUser("u1", Set.of("token-a"), Duration.ofHours(1));
+
+        ArgumentCaptor<String> value = ArgumentCaptor.forClass(String.class);
+        verify(valueOps).set(eq("token:revoked-before:u1"), value.capture(), eq(Duration.ofHours(1)));
+        long stored = Long.parseLong(value.getValue());
+        assertEquals(0, stored % 1000);
+        assertTrue(stored >= before);
+        verify(filter).addUser("u1");
+        verify(filter).addToken(TokenFingerprintUtil.fingerprint("token-a"));
+        verify(redis).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void checkScriptComparesIssuedAtWithSecondPrecision() {
+        when(filter.mightBeRevoked(anyString(), eq("u1"))).thenReturn(true);
+        when(redis.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(0L);
+
+        assertFalse(service.isRevoked("token-a", "u1", 12_000L));
+
+        ArgumentCaptor<RedisScript<Long>> script = ArgumentCaptor.forClass(RedisScript.class);
+        verify(redis).execute(script.capture(), eq(List.of("token:revoked:" + TokenFingerprintUtil.fingerprint("token-a"),
+                "token:revoked-before:u1", "token:blacklist:token-a")), eq("12000"));
+        assertTrue(script.getValue().getScriptAsString().contains("math.floor(tonumber(before) / 1000) * 1000"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void filterMissSkipsRedis() {
+        when(filter.mightBeRevoked(anyString(), any())).thenReturn(false);
+
+        assertFalse(service.isRevoked("token-a", "u1", 12_000L));
+
+        verify(redis, never()).execute(any(RedisScript.class), anyList(), any(Object[].class));
+    }
+
+    @Test
+    void rebuildPassesFingerprintsAndUsersSeparately() {
+        ZSetOperations<String, String> zset = redis.opsForZSet();
+        when(zset.range("token:revoked:index", 0, -1)).thenReturn(Set.of("fp-1"));
+        when(zset.range("token:revoked-before:index", 0, -1)).thenReturn(null);
+        doAnswer(inv -> {
+            Supplier<RevocationFilterPort.Members> loader = inv.getArgument(0);
+            RevocationFilterPort.Members members = loader.get();
+            assertEquals(Set.of("fp-1"), Set.copyOf(members.fingerprints()));
+            assertTrue(members.userIds().isEmpty());
+            return null;
+        }).when(filter).rebuild(any());
+
+        service.rebuildRevocationFilter();
+
+        verify(filter).rebuild(any());
+    }
+}
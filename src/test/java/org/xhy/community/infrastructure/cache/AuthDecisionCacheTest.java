@@ -0,0 +1,82 @@
+package org.xhy.community.infrastructure.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.xhy.community.infrastructure.cache.support.CacheInvalidationBus;
+import org.xhy.community.infrastructure.push.SsePushHub;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class AuthDecisionCacheTest {
+
+    private StringRedisTemplate redis;
+    private HashOperations<String, Object, Object> hashOps;
+    private SsePushHub ssePushHub;
+    private AuthDecisionCache cache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redis = mock(StringRedisTemplate.class);
+        hashOps = mock(HashOperations.class);
+        SetOperations<String, String> setOps = mock(SetOperations.class);
+        when(redis.opsForHash()).thenReturn(hashOps);
+        when(redis.opsForSet()).thenReturn(setOps);
+        when(setOps.members(anyString())).thenReturn(Set.of());
+
+        CacheInvalidationBus bus = new CacheInvalidationBus(redis, mock(RedisMessageListenerContainer.class));
+        ssePushHub = mock(SsePushHub.class);
+        cache = new AuthDecisionCache(redis, bus, ssePushHub, new SimpleMeterRegistry(), true, 30, 1000);
+    }
+
+    @Test
+    void putThenGetHitsLocalWithoutRedis() {
+        cache.put("token-a", "dev-1", "u1", 60_000, cache.currentEpoch());
+
+        assertEquals("u1", cache.get("token-a", "dev-1"));
+        verify(hashOps, never()).get(anyString(), any());
+    }
+
+    @Test
+    void missFallsBackToRedis() {
+        long expireAt = System.currentTimeMillis() + 10_000;
+        when(hashOps.get(anyString(), eq("dev-1"))).thenReturn("u2|" + expireAt);
+
+        assertEquals("u2", cache.get("token-b", "dev-1"));
+        // 第二次命中本地
+        assertEquals("u2", cache.get("token-b", "dev-1"));
+        verify(hashOps, times(1)).get(anyString(), eq("dev-1"));
+    }
+
+    @Test
+    void evictUserDropsLocalEntriesAndBroadcasts() {
+        cache.put("token-c", "dev-1", "u3", 60_000, cache.currentEpoch());
+
+        cache.evictUser("u3");
+
+        assertNull(cache.get("token-c", "dev-1"));
+        verify(redis).convertAndSend("auth:verdict:invalidate", "u:u3");
+        verify(ssePushHub).closeUser("u3");
+    }
+
+    @Test
+    void putAfterConcurrentEvictionIsDiscarded() {
+        long epochAtLoad = cache.currentEpoch();
+        cache.evictToken("token-x");
+
+        cache.put("token-d", "dev-1", "u4", 60_000, epochAtLoad);
+
+        assertNull(cache.get("token-d", "dev-1"));
+    }
+}
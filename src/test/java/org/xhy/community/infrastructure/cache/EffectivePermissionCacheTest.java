@@ -0,0 +1,88 @@
+package org.xhy.community.infrastructure.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.xhy.community.infrastructure.cache.support.CacheInvalidationBus;
+import org.xhy.community.infrastructure.permission.EffectivePermissions;
+import org.xhy.community.infrastructure.permission.PermissionBitSet;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 用户有效权限缓存单元测试
+ */
+class EffectivePermissionCacheTest {
+
+    private static final EffectivePermissions PERMISSIONS = new EffectivePermissions(Set.of("A"), PermissionBitSet.EMPTY);
+
+    private StringRedisTemplate redis;
+    private SimpleMeterRegistry meterRegistry;
+    private EffectivePermissionCache cache;
+
+    @BeforeEach
+    void setUp() {
+        redis = mock(StringRedisTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new EffectivePermissionCache(new CacheInvalidationBus(redis, mock(RedisMessageListenerContainer.class)),
+                meterRegistry, true, 300, 100);
+    }
+
+    @Test
+    void putThenGet() {
+        cache.put("u1", PERMISSIONS, Long.MAX_VALUE, cache.currentEpoch());
+
+        assertSame(PERMISSIONS, cache.get("u1"));
+        assertNull(cache.get("u2"));
+        assertEquals(1.0, meterRegistry.get("permission.effective.cache.requests").tag("result", "hit").counter().count());
+        assertEquals(1.0, meterRegistry.get("permission.effective.cache.requests").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void entryNeverOutlivesNotAfter() {
+        cache.put("u1", PERMISSIONS, System.currentTimeMillis() - 1, cache.currentEpoch());
+
+        assertNull(cache.get("u1"));
+    }
+
+    @Test
+    void staleLoadIsDiscardedAfterInvalidation() {
+        long epoch = cache.currentEpoch();
+        cache.evictUser("u1");
+
+        cache.put("u1", PERMISSIONS, Long.MAX_VALUE, epoch);
+
+        assertNull(cache.get("u1"));
+    }
+
+    @Test
+    void evictUserAndEvictAllBroadcast() {
+        cache.put("u1", PERMISSIONS, Long.MAX_VALUE, cache.currentEpoch());
+        cache.put("u2", PERMISSIONS, Long.MAX_VALUE, cache.currentEpoch());
+
+        cache.evictUser("u1");
+        assertNull(cache.get("u1"));
+        assertNotNull(cache.get("u2"));
+
+        cache.evictAll();
+        assertNull(cache.get("u2"));
+        verify(redis).convertAndSend("perm:effective:invalidate", "u:u1");
+        verify(redis).convertAndSend("perm:effective:invalidate", "*");
+    }
+
+    @Test
+    void disabledCacheNeverStores() {
+        EffectivePermissionCache disabled = new EffectivePermissionCache(
+                new CacheInvalidationBus(redis, mock(RedisMessageListenerContainer.class)),
+                new SimpleMeterRegistry(), false, 300, 100);
+
+        disabled.put("u1", PERMISSIONS, Long.MAX_VALUE, disabled.currentEpoch());
+
+        assertNull(disabled.get("u1"));
+    }
+}
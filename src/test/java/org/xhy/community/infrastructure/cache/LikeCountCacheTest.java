@@ -0,0 +1,80 @@
+package org.xhy.community.infrastructure.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.xhy.community.domain.like.valueobject.LikeTargetType;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class LikeCountCacheTest {
+
+    private StringRedisTemplate redis;
+    private HashOperations<String, Object, Object> hashOps;
+    private LikeCountCache cache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redis = mock(StringRedisTemplate.class);
+        hashOps = mock(HashOperations.class);
+        when(redis.opsForHash()).thenReturn(hashOps);
+        cache = new LikeCountCache(redis);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void multiGetReturnsOnlyHits() {
+        when(hashOps.multiGet(eq("like:count:POST"), anyList())).thenReturn(Arrays.asList("3", null));
+
+        Map<String, Long> counts = cache.multiGet(LikeTargetType.POST, List.of("p1", "p2"));
+
+        assertEquals(Map.of("p1", 3L), counts);
+    }
+
+    @Test
+    void multiGetDegradesToEmptyOnRedisFailure() {
+        when(hashOps.multiGet(anyString(), anyList())).thenThrow(new RuntimeException("down"));
+
+        assertTrue(cache.multiGet(LikeTargetType.POST, List.of("p1")).isEmpty());
+    }
+
+    @Test
+    void evictInsideTransactionIsDeferredUntilCompletion() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.evict(LikeTargetType.POST, "p1");
+        verify(hashOps, never()).delete(anyString(), any());
+
+        for (TransactionSynchronization sync : TransactionSynchronizationManager.getSynchronizations()) {
+            sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+        verify(hashOps).delete("like:count:POST", "p1");
+    }
+
+    @Test
+    void evictOutsideTransactionIsImmediate() {
+        cache.evict(LikeTargetType.COMMENT, "c1");
+
+        verify(hashOps).delete("like:count:COMMENT", "c1");
+    }
+}
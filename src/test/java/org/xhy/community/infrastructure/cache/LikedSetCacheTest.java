@@ -0,0 +1,90 @@
+package org.xhy.community.infrastructure.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.xhy.community.domain.like.valueobject.LikeTargetType;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class LikedSetCacheTest {
+
+    private StringRedisTemplate redis;
+    private LikedSetCache cache;
+
+    @BeforeEach
+    void setUp() {
+        redis = mock(StringRedisTemplate.class);
+        cache = new LikedSetCache(redis, 1800);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void batchCheckSkipsTypesWhoseSetIsNotWarmed() {
+        Map<LikeTargetType, List<String>> ids = new LinkedHashMap<>();
+        ids.put(LikeTargetType.POST, List.of("p1", "p2"));
+        ids.put(LikeTargetType.COMMENT, List.of("c1"));
+        // POST: EXISTS=true, SMISMEMBER=[true,false]；COMMENT: EXISTS=false
+        when(redis.executePipelined(any(RedisCallback.class)))
+                .thenReturn(List.of(true, List.of(true, false), false, List.of(false)));
+
+        Map<LikeTargetType, Map<String, Boolean>> result = cache.batchCheck("u1", ids);
+
+        assertEquals(Map.of("p1", true, "p2", false), result.get(LikeTargetType.POST));
+        assertFalse(result.containsKey(LikeTargetType.COMMENT));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void batchCheckReturnsNullWhenRedisIsDown() {
+        when(redis.executePipelined(any(RedisCallback.class))).thenThrow(new RuntimeException("down"));
+
+        assertNull(cache.batchCheck("u1", Map.of(LikeTargetType.POST, List.of("p1"))));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void updateInsideTransactionRunsOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.update("u1", LikeTargetType.POST, "p1", true);
+        verify(redis, never()).execute(any(RedisScript.class), anyList(), any(Object[].class));
+
+        for (TransactionSynchronization sync : TransactionSynchronizationManager.getSynchronizations()) {
+            sync.afterCommit();
+        }
+        verify(redis).execute(any(RedisScript.class), eq(List.of("like:user:u1:POST")),
+                eq("1"), eq("p1"), eq("1800000"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failedUpdateDropsTheSetSoItIsRewarmed() {
+        when(redis.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenThrow(new RuntimeException("down"));
+
+        cache.update("u1", LikeTargetType.POST, "p1", false);
+
+        verify(redis).delete("like:user:u1:POST");
+    }
+}
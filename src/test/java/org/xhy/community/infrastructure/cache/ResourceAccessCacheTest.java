@@ -0,0 +1,139 @@
+package org.xhy.community.infrastructure.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.xhy.community.infrastructure.cache.support.CacheInvalidationBus;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 资源访问结论缓存单元测试
+ */
+class ResourceAccessCacheTest {
+
+    private StringRedisTemplate redis;
+    private ResourceAccessCache cache;
+
+    @BeforeEach
+    void setUp() {
+        redis = mock(StringRedisTemplate.class);
+        CacheInvalidationBus bus = new CacheInvalidationBus(redis, mock(RedisMessageListenerContainer.class));
+        cache = new ResourceAccessCache(bus, new SimpleMeterRegistry(), true, 60, 600, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void decisionIsCachedPerUserAndResource() {
+        AtomicInteger loads = new AtomicInteger();
+
+        assertTrue(cache.getDecision("u1", "r1", () -> loads.incrementAndGet() > 0));
+        assertTrue(cache.getDecision("u1", "r1", () -> loads.incrementAndGet() < 0));
+        assertFalse(cache.getDecision("u2", "r1", () -> loads.incrementAndGet() < 0));
+        assertFalse(cache.getDecision("u2", "r1", () -> true));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void unboundResourceIsCachedAsNull() {
+        AtomicInteger loads = new AtomicInteger();
+
+        assertNull(cache.getResourceCourses("r1", () -> {
+            loads.incrementAndGet();
+            return null;
+        }));
+        assertNull(cache.getResourceCourses("r1", () -> Set.of("c1")));
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void evictUserOnlyDropsThatUsersDecisions() {
+        cache.getDecision("u1", "r1", () -> true);
+        cache.getDecision("u2", "r1", () -> true);
+
+        cache.evictUser("u1");
+
+        assertFalse(cache.getDecision("u1", "r1", () -> false));
+        assertTrue(cache.getDecision("u2", "r1", () -> false));
+        verify(redis).convertAndSend("resource:access:invalidate", "u:u1");
+    }
+
+    @Test
+    void evictResourcesDropsIndexAndDecisions() {
+        cache.getResourceCourses("r1", () -> Set.of("c1"));
+        cache.getDecision("u1", "r1", () -> true);
+
+        cache.evictResources();
+
+        assertEquals(Set.of("c2"), cache.getResourceCourses("r1", () -> Set.of("c2")));
+        assertFalse(cache.getDecision("u1", "r1", () -> false));
+    }
+
+    @Test
+    void evictDecisionsKeepsIndex() {
+        cache.getResourceCourses("r1", () -> Set.of("c1"));
+        cache.getDecision("u1", "r1", () -> true);
+
+        cache.evictDecisions();
+
+        assertEquals(Set.of("c1"), cache.getResourceCourses("r1", () -> Set.of("c2")));
+        assertFalse(cache.getDecision("u1", "r1", () -> false));
+    }
+
+    @Test
+    void invalidationDuringLoadDiscardsStaleDecision() {
+        assertTrue(cache.getDecision("u1", "r1", () -> {
+            cache.evictDecisions();
+            return true;
+        }));
+
+        assertFalse(cache.getDecision("u1", "r1", () -> false));
+    }
+
+    @Test
+    void evictionInsideTransactionWaitsForCommit() {
+        cache.getDecision("u1", "r1", () -> true);
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.evictDecisions();
+
+        assertTrue(cache.getDecision("u1", "r1", () -> false));
+        verifyNoInteractions(redis);
+
+        for (TransactionSynchronization sync : TransactionSynchronizationManager.getSynchronizations()) {
+            sync.afterCommit();
+        }
+        assertFalse(cache.getDecision("u1", "r1", () -> false));
+        verify(redis).convertAndSend("resource:access:invalidate", "d:*");
+    }
+
+    @Test
+    void disabledCacheAlwaysLoads() {
+        ResourceAccessCache disabled = new ResourceAccessCache(
+                new CacheInvalidationBus(redis, mock(RedisMessageListenerContainer.class)),
+                new SimpleMeterRegistry(), false, 60, 600, 100);
+        AtomicInteger loads = new AtomicInteger();
+
+        disabled.getDecision("u1", "r1", () -> loads.incrementAndGet() > 0);
+        disabled.getDecision("u1", "r1", () -> loads.incrementAndGet() > 0);
+
+        assertEquals(2, loads.get());
+    }
+}
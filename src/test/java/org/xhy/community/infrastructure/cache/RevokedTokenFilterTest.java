@@ -0,0 +1,135 @@
+package org.xhy.community.infrastructure.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.listener.Topic;
+import org.xhy.community.domain.session.port.RevocationFilterPort.Members;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 已吊销 token 布隆过滤器单元测试
+ */
+class RevokedTokenFilterTest {
+
+    private StringRedisTemplate redis;
+    private MessageListener listener;
+    private RevokedTokenFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        redis = mock(StringRedisTemplate.class);
+        RedisMessageListenerContainer container = mock(RedisMessageListenerContainer.class);
+        filter = new RevokedTokenFilter(redis, container, new SimpleMeterRegistry(), true, 1000);
+        ArgumentCaptor<MessageListener> captor = ArgumentCaptor.forClass(MessageListener.class);
+        verify(container).addMessageListener(captor.capture(), any(Topic.class));
+        listener = captor.getValue();
+    }
+
+    @Test
+    void everythingMightBeRevokedBeforeFirstRebuild() {
+        assertTrue(filter.mightBeRevoked("fp-unknown", "u1"));
+    }
+
+    @Test
+    void rebuiltMembersAreReportedAndOthersSkipped() {
+        filter.rebuild(() -> new Members(Set.of("fp-1"), Set.of("u-revoked")));
+
+        assertTrue(filter.mightBeRevoked("fp-1", "u1"));
+        assertTrue(filter.mightBeRevoked("fp-other", "u-revoked"));
+        assertFalse(filter.mightBeRevoked("fp-other", "u1"));
+        assertFalse(filter.mightBeRevoked("fp-other", null));
+    }
+
+    @Test
+    void noFalseNegativesAndFewFalsePositives() {
+        List<String> revoked = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            revoked.add("revoked-" + i);
+        }
+        filter.rebuild(() -> new Members(revoked, Set.of()));
+
+        revoked.forEach(fp -> assertTrue(filter.mightBeRevoked(fp, null)));
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.mightBeRevoked("live-" + i, null)) {
+                falsePositives++;
+            }
+        }
+        // 设计误判率 0.1%，按容量 2 倍余量建表，留足波动空间
+        assertTrue(falsePositives < 50, "falsePositives=" + falsePositives);
+    }
+
+    @Test
+    void localRevocationIsVisibleImmediatelyAndBroadcast() {
+        filter.rebuild(() -> new Members(Set.of(), Set.of()));
+
+        filter.addToken("fp-new");
+        filter.addUser("u9");
+
+        assertTrue(filter.mightBeRevoked("fp-new", null));
+        assertTrue(filter.mightBeRevoked("fp-any", "u9"));
+        verify(redis).convertAndSend("token:revoked", "fp-new");
+        verify(redis).convertAndSend("token:revoked", "u:u9");
+    }
+
+    @Test
+    void broadcastFromOtherNodeIsApplied() {
+        filter.rebuild(() -> new Members(Set.of(), Set.of()));
+
+        listener.onMessage(new DefaultMessage("token:revoked".getBytes(StandardCharsets.UTF_8),
+                "fp-remote".getBytes(StandardCharsets.UTF_8)), null);
+
+        assertTrue(filter.mightBeRevoked("fp-remote", null));
+    }
+
+    @Test
+    void revocationDuringRebuildIsCarriedIntoNewFilter() {
+        filter.rebuild(() -> new Members(Set.of(), Set.of()));
+
+        filter.rebuild(() -> {
+            // 重建加载期间到达的吊销不在加载结果中
+            filter.addToken("fp-racing");
+            return new Members(Set.of(), Set.of());
+        });
+
+        assertTrue(filter.mightBeRevoked("fp-racing", null));
+    }
+
+    @Test
+    void failedRebuildKeepsPreviousFilter() {
+        filter.rebuild(() -> new Members(Set.of("fp-1"), Set.of()));
+
+        filter.rebuild(() -> {
+            throw new IllegalStateException("redis down");
+        });
+
+        assertTrue(filter.mightBeRevoked("fp-1", null));
+        assertFalse(filter.mightBeRevoked("fp-2", null));
+    }
+
+    @Test
+    void broadcastFailureStillRevokesLocally() {
+        filter.rebuild(() -> new Members(Set.of(), Set.of()));
+        doThrow(new IllegalStateException("down")).when(redis).convertAndSend(eq("token:revoked"), anyString());
+
+        filter.addToken("fp-local");
+
+        assertTrue(filter.mightBeRevoked("fp-local", null));
+    }
+}
@@ -0,0 +1,101 @@
+package org.xhy.community.infrastructure.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.listener.Topic;
+import org.xhy.community.domain.config.valueobject.SystemConfigType;
+import org.xhy.community.infrastructure.cache.support.CacheInvalidationBus;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class SystemConfigCacheTest {
+
+    private static final SystemConfigType TYPE = SystemConfigType.DEFAULT_SUBSCRIPTION_PLAN;
+
+    private StringRedisTemplate redis;
+    private ValueOperations<String, String> valueOps;
+    private SystemConfigCache cache;
+    private MessageListener listener;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redis = mock(StringRedisTemplate.class);
+        valueOps = mock(ValueOperations.class);
+        when(redis.opsForValue()).thenReturn(valueOps);
+        when(valueOps.get(anyString())).thenReturn("1");
+        RedisMessageListenerContainer container = mock(RedisMessageListenerContainer.class);
+        cache = new SystemConfigCache(redis, new CacheInvalidationBus(redis, container), new SimpleMeterRegistry(), 300);
+
+        ArgumentCaptor<MessageListener> captor = ArgumentCaptor.forClass(MessageListener.class);
+        verify(container).addMessageListener(captor.capture(), any(Topic.class));
+        listener = captor.getValue();
+    }
+
+    @Test
+    void secondReadIsServedFromCache() {
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("v1", cache.get(TYPE, String.class, () -> "v" + loads.incrementAndGet()));
+        assertEquals("v1", cache.get(TYPE, String.class, () -> "v" + loads.incrementAndGet()));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void invalidateBumpsVersionBroadcastsAndReloads() {
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(TYPE, String.class, () -> "v" + loads.incrementAndGet());
+
+        when(valueOps.increment(anyString())).thenReturn(2L);
+        cache.invalidate(TYPE);
+        verify(redis).convertAndSend("sys:config:invalidate", TYPE.name() + ":2");
+
+        when(valueOps.get(anyString())).thenReturn("2");
+        assertEquals("v2", cache.get(TYPE, String.class, () -> "v" + loads.incrementAndGet()));
+    }
+
+    @Test
+    void loadAtStaleVersionIsNotCached() {
+        when(valueOps.increment(anyString())).thenReturn(5L);
+        cache.invalidate(TYPE);
+
+        // 回源前读到的版本（1）低于已知版本（5），结果不写入缓存
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(TYPE, String.class, () -> "v" + loads.incrementAndGet());
+        cache.get(TYPE, String.class, () -> "v" + loads.incrementAndGet());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void remoteInvalidationEvictsOlderEntry() {
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(TYPE, String.class, () -> "v" + loads.incrementAndGet());
+
+        receive(TYPE.name() + ":2");
+        when(valueOps.get(anyString())).thenReturn("2");
+        assertEquals("v2", cache.get(TYPE, String.class, () -> "v" + loads.incrementAndGet()));
+
+        // 本节点收到自己的（或重复的）广播时不应再次失效
+        receive(TYPE.name() + ":2");
+        assertEquals("v2", cache.get(TYPE, String.class, () -> "v" + loads.incrementAndGet()));
+        assertEquals(2, loads.get());
+    }
+
+    private void receive(String body) {
+        listener.onMessage(new DefaultMessage("sys:config:invalidate".getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8)), null);
+    }
+}
@@ -0,0 +1,90 @@
+package org.xhy.community.infrastructure.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.xhy.community.domain.common.valueobject.ReadChannel;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class UnreadCounterCacheTest {
+
+    private StringRedisTemplate redis;
+    private UnreadCounterCache cache;
+
+    @BeforeEach
+    void setUp() {
+        redis = mock(StringRedisTemplate.class);
+        cache = new UnreadCounterCache(redis, 1800);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void readMapsSummaryAndTreatsMissingItemsAsAbsent() {
+        // [站内信, POSTS seen, POSTS 未读, QUESTIONS seen, QUESTIONS 未读, CHAPTERS seen, CHAPTERS 未读]
+        when(redis.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of(5L, 1_700_000_000_000L, 3L, -1L, -1L, 1_700_000_000_000L, -1L));
+
+        UnreadCounterCache.Snapshot snapshot = cache.read("u1");
+
+        assertEquals(5L, snapshot.getNotifications());
+        assertEquals(3L, snapshot.getUnread().get(ReadChannel.POSTS));
+        assertFalse(snapshot.getLastSeen().containsKey(ReadChannel.QUESTIONS));
+        assertTrue(snapshot.getLastSeen().containsKey(ReadChannel.CHAPTERS));
+        assertFalse(snapshot.getUnread().containsKey(ReadChannel.CHAPTERS));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void readReturnsEmptySnapshotWhenRedisIsDown() {
+        when(redis.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenThrow(new RuntimeException("down"));
+
+        UnreadCounterCache.Snapshot snapshot = cache.read("u1");
+
+        assertNull(snapshot.getNotifications());
+        assertTrue(snapshot.getUnread().isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void decrementRunsOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.decrementNotifications("u1");
+        verify(redis, never()).execute(any(RedisCallback.class));
+
+        for (TransactionSynchronization sync : TransactionSynchronizationManager.getSynchronizations()) {
+            sync.afterCommit();
+        }
+        verify(redis).execute(any(RedisCallback.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failedUpdateDeletesUserKeyForRewarm() {
+        when(redis.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenThrow(new RuntimeException("down"));
+
+        cache.resetNotifications("u1");
+
+        verify(redis).delete(List.of("unread:user:u1"));
+    }
+}
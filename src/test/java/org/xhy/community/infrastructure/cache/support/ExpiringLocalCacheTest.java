@@ -0,0 +1,92 @@
+package org.xhy.community.infrastructure.cache.support;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpiringLocalCacheTest {
+
+    private final AtomicLong nanos = new AtomicLong(TimeUnit.SECONDS.toNanos(1_000));
+    private ExpiringLocalCache<String, String> cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = newCache(100);
+    }
+
+    private ExpiringLocalCache<String, String> newCache(long maxEntries) {
+        return new ExpiringLocalCache<>(maxEntries, nanos::get,
+                () -> TimeUnit.NANOSECONDS.toMillis(nanos.get()), Runnable::run);
+    }
+
+    private long nowMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(nanos.get());
+    }
+
+    @Test
+    void entryExpiresAtItsOwnDeadline() {
+        cache.put("a", "1", nowMillis() + 1_000, cache.currentEpoch());
+        cache.put("b", "2", nowMillis() + 5_000, cache.currentEpoch());
+
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(2_000));
+
+        assertNull(cache.get("a"));
+        assertEquals("2", cache.get("b"));
+    }
+
+    @Test
+    void overCapacityEvictsIndividualEntriesInsteadOfClearing() {
+        for (int i = 0; i < 300; i++) {
+            cache.put("k" + i, "v" + i, nowMillis() + 60_000, cache.currentEpoch());
+        }
+        cache.cleanUp();
+
+        assertTrue(cache.size() <= 100, "size=" + cache.size());
+        assertTrue(cache.size() >= 90, "size=" + cache.size());
+    }
+
+    @Test
+    void putIsDroppedWhenInvalidatedDuringLoad() {
+        long epochAtLoad = cache.currentEpoch();
+        cache.invalidate("other");
+
+        assertFalse(cache.put("a", "stale", nowMillis() + 1_000, epochAtLoad));
+        assertNull(cache.get("a"));
+    }
+
+    @Test
+    void putIsDroppedWhenAlreadyExpired() {
+        assertFalse(cache.put("a", "1", nowMillis(), cache.currentEpoch()));
+        assertNull(cache.get("a"));
+    }
+
+    @Test
+    void invalidateIfRemovesMatchingValuesOnly() {
+        long epoch = cache.currentEpoch();
+        cache.put("t1|d1", "u1", nowMillis() + 1_000, epoch);
+        cache.put("t2|d1", "u1", nowMillis() + 1_000, epoch);
+        cache.put("t3|d1", "u2", nowMillis() + 1_000, epoch);
+
+        cache.invalidateIf((k, v) -> "u1".equals(v));
+
+        assertNull(cache.get("t1|d1"));
+        assertNull(cache.get("t2|d1"));
+        assertEquals("u2", cache.get("t3|d1"));
+        assertNotEquals(epoch, cache.currentEpoch());
+    }
+
+    @Test
+    void invalidateAllClearsAndBumpsEpoch() {
+        long epoch = cache.currentEpoch();
+        cache.put("a", "1", nowMillis() + 1_000, epoch);
+
+        cache.invalidateAll();
+
+        assertNull(cache.get("a"));
+        assertEquals(epoch + 1, cache.currentEpoch());
+    }
+}
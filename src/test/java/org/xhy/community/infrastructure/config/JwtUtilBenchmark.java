@@ -0,0 +1,82 @@
+package org.xhy.community.infrastructure.config;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.SecretKey;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单次请求鉴权路径上的 JWT 校验开销对比
+ * - legacyTripleParse：改造前，拦截器依次调用 validateToken / getUserIdFromToken / 黑名单校验，每次都新建解析器并验签；
+ * - prebuiltParser：预构建解析器、单次解析（关闭 claims 缓存）；
+ * - cachedVerify：预构建解析器 + claims 缓存命中。
+ *
+ * 运行（exec 插件的 mainClass 已固定为迁移工具，直接用 java 启动）：
+ *   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt -Dmdep.includeScope=test
+ *   java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.xhy.community.infrastructure.config.JwtUtilBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret-0123456789";
+
+    private SecretKey secretKey;
+    private String token;
+    private JwtUtil uncached;
+    private JwtUtil cached;
+
+    @Setup
+    public void setUp() {
+        JwtProperties properties = new JwtProperties();
+        properties.setSecret(SECRET);
+        properties.setExpiration(3_600_000L);
+        secretKey = Keys.hmacShaKeyFor(SECRET.getBytes());
+        uncached = new JwtUtil(properties, new SimpleMeterRegistry(), 0, 10_000);
+        cached = new JwtUtil(properties, new SimpleMeterRegistry(), 300, 10_000);
+        token = cached.generateToken("user-1", "user@example.com");
+    }
+
+    @Benchmark
+    public void legacyTripleParse(Blackhole bh) {
+        for (int i = 0; i < 3; i++) {
+            Claims claims = Jwts.parser().verifyWith(secretKey).build().parseSignedClaims(token).getPayload();
+            bh.consume(claims.get("userId", String.class));
+        }
+    }
+
+    @Benchmark
+    public JwtUtil.VerifiedToken prebuiltParser() {
+        return uncached.verify(token);
+    }
+
+    @Benchmark
+    public JwtUtil.VerifiedToken cachedVerify() {
+        return cached.verify(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtUtilBenchmark.class.getSimpleName()).build()).run();
+    }
+}
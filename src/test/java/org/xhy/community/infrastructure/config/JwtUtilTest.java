@@ -0,0 +1,90 @@
+package org.xhy.community.infrastructure.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JWT 单次校验与 claims 缓存单元测试
+ */
+class JwtUtilTest {
+
+    private static final String SECRET = "unit-test-secret-unit-test-secret-unit-test-secret-0123456789";
+
+    private JwtProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        properties = new JwtProperties();
+        properties.setSecret(SECRET);
+        properties.setExpiration(3_600_000L);
+        meterRegistry = new SimpleMeterRegistry();
+        jwtUtil = new JwtUtil(properties, meterRegistry, 300, 100);
+    }
+
+    @Test
+    void verifiesOnceAndServesRepeatsFromCache() {
+        String token = jwtUtil.generateToken("u1", "u1@example.com");
+
+        JwtUtil.VerifiedToken first = jwtUtil.verify(token);
+        JwtUtil.VerifiedToken second = jwtUtil.verify(token);
+
+        assertEquals("u1", first.getUserId());
+        assertEquals("u1@example.com", first.getEmail());
+        assertSame(first, second);
+        assertTrue(first.getIssuedAtMillis() > 0);
+        assertEquals(1.0, meterRegistry.get("jwt.claims.cache.requests").tag("result", "hit").counter().count());
+        assertEquals(1.0, meterRegistry.get("jwt.claims.cache.requests").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void rejectsForeignSignatureAndGarbage() {
+        JwtProperties other = new JwtProperties();
+        other.setSecret("another-secret-another-secret-another-secret-0123456789");
+        other.setExpiration(3_600_000L);
+        String foreign = new JwtUtil(other, new SimpleMeterRegistry(), 300, 100).generateToken("u1", "e");
+
+        assertNull(jwtUtil.verify(foreign));
+        assertNull(jwtUtil.verify("not-a-jwt"));
+        assertNull(jwtUtil.verify(null));
+        assertFalse(jwtUtil.validateToken(""));
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        properties.setExpiration(-1_000L);
+        String expired = jwtUtil.generateToken("u1", "e");
+
+        assertNull(jwtUtil.verify(expired));
+        assertEquals(0, jwtUtil.getRemainingTime(expired));
+    }
+
+    @Test
+    void cacheStaysBoundedWithoutDroppingEverything() {
+        String hot = jwtUtil.generateToken("hot", "e");
+        jwtUtil.verify(hot);
+        for (int i = 0; i < 500; i++) {
+            assertNotNull(jwtUtil.verify(jwtUtil.generateToken("u" + i, "e")));
+        }
+
+        double size = meterRegistry.get("jwt.claims.cache.size").gauge().value();
+        assertTrue(size <= 300, "size=" + size);
+        assertTrue(size > 0);
+        assertEquals("hot", jwtUtil.getVerifiedUserId(hot));
+    }
+
+    @Test
+    void disabledCacheAlwaysParses() {
+        JwtUtil noCache = new JwtUtil(properties, meterRegistry = new SimpleMeterRegistry(), 0, 100);
+        String token = noCache.generateToken("u1", "e");
+
+        noCache.verify(token);
+        noCache.verify(token);
+
+        assertEquals(2.0, meterRegistry.get("jwt.claims.cache.requests").tag("result", "miss").counter().count());
+    }
+}
@@ -0,0 +1,92 @@
+package org.xhy.community.infrastructure.counter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisHyperLogLogCommands;
+import org.springframework.data.redis.connection.RedisSetCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class DistinctViewerCounterTest {
+
+    private StringRedisTemplate redis;
+    private RedisConnection connection;
+    private RedisHyperLogLogCommands hllCommands;
+    private RedisSetCommands setCommands;
+    private DistinctViewerCounter counter;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redis = mock(StringRedisTemplate.class);
+        connection = mock(RedisConnection.class);
+        hllCommands = mock(RedisHyperLogLogCommands.class);
+        setCommands = mock(RedisSetCommands.class);
+        when(connection.hyperLogLogCommands()).thenReturn(hllCommands);
+        when(connection.setCommands()).thenReturn(setCommands);
+        counter = new DistinctViewerCounter(redis);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void pipelineReturns(List<Object> replies) {
+        when(redis.executePipelined(any(RedisCallback.class))).thenAnswer(inv -> {
+            ((RedisCallback<Object>) inv.getArgument(0)).doInRedis(connection);
+            return replies;
+        });
+    }
+
+    @Test
+    void recordAddsViewerAndMarksTargetDirty() {
+        pipelineReturns(List.of());
+
+        counter.record("POST", "p1", "u1");
+
+        verify(hllCommands).pfAdd(argThat(k -> Arrays.equals(k, raw("uv:POST:p1"))),
+                argThat((byte[] v) -> Arrays.equals(v, raw("u1"))));
+        verify(setCommands).sAdd(argThat(k -> Arrays.equals(k, raw("uv:dirty"))),
+                argThat((byte[] v) -> Arrays.equals(v, raw("POST:p1"))));
+    }
+
+    @Test
+    void countMapsMissingKeysToZero() {
+        pipelineReturns(Arrays.asList(5L, 0L));
+
+        Map<String, Long> result = counter.count("POST", List.of("p1", "p2"));
+
+        assertEquals(Map.of("p1", 5L, "p2", 0L), result);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void countReturnsNullWhenRedisIsDown() {
+        when(redis.executePipelined(any(RedisCallback.class))).thenThrow(new RuntimeException("down"));
+
+        assertNull(counter.count("POST", List.of("p1")));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void popDirtyNeverReturnsNull() {
+        SetOperations<String, String> setOps = mock(SetOperations.class);
+        when(redis.opsForSet()).thenReturn(setOps);
+        when(setOps.pop("uv:dirty", 100)).thenReturn(null);
+
+        assertTrue(counter.popDirty(100).isEmpty());
+    }
+
+    private static byte[] raw(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,33 @@
+package org.xhy.community.infrastructure.email.impl;
+
+import org.junit.jupiter.api.Test;
+import org.xhy.community.domain.notification.valueobject.BatchSendConfig;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 批次重试退避单元测试
+ */
+class AliCloudEmailServiceTest {
+
+    @Test
+    void retryBackoffGrowsFromBatchDelayAndIsCapped() {
+        BatchSendConfig config = new BatchSendConfig();
+        config.setDelayBetweenBatches(1000);
+
+        assertEquals(1000, AliCloudEmailService.retryBackoffMillis(config, 1));
+        assertEquals(2000, AliCloudEmailService.retryBackoffMillis(config, 2));
+        assertEquals(4000, AliCloudEmailService.retryBackoffMillis(config, 3));
+        assertEquals(30_000, AliCloudEmailService.retryBackoffMillis(config, 20));
+    }
+
+    @Test
+    void retryBackoffBaseIsClamped() {
+        BatchSendConfig config = new BatchSendConfig();
+
+        config.setDelayBetweenBatches(0);
+        assertEquals(200, AliCloudEmailService.retryBackoffMillis(config, 1));
+        config.setDelayBetweenBatches(60_000);
+        assertEquals(3000, AliCloudEmailService.retryBackoffMillis(config, 1));
+    }
+}
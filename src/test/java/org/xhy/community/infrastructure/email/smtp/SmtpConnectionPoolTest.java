@@ -0,0 +1,153 @@
+package org.xhy.community.infrastructure.email.smtp;
+
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetup;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.SendFailedException;
+import javax.mail.Session;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SMTP 连接池单元测试（GreenMail 进程内 SMTP 服务器）
+ */
+class SmtpConnectionPoolTest {
+
+    private static final String USER = "sender@example.com";
+    private static final String PASSWORD = "secret";
+
+    private GreenMail greenMail;
+    private Session session;
+    private SimpleMeterRegistry meterRegistry;
+    private SmtpConnectionPool pool;
+
+    @BeforeEach
+    void setUp() {
+        greenMail = new GreenMail(ServerSetupTest.SMTP.dynamicPort());
+        greenMail.setUser(USER, USER, PASSWORD);
+        greenMail.start();
+
+        Properties props = new Properties();
+        props.put("mail.smtp.auth", "true");
+        props.put("mail.smtp.connectiontimeout", "5000");
+        props.put("mail.smtp.timeout", "5000");
+        session = Session.getInstance(props);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+        greenMail.stop();
+    }
+
+    @Test
+    void reusesOneAuthenticatedConnectionForSequentialSends() throws Exception {
+        pool = newPool(greenMail.getSmtp().getPort(), 2, 100);
+
+        for (int i = 0; i < 3; i++) {
+            pool.send(message("user" + i + "@example.com"));
+        }
+
+        assertEquals(3, greenMail.getReceivedMessages().length);
+        assertEquals(1.0, connects("success"));
+        assertEquals(1.0, meterRegistry.get("email.smtp.connections.open").gauge().value());
+    }
+
+    @Test
+    void connectionIsRebuiltAfterMaxMessages() throws Exception {
+        pool = newPool(greenMail.getSmtp().getPort(), 1, 2);
+
+        for (int i = 0; i < 5; i++) {
+            pool.send(message("user" + i + "@example.com"));
+        }
+
+        assertEquals(5, greenMail.getReceivedMessages().length);
+        assertEquals(3.0, connects("success"));
+    }
+
+    @Test
+    void failedSendDiscardsConnection() throws Exception {
+        int port = greenMail.getSmtp().getPort();
+        pool = newPool(port, 1, 100);
+        pool.send(message("first@example.com"));
+
+        // 服务端断开：池中空闲连接发送失败，丢弃而不放回
+        greenMail.stop();
+        assertThrows(MessagingException.class, () -> pool.send(message("lost@example.com")));
+        assertEquals(1.0, meterRegistry.get("email.smtp.messages").tag("result", "failure").counter().count());
+        assertEquals(0.0, meterRegistry.get("email.smtp.connections.open").gauge().value());
+
+        greenMail = new GreenMail(new ServerSetup(port, null, ServerSetup.PROTOCOL_SMTP));
+        greenMail.setUser(USER, USER, PASSWORD);
+        greenMail.start();
+        pool.send(message("second@example.com"));
+        assertEquals(1, greenMail.getReceivedMessages().length);
+        assertEquals(2.0, connects("success"));
+    }
+
+    @Test
+    void messageWithoutRecipientsIsRejectedBeforeBorrowing() throws Exception {
+        pool = newPool(greenMail.getSmtp().getPort(), 1, 100);
+
+        MimeMessage broken = new MimeMessage(session);
+        broken.setFrom(new InternetAddress(USER));
+        broken.setSubject("broken");
+        broken.setText("body");
+
+        assertThrows(SendFailedException.class, () -> pool.send(broken));
+        assertEquals(0.0, connects("success"));
+    }
+
+    @Test
+    void connectFailureReleasesSlot() {
+        int port = greenMail.getSmtp().getPort();
+        greenMail.stop();
+        pool = newPool(port, 1, 100);
+
+        for (int i = 0; i < 3; i++) {
+            MessagingException e = assertThrows(MessagingException.class, () -> pool.send(message("a@example.com")));
+            assertNotEquals("SMTP 连接池槽位耗尽", e.getMessage());
+        }
+        assertEquals(3.0, connects("failure"));
+    }
+
+    @Test
+    void closedPoolRejectsSends() {
+        pool = newPool(greenMail.getSmtp().getPort(), 1, 100);
+        pool.close();
+
+        assertThrows(MessagingException.class, () -> pool.send(message("a@example.com")));
+    }
+
+    private SmtpConnectionPool newPool(int port, int size, int maxMessages) {
+        return new SmtpConnectionPool(session, "127.0.0.1", port, USER, PASSWORD,
+                size, 60_000, maxMessages, meterRegistry);
+    }
+
+    private MimeMessage message(String to) throws MessagingException {
+        MimeMessage message = new MimeMessage(session);
+        message.setFrom(new InternetAddress(USER));
+        message.setRecipient(Message.RecipientType.TO, new InternetAddress(to));
+        message.setSubject("hello");
+        message.setText("body");
+        return message;
+    }
+
+    private double connects(String result) {
+        return meterRegistry.find("email.smtp.connects").tag("result", result).counters().stream()
+                .mapToDouble(c -> c.count()).sum();
+    }
+}
@@ -0,0 +1,78 @@
+package org.xhy.community.infrastructure.email.smtp;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 令牌桶限速单元测试
+ */
+class TokenBucketTest {
+
+    @Test
+    void burstUpToCapacityIsImmediate() throws Exception {
+        TokenBucket bucket = new TokenBucket(1, 5);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            bucket.acquire();
+        }
+
+        assertTrue(elapsedMillis(start) < 100, "elapsed=" + elapsedMillis(start));
+    }
+
+    @Test
+    void sustainedAcquiresArePacedToRate() throws Exception {
+        TokenBucket bucket = new TokenBucket(20, 2);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 2 + 6; i++) {
+            bucket.acquire();
+        }
+
+        // 突发 2 个之后，6 个令牌按 20/s 补充，约 300ms
+        long elapsed = elapsedMillis(start);
+        assertTrue(elapsed >= 250, "elapsed=" + elapsed);
+        assertTrue(elapsed < 1_500, "elapsed=" + elapsed);
+    }
+
+    @Test
+    void idleTimeRefillsButNotBeyondCapacity() throws Exception {
+        TokenBucket bucket = new TokenBucket(10, 3);
+        for (int i = 0; i < 3; i++) {
+            bucket.acquire();
+        }
+
+        // 空闲 500ms 可补充 5 个令牌，但最多攒满容量 3 个
+        Thread.sleep(500);
+        long start = System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            bucket.acquire();
+        }
+        assertTrue(elapsedMillis(start) < 50, "elapsed=" + elapsedMillis(start));
+
+        start = System.nanoTime();
+        bucket.acquire();
+        assertTrue(elapsedMillis(start) >= 50, "elapsed=" + elapsedMillis(start));
+    }
+
+    @Test
+    void interruptStopsWaiting() throws Exception {
+        TokenBucket bucket = new TokenBucket(0.01, 1);
+        bucket.acquire();
+
+        Thread waiter = new Thread(() -> assertThrows(InterruptedException.class, bucket::acquire));
+        waiter.start();
+        Thread.sleep(50);
+        waiter.interrupt();
+        waiter.join(TimeUnit.SECONDS.toMillis(2));
+
+        assertFalse(waiter.isAlive());
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+}
@@ -0,0 +1,45 @@
+package org.xhy.community.infrastructure.event;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xhy.community.domain.common.event.UnreadChangedEvent;
+import org.xhy.community.domain.notification.event.NotificationDeliveredEvent;
+import org.xhy.community.domain.notification.valueobject.NotificationType;
+import org.xhy.community.infrastructure.push.SsePushHub;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class SsePushEventListenerTest {
+
+    private SsePushHub ssePushHub;
+    private SsePushEventListener listener;
+
+    @BeforeEach
+    void setUp() {
+        ssePushHub = mock(SsePushHub.class);
+        listener = new SsePushEventListener(ssePushHub);
+    }
+
+    @Test
+    void deliveredNotificationIsPushedToItsRecipients() {
+        listener.onNotificationDelivered(new NotificationDeliveredEvent(List.of("u1", "u2"), "m1",
+                NotificationType.FOLLOWED_USER_POST, "title"));
+
+        verify(ssePushHub).publish(eq(List.of("u1", "u2")), eq(SsePushHub.EVENT_NOTIFICATION),
+                eq(Map.of("messageId", "m1", "type", "FOLLOWED_USER_POST", "title", "title")));
+    }
+
+    @Test
+    void unreadDeltaAndCountMapToTheirPayloads() {
+        listener.onUnreadChanged(UnreadChangedEvent.delta("u1", UnreadChangedEvent.CHANNEL_NOTIFICATIONS, -1));
+        listener.onUnreadChanged(UnreadChangedEvent.count("u1", "POSTS", 0));
+
+        verify(ssePushHub).publish(List.of("u1"), SsePushHub.EVENT_UNREAD,
+                SsePushHub.unreadDelta(SsePushHub.CHANNEL_NOTIFICATIONS, -1));
+        verify(ssePushHub).publish(List.of("u1"), SsePushHub.EVENT_UNREAD, SsePushHub.unreadCount("POSTS", 0));
+    }
+}
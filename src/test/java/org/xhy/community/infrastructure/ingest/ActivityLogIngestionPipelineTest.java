@@ -0,0 +1,92 @@
+package org.xhy.community.infrastructure.ingest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.xhy.community.domain.log.entity.UserActivityLogEntity;
+import org.xhy.community.domain.log.service.UserActivityLogDomainService;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class ActivityLogIngestionPipelineTest {
+
+    private UserActivityLogDomainService domainService;
+    private SimpleMeterRegistry registry;
+    private ActivityLogIngestionPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        domainService = mock(UserActivityLogDomainService.class);
+        registry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (pipeline != null) {
+            pipeline.shutdown();
+        }
+    }
+
+    @Test
+    void submitBeforeStartIsDroppedAsClosed() {
+        pipeline = new ActivityLogIngestionPipeline(domainService, registry, 10, 2, 10);
+
+        assertFalse(pipeline.submit(new UserActivityLogEntity()));
+        assertEquals(1.0, registry.get("activity.log.ingest.dropped").tag("reason", "closed").counter().count());
+        pipeline = null;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void fullBatchesAreWrittenTogether() {
+        pipeline = new ActivityLogIngestionPipeline(domainService, registry, 100, 2, 60_000);
+        pipeline.start();
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(pipeline.submit(new UserActivityLogEntity()));
+        }
+
+        ArgumentCaptor<List<UserActivityLogEntity>> batches = ArgumentCaptor.forClass(List.class);
+        verify(domainService, timeout(5_000).times(2)).recordActivities(batches.capture());
+        batches.getAllValues().forEach(batch -> assertEquals(2, batch.size()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void overflowIsDroppedAndRemainderIsFlushedOnShutdown() {
+        pipeline = new ActivityLogIngestionPipeline(domainService, registry, 2, 200, 60_000);
+        pipeline.start();
+
+        assertTrue(pipeline.submit(new UserActivityLogEntity()));
+        assertTrue(pipeline.submit(new UserActivityLogEntity()));
+        assertFalse(pipeline.submit(new UserActivityLogEntity()));
+        assertEquals(1.0, registry.get("activity.log.ingest.dropped").tag("reason", "queue_full").counter().count());
+
+        pipeline.shutdown();
+        pipeline = null;
+
+        ArgumentCaptor<List<UserActivityLogEntity>> batch = ArgumentCaptor.forClass(List.class);
+        verify(domainService).recordActivities(batch.capture());
+        assertEquals(2, batch.getValue().size());
+    }
+
+    @Test
+    void failedBatchIsCountedAsDropped() {
+        doThrow(new RuntimeException("db down")).when(domainService).recordActivities(anyList());
+        pipeline = new ActivityLogIngestionPipeline(domainService, registry, 10, 1, 10);
+        pipeline.start();
+
+        pipeline.submit(new UserActivityLogEntity());
+
+        verify(domainService, timeout(5_000)).recordActivities(anyList());
+        pipeline.shutdown();
+        pipeline = null;
+        assertEquals(1.0, registry.get("activity.log.ingest.dropped").tag("reason", "write_failed").counter().count());
+    }
+}
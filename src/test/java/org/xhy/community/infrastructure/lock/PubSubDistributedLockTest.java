@@ -0,0 +1,131 @@
+package org.xhy.community.infrastructure.lock;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.listener.Topic;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class PubSubDistributedLockTest {
+
+    private StringRedisTemplate redis;
+    private SimpleMeterRegistry meterRegistry;
+    private MessageListener listener;
+    private PubSubDistributedLock lock;
+
+    /** 按脚本类型返回结果：acquire / release / renew / cancel */
+    private Function<String, Long> acquireReply;
+    private final AtomicInteger acquireCalls = new AtomicInteger();
+    private final AtomicInteger renewCalls = new AtomicInteger();
+    private final AtomicInteger releaseCalls = new AtomicInteger();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redis = mock(StringRedisTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+        acquireReply = key -> 0L;
+        when(redis.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenAnswer(inv -> {
+            String script = ((RedisScript<?>) inv.getArgument(0)).getScriptAsString();
+            List<String> keys = inv.getArgument(1);
+            if (script.contains("'set', KEYS[1], ARGV[1], 'PX'")) {
+                acquireCalls.incrementAndGet();
+                return acquireReply.apply(keys.get(0));
+            }
+            if (script.contains("pexpire', KEYS[1], ARGV[2]")) {
+                renewCalls.incrementAndGet();
+                return 1L;
+            }
+            if (script.contains("'del', KEYS[1]")) {
+                releaseCalls.incrementAndGet();
+            }
+            return 1L;
+        });
+        RedisMessageListenerContainer container = mock(RedisMessageListenerContainer.class);
+        lock = new PubSubDistributedLock(redis, container, meterRegistry, false, true);
+        ArgumentCaptor<MessageListener> captor = ArgumentCaptor.forClass(MessageListener.class);
+        verify(container).addMessageListener(captor.capture(), any(Topic.class));
+        listener = captor.getValue();
+    }
+
+    @AfterEach
+    void tearDown() {
+        lock.shutdown();
+    }
+
+    @Test
+    void acquiresRunsAndReleases() {
+        String result = lock.executeWithLock("lock:task:a", Duration.ofSeconds(1), Duration.ofSeconds(30), () -> "done");
+
+        assertEquals("done", result);
+        assertEquals(1, acquireCalls.get());
+        assertEquals(1, releaseCalls.get());
+    }
+
+    @Test
+    void waiterIsWokenByReleaseBroadcastBeforeLeaseHint() throws Exception {
+        // 第一次返回锁剩余 60s，之后获取成功：只有收到释放广播才能在等待上限内拿到锁
+        acquireReply = key -> acquireCalls.get() == 1 ? 60_000L : 0L;
+
+        CompletableFuture<String> waiter = CompletableFuture.supplyAsync(() ->
+                lock.executeWithLock("lock:task:b", Duration.ofSeconds(5), Duration.ofSeconds(30), () -> "ok"));
+        while (acquireCalls.get() < 1) {
+            Thread.sleep(5);
+        }
+        Thread.sleep(50);
+        listener.onMessage(new DefaultMessage("lock:released".getBytes(StandardCharsets.UTF_8),
+                "lock:task:b".getBytes(StandardCharsets.UTF_8)), null);
+
+        assertEquals("ok", waiter.get(2, TimeUnit.SECONDS));
+        assertEquals(1.0, meterRegistry.get("lock.contended").tag("prefix", "lock:task:b").counter().count());
+    }
+
+    @Test
+    void giveUpAfterWaitTime() {
+        acquireReply = key -> 20L;
+
+        assertThrows(IllegalStateException.class, () ->
+                lock.executeWithLock("lock:task:c", Duration.ofMillis(100), Duration.ofSeconds(30), () -> "never"));
+        assertEquals(1.0, meterRegistry.get("lock.acquire.timeout").counter().count());
+        assertEquals(0, releaseCalls.get());
+    }
+
+    @Test
+    void watchdogRenewsLeaseWhileHolding() {
+        lock.executeWithLock("lock:task:d", Duration.ofSeconds(1), Duration.ofMillis(300), () -> {
+            try {
+                Thread.sleep(400);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        });
+
+        assertTrue(renewCalls.get() >= 2, "renewals=" + renewCalls.get());
+    }
+
+    @Test
+    void metricPrefixDropsDynamicSegments() {
+        assertEquals("lock:user:subscription", PubSubDistributedLock.prefixOf("lock:user:subscription:123456"));
+        assertEquals("lock:task:metrics", PubSubDistributedLock.prefixOf("lock:task:metrics"));
+    }
+}
@@ -0,0 +1,157 @@
+package org.xhy.community.infrastructure.push;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.listener.Topic;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class SsePushHubTest {
+
+    private StringRedisTemplate redis;
+    private SimpleMeterRegistry meterRegistry;
+    private MessageListener listener;
+    private SsePushHub hub;
+
+    @BeforeEach
+    void setUp() {
+        redis = mock(StringRedisTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+        RedisMessageListenerContainer container = mock(RedisMessageListenerContainer.class);
+        hub = new SsePushHub(redis, new ObjectMapper(), container, meterRegistry, 30, 64, 5, 100, 1);
+        ArgumentCaptor<MessageListener> captor = ArgumentCaptor.forClass(MessageListener.class);
+        verify(container).addMessageListener(captor.capture(), any(Topic.class));
+        listener = captor.getValue();
+    }
+
+    @AfterEach
+    void tearDown() {
+        hub.shutdown();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void closeUserMessageFromAnotherNodeClosesOnlyThatUsersConnections() throws Exception {
+        hub.open("u1", SsePushHub.EVENT_SUMMARY, Map.of());
+        hub.open("u1", SsePushHub.EVENT_SUMMARY, Map.of());
+        hub.open("u2", SsePushHub.EVENT_SUMMARY, Map.of());
+        ArgumentCaptor<String> body = ArgumentCaptor.forClass(String.class);
+
+        hub.closeUser("u1");
+        verify(redis).convertAndSend(anyString(), body.capture());
+        listener.onMessage(new DefaultMessage("push:events".getBytes(StandardCharsets.UTF_8),
+                body.getValue().getBytes(StandardCharsets.UTF_8)), null);
+
+        assertEquals(1.0, connections());
+    }
+
+    @Test
+    void closeUserFallsBackToLocalConnectionsWhenRedisIsDown() {
+        doThrow(new RuntimeException("down")).when(redis).convertAndSend(anyString(), anyString());
+        hub.open("u1", SsePushHub.EVENT_SUMMARY, Map.of());
+
+        hub.closeUser("u1");
+
+        assertEquals(0.0, connections());
+    }
+
+    @Test
+    void publishIsSentImmediatelyEvenInsideTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        hub.publish(List.of("u1"), SsePushHub.EVENT_UNREAD, SsePushHub.unreadDelta("POSTS", 1));
+
+        verify(redis).convertAndSend(eq("push:events"), anyString());
+    }
+
+    @Test
+    void broadcastWritesIdenticalFramesToEveryConnection() throws Exception {
+        RedisMessageListenerContainer container = mock(RedisMessageListenerContainer.class);
+        SsePushHub recordingHub = new SsePushHub(redis, new ObjectMapper(), container,
+                new SimpleMeterRegistry(), 30, 64, 5, 100, 4) {
+            @Override
+            SseEmitter newEmitter(long timeoutMillis) {
+                return new RecordingEmitter(timeoutMillis);
+            }
+        };
+        try {
+            List<RecordingEmitter> emitters = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                emitters.add((RecordingEmitter) recordingHub.open("u" + i, SsePushHub.EVENT_SUMMARY, "s"));
+            }
+            ArgumentCaptor<String> body = ArgumentCaptor.forClass(String.class);
+            recordingHub.broadcast(SsePushHub.EVENT_NOTIFICATION, "n1");
+            verify(redis).convertAndSend(eq("push:events"), body.capture());
+            ArgumentCaptor<MessageListener> recordingListener = ArgumentCaptor.forClass(MessageListener.class);
+            verify(container).addMessageListener(recordingListener.capture(), any(Topic.class));
+            recordingListener.getValue().onMessage(new DefaultMessage("push:events".getBytes(StandardCharsets.UTF_8),
+                    body.getValue().getBytes(StandardCharsets.UTF_8)), null);
+
+            String expected = "event:summary\ndata:s\n\n"
+                    + "event:notification\ndata:n1\n\n";
+            for (RecordingEmitter emitter : emitters) {
+                assertEquals(expected, emitter.awaitFrames(expected.length()));
+            }
+        } finally {
+            recordingHub.shutdown();
+        }
+    }
+
+    private double connections() {
+        return meterRegistry.get("push.sse.connections").gauge().value();
+    }
+
+    /**
+     * 记录写出内容的 SseEmitter（不依赖 Servlet 响应）
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+        private final StringBuilder frames = new StringBuilder();
+
+        RecordingEmitter(long timeout) {
+            super(timeout);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            Set<DataWithMediaType> items = builder.build();
+            synchronized (frames) {
+                items.forEach(item -> frames.append(item.getData()));
+                frames.notifyAll();
+            }
+        }
+
+        String awaitFrames(int length) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5000;
+            synchronized (frames) {
+                while (frames.length() < length && System.currentTimeMillis() < deadline) {
+                    frames.wait(100);
+                }
+                // 多等一会，确认没有多余内容
+                frames.wait(50);
+                return frames.toString();
+            }
+        }
+    }
+}
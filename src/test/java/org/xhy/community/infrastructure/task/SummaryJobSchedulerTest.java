@@ -0,0 +1,154 @@
+package org.xhy.community.infrastructure.task;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 摘要任务防抖合并与并发限制单元测试
+ */
+class SummaryJobSchedulerTest {
+
+    private SummaryJobScheduler scheduler;
+
+    @AfterEach
+    void tearDown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    void burstIsCoalescedIntoOneRunOfTheLatestJob() throws Exception {
+        scheduler = new SummaryJobScheduler(new SimpleMeterRegistry(), 100, 5_000, 2, 20);
+        List<Integer> runs = new CopyOnWriteArrayList<>();
+
+        for (int i = 0; i < 5; i++) {
+            int version = i;
+            scheduler.submit("post:1", () -> runs.add(version));
+        }
+
+        awaitTrue(() -> !runs.isEmpty());
+        Thread.sleep(300);
+        assertEquals(List.of(4), runs);
+    }
+
+    @Test
+    void continuousEventsRunNoLaterThanMaxDelay() throws Exception {
+        scheduler = new SummaryJobScheduler(new SimpleMeterRegistry(), 100, 300, 2, 20);
+        AtomicInteger runs = new AtomicInteger();
+
+        long start = System.currentTimeMillis();
+        long firstRunAt = -1;
+        while (System.currentTimeMillis() - start < 1_000) {
+            scheduler.submit("post:1", runs::incrementAndGet);
+            if (firstRunAt < 0 && runs.get() > 0) {
+                firstRunAt = System.currentTimeMillis() - start;
+            }
+            Thread.sleep(30);
+        }
+
+        assertTrue(firstRunAt > 0 && firstRunAt < 800, "firstRunAt=" + firstRunAt);
+    }
+
+    @Test
+    void distinctKeysRunSeparately() throws Exception {
+        scheduler = new SummaryJobScheduler(new SimpleMeterRegistry(), 50, 5_000, 2, 20);
+        List<String> runs = new CopyOnWriteArrayList<>();
+
+        scheduler.submit("post:1", () -> runs.add("post:1"));
+        scheduler.submit("chapter:1", () -> runs.add("chapter:1"));
+
+        awaitTrue(() -> runs.size() == 2);
+        assertTrue(runs.containsAll(List.of("post:1", "chapter:1")));
+    }
+
+    @Test
+    void inFlightLimitHoldsOtherKeysUntilSlotFrees() throws Exception {
+        scheduler = new SummaryJobScheduler(new SimpleMeterRegistry(), 20, 5_000, 1, 20);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger concurrent = new AtomicInteger();
+        AtomicInteger maxConcurrent = new AtomicInteger();
+        AtomicInteger finished = new AtomicInteger();
+        Runnable job = () -> {
+            maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            try {
+                release.await(2, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            concurrent.decrementAndGet();
+            finished.incrementAndGet();
+        };
+
+        scheduler.submit("post:1", job);
+        scheduler.submit("post:2", job);
+        awaitTrue(() -> concurrent.get() == 1);
+        Thread.sleep(150);
+        assertEquals(0, finished.get());
+
+        release.countDown();
+        awaitTrue(() -> finished.get() == 2);
+        assertEquals(1, maxConcurrent.get());
+    }
+
+    @Test
+    void eventDuringRunSchedulesExactlyOneRerun() throws Exception {
+        scheduler = new SummaryJobScheduler(new SimpleMeterRegistry(), 50, 5_000, 2, 20);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+
+        scheduler.submit("post:1", () -> {
+            runs.incrementAndGet();
+            started.countDown();
+            try {
+                release.await(2, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+        scheduler.submit("post:1", runs::incrementAndGet);
+        scheduler.submit("post:1", runs::incrementAndGet);
+        release.countDown();
+
+        awaitTrue(() -> runs.get() == 2);
+        Thread.sleep(200);
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    void failingJobDoesNotBlockLaterSubmissions() throws Exception {
+        scheduler = new SummaryJobScheduler(new SimpleMeterRegistry(), 30, 5_000, 1, 20);
+        AtomicInteger runs = new AtomicInteger();
+
+        scheduler.submit("post:1", () -> {
+            runs.incrementAndGet();
+            throw new IllegalStateException("llm down");
+        });
+        awaitTrue(() -> runs.get() == 1);
+        scheduler.submit("post:1", runs::incrementAndGet);
+
+        awaitTrue(() -> runs.get() == 2);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 3_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("condition not met in time");
+            }
+            Thread.sleep(10);
+        }
+    }
+}
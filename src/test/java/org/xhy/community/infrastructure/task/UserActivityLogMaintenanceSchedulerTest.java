@@ -0,0 +1,70 @@
+package org.xhy.community.infrastructure.task;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xhy.community.domain.log.port.DistinctViewerCounterPort;
+import org.xhy.community.domain.log.repository.DistinctViewerCountRepository;
+import org.xhy.community.domain.log.repository.UserActivityLogPartitionRepository;
+import org.xhy.community.domain.log.repository.UserActivityLogRepository;
+import org.xhy.community.domain.log.service.UserActivityLogDomainService;
+import org.xhy.community.domain.log.service.UserActivityStatDomainService;
+import org.xhy.community.infrastructure.lock.DistributedLock;
+
+import java.time.LocalDate;
+import java.util.function.Supplier;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class UserActivityLogMaintenanceSchedulerTest {
+
+    private UserActivityLogPartitionRepository partitionRepository;
+    private UserActivityLogDomainService domainService;
+    private UserActivityStatDomainService statDomainService;
+    private DistributedLock lock;
+
+    @BeforeEach
+    void setUp() {
+        partitionRepository = mock(UserActivityLogPartitionRepository.class);
+        statDomainService = mock(UserActivityStatDomainService.class);
+        lock = mock(DistributedLock.class);
+        when(lock.executeWithLock(anyString(), any(), any(), any()))
+                .thenAnswer(inv -> ((Supplier<?>) inv.getArgument(3)).get());
+        domainService = new UserActivityLogDomainService(mock(UserActivityLogRepository.class),
+                mock(DistinctViewerCountRepository.class), partitionRepository,
+                mock(DistinctViewerCounterPort.class), lock);
+    }
+
+    @Test
+    void retentionDisabledOnlyCreatesPartitions() {
+        new UserActivityLogMaintenanceScheduler(domainService, statDomainService, lock, 3, 0, true).maintain();
+
+        verify(partitionRepository).ensurePartitions(3);
+        verify(partitionRepository, never()).dropPartitionsBefore(any(), anyBoolean());
+    }
+
+    @Test
+    void rollsUpThePreviousTwoDays() {
+        new UserActivityLogMaintenanceScheduler(domainService, statDomainService, lock, 3, 0, true).maintain();
+
+        LocalDate today = LocalDate.now();
+        verify(statDomainService).rollupDay(today.minusDays(2));
+        verify(statDomainService).rollupDay(today.minusDays(1));
+        verify(statDomainService, never()).rollupDay(today);
+    }
+
+    @Test
+    void retentionDetachesMonthsBeforeCutoff() {
+        new UserActivityLogMaintenanceScheduler(domainService, statDomainService, lock, 3, 12, true).maintain();
+
+        LocalDate cutoff = LocalDate.now().withDayOfMonth(1).minusMonths(11);
+        verify(partitionRepository).dropPartitionsBefore(cutoff, true);
+    }
+
+    @Test
+    void dropOnlyWhenExplicitlyConfigured() {
+        new UserActivityLogMaintenanceScheduler(domainService, statDomainService, lock, 3, 6, false).maintain();
+
+        verify(partitionRepository).dropPartitionsBefore(LocalDate.now().withDayOfMonth(1).minusMonths(5), false);
+    }
+}